@@ -0,0 +1,172 @@
+package fr.imt.ales.msr.Checkpoint;
+
+import fr.imt.ales.msr.FileWritersReaders.NDJSONReader;
+import fr.imt.ales.msr.FileWritersReaders.NDJSONWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persistent journal of the progress of a mining job, used to resume the job where it stopped after a failure.
+ * The journal records the tasks completed (e.g. the extraction of the commits of a repository) and, for each pagination
+ * chain, the URL of the next page to request with the size of the output file when the previous page was written.
+ * Each record is a line of a NDJSON file synchronized on the disk before the method returns, the state is rebuilt
+ * by replaying the records when the journal is opened.
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class CheckpointJournal implements Closeable {
+    private final static Logger logger = LogManager.getLogger(CheckpointJournal.class);
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_KEY = "key";
+    private static final String FIELD_NEXT_PAGE_URL = "next_page_url";
+    private static final String FIELD_OUTPUT_OFFSET = "output_offset";
+    private static final String TYPE_COMPLETED = "completed";
+    private static final String TYPE_PAGE = "page";
+
+    private final Path pathJournal;
+    private final Set<String> completedKeys = new HashSet<>();
+    private final Map<String, PageCheckpoint> pageCheckpoints = new HashMap<>();
+    private final NDJSONWriter ndjsonWriter;
+
+    /**
+     * Opens a journal, the records of a previous run are replayed
+     * @param pathJournal Path of the journal, it is created if it does not exist
+     * @throws IOException Thrown when the journal cannot be read or opened
+     */
+    public CheckpointJournal(String pathJournal) throws IOException {
+        this.pathJournal = Paths.get(pathJournal);
+        if(Files.isRegularFile(this.pathJournal)){
+            long nbRecords = new NDJSONReader().forEachItem(this.pathJournal, record -> {
+                replay((JSONObject) record);
+                return true;
+            });
+            logger.info("Checkpoint journal " + pathJournal + " : " + nbRecords + " records, " + completedKeys.size() + " tasks completed");
+        }
+        ndjsonWriter = new NDJSONWriter(this.pathJournal, true, 1);
+    }
+
+    /**
+     * Applies a record of the journal on the state
+     * @param record Record read
+     */
+    private void replay(JSONObject record){
+        String key = record.getString(FIELD_KEY);
+        switch (record.getString(FIELD_TYPE)){
+            case TYPE_COMPLETED:
+                completedKeys.add(key);
+                pageCheckpoints.remove(key);
+                break;
+            case TYPE_PAGE:
+                pageCheckpoints.put(key, new PageCheckpoint(record.getString(FIELD_NEXT_PAGE_URL), record.getLong(FIELD_OUTPUT_OFFSET)));
+                break;
+            default:
+                logger.warn("Unknown record in the checkpoint journal : " + record);
+                break;
+        }
+    }
+
+    /**
+     * Indicates if a task has been completed
+     * @param key Key of the task (e.g. "commits https://api.github.com/repos/octocat/Hello-World")
+     * @return true if the task has been recorded as completed
+     */
+    public synchronized boolean isCompleted(String key){
+        return completedKeys.contains(key);
+    }
+
+    /**
+     * Records a task as completed, its page checkpoint is forgotten
+     * @param key Key of the task
+     * @throws IOException Thrown when the journal cannot be written
+     */
+    public synchronized void recordCompleted(String key) throws IOException {
+        ndjsonWriter.writeItem(new JSONObject().put(FIELD_TYPE, TYPE_COMPLETED).put(FIELD_KEY, key));
+        completedKeys.add(key);
+        pageCheckpoints.remove(key);
+    }
+
+    /**
+     * Returns the last checkpoint of a pagination chain
+     * @param key Key of the pagination chain
+     * @return PageCheckpoint recorded, null if the chain has not been started or has been completed
+     */
+    public synchronized PageCheckpoint getPageCheckpoint(String key){
+        return pageCheckpoints.get(key);
+    }
+
+    /**
+     * Records the progress of a pagination chain after the writing of a page
+     * @param key Key of the pagination chain
+     * @param nextPageUrl URL of the next page to request
+     * @param outputOffset Size of the output file containing the items of the pages already handled
+     * @throws IOException Thrown when the journal cannot be written
+     */
+    public synchronized void recordPage(String key, String nextPageUrl, long outputOffset) throws IOException {
+        ndjsonWriter.writeItem(new JSONObject().put(FIELD_TYPE, TYPE_PAGE).put(FIELD_KEY, key)
+                .put(FIELD_NEXT_PAGE_URL, nextPageUrl).put(FIELD_OUTPUT_OFFSET, outputOffset));
+        pageCheckpoints.put(key, new PageCheckpoint(nextPageUrl, outputOffset));
+    }
+
+    /**
+     * Getter for the path of the journal
+     * @return Path of the journal
+     */
+    public Path getPathJournal() {
+        return pathJournal;
+    }
+
+    /**
+     * Closes the journal
+     * @throws IOException Thrown when the journal cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        ndjsonWriter.close();
+    }
+
+    /**
+     * Progress of a pagination chain
+     */
+    public static class PageCheckpoint {
+        private final String nextPageUrl;
+        private final long outputOffset;
+
+        /**
+         * Constructor of a page checkpoint
+         * @param nextPageUrl URL of the next page to request
+         * @param outputOffset Size of the output file when the checkpoint has been recorded
+         */
+        public PageCheckpoint(String nextPageUrl, long outputOffset) {
+            this.nextPageUrl = nextPageUrl;
+            this.outputOffset = outputOffset;
+        }
+
+        /**
+         * Getter for the URL of the next page to request
+         * @return String URL of the next page
+         */
+        public String getNextPageUrl() {
+            return nextPageUrl;
+        }
+
+        /**
+         * Getter for the size of the output file when the checkpoint has been recorded, the items written after
+         * belong to a page which has not been recorded and must be removed before resuming
+         * @return Long size of the output file
+         */
+        public long getOutputOffset() {
+            return outputOffset;
+        }
+    }
+}
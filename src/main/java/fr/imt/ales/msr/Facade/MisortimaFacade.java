@@ -1,38 +1,69 @@
 package fr.imt.ales.msr.Facade;
 
+import fr.imt.ales.msr.Checkpoint.CheckpointJournal;
+import fr.imt.ales.msr.FileWritersReaders.ColumnarSnapshot;
+import fr.imt.ales.msr.FileWritersReaders.CommitTimeIndex;
+import fr.imt.ales.msr.FileWritersReaders.ColumnarSnapshotWriter;
+import fr.imt.ales.msr.FileWritersReaders.Compression;
 import fr.imt.ales.msr.FileWritersReaders.FileReaderJSON;
 import fr.imt.ales.msr.FileWritersReaders.FileWriterJSON;
+import fr.imt.ales.msr.FileWritersReaders.NDJSONReader;
+import fr.imt.ales.msr.FileWritersReaders.NDJSONWriter;
+import fr.imt.ales.msr.GithubClient.CloneResult;
 import fr.imt.ales.msr.GithubClient.GitRepositoryNotInitializedException;
 import fr.imt.ales.msr.GithubClient.GithubGitClient;
 import fr.imt.ales.msr.GithubClient.GithubHttpClient;
+import fr.imt.ales.msr.GithubClient.GithubHttpTransport;
+import fr.imt.ales.msr.GithubClient.GithubResponseCache;
+import fr.imt.ales.msr.ProjectMetrics.ProjectMetrics;
+import fr.imt.ales.msr.ProjectMetrics.ProjectMetricsExtractor;
+import fr.imt.ales.msr.RawDataFilters.BatchFilter;
+import fr.imt.ales.msr.RawDataFilters.DuplicateFilter;
+import fr.imt.ales.msr.RawDataFilters.FilterResult;
+import fr.imt.ales.msr.RawDataFilters.IssueFilter;
 import fr.imt.ales.msr.RawDataFilters.RawDataFilter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.util.io.LimitedInputStream;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 /**
  * Facade class to simplify the using of features in MiSo
  */
 public class MisortimaFacade {
+    private final static Logger logger = LogManager.getLogger(MisortimaFacade.class);
+
     private FileReaderJSON fileReaderJSON;
     private FileWriterJSON fileWriterJSON;
     private GithubGitClient githubGitClient;
     private GithubHttpClient githubHttpClient;
     private RawDataFilter rawDataFilter;
+    private BatchFilter batchFilter;
+    private ProjectMetricsExtractor projectMetricsExtractor;
+    private CheckpointJournal checkpointJournal;
+    private boolean ndjsonOutput = false;
+    private boolean compressedOutput = false;
 
     /**
      * Constructor of facade to encapsulate the other constructors of the attribute
@@ -44,6 +75,100 @@ public class MisortimaFacade {
         githubHttpClient = new GithubHttpClient();
         githubGitClient   = new GithubGitClient();
         rawDataFilter = new RawDataFilter();
+        batchFilter = new BatchFilter(rawDataFilter);
+        projectMetricsExtractor = new ProjectMetricsExtractor();
+    }
+
+    /**
+     * Replaces the HTTP client used to request the Github API by a client built with the given transport settings,
+     * the previous client is closed
+     * @param githubHttpTransport Settings of the pool of connections, the timeouts and the compression
+     */
+    public void setHttpTransport(GithubHttpTransport githubHttpTransport){
+        githubHttpClient.setHttpClient(githubHttpTransport.build());
+    }
+
+    /**
+     * Enables the on-disk cache of the responses of the Github API : each request is revalidated with the ETag stored,
+     * so the data which has not changed since the last mining is read from the cache without consuming the rate limit
+     * @param pathCacheDirectory Path of the directory storing the responses
+     * @throws IOException Thrown when the directory cannot be created
+     */
+    public void enableResponseCache(String pathCacheDirectory) throws IOException {
+        githubHttpClient.setResponseCache(new GithubResponseCache(pathCacheDirectory));
+    }
+
+    /**
+     * Adds personal access tokens to authenticate the requests on the Github API,
+     * each request uses the token with the most requests remaining
+     * @param tokens List of personal access tokens
+     */
+    public void addGithubTokens(List<String> tokens){
+        for (String token : tokens) {
+            githubHttpClient.addToken(token);
+        }
+    }
+
+    /**
+     * Enables or disables the pacing of the requests on the Github API : the requests remaining are spread evenly until
+     * the reset of the rate limit instead of being consumed in a burst followed by a long wait. The pacing is enabled by default.
+     * @param pacingEnabled true to pace the requests, false to consume them in a burst
+     */
+    public void setRequestPacing(boolean pacingEnabled){
+        githubHttpClient.getGithubAPILimitManager().setPacingEnabled(pacingEnabled);
+    }
+
+    /**
+     * Sets the number of pages requested at the same time on the Github API for the lists of tags, commits and issues
+     * @param nbParallelRequests Integer number of parallel requests, 1 to request the pages one after the other
+     */
+    public void setNbParallelRequests(int nbParallelRequests){
+        githubHttpClient.setNbParallelRequests(nbParallelRequests);
+    }
+
+    /**
+     * Sets the journal recording the progress of the extractions : the repositories already extracted are skipped
+     * and the lists appended to NDJSON files resume at the last page written
+     * @param checkpointJournal Journal opened, null to disable the checkpoints
+     */
+    public void setCheckpointJournal(CheckpointJournal checkpointJournal){
+        this.checkpointJournal = checkpointJournal;
+    }
+
+    /**
+     * Selects the format of the files written by txtfileReposToCommitTagIssuesList
+     * @param ndjsonOutput true to append the items to NDJSON files as they are received, false to write JSON files
+     */
+    public void setNDJSONOutput(boolean ndjsonOutput){
+        this.ndjsonOutput = ndjsonOutput;
+    }
+
+    /**
+     * Compresses with gzip the JSON files written by txtfileReposToCommitTagIssuesList (extension ".json.gz"),
+     * the readers decompress them transparently. The NDJSON files are never compressed.
+     * @param compressedOutput true to compress the JSON files
+     */
+    public void setCompressedOutput(boolean compressedOutput){
+        this.compressedOutput = compressedOutput;
+    }
+
+    /**
+     * Sets the level of compression of the JSON files written with the extension ".gz"
+     * @param compressionLevel Level between 0 (no compression) and 9 (best compression), or -1 for the default level
+     */
+    public void setCompressionLevel(int compressionLevel){
+        fileWriterJSON.setCompressionLevel(compressionLevel);
+    }
+
+    /**
+     * Indicates if the output file of a pagination chain must be kept : the chain has been interrupted and is resumed,
+     * or it has already been completed
+     * @param checkpointKey Key of the chain in the checkpoint journal
+     * @return true if a journal is set and contains a checkpoint for the chain
+     */
+    private boolean hasCheckpoint(String checkpointKey){
+        return checkpointJournal != null
+                && (checkpointJournal.isCompleted(checkpointKey) || checkpointJournal.getPageCheckpoint(checkpointKey) != null);
     }
 
     /**
@@ -79,20 +204,61 @@ public class MisortimaFacade {
     }
     
     /**
-     * Gets the commit bounded from the Github API and writes the result in a json file at the specific path given
-     * @param tagURL  tags URL to request
+     * Gets the items of a list (tags, commits, issues...) from the Github API and appends them to a newline-delimited
+     * JSON file (NDJSON) as soon as each page is received, one item per line.
+     * When a checkpoint journal is set, an interrupted extraction resumes at the last page written
+     * @param URL URL to request
      * @param path Path to store the file
-     * @param filename Filename of the JSON file
+     * @param filename Filename of the NDJSON file
+     * @param append true to keep the items already in the file, false to replace them
+     * @return Long number of items written
      * @throws InterruptedException
-     * @throws IOException IOException thrown when an error occurred during the writing of the JSON file
+     * @throws IOException IOException thrown when an error occurred during the writing of the NDJSON file
      * @throws URISyntaxException URISyntaxException thrown when the URL is malformed
      */
-//    public void extractAndSaveJSONCommitBoundFromURL(String tagURL, String path, String filename)
-//            throws InterruptedException, IOException, URISyntaxException {
-//    	JSONObject obj = githubHttpClient.getCommitBoundedJson(tagURL, new JSONObject(), "", );
-//    	//System.out.println(obj.toString());
-//        fileWriterJSON.writeJsonFile(obj,path,filename);
-//    }
+    public long extractAndAppendItemsToNDJSON(String URL, String path, String filename, boolean append)
+            throws InterruptedException, IOException, URISyntaxException {
+        String checkpointKey = URL + " " + Paths.get(path, filename);
+        try (NDJSONWriter ndjsonWriter = fileWriterJSON.openNDJSONWriter(path, filename, append || hasCheckpoint(checkpointKey))) {
+            if(checkpointJournal != null)
+                return githubHttpClient.appendItemsToNDJSON(checkpointKey, URL,
+                        GithubHttpClient.UNLIMITED_PAGES, ndjsonWriter, checkpointJournal);
+            return githubHttpClient.appendItemsToNDJSON(URL, GithubHttpClient.UNLIMITED_PAGES, ndjsonWriter);
+        }
+    }
+
+    /**
+     * Gets the commits of a repository committed in a window of time from the Github API and writes them in a file at
+     * the specific path given. The window, the branch and the path are sent to the API and the pagination stops as soon
+     * as the lower bound is passed. The commits are written one per line when the file is a NDJSON file
+     * (extension ".ndjson" or ".jsonl"), otherwise in a JSONArray in the element "items"
+     * @param commitsURL URL of the commits of the repository, example : "https://api.github.com/repos/mybatis/spring/commits"
+     * @param dateBoundaryInf Lower bound of the window (inclusive) in ISO 8601, null for no lower bound
+     * @param dateBoundarySup Upper bound of the window (inclusive) in ISO 8601, null for no upper bound
+     * @param sha SHA or branch to start listing the commits from, null for the default branch
+     * @param pathInRepository Only the commits containing this file path are extracted, null for all the commits
+     * @param path Path to store the file
+     * @param filename Filename of the JSON or NDJSON file
+     * @return Long number of commits written
+     * @throws InterruptedException
+     * @throws IOException IOException thrown when an error occurred during the writing of the file
+     * @throws URISyntaxException URISyntaxException thrown when the URL is malformed
+     * @throws DateTimeParseException DateTimeParseException thrown when a bound is malformed
+     */
+    public long extractAndSaveJSONCommitBoundFromURL(String commitsURL, String dateBoundaryInf, String dateBoundarySup,
+                                                     String sha, String pathInRepository, String path, String filename)
+            throws InterruptedException, IOException, URISyntaxException {
+        if(NDJSONReader.isNDJSONFile(filename)){
+            try (NDJSONWriter ndjsonWriter = fileWriterJSON.openNDJSONWriter(path, filename, false)) {
+                return githubHttpClient.appendCommitsBoundedToNDJSON(commitsURL, dateBoundaryInf, dateBoundarySup,
+                        sha, pathInRepository, ndjsonWriter);
+            }
+        }
+        JSONObject obj = githubHttpClient.getCommitBoundedJson(commitsURL, new JSONObject(), dateBoundaryInf, dateBoundarySup,
+                sha, pathInRepository);
+        fileWriterJSON.writeJsonFile(obj,path,filename);
+        return obj.getJSONArray("items").length();
+    }
 
     /**
      * Filters the fields stored in a JSON file and store the result in a new JSON file
@@ -112,7 +278,90 @@ public class MisortimaFacade {
     }
 
     /**
-     * Associates the latest commit to each repositories stored in JSON file and write a new JSON file
+     * Projects the items stored in a JSON or NDJSON file on fields at any depth (e.g. "commit.committer.date") and
+     * writes the projected items in a new file while the items are read (see RawDataFilter.projectFieldsFromJSONFile)
+     * @param fieldPaths List of the dotted paths of the fields to keep
+     * @param pathToJsonFileToFilter Path to the Json file to filter
+     * @param pathToStoreJsonFileFiltered Path to store the Json file filtered
+     * @param filenameJsonFileFiltered Filename of the file filtered, the extension ".ndjson" writes one item per line
+     * @return Long number of items written
+     * @throws IOException Thrown when the file cannot be read or the file filtered cannot be written
+     */
+    public long projectData(List<String> fieldPaths,
+                            String pathToJsonFileToFilter,
+                            String pathToStoreJsonFileFiltered,
+                            String filenameJsonFileFiltered) throws IOException {
+        return rawDataFilter.projectFieldsFromJSONFile(pathToJsonFileToFilter, fieldPaths, pathToStoreJsonFileFiltered, filenameJsonFileFiltered);
+    }
+
+    /**
+     * Filters the fields of every file of a directory matching a glob pattern, the files are filtered at the same
+     * time (see BatchFilter) and one file is written per input file
+     * @param fieldPaths List of the dotted paths of the fields to keep
+     * @param pathDirectoryToFilter Path of the directory of the files to filter
+     * @param glob Glob pattern of the names of the files to filter (e.g. "*_commits.json")
+     * @param pathToStoreJsonFilesFiltered Path to store the files filtered
+     * @param outputSuffix Suffix replacing the extension of each input file (e.g. "_filtered.json")
+     * @return List of the results of the filters in the order of the names of the files
+     * @throws IOException Thrown when the directory cannot be read
+     */
+    public List<FilterResult> filterDataBatch(List<String> fieldPaths,
+                                              String pathDirectoryToFilter,
+                                              String glob,
+                                              String pathToStoreJsonFilesFiltered,
+                                              String outputSuffix) throws IOException {
+        return batchFilter.filterFields(BatchFilter.listFiles(pathDirectoryToFilter, glob), fieldPaths, pathToStoreJsonFilesFiltered, outputSuffix);
+    }
+
+    /**
+     * Filters the fields of every file of a directory matching a glob pattern, the files are filtered at the same
+     * time (see BatchFilter) and their items are merged in one file
+     * @param fieldPaths List of the dotted paths of the fields to keep
+     * @param pathDirectoryToFilter Path of the directory of the files to filter
+     * @param glob Glob pattern of the names of the files to filter (e.g. "*_commits.json")
+     * @param pathToStoreJsonFileFiltered Path to store the merged file
+     * @param filenameJsonFileFiltered Filename of the merged file, the extension ".ndjson" writes one item per line
+     * @return Long number of items written
+     * @throws IOException Thrown when a file cannot be filtered or the merged file cannot be written
+     */
+    public long filterDataBatchMerged(List<String> fieldPaths,
+                                      String pathDirectoryToFilter,
+                                      String glob,
+                                      String pathToStoreJsonFileFiltered,
+                                      String filenameJsonFileFiltered) throws IOException {
+        return batchFilter.filterFieldsMerged(BatchFilter.listFiles(pathDirectoryToFilter, glob), fieldPaths, pathToStoreJsonFileFiltered, filenameJsonFileFiltered);
+    }
+
+    /**
+     * Sets the number of files filtered at the same time by filterDataBatch and filterDataBatchMerged
+     * @param nbParallelFilters Integer number of parallel filters, must be strictly positive
+     */
+    public void setNbParallelFilters(int nbParallelFilters){
+        batchFilter.setNbParallelFilters(nbParallelFilters);
+    }
+
+    /**
+     * Deletes the duplicate items of a JSON or NDJSON file while it is read and writes the first occurrence of each
+     * item in a new file (see RawDataFilter.deleteDuplicateEntriesFromJSONFile)
+     * @param pathToJsonFileToClean Path to the Json file containing duplicate items
+     * @param identifierKey true to compare the items on their identifier (id, sha or node_id), false on their content
+     * @param pathToStoreJsonFileCleaned Path to store the Json file without duplicates
+     * @param filenameJsonFileCleaned Filename of the file without duplicates, the extension ".ndjson" writes one item per line
+     * @return Long number of items written
+     * @throws IOException Thrown when the file cannot be read or the file without duplicates cannot be written
+     */
+    public long deleteDuplicateData(String pathToJsonFileToClean,
+                                    boolean identifierKey,
+                                    String pathToStoreJsonFileCleaned,
+                                    String filenameJsonFileCleaned) throws IOException {
+        DuplicateFilter.KeyStrategy keyStrategy = identifierKey ? DuplicateFilter.KeyStrategy.IDENTIFIER : DuplicateFilter.KeyStrategy.CONTENT;
+        return rawDataFilter.deleteDuplicateEntriesFromJSONFile(pathToJsonFileToClean, keyStrategy, pathToStoreJsonFileCleaned, filenameJsonFileCleaned);
+    }
+
+    /**
+     * Associates the latest commit to each repositories stored in JSON file and write a new JSON file. When the file
+     * written is a NDJSON file, it is kept and the repositories already written (or recorded as completed in the
+     * checkpoint journal when it is set) are skipped
      * @param pathJsonFileToRead
      * @param pathWriteJsonFileWithAssociatedCommit
      * @param filenameJsonFileWithAssociatedCommit
@@ -122,16 +371,46 @@ public class MisortimaFacade {
                                                        String filenameJsonFileWithAssociatedCommit) throws IOException, URISyntaxException, InterruptedException {
         JSONObject filteredJsonObject = fileReaderJSON.readJSONFile(pathJsonFileToRead);
         JSONObject jsonOjectWithAssociatedCommit = githubHttpClient.getLastCommitForRepositoriesList(
-                fileReaderJSON.readJSONFile(pathJsonFileToRead),fileWriterJSON,pathWriteJsonFileWithAssociatedCommit,filenameJsonFileWithAssociatedCommit);
+                fileReaderJSON.readJSONFile(pathJsonFileToRead),fileWriterJSON,pathWriteJsonFileWithAssociatedCommit,filenameJsonFileWithAssociatedCommit,
+                checkpointJournal);
 
-        fileWriterJSON.writeJsonFile(jsonOjectWithAssociatedCommit,
-                pathWriteJsonFileWithAssociatedCommit,
-                filenameJsonFileWithAssociatedCommit);
+        //the repositories have already been appended one by one to a NDJSON file
+        if(!NDJSONReader.isNDJSONFile(filenameJsonFileWithAssociatedCommit))
+            fileWriterJSON.writeJsonFile(jsonOjectWithAssociatedCommit,
+                    pathWriteJsonFileWithAssociatedCommit,
+                    filenameJsonFileWithAssociatedCommit);
     }
 
-    public void cloneRepositories(String pathToJsonFile,String pathDirectoryToStoreProjects, String githubUsername, String githubPassword) throws IOException, URISyntaxException, GitAPIException, GitRepositoryNotInitializedException {
+    public List<CloneResult> cloneRepositories(String pathToJsonFile,String pathDirectoryToStoreProjects, String githubUsername, String githubPassword) throws IOException, URISyntaxException, GitAPIException, GitRepositoryNotInitializedException {
         JSONObject jsonObjectRepositories = fileReaderJSON.readJSONFile(pathToJsonFile);
-        githubGitClient.cloneRepositoriesFromList(jsonObjectRepositories,pathDirectoryToStoreProjects,githubUsername,githubPassword);
+        return githubGitClient.cloneRepositoriesFromList(jsonObjectRepositories,pathDirectoryToStoreProjects,githubUsername,githubPassword);
+    }
+
+    /**
+     * Sets the number of repositories cloned at the same time by cloneRepositories
+     * @param nbParallelClones Integer number of parallel clones, must be strictly positive
+     */
+    public void setNbParallelClones(int nbParallelClones){
+        githubGitClient.setNbParallelClones(nbParallelClones);
+    }
+
+    /**
+     * Enables or disables the single branch mode of cloneRepositories : only the branch of the last commit is fetched,
+     * without the tags, before the checkout of the commit
+     * @param singleBranchClone true to fetch only the branch of the last commit
+     */
+    public void setSingleBranchClone(boolean singleBranchClone){
+        githubGitClient.setSingleBranchClone(singleBranchClone);
+    }
+
+    /**
+     * Writes the report "report_imt_beans.txt" of every project cloned in the directory and the list of the projects
+     * @param pathRepositoriesDirectory Path of the directory where the repositories have been cloned
+     * @return List of the metrics of the projects
+     * @throws IOException Thrown when a project cannot be read or a report cannot be written
+     */
+    public List<ProjectMetrics> createBeansReports(String pathRepositoriesDirectory) throws IOException {
+        return projectMetricsExtractor.createReportsProjects(pathRepositoriesDirectory);
     }
     
     /**
@@ -208,6 +487,11 @@ public class MisortimaFacade {
         	String lineURL;
         	while ((lineURL=buff.readLine())!=null){
         		System.out.println(lineURL);
+        		String checkpointKey = CommitTagIssues + " " + lineURL;
+        		if(checkpointJournal != null && checkpointJournal.isCompleted(checkpointKey)){
+        			logger.info("== " + checkpointKey + " already extracted ==");
+        			continue;
+        		}
         		
         		// Extract raw JSON for a repos
         		// Get repos name
@@ -237,7 +521,23 @@ public class MisortimaFacade {
                 
               
 	            // Extract tags commits or issues
-	            extractAndSaveJSONTagsFromURL(lineURL,pathToDirectory, filename);
+	            if(ndjsonOutput){
+	            	filename = filename.replace(".json", ".ndjson");
+	            	//the pagination chain has its own key : its pages are resumed in this file, the repository is completed below
+	            	String chainKey = checkpointKey + " " + Paths.get(pathToDirectory, filename);
+	            	try (NDJSONWriter ndjsonWriter = fileWriterJSON.openNDJSONWriter(pathToDirectory, filename, hasCheckpoint(chainKey))) {
+	            		if(checkpointJournal != null)
+	            			githubHttpClient.appendItemsToNDJSON(chainKey, lineURL, GithubHttpClient.UNLIMITED_PAGES, ndjsonWriter, checkpointJournal);
+	            		else
+	            			githubHttpClient.appendItemsToNDJSON(lineURL, GithubHttpClient.UNLIMITED_PAGES, ndjsonWriter);
+	            	}
+	            }else{
+	            	if(compressedOutput)
+	            		filename = filename + Compression.GZIP.getExtension();
+	            	extractAndSaveJSONTagsFromURL(lineURL,pathToDirectory, filename);
+	            }
+	            if(checkpointJournal != null)
+	            	checkpointJournal.recordCompleted(checkpointKey);
 	            
         	}
         	buff.close(); 
@@ -247,8 +547,35 @@ public class MisortimaFacade {
     	}
     }
     
-    // failed attempt to filter commit during asking api
+    /**
+     * Gets all the commits of each repository of a text file (one URL of repository per line), the commits of a
+     * repository are written in the file "name_commits.json" of the directory given
+     * @param pathToURLFile Path of the text file containing the URLs of the repositories
+     * @param pathToDirectory Path of the directory to store the files
+     * @param CommitTagIssues Not used, the commits are always extracted
+     * @throws InterruptedException
+     * @throws IOException
+     * @throws URISyntaxException
+     * @deprecated Use txtfileReposToCommitBound(String, String, String, String) with the bounds of the window, null
+     * bounds extract all the commits as this method does
+     */
+    @Deprecated
     public void txtfileReposToCommitBound(String pathToURLFile, String pathToDirectory, String CommitTagIssues) throws InterruptedException, IOException, URISyntaxException{
+        txtfileReposToCommitBound(pathToURLFile, pathToDirectory, null, null);
+    }
+
+    /**
+     * Gets the commits committed in a window of time for each repository of a text file (one URL of repository per line),
+     * the commits of a repository are written in the file "name_commits.json" of the directory given
+     * @param pathToURLFile Path of the text file containing the URLs of the repositories
+     * @param pathToDirectory Path of the directory to store the files
+     * @param dateBoundaryInf Lower bound of the window (inclusive) in ISO 8601, null for no lower bound
+     * @param dateBoundarySup Upper bound of the window (inclusive) in ISO 8601, null for no upper bound
+     * @throws InterruptedException
+     * @throws IOException
+     * @throws URISyntaxException
+     */
+    public void txtfileReposToCommitBound(String pathToURLFile, String pathToDirectory, String dateBoundaryInf, String dateBoundarySup) throws InterruptedException, IOException, URISyntaxException{
         try{
         	InputStream flux=new FileInputStream(pathToURLFile); 
         	InputStreamReader read=new InputStreamReader(flux);
@@ -257,20 +584,15 @@ public class MisortimaFacade {
         	while ((lineURL=buff.readLine())!=null){
         		System.out.println(lineURL);
         		
-        		// Extract raw JSON for a repos
         		// Get repos name
         		String[] tokens = lineURL.split("/");
         		String filename = tokens[tokens.length -1];
-        		
-        		
-    
+
         		lineURL = lineURL + "/commits";
         		filename = filename + "_commits.json";
 
-          
-	            // Extract commits 
-	            //extractAndSaveJSONCommitBoundFromURL(lineURL,pathToDirectory, filename);
-	            
+	            // Extract the commits of the window
+	            extractAndSaveJSONCommitBoundFromURL(lineURL, dateBoundaryInf, dateBoundarySup, null, null, pathToDirectory, filename);
         	}
         	buff.close(); 
         	}		
@@ -282,97 +604,176 @@ public class MisortimaFacade {
     
     
     /**
-     * filter json files containing issues to get title (where labeled bugs for now)
-     * @param pathToURLFile
-     * @param pathToTargetFile
-     * @throws IOException
-     * @throws URISyntaxException
+     * Writes the titles of the issues labeled as bug (label "type-bug") of a JSON, NDJSON or snapshot file, one title per line
+     * @param pathToIssuesFile Path of the file of the issues
+     * @param pathTargetFile Path of the text file to write
+     * @throws IOException Thrown when the file cannot be read or the text file cannot be written
+     * @throws URISyntaxException Thrown when the path is malformed
      */
     public void filterIssuesTitle(String pathToIssuesFile, String pathTargetFile) throws IOException, URISyntaxException {
-    	JSONObject issuesFileJson= fileReaderJSON.readJSONFile(pathToIssuesFile);
-    	
-    	//create file
-  
-    	// not good
-    	FileWriter fileWriter = new FileWriter(pathTargetFile);   	
-    	
-    	// Run through JSON to get issues' title, really weak code
-    	for(int i = 0 ; i < issuesFileJson.getJSONArray("items").length(); i++) {
-    		for(int j = 0 ; j < issuesFileJson.getJSONArray("items").getJSONArray(i).length(); j++) {
-    			try {
-    				//only grab issues labeled bug
-    				if (issuesFileJson.getJSONArray("items").getJSONArray(i).getJSONObject(j).getJSONArray("labels").toString().contains("type-bug")) {
-    					fileWriter.write(issuesFileJson.getJSONArray("items").getJSONArray(i).getJSONObject(j).get("title").toString()+ "\n");
-
-    				}
-    			}catch(Exception e) {
-    					System.out.println(e); // log ? not clean
-    			}
-    			
-    		}
-    		
-    	}
-    	 	
-    	fileWriter.close();
-    	System.out.println("issue s title grabbed and stored successfully");
-
+        filterIssuesTitle(pathToIssuesFile, IssueFilter.bugs(), pathTargetFile);
+    }
 
+    /**
+     * Writes the titles of the issues of a JSON, NDJSON or snapshot file selected by a filter, one title per line :
+     * the labels are compared exactly to the labels of the filter, and the state and the creation date are tested
+     * when the filter requires them. The file is read in one pass, issue by issue.
+     * @param pathToIssuesFile Path of the file of the issues
+     * @param issueFilter Filter selecting the issues
+     * @param pathTargetFile Path of the text file to write
+     * @return Long number of titles written
+     * @throws IOException Thrown when the file cannot be read or the text file cannot be written
+     * @throws URISyntaxException Thrown when the path is malformed
+     */
+    public long filterIssuesTitle(String pathToIssuesFile, IssueFilter issueFilter, String pathTargetFile) throws IOException, URISyntaxException {
+        long nbTitles;
+        if(ColumnarSnapshot.isSnapshotFile(Paths.get(pathToIssuesFile)))
+            nbTitles = filterIssuesTitleFromSnapshot(pathToIssuesFile, issueFilter, pathTargetFile);
+        else
+            nbTitles = rawDataFilter.filterIssuesTitleFromJSONFile(pathToIssuesFile, issueFilter, pathTargetFile);
+        logger.info("== " + nbTitles + " issue titles written in " + pathTargetFile + " ==");
+        return nbTitles;
     }
     
     
     /**
-     * filter with temporal window json files containing commit. Careful does not return in the same order, don't know why. Careful with format JSONObject/Array.
-     * @param pathToURLFile
-     * @param pathToTarget
-     * @param filename
-     * @param dateUnder format ISO8601
-     * @param dateUpper format ISO8601
-     * @throws IOException
-     * @throws URISyntaxException
-     * @throws ParseException 
+     * Filters the commits of a file whose committer date is in a time window, the bounds are included.
+     * A plain JSON or NDJSON file is queried through its persistent time index (see CommitTimeIndex), built on the
+     * first query and reused while the file does not change : only the commits of the window are read, in the order
+     * of the file, and streamed to the file written. A compressed file is read item by item, a columnar snapshot reads
+     * its date column.
+     * @param pathToIssuesFile Path of the file of the commits
+     * @param pathTarget Path of the directory of the file to write
+     * @param filename Name of the file to write
+     * @param dateUnderString First date of the window, ISO 8601 with an offset or in UTC (e.g. "2019-01-01T00:00:00")
+     * @param dateUpperString Last date of the window, ISO 8601 with an offset or in UTC
+     * @throws IOException Thrown when the commits cannot be read
+     * @throws URISyntaxException Thrown when the path is malformed
+     * @throws ParseException Thrown when a bound of the window is malformed
      */
     public void filterCommitTemporalBound(String pathToIssuesFile, String pathTarget, String filename, String dateUnderString, String dateUpperString) throws IOException, URISyntaxException, ParseException {
-    	JSONObject commitFileJson= fileReaderJSON.readJSONFile(pathToIssuesFile);
-    	JSONObject jsonAllItems = new JSONObject();
-    	
-    	SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
-    	// date conversion
-    	Date dateUnder = sdf.parse(dateUnderString);
-    	Date dateUpper = sdf.parse(dateUpperString);
-    	
-    	// Run through JSON to get issues' title, really weak code
-    	for(int i = 0 ; i < commitFileJson.getJSONArray("items").length(); i++) {
-    		for(int j = 0 ; j < commitFileJson.getJSONArray("items").getJSONArray(i).length(); j++) {
-    			try {
-    				//only grab commit in the temporal window
-    		    	String dateCommitString = commitFileJson.getJSONArray("items").getJSONArray(i).getJSONObject(j).getJSONObject("commit").getJSONObject("committer").getString("date");
-    		    	
-    		    	Date commitDateTime = sdf.parse(dateCommitString);
-    				if (commitDateTime.after(dateUnder) && commitDateTime.before(dateUpper)) {
-    					//System.out.println(commitFileJson.getJSONArray("items").getJSONArray(i).getJSONObject(j).toString());
-    					JSONObject jsonObject = new JSONObject(commitFileJson.getJSONArray("items").getJSONArray(i).getJSONObject(j).toString());
-    					jsonAllItems.accumulate("items", jsonObject);
-    				}
-    			}catch(Exception e) {
-    					System.out.println(e); // log ? not clean
-    			}    			
-    		}	
-    	}
-    	
-    	// not good 
-    	fileWriterJSON.writeJsonFile(jsonAllItems,pathTarget,filename);
-//    	System.out.println(commitFileJson.getJSONArray("items").getJSONArray(0).getJSONObject(0).getJSONObject("commit").getJSONObject("committer").getString("date"));
-//
-//    	System.out.println(commitFileJson.getJSONArray("items").getJSONArray(0).getJSONObject(0).toString());
-//    	String dateCommitString = commitFileJson.getJSONArray("items").getJSONArray(0).getJSONObject(0).getJSONObject("commit").getJSONObject("committer").getString("date");
-    	//dateCommitString = dateCommitString.split("T")[0];
-//    	System.out.println(dateCommitString);
-//    	SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
-//    	Date matchDateTime = sdf.parse(dateCommitString);
-//    	System.out.println(matchDateTime);
-    	
+        Instant dateUnder = parseBound(dateUnderString);
+        Instant dateUpper = parseBound(dateUpperString);
+        Path pathCommitsFile = Paths.get(pathToIssuesFile);
+        if(ColumnarSnapshot.isSnapshotFile(pathCommitsFile)){
+            filterCommitTemporalBoundFromSnapshot(pathToIssuesFile, pathTarget, filename, dateUnder, dateUpper);
+            return;
+        }
+
+        rawDataFilter.filterCommitsInWindowFromJSONFile(pathToIssuesFile, dateUnder, dateUpper, pathTarget, filename);
     }
-}
 
+    /**
+     * Parses a bound of a time window
+     * @param date Date in ISO 8601, with an offset or in UTC
+     * @return Instant of the bound
+     * @throws ParseException Thrown when the date is malformed
+     */
+    private Instant parseBound(String date) throws ParseException {
+        try {
+            return CommitTimeIndex.parseInstant(date);
+        } catch (DateTimeParseException e) {
+            throw new ParseException("Malformed date : " + date, e.getErrorIndex());
+        }
+    }
+
+    /**
+     * Converts a JSON or NDJSON file of commits in a columnar snapshot (see ColumnarSnapshot) on which
+     * filterCommitTemporalBound reads only the dates of the commits
+     * @param pathJsonFile Path of the file of the commits
+     * @param pathSnapshot Path of the snapshot to write
+     * @return Integer number of commits written
+     * @throws IOException Thrown when the file cannot be read or the snapshot cannot be written
+     */
+    public int exportCommitsSnapshot(String pathJsonFile, String pathSnapshot) throws IOException {
+        return new ColumnarSnapshotWriter().write(pathJsonFile, Paths.get(pathSnapshot), ColumnarSnapshotWriter.COMMIT_COLUMNS);
+    }
+
+    /**
+     * Converts a JSON or NDJSON file of issues in a columnar snapshot (see ColumnarSnapshot) on which
+     * filterIssuesTitle reads only the titles and the labels of the issues
+     * @param pathJsonFile Path of the file of the issues
+     * @param pathSnapshot Path of the snapshot to write
+     * @return Integer number of issues written
+     * @throws IOException Thrown when the file cannot be read or the snapshot cannot be written
+     */
+    public int exportIssuesSnapshot(String pathJsonFile, String pathSnapshot) throws IOException {
+        return new ColumnarSnapshotWriter().write(pathJsonFile, Paths.get(pathSnapshot), ColumnarSnapshotWriter.ISSUE_COLUMNS);
+    }
 
+    /**
+     * Writes the titles of the issues of a snapshot selected by a filter, the labels are compared once per distinct
+     * name of the dictionary and only the columns tested are read
+     * @param pathSnapshot Path of the snapshot of the issues
+     * @param issueFilter Filter selecting the issues
+     * @param pathTargetFile Path of the text file to write
+     * @return Long number of titles written
+     * @throws IOException Thrown when the snapshot cannot be read or the file cannot be written
+     */
+    private long filterIssuesTitleFromSnapshot(String pathSnapshot, IssueFilter issueFilter, String pathTargetFile) throws IOException {
+        long nbTitles = 0;
+        try (ColumnarSnapshot columnarSnapshot = new ColumnarSnapshot(Paths.get(pathSnapshot));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(Paths.get(pathTargetFile)),
+                     StandardCharsets.UTF_8), 64 * 1024)) {
+            ColumnarSnapshot.StringColumn titles = columnarSnapshot.getStringColumn("title");
+            ColumnarSnapshot.StringListColumn labels = issueFilter.getLabels().isEmpty() ? null : columnarSnapshot.getStringListColumn("labels.name");
+            ColumnarSnapshot.StringColumn states = issueFilter.getState() == null ? null : columnarSnapshot.getStringColumn("state");
+            boolean creationWindow = issueFilter.getCreatedFrom() != null || issueFilter.getCreatedTo() != null;
+            ColumnarSnapshot.DateColumn creationDates = creationWindow ? columnarSnapshot.getDateColumn("created_at") : null;
+
+            //the labels are compared once per distinct name, then by code
+            List<Integer> listLabelCodes = new ArrayList<>();
+            if(labels != null){
+                List<String> dictionaryLabels = labels.getDictionary();
+                for (int code = 0; code < dictionaryLabels.size(); code++) {
+                    if(issueFilter.acceptsLabel(dictionaryLabels.get(code)))
+                        listLabelCodes.add(code);
+                }
+            }
+
+            for (int row = 0; row < columnarSnapshot.getNbRows(); row++) {
+                if(states != null && !issueFilter.acceptsState(states.get(row)))
+                    continue;
+                if(creationDates != null){
+                    long creationDate = creationDates.get(row);
+                    if(!issueFilter.acceptsCreationDate(creationDate == ColumnarSnapshot.NULL_DATE ? null : Instant.ofEpochMilli(creationDate)))
+                        continue;
+                }
+                boolean labelFound = labels == null;
+                for (int i = 0; i < listLabelCodes.size() && !labelFound; i++) {
+                    labelFound = labels.contains(row, listLabelCodes.get(i));
+                }
+                String title = titles.get(row);
+                if(labelFound && title != null){
+                    writer.write(title);
+                    writer.write('\n');
+                    nbTitles++;
+                }
+            }
+        }
+        return nbTitles;
+    }
 
+    /**
+     * Writes the commits of a snapshot committed between two dates included, only the column of the dates and the
+     * commits selected are read
+     * @param pathSnapshot Path of the snapshot of the commits
+     * @param pathTarget Path of the directory of the JSON file to write
+     * @param filename Name of the JSON file to write
+     * @param dateUnder Lower bound, included
+     * @param dateUpper Upper bound, included
+     * @throws IOException Thrown when the snapshot cannot be read
+     */
+    private void filterCommitTemporalBoundFromSnapshot(String pathSnapshot, String pathTarget, String filename, Instant dateUnder, Instant dateUpper) throws IOException {
+        JSONArray jsonArrayCommits = new JSONArray();
+        try (ColumnarSnapshot columnarSnapshot = new ColumnarSnapshot(Paths.get(pathSnapshot))) {
+            ColumnarSnapshot.DateColumn dates = columnarSnapshot.getDateColumn("commit.committer.date");
+            for (int row = 0; row < columnarSnapshot.getNbRows(); row++) {
+                long dateCommit = dates.get(row);
+                if(dateCommit != ColumnarSnapshot.NULL_DATE && dateCommit >= dateUnder.toEpochMilli() && dateCommit <= dateUpper.toEpochMilli())
+                    jsonArrayCommits.put(columnarSnapshot.getItem(row));
+            }
+        }
+        fileWriterJSON.writeJsonFile(new JSONObject().put("items", jsonArrayCommits),pathTarget,filename);
+    }
+}
@@ -0,0 +1,419 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar binary snapshot of a mined dataset (commits, issues...) written by ColumnarSnapshotWriter.
+ * Each column holds one field of all the items : the strings are dictionary-encoded (an integer code per item),
+ * the dates are stored in milliseconds since the epoch. The column "item" contains the offsets of the items in
+ * compact JSON, so the whole item of a row can be read when it is selected.
+ * The columns are memory-mapped when they are requested, a query reads only the columns it uses.
+ *
+ * Layout of the file : magic, JSON of the items, column sections, footer (number of rows, then name, type, offset and
+ * length of each column), offset of the footer, magic.
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class ColumnarSnapshot implements Closeable {
+    /**
+     * Signature at the start and at the end of a snapshot file
+     */
+    static final byte[] MAGIC = "MSRCOL01".getBytes(Charset.forName("US-ASCII"));
+    /**
+     * Name of the column containing the offsets of the items
+     */
+    public static final String ITEM_COLUMN = "item";
+    /**
+     * Value of a date column for an item without date
+     */
+    public static final long NULL_DATE = Long.MIN_VALUE;
+    /**
+     * Code of a string column for an item without value
+     */
+    public static final int NULL_CODE = -1;
+    static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final FileChannel fileChannel;
+    private final int nbRows;
+    private final Map<String, ColumnEntry> mapColumnEntries = new LinkedHashMap<>();
+    private final Map<String, Object> mapColumnsLoaded = new HashMap<>();
+    private final StreamReaderJSON streamReaderJSON = new StreamReaderJSON();
+    private LongBuffer itemOffsets;
+
+    /**
+     * Type of the values of a column
+     */
+    public enum ColumnType {
+        /**
+         * Dictionary-encoded string, the first value found at the path of the column
+         */
+        STRING,
+        /**
+         * List of dictionary-encoded strings, all the values found at the path (e.g. the names of the labels)
+         */
+        STRING_LIST,
+        /**
+         * ISO 8601 date stored in milliseconds since the epoch
+         */
+        DATE,
+        /**
+         * Offsets of the JSON of the items
+         */
+        ITEM
+    }
+
+    /**
+     * Opens a snapshot and reads its footer
+     * @param pathSnapshot Path of the snapshot
+     * @throws IOException Thrown when the file cannot be read or is not a snapshot
+     */
+    public ColumnarSnapshot(Path pathSnapshot) throws IOException {
+        fileChannel = FileChannel.open(pathSnapshot, StandardOpenOption.READ);
+        try {
+            long size = fileChannel.size();
+            if(size < 2L * MAGIC.length + Long.BYTES || !isSnapshotFile(pathSnapshot))
+                throw new IOException("The file " + pathSnapshot + " is not a columnar snapshot");
+
+            ByteBuffer trailer = fileChannel.map(FileChannel.MapMode.READ_ONLY, size - Long.BYTES - MAGIC.length, Long.BYTES);
+            long footerOffset = trailer.getLong();
+            ByteBuffer footer = fileChannel.map(FileChannel.MapMode.READ_ONLY, footerOffset, size - Long.BYTES - MAGIC.length - footerOffset);
+
+            nbRows = footer.getInt();
+            int nbColumns = footer.getInt();
+            for (int i = 0; i < nbColumns; i++) {
+                byte[] bytesName = new byte[footer.getInt()];
+                footer.get(bytesName);
+                ColumnType columnType = ColumnType.values()[footer.get()];
+                mapColumnEntries.put(new String(bytesName, UTF8), new ColumnEntry(columnType, footer.getLong(), footer.getLong()));
+            }
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Indicates if a file is a columnar snapshot according to its first bytes
+     * @param pathFile Path of the file
+     * @return true if the file starts with the signature of the snapshots
+     * @throws IOException Thrown when the file cannot be read
+     */
+    public static boolean isSnapshotFile(Path pathFile) throws IOException {
+        byte[] bytesStart = new byte[MAGIC.length];
+        try (InputStream inputStream = Files.newInputStream(pathFile)) {
+            int nbBytesRead = 0;
+            int n;
+            while (nbBytesRead < bytesStart.length && (n = inputStream.read(bytesStart, nbBytesRead, bytesStart.length - nbBytesRead)) > 0) {
+                nbBytesRead += n;
+            }
+        }
+        return Arrays.equals(bytesStart, MAGIC);
+    }
+
+    /**
+     * Getter for the number of items of the snapshot
+     * @return Integer number of rows
+     */
+    public int getNbRows() {
+        return nbRows;
+    }
+
+    /**
+     * Getter for the names of the columns, i.e. the paths of the fields in the items
+     * @return List of the names of the columns in the order of the file
+     */
+    public List<String> getColumnNames() {
+        return Collections.unmodifiableList(new ArrayList<>(mapColumnEntries.keySet()));
+    }
+
+    /**
+     * Returns a string column
+     * @param name Name of the column
+     * @return StringColumn mapped in memory
+     * @throws IOException Thrown when the column cannot be read
+     */
+    public synchronized StringColumn getStringColumn(String name) throws IOException {
+        StringColumn stringColumn = (StringColumn) mapColumnsLoaded.get(name);
+        if(stringColumn == null){
+            ByteBuffer section = mapSection(name, ColumnType.STRING);
+            List<String> dictionary = readDictionary(section);
+            stringColumn = new StringColumn(dictionary, section.slice().asIntBuffer());
+            mapColumnsLoaded.put(name, stringColumn);
+        }
+        return stringColumn;
+    }
+
+    /**
+     * Returns a column of lists of strings
+     * @param name Name of the column
+     * @return StringListColumn mapped in memory
+     * @throws IOException Thrown when the column cannot be read
+     */
+    public synchronized StringListColumn getStringListColumn(String name) throws IOException {
+        StringListColumn stringListColumn = (StringListColumn) mapColumnsLoaded.get(name);
+        if(stringListColumn == null){
+            ByteBuffer section = mapSection(name, ColumnType.STRING_LIST);
+            List<String> dictionary = readDictionary(section);
+            IntBuffer intBuffer = section.slice().asIntBuffer();
+            IntBuffer offsets = (IntBuffer) intBuffer.duplicate().limit(nbRows + 1);
+            IntBuffer codes = ((IntBuffer) intBuffer.duplicate().position(nbRows + 1)).slice();
+            stringListColumn = new StringListColumn(dictionary, offsets, codes);
+            mapColumnsLoaded.put(name, stringListColumn);
+        }
+        return stringListColumn;
+    }
+
+    /**
+     * Returns a date column
+     * @param name Name of the column
+     * @return DateColumn mapped in memory
+     * @throws IOException Thrown when the column cannot be read
+     */
+    public synchronized DateColumn getDateColumn(String name) throws IOException {
+        DateColumn dateColumn = (DateColumn) mapColumnsLoaded.get(name);
+        if(dateColumn == null){
+            dateColumn = new DateColumn(mapSection(name, ColumnType.DATE).asLongBuffer());
+            mapColumnsLoaded.put(name, dateColumn);
+        }
+        return dateColumn;
+    }
+
+    /**
+     * Reads the whole item of a row
+     * @param row Index of the row
+     * @return JSONObject, JSONArray or scalar value of the item
+     * @throws IOException Thrown when the item cannot be read
+     */
+    public Object getItem(int row) throws IOException {
+        long start;
+        long end;
+        synchronized (this) {
+            if(itemOffsets == null)
+                itemOffsets = mapSection(ITEM_COLUMN, ColumnType.ITEM).asLongBuffer();
+            start = itemOffsets.get(row);
+            end = itemOffsets.get(row + 1);
+        }
+
+        ByteBuffer byteBuffer = ByteBuffer.allocate((int) (end - start));
+        while (byteBuffer.hasRemaining()) {
+            if(fileChannel.read(byteBuffer, start + byteBuffer.position()) < 0)
+                throw new IOException("Unexpected end of the snapshot");
+        }
+        try (JsonParser jsonParser = JSON_FACTORY.createParser(byteBuffer.array())) {
+            jsonParser.nextToken();
+            return streamReaderJSON.readValue(jsonParser);
+        }
+    }
+
+    /**
+     * Maps the section of a column
+     * @param name Name of the column
+     * @param columnType Type expected
+     * @return ByteBuffer of the section
+     * @throws IOException Thrown when the section cannot be mapped
+     */
+    private MappedByteBuffer mapSection(String name, ColumnType columnType) throws IOException {
+        ColumnEntry columnEntry = mapColumnEntries.get(name);
+        if(columnEntry == null)
+            throw new IllegalArgumentException("The snapshot does not contain the column " + name);
+        if(columnEntry.columnType != columnType)
+            throw new IllegalArgumentException("The column " + name + " is of type " + columnEntry.columnType);
+        return fileChannel.map(FileChannel.MapMode.READ_ONLY, columnEntry.offset, columnEntry.length);
+    }
+
+    /**
+     * Reads the dictionary at the start of a string section, the buffer is positioned after it
+     * @param section Section of the column
+     * @return List of the strings indexed by their code
+     */
+    private List<String> readDictionary(ByteBuffer section){
+        int dictionarySize = section.getInt();
+        List<String> dictionary = new ArrayList<>(dictionarySize);
+        for (int i = 0; i < dictionarySize; i++) {
+            byte[] bytesValue = new byte[section.getInt()];
+            section.get(bytesValue);
+            dictionary.add(new String(bytesValue, UTF8));
+        }
+        return dictionary;
+    }
+
+    /**
+     * Closes the file, the columns already returned must not be used afterwards
+     * @throws IOException Thrown when the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        fileChannel.close();
+    }
+
+    /**
+     * Position of a column in the file
+     */
+    private static class ColumnEntry {
+        private final ColumnType columnType;
+        private final long offset;
+        private final long length;
+
+        /**
+         * Constructor of a column entry
+         * @param columnType Type of the column
+         * @param offset Offset of the section of the column
+         * @param length Length of the section in bytes
+         */
+        private ColumnEntry(ColumnType columnType, long offset, long length) {
+            this.columnType = columnType;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Column of dictionary-encoded strings
+     */
+    public static class StringColumn {
+        private final List<String> dictionary;
+        private final IntBuffer codes;
+
+        /**
+         * Constructor of a string column
+         * @param dictionary Strings indexed by their code
+         * @param codes Code of each row
+         */
+        private StringColumn(List<String> dictionary, IntBuffer codes) {
+            this.dictionary = dictionary;
+            this.codes = codes;
+        }
+
+        /**
+         * Returns the code of the value of a row, the rows can be compared by code without decoding the strings
+         * @param row Index of the row
+         * @return Integer code, NULL_CODE when the item has no value
+         */
+        public int getCode(int row){
+            return codes.get(row);
+        }
+
+        /**
+         * Returns the value of a row
+         * @param row Index of the row
+         * @return String value, null when the item has no value
+         */
+        public String get(int row){
+            int code = codes.get(row);
+            return code == NULL_CODE ? null : dictionary.get(code);
+        }
+
+        /**
+         * Getter for the distinct values of the column
+         * @return List of the strings indexed by their code
+         */
+        public List<String> getDictionary() {
+            return Collections.unmodifiableList(dictionary);
+        }
+    }
+
+    /**
+     * Column of lists of dictionary-encoded strings
+     */
+    public static class StringListColumn {
+        private final List<String> dictionary;
+        private final IntBuffer offsets;
+        private final IntBuffer codes;
+
+        /**
+         * Constructor of a column of lists of strings
+         * @param dictionary Strings indexed by their code
+         * @param offsets Index in codes of the first value of each row, followed by the total number of values
+         * @param codes Codes of the values of all the rows
+         */
+        private StringListColumn(List<String> dictionary, IntBuffer offsets, IntBuffer codes) {
+            this.dictionary = dictionary;
+            this.offsets = offsets;
+            this.codes = codes;
+        }
+
+        /**
+         * Returns the values of a row
+         * @param row Index of the row
+         * @return List of the strings of the row, empty when the item has no value
+         */
+        public List<String> get(int row){
+            int start = offsets.get(row);
+            int end = offsets.get(row + 1);
+            List<String> listValues = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                listValues.add(dictionary.get(codes.get(i)));
+            }
+            return listValues;
+        }
+
+        /**
+         * Indicates if a row contains a value
+         * @param row Index of the row
+         * @param code Code of the value in the dictionary
+         * @return true if one of the values of the row has the code
+         */
+        public boolean contains(int row, int code){
+            int end = offsets.get(row + 1);
+            for (int i = offsets.get(row); i < end; i++) {
+                if(codes.get(i) == code)
+                    return true;
+            }
+            return false;
+        }
+
+        /**
+         * Getter for the distinct values of the column
+         * @return List of the strings indexed by their code
+         */
+        public List<String> getDictionary() {
+            return Collections.unmodifiableList(dictionary);
+        }
+    }
+
+    /**
+     * Column of dates in milliseconds since the epoch
+     */
+    public static class DateColumn {
+        private final LongBuffer dates;
+
+        /**
+         * Constructor of a date column
+         * @param dates Date of each row
+         */
+        private DateColumn(LongBuffer dates) {
+            this.dates = dates;
+        }
+
+        /**
+         * Returns the date of a row
+         * @param row Index of the row
+         * @return Long milliseconds since the epoch, NULL_DATE when the item has no date
+         */
+        public long get(int row){
+            return dates.get(row);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import fr.imt.ales.msr.FileWritersReaders.ColumnarSnapshot.ColumnType;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts a mined dataset (JSON or NDJSON file read item by item) in a columnar snapshot (see ColumnarSnapshot).
+ * The items are written in the file as they are read, only the encoded columns are kept in memory until the end.
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class ColumnarSnapshotWriter {
+    private final static Logger logger = LogManager.getLogger(ColumnarSnapshotWriter.class);
+
+    /**
+     * Columns of the commits returned by the Github API
+     */
+    public static final List<ColumnDefinition> COMMIT_COLUMNS = Collections.unmodifiableList(Arrays.asList(
+            new ColumnDefinition("sha", ColumnType.STRING),
+            new ColumnDefinition("commit.author.name", ColumnType.STRING),
+            new ColumnDefinition("commit.author.date", ColumnType.DATE),
+            new ColumnDefinition("commit.committer.date", ColumnType.DATE)));
+
+    /**
+     * Columns of the issues returned by the Github API
+     */
+    public static final List<ColumnDefinition> ISSUE_COLUMNS = Collections.unmodifiableList(Arrays.asList(
+            new ColumnDefinition("title", ColumnType.STRING),
+            new ColumnDefinition("state", ColumnType.STRING),
+            new ColumnDefinition("labels.name", ColumnType.STRING_LIST),
+            new ColumnDefinition("created_at", ColumnType.DATE),
+            new ColumnDefinition("closed_at", ColumnType.DATE)));
+
+    private final FileReaderJSON fileReaderJSON = new FileReaderJSON();
+    private final StreamWriterJSON streamWriterJSON = new StreamWriterJSON(false);
+
+    /**
+     * Default constructor
+     */
+    public ColumnarSnapshotWriter(){}
+
+    /**
+     * Writes the snapshot of the items of a JSON file
+     * @param pathJsonFile Path of the JSON or NDJSON file of the items (see FileReaderJSON.forEachItem)
+     * @param pathSnapshot Path of the snapshot to write
+     * @param listColumnDefinitions Columns to encode, the column "item" is always written
+     * @return Integer number of items written
+     * @throws IOException Thrown when the JSON file cannot be read or the snapshot cannot be written
+     */
+    public int write(String pathJsonFile, Path pathSnapshot, List<ColumnDefinition> listColumnDefinitions) throws IOException {
+        List<ColumnBuilder> listColumnBuilders = new ArrayList<>();
+        for (ColumnDefinition columnDefinition : listColumnDefinitions) {
+            if(columnDefinition.getColumnType() == ColumnType.ITEM || columnDefinition.getPath().equals(ColumnarSnapshot.ITEM_COLUMN))
+                throw new IllegalArgumentException("The column " + ColumnarSnapshot.ITEM_COLUMN + " is written with each snapshot");
+            listColumnBuilders.add(new ColumnBuilder(columnDefinition));
+        }
+
+        //the bytes are counted before the buffer, so the offsets are known without flushing the stream
+        try (CountingOutputStream countingOutputStream = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(pathSnapshot), 64 * 1024));
+             DataOutputStream dataOutputStream = new DataOutputStream(countingOutputStream)) {
+            dataOutputStream.write(ColumnarSnapshot.MAGIC);
+
+            LongArray itemOffsets = new LongArray();
+            fileReaderJSON.forEachItem(pathJsonFile, item -> {
+                itemOffsets.add(countingOutputStream.getByteCount());
+                streamWriterJSON.write(item, dataOutputStream);
+                for (ColumnBuilder columnBuilder : listColumnBuilders) {
+                    columnBuilder.add(item);
+                }
+                return true;
+            });
+            itemOffsets.add(countingOutputStream.getByteCount());
+            int nbRows = itemOffsets.size - 1;
+
+            //column sections
+            List<String> listNames = new ArrayList<>();
+            List<ColumnType> listTypes = new ArrayList<>();
+            List<long[]> listPositions = new ArrayList<>();
+            for (ColumnBuilder columnBuilder : listColumnBuilders) {
+                long offset = countingOutputStream.getByteCount();
+                columnBuilder.writeSection(dataOutputStream);
+                listNames.add(columnBuilder.columnDefinition.getPath());
+                listTypes.add(columnBuilder.columnDefinition.getColumnType());
+                listPositions.add(new long[]{offset, countingOutputStream.getByteCount() - offset});
+            }
+            long offsetItems = countingOutputStream.getByteCount();
+            for (int i = 0; i < itemOffsets.size; i++) {
+                dataOutputStream.writeLong(itemOffsets.values[i]);
+            }
+            listNames.add(ColumnarSnapshot.ITEM_COLUMN);
+            listTypes.add(ColumnType.ITEM);
+            listPositions.add(new long[]{offsetItems, countingOutputStream.getByteCount() - offsetItems});
+
+            //footer
+            long footerOffset = countingOutputStream.getByteCount();
+            dataOutputStream.writeInt(nbRows);
+            dataOutputStream.writeInt(listNames.size());
+            for (int i = 0; i < listNames.size(); i++) {
+                byte[] bytesName = listNames.get(i).getBytes(ColumnarSnapshot.UTF8);
+                dataOutputStream.writeInt(bytesName.length);
+                dataOutputStream.write(bytesName);
+                dataOutputStream.writeByte(listTypes.get(i).ordinal());
+                dataOutputStream.writeLong(listPositions.get(i)[0]);
+                dataOutputStream.writeLong(listPositions.get(i)[1]);
+            }
+            dataOutputStream.writeLong(footerOffset);
+            dataOutputStream.write(ColumnarSnapshot.MAGIC);
+
+            logger.info("Snapshot " + pathSnapshot + " written : " + nbRows + " items, " + listNames.size() + " columns");
+            return nbRows;
+        }
+    }
+
+    /**
+     * Returns the values found at a dotted path in an item, the arrays met on the path are traversed
+     * (e.g. "labels.name" returns the names of all the labels)
+     * @param item Item of the dataset
+     * @param path Dotted path of the field
+     * @return List of the values found, empty when the field does not exist or is null
+     */
+    static List<Object> resolvePath(Object item, String path){
+        List<Object> listValues = new ArrayList<>();
+        collectValues(item, path.split("\\."), 0, listValues);
+        return listValues;
+    }
+
+    /**
+     * Collects the values of the remaining steps of a path
+     * @param value Value reached by the previous steps
+     * @param steps Steps of the path
+     * @param indexStep Index of the next step
+     * @param listValues List receiving the values
+     */
+    private static void collectValues(Object value, String[] steps, int indexStep, List<Object> listValues){
+        if(value instanceof JSONArray){
+            for (Object element : (JSONArray) value) {
+                collectValues(element, steps, indexStep, listValues);
+            }
+        }else if(indexStep == steps.length){
+            if(value != null && value != JSONObject.NULL)
+                listValues.add(value);
+        }else if(value instanceof JSONObject){
+            collectValues(((JSONObject) value).opt(steps[indexStep]), steps, indexStep + 1, listValues);
+        }
+    }
+
+    /**
+     * Field of the items encoded in a column
+     */
+    public static class ColumnDefinition {
+        private final String path;
+        private final ColumnType columnType;
+
+        /**
+         * Constructor of a column definition
+         * @param path Dotted path of the field in the items, it is the name of the column
+         * @param columnType Type of the column : STRING, STRING_LIST or DATE
+         */
+        public ColumnDefinition(String path, ColumnType columnType) {
+            this.path = path;
+            this.columnType = columnType;
+        }
+
+        /**
+         * Getter for the dotted path of the field
+         * @return String path, name of the column
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Getter for the type of the column
+         * @return ColumnType of the values
+         */
+        public ColumnType getColumnType() {
+            return columnType;
+        }
+    }
+
+    /**
+     * Encodes the values of a column in memory
+     */
+    private static class ColumnBuilder {
+        private final ColumnDefinition columnDefinition;
+        private final Map<String, Integer> mapCodes = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private final IntArray codes = new IntArray();
+        private final IntArray listOffsets = new IntArray();
+        private final LongArray dates = new LongArray();
+
+        /**
+         * Constructor of a column builder
+         * @param columnDefinition Definition of the column
+         */
+        private ColumnBuilder(ColumnDefinition columnDefinition) {
+            this.columnDefinition = columnDefinition;
+        }
+
+        /**
+         * Encodes the value of an item
+         * @param item Item of the dataset
+         */
+        private void add(Object item){
+            List<Object> listValues = resolvePath(item, columnDefinition.getPath());
+            switch (columnDefinition.getColumnType()){
+                case STRING:
+                    codes.add(listValues.isEmpty() ? ColumnarSnapshot.NULL_CODE : encode(listValues.get(0).toString()));
+                    break;
+                case STRING_LIST:
+                    listOffsets.add(codes.size);
+                    for (Object value : listValues) {
+                        codes.add(encode(value.toString()));
+                    }
+                    break;
+                case DATE:
+                    dates.add(listValues.isEmpty() ? ColumnarSnapshot.NULL_DATE : parseDate(listValues.get(0).toString()));
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected column type " + columnDefinition.getColumnType());
+            }
+        }
+
+        /**
+         * Returns the code of a string, it is added to the dictionary when it is met for the first time
+         * @param value String to encode
+         * @return Integer code of the string
+         */
+        private int encode(String value){
+            Integer code = mapCodes.get(value);
+            if(code == null){
+                code = dictionary.size();
+                mapCodes.put(value, code);
+                dictionary.add(value);
+            }
+            return code;
+        }
+
+        /**
+         * Parses an ISO 8601 date (e.g. "2011-01-26T19:06:31Z")
+         * @param value Date to parse
+         * @return Long milliseconds since the epoch, NULL_DATE when the date is malformed
+         */
+        private long parseDate(String value){
+            try {
+                return OffsetDateTime.parse(value).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                logger.warn("Malformed date in the column " + columnDefinition.getPath() + " : " + value);
+                return ColumnarSnapshot.NULL_DATE;
+            }
+        }
+
+        /**
+         * Writes the section of the column
+         * @param dataOutputStream Stream of the snapshot
+         * @throws IOException Thrown when the snapshot cannot be written
+         */
+        private void writeSection(DataOutputStream dataOutputStream) throws IOException {
+            if(columnDefinition.getColumnType() == ColumnType.DATE){
+                for (int i = 0; i < dates.size; i++) {
+                    dataOutputStream.writeLong(dates.values[i]);
+                }
+                return;
+            }
+
+            dataOutputStream.writeInt(dictionary.size());
+            for (String value : dictionary) {
+                byte[] bytesValue = value.getBytes(ColumnarSnapshot.UTF8);
+                dataOutputStream.writeInt(bytesValue.length);
+                dataOutputStream.write(bytesValue);
+            }
+            if(columnDefinition.getColumnType() == ColumnType.STRING_LIST){
+                for (int i = 0; i < listOffsets.size; i++) {
+                    dataOutputStream.writeInt(listOffsets.values[i]);
+                }
+                dataOutputStream.writeInt(codes.size);
+            }
+            for (int i = 0; i < codes.size; i++) {
+                dataOutputStream.writeInt(codes.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Growing array of primitive integers
+     */
+    private static class IntArray {
+        private int[] values = new int[1024];
+        private int size = 0;
+
+        /**
+         * Adds a value at the end of the array
+         * @param value Value to add
+         */
+        private void add(int value){
+            if(size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * Growing array of primitive longs
+     */
+    private static class LongArray {
+        private long[] values = new long[1024];
+        private int size = 0;
+
+        /**
+         * Adds a value at the end of the array
+         * @param value Value to add
+         */
+        private void add(long value){
+            if(size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,502 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * Persistent index of the dates of the commits of a mined commits file (JSON or NDJSON) : the index file, written
+ * next to the commits file with the extension ".timeidx" (or in the temporary directory when the directory of the
+ * commits file is read-only), holds the date of each commit with the byte offset and the
+ * length of the commit in the commits file, sorted by date. A time window is found by a binary search in the index
+ * mapped in memory, then only the commits of the window are read and parsed.
+ * The index records the size and the modification time of the commits file, it is rebuilt when the file changes.
+ * The compressed files cannot be read from an offset, they are not indexed.
+ *
+ * Layout of the index : magic, size and modification time (milliseconds) of the commits file, number of entries, then
+ * the entries (date in milliseconds since the epoch, offset, length) sorted by date.
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class CommitTimeIndex implements Closeable {
+    private final static Logger logger = LogManager.getLogger(CommitTimeIndex.class);
+
+    /**
+     * Extension added to the name of the commits file to name its index
+     */
+    public static final String EXTENSION = ".timeidx";
+    /**
+     * Path of the date of a commit returned by the Github API (JSON Pointer)
+     */
+    public static final String DATE_PATH = "/commit/committer/date";
+
+    private static final String FALLBACK_DIRECTORY = "misortima-timeidx";
+    private static final byte[] MAGIC = "MSRTIX01".getBytes(Charset.forName("US-ASCII"));
+    private static final int HEADER_SIZE = MAGIC.length + Long.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int ENTRY_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES;
+    private static final JsonPointer DATE_POINTER = JsonPointer.compile(DATE_PATH);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final FileChannel commitsChannel;
+    private final ByteBuffer entries;
+    private final int nbEntries;
+    private final StreamReaderJSON streamReaderJSON = new StreamReaderJSON();
+
+    /**
+     * Opens the index of a commits file, the index is built when it does not exist or when the commits file has
+     * changed since it was built. When the directory of the commits file cannot be written (e.g. a read-only dataset),
+     * the index is kept in the temporary directory of the system instead.
+     * @param pathCommitsFile Path of the JSON or NDJSON file of the commits, not compressed
+     * @return CommitTimeIndex to close after the queries
+     * @throws IOException Thrown when the commits file cannot be read or the index cannot be written
+     * @throws IllegalArgumentException Thrown when the commits file is compressed
+     */
+    public static CommitTimeIndex open(Path pathCommitsFile) throws IOException {
+        //one directory per user, a directory created by another user in the shared temporary directory cannot be written
+        return open(pathCommitsFile, Paths.get(System.getProperty("java.io.tmpdir"), FALLBACK_DIRECTORY + "-" + System.getProperty("user.name")));
+    }
+
+    /**
+     * Opens the index of a commits file, next to the file or in a fallback directory
+     * @param pathCommitsFile Path of the JSON or NDJSON file of the commits, not compressed
+     * @param pathFallbackDirectory Directory of the index when the directory of the commits file cannot be written
+     * @return CommitTimeIndex to close after the queries
+     * @throws IOException Thrown when the commits file cannot be read or the index cannot be written
+     */
+    static CommitTimeIndex open(Path pathCommitsFile, Path pathFallbackDirectory) throws IOException {
+        if(Compression.detect(pathCommitsFile) != Compression.NONE)
+            throw new IllegalArgumentException("A compressed file cannot be indexed : " + pathCommitsFile);
+
+        Path pathIndex = getIndexPath(pathCommitsFile);
+        if(isUpToDate(pathIndex, pathCommitsFile))
+            return new CommitTimeIndex(pathCommitsFile, pathIndex);
+
+        Path pathTmpIndex;
+        try {
+            //a unique temporary file, so concurrent builds of the same index do not overwrite each other
+            pathTmpIndex = createTmpIndex(pathIndex);
+        } catch (IOException e) {
+            pathIndex = getFallbackIndexPath(pathCommitsFile, pathFallbackDirectory);
+            logger.info("Directory of " + pathCommitsFile + " not writable (" + e + "), index kept in " + pathIndex);
+            if(isUpToDate(pathIndex, pathCommitsFile))
+                return new CommitTimeIndex(pathCommitsFile, pathIndex);
+            Files.createDirectories(pathFallbackDirectory);
+            pathTmpIndex = createTmpIndex(pathIndex);
+        }
+
+        try {
+            build(pathCommitsFile, pathTmpIndex);
+            moveIndex(pathTmpIndex, pathIndex);
+        } finally {
+            Files.deleteIfExists(pathTmpIndex);
+        }
+        return new CommitTimeIndex(pathCommitsFile, pathIndex);
+    }
+
+    /**
+     * Returns the path of the index of a commits file
+     * @param pathCommitsFile Path of the commits file
+     * @return Path of the index, next to the commits file
+     */
+    public static Path getIndexPath(Path pathCommitsFile){
+        return pathCommitsFile.resolveSibling(pathCommitsFile.getFileName() + EXTENSION);
+    }
+
+    /**
+     * Returns the path of the index of a commits file in the fallback directory, the name contains a hash of the
+     * absolute path of the commits file so the files of the same name in different directories have distinct indexes
+     * @param pathCommitsFile Path of the commits file
+     * @param pathFallbackDirectory Directory of the indexes of the commits files in read-only directories
+     * @return Path of the index in the fallback directory
+     */
+    static Path getFallbackIndexPath(Path pathCommitsFile, Path pathFallbackDirectory){
+        String absolutePath = pathCommitsFile.toAbsolutePath().normalize().toString();
+        return pathFallbackDirectory.resolve(pathCommitsFile.getFileName() + "-" + Integer.toHexString(absolutePath.hashCode()) + EXTENSION);
+    }
+
+    /**
+     * Creates the temporary file of an index in the directory of the index
+     * @param pathIndex Path of the index
+     * @return Path of the temporary file
+     * @throws IOException Thrown when the directory cannot be written
+     */
+    private static Path createTmpIndex(Path pathIndex) throws IOException {
+        return Files.createTempFile(pathIndex.toAbsolutePath().getParent(), "." + pathIndex.getFileName(), ".tmp");
+    }
+
+    /**
+     * Moves a temporary index over the previous index, atomically when the file system allows it
+     * @param pathTmpIndex Path of the temporary index
+     * @param pathIndex Path of the index
+     * @throws IOException Thrown when the index cannot be moved
+     */
+    private static void moveIndex(Path pathTmpIndex, Path pathIndex) throws IOException {
+        try {
+            Files.move(pathTmpIndex, pathIndex, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(pathTmpIndex, pathIndex, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Constructor of an index, the index is mapped in memory
+     * @param pathCommitsFile Path of the commits file
+     * @param pathIndex Path of the index
+     * @throws IOException Thrown when the files cannot be opened
+     */
+    private CommitTimeIndex(Path pathCommitsFile, Path pathIndex) throws IOException {
+        try (FileChannel indexChannel = FileChannel.open(pathIndex, StandardOpenOption.READ)) {
+            ByteBuffer header = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.position(HEADER_SIZE - Integer.BYTES);
+            nbEntries = header.getInt();
+            entries = indexChannel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, (long) nbEntries * ENTRY_SIZE);
+        }
+        commitsChannel = FileChannel.open(pathCommitsFile, StandardOpenOption.READ);
+    }
+
+    /**
+     * Indicates if an index exists and has been built from the current content of the commits file
+     * @param pathIndex Path of the index
+     * @param pathCommitsFile Path of the commits file
+     * @return true if the index can be used
+     * @throws IOException Thrown when the files cannot be read
+     */
+    private static boolean isUpToDate(Path pathIndex, Path pathCommitsFile) throws IOException {
+        if(!Files.isRegularFile(pathIndex) || Files.size(pathIndex) < HEADER_SIZE)
+            return false;
+        try (FileChannel indexChannel = FileChannel.open(pathIndex, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if(indexChannel.read(header) < 0)
+                    return false;
+            }
+            header.flip();
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            long size = header.getLong();
+            long lastModifiedMillis = header.getLong();
+            long nbEntries = header.getInt();
+            return Arrays.equals(magic, MAGIC)
+                    && size == Files.size(pathCommitsFile)
+                    && lastModifiedMillis == Files.getLastModifiedTime(pathCommitsFile).toMillis()
+                    && indexChannel.size() == HEADER_SIZE + nbEntries * ENTRY_SIZE;
+        }
+    }
+
+    /**
+     * Builds the index of a commits file : the commits are read one by one, their positions are found by the parser
+     * @param pathCommitsFile Path of the commits file
+     * @param pathIndex Path of the index to write
+     * @throws IOException Thrown when the commits file cannot be read or the index cannot be written
+     */
+    static void build(Path pathCommitsFile, Path pathIndex) throws IOException {
+        long size = Files.size(pathCommitsFile);
+        long lastModifiedMillis = Files.getLastModifiedTime(pathCommitsFile).toMillis();
+        EntryBuilder entryBuilder = new EntryBuilder();
+
+        try (InputStream inputStream = new MappedFileInputStream(pathCommitsFile);
+             JsonParser jsonParser = JSON_FACTORY.createParser(inputStream)) {
+            JSONItemParserHandler indexHandler = itemParser -> {
+                long start = itemParser.getTokenLocation().getByteOffset();
+                JsonNode item = OBJECT_MAPPER.readTree(itemParser);
+                long end = itemParser.getCurrentLocation().getByteOffset();
+                Instant date = parseDate(item.at(DATE_POINTER).textValue());
+                if(date != null)
+                    entryBuilder.add(date.toEpochMilli(), start, (int) (end - start));
+                return true;
+            };
+
+            if(NDJSONReader.isNDJSONFile(pathCommitsFile.toString())){
+                //the lines are read as a sequence of root values
+                try {
+                    while (jsonParser.nextToken() != null) {
+                        indexHandler.handleItem(jsonParser);
+                    }
+                } catch (JsonParseException e) {
+                    logger.warn("Partial line ignored at the end of " + pathCommitsFile);
+                }
+            }else{
+                new StreamReaderJSON().forEachItemParser(jsonParser, indexHandler);
+            }
+        }
+
+        int[] order = entryBuilder.sortByDate();
+        try (DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(pathIndex), 64 * 1024))) {
+            dataOutputStream.write(MAGIC);
+            dataOutputStream.writeLong(size);
+            dataOutputStream.writeLong(lastModifiedMillis);
+            dataOutputStream.writeInt(entryBuilder.size);
+            for (int index : order) {
+                dataOutputStream.writeLong(entryBuilder.dates[index]);
+                dataOutputStream.writeLong(entryBuilder.offsets[index]);
+                dataOutputStream.writeInt(entryBuilder.lengths[index]);
+            }
+        }
+        logger.info("Index of " + pathCommitsFile + " built : " + entryBuilder.size + " commits");
+    }
+
+    /**
+     * Gives the commits whose date is in a window to the handler, in the order of the commits file
+     * @param from First instant of the window, included
+     * @param to Last instant of the window, included
+     * @param jsonItemHandler Handler receiving the commits, it can stop the reading by returning false
+     * @return Long number of commits given to the handler
+     * @throws IOException Thrown when the commits file cannot be read
+     */
+    public long forEachCommitInWindow(Instant from, Instant to, JSONItemHandler jsonItemHandler) throws IOException {
+        return forEachCommitParserInWindow(from, to, jsonParser -> jsonItemHandler.handleItem(streamReaderJSON.readValue(jsonParser)));
+    }
+
+    /**
+     * Gives the parser positioned on each commit whose date is in a window to the handler, in the order of the commits
+     * file : the handler reads or copies only the tokens of the commit, the commit is not built in memory
+     * @param from First instant of the window, included
+     * @param to Last instant of the window, included
+     * @param jsonItemParserHandler Handler reading or copying each commit, it can stop the reading by returning false
+     * @return Long number of commits given to the handler
+     * @throws IOException Thrown when the commits file cannot be read
+     */
+    public long forEachCommitParserInWindow(Instant from, Instant to, JSONItemParserHandler jsonItemParserHandler) throws IOException {
+        int first = lowerBound(from.toEpochMilli());
+        int last = lowerBound(to.toEpochMilli() + 1);
+        if(first >= last)
+            return 0;
+
+        //the commits are read in the order of the file, so the file is read forward
+        long[] positions = new long[last - first];
+        for (int i = first; i < last; i++) {
+            positions[i - first] = getOffset(i);
+        }
+        Arrays.sort(positions);
+        int[] lengths = new int[positions.length];
+        for (int i = first; i < last; i++) {
+            lengths[Arrays.binarySearch(positions, getOffset(i))] = getLength(i);
+        }
+
+        long nbCommits = 0;
+        for (int i = 0; i < positions.length; i++) {
+            nbCommits++;
+            if(!handleCommit(positions[i], lengths[i], jsonItemParserHandler))
+                break;
+        }
+        return nbCommits;
+    }
+
+    /**
+     * Returns the index of the first entry whose date is greater than or equal to a date
+     * @param dateMillis Date in milliseconds since the epoch
+     * @return Integer index of the entry, nbEntries when all the dates are lower
+     */
+    private int lowerBound(long dateMillis){
+        int low = 0;
+        int high = nbEntries;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if(getDate(middle) < dateMillis){
+                low = middle + 1;
+            }else{
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Reads a commit of the commits file and gives the parser positioned on the commit to the handler
+     * @param offset Offset of the commit
+     * @param length Length of the commit in bytes
+     * @param jsonItemParserHandler Handler reading the commit
+     * @return boolean returned by the handler
+     * @throws IOException Thrown when the commit cannot be read
+     */
+    private boolean handleCommit(long offset, int length, JSONItemParserHandler jsonItemParserHandler) throws IOException {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(length);
+        while (byteBuffer.hasRemaining()) {
+            if(commitsChannel.read(byteBuffer, offset + byteBuffer.position()) < 0)
+                throw new IOException("Unexpected end of the commits file, the index is not up to date");
+        }
+        try (JsonParser jsonParser = JSON_FACTORY.createParser(byteBuffer.array())) {
+            if(jsonParser.nextToken() != JsonToken.START_OBJECT)
+                throw new IOException("No commit at the offset " + offset + ", the index is not up to date");
+            return jsonItemParserHandler.handleItem(jsonParser);
+        }
+    }
+
+    /**
+     * Returns the position of an entry in the mapped entries, computed in long arithmetic
+     * @param index Index of the entry
+     * @return Integer position of the entry
+     * @throws ArithmeticException Thrown when the position exceeds the size of a mapped buffer
+     */
+    private static int getEntryPosition(int index){
+        return Math.toIntExact((long) index * ENTRY_SIZE);
+    }
+
+    /**
+     * Getter for the date of an entry
+     * @param index Index of the entry
+     * @return Long date in milliseconds since the epoch
+     */
+    private long getDate(int index){
+        return entries.getLong(getEntryPosition(index));
+    }
+
+    /**
+     * Getter for the offset of the commit of an entry
+     * @param index Index of the entry
+     * @return Long offset in the commits file
+     */
+    private long getOffset(int index){
+        return entries.getLong(getEntryPosition(index) + Long.BYTES);
+    }
+
+    /**
+     * Getter for the length of the commit of an entry
+     * @param index Index of the entry
+     * @return Integer length in bytes
+     */
+    private int getLength(int index){
+        return entries.getInt(getEntryPosition(index) + 2 * Long.BYTES);
+    }
+
+    /**
+     * Getter for the number of commits indexed
+     * @return Integer number of commits having a date
+     */
+    public int getNbEntries() {
+        return nbEntries;
+    }
+
+    /**
+     * Parses a date of the Github API or a bound of a window : a date with an offset (e.g. "2019-01-01T10:00:00Z")
+     * or a date without offset, read in UTC (e.g. "2019-01-01T10:00:00")
+     * @param date Date in ISO 8601
+     * @return Instant of the date
+     * @throws DateTimeParseException Thrown when the date is malformed
+     */
+    public static Instant parseInstant(String date){
+        try {
+            return OffsetDateTime.parse(date).toInstant();
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.parse(date).toInstant(ZoneOffset.UTC);
+        }
+    }
+
+    /**
+     * Parses the date of a commit
+     * @param date Date of the commit, null when the commit has no date
+     * @return Instant of the date, null when the commit has no date or a malformed date
+     */
+    public static Instant parseDate(String date){
+        if(date == null)
+            return null;
+        try {
+            return parseInstant(date);
+        } catch (DateTimeParseException e) {
+            logger.warn("Malformed date of commit : " + date);
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        commitsChannel.close();
+    }
+
+    /**
+     * Growing arrays of the entries read from the commits file
+     */
+    private static class EntryBuilder {
+        private long[] dates = new long[1024];
+        private long[] offsets = new long[1024];
+        private int[] lengths = new int[1024];
+        private int size = 0;
+
+        /**
+         * Adds an entry
+         * @param dateMillis Date of the commit in milliseconds since the epoch
+         * @param offset Offset of the commit
+         * @param length Length of the commit in bytes
+         */
+        private void add(long dateMillis, long offset, int length){
+            if(size == dates.length){
+                dates = Arrays.copyOf(dates, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            dates[size] = dateMillis;
+            offsets[size] = offset;
+            lengths[size] = length;
+            size++;
+        }
+
+        /**
+         * Sorts the entries by date, the entries of the same date stay in the order of the file
+         * @return Array of the indexes of the entries in the order of their dates
+         */
+        private int[] sortByDate(){
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            mergeSort(order, new int[size], 0, size);
+            return order;
+        }
+
+        /**
+         * Stable merge sort of a range of indexes by the dates of their entries
+         * @param order Indexes to sort
+         * @param buffer Buffer of the same length as the indexes
+         * @param start Start of the range, included
+         * @param end End of the range, excluded
+         */
+        private void mergeSort(int[] order, int[] buffer, int start, int end){
+            if(end - start < 2)
+                return;
+            int middle = (start + end) >>> 1;
+            mergeSort(order, buffer, start, middle);
+            mergeSort(order, buffer, middle, end);
+            if(dates[order[middle - 1]] <= dates[order[middle]])
+                return;
+
+            System.arraycopy(order, start, buffer, start, end - start);
+            int left = start;
+            int right = middle;
+            for (int i = start; i < end; i++) {
+                if(right >= end || (left < middle && dates[buffer[left]] <= dates[buffer[right]])){
+                    order[i] = buffer[left++];
+                }else{
+                    order[i] = buffer[right++];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression of the JSON files : the format is chosen by the extension of the file when it is written (".gz" for
+ * gzip), and detected by the first bytes of the file when it is read, so the readers open the compressed and the
+ * uncompressed files transparently. The data is compressed and decompressed while it is streamed, a file is never
+ * held whole in memory.
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public enum Compression {
+    /**
+     * File written as is
+     */
+    NONE(""),
+    /**
+     * File compressed with gzip (RFC 1952), the concatenated members are read as one stream
+     */
+    GZIP(".gz");
+
+    /**
+     * Default compression level, the best trade-off between the speed and the size for the JSON files
+     */
+    public static final int DEFAULT_LEVEL = Deflater.DEFAULT_COMPRESSION;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int GZIP_MAGIC_BYTE_1 = 0x1f;
+    private static final int GZIP_MAGIC_BYTE_2 = 0x8b;
+
+    private final String extension;
+
+    /**
+     * Constructor of a compression format
+     * @param extension Extension added at the end of the name of the compressed files
+     */
+    Compression(String extension){
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the compression format of a file according to its extension
+     * @param filename Name or path of the file
+     * @return GZIP for the extension ".gz", NONE otherwise
+     */
+    public static Compression fromFilename(String filename){
+        if(filename.toLowerCase().endsWith(GZIP.extension))
+            return GZIP;
+        return NONE;
+    }
+
+    /**
+     * Removes the extension of the compression format at the end of a file name (e.g. "commits.ndjson.gz" gives
+     * "commits.ndjson")
+     * @param filename Name or path of the file
+     * @return String name of the file without the extension of the compression
+     */
+    public static String removeExtension(String filename){
+        Compression compression = fromFilename(filename);
+        return filename.substring(0, filename.length() - compression.extension.length());
+    }
+
+    /**
+     * Checks that a compression level is valid
+     * @param level Level between 0 (no compression) and 9 (best compression), or -1 for the default level
+     * @throws IllegalArgumentException Thrown when the level is out of range
+     */
+    public static void checkLevel(int level){
+        if(level != DEFAULT_LEVEL && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION))
+            throw new IllegalArgumentException("The compression level must be between 0 and 9, or -1 for the default level");
+    }
+
+    /**
+     * Wraps a stream to compress the data written in it, the wrapper must be closed to finish the compressed data
+     * @param outputStream Stream of the file
+     * @param level Compression level between 0 and 9, or -1 for the default level
+     * @return OutputStream compressing the data, or the given stream when the format is NONE
+     * @throws IOException Thrown when the header of the format cannot be written
+     */
+    public OutputStream wrapOutputStream(OutputStream outputStream, int level) throws IOException {
+        checkLevel(level);
+        if(this == NONE)
+            return outputStream;
+        return new GZIPOutputStream(outputStream, BUFFER_SIZE) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    /**
+     * Opens a file for reading, the data is decompressed when the file starts with the signature of gzip whatever
+     * its extension
+     * @param pathFile Path of the file
+     * @return InputStream of the decompressed data
+     * @throws IOException Thrown when the file cannot be opened
+     */
+    public static InputStream openInputStream(Path pathFile) throws IOException {
+        InputStream inputStream = new BufferedInputStream(Files.newInputStream(pathFile), BUFFER_SIZE);
+        try {
+            if(detect(inputStream) == GZIP)
+                return new GZIPInputStream(inputStream, BUFFER_SIZE);
+            return inputStream;
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Indicates if a file is compressed according to its first bytes
+     * @param pathFile Path of the file
+     * @return Compression format of the file
+     * @throws IOException Thrown when the file cannot be read
+     */
+    public static Compression detect(Path pathFile) throws IOException {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(pathFile), 2)) {
+            return detect(inputStream);
+        }
+    }
+
+    /**
+     * Reads the first bytes of a stream without consuming them to detect its compression format
+     * @param inputStream Stream supporting mark and reset
+     * @return Compression format of the stream
+     * @throws IOException Thrown when the stream cannot be read
+     */
+    private static Compression detect(InputStream inputStream) throws IOException {
+        inputStream.mark(2);
+        int firstByte = inputStream.read();
+        int secondByte = inputStream.read();
+        inputStream.reset();
+        if(firstByte == GZIP_MAGIC_BYTE_1 && secondByte == GZIP_MAGIC_BYTE_2)
+            return GZIP;
+        return NONE;
+    }
+
+    /**
+     * Getter for the extension of the format
+     * @return String extension added to the name of the compressed files, empty for NONE
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
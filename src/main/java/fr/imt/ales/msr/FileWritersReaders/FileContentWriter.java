@@ -0,0 +1,19 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Callback writing the content of a file in a stream (see FileWriterJSON.writeFileAtomically)
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public interface FileContentWriter {
+
+    /**
+     * Writes the content of the file
+     * @param outputStream Stream of the file, it is closed by the caller
+     * @throws IOException Thrown when the content cannot be written
+     */
+    void writeContent(OutputStream outputStream) throws IOException;
+}
@@ -1,25 +1,111 @@
 package fr.imt.ales.msr.FileWritersReaders;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 
 public class FileReaderJSON {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private final StreamReaderJSON streamReaderJSON = new StreamReaderJSON();
+
     public FileReaderJSON(){ }
 
+    /**
+     * Reads a whole JSON file in a JSON Object. The file is memory-mapped and parsed by a Jackson parser straight from
+     * its bytes, it is not copied in a byte array and in a String before being parsed. A file compressed with gzip is
+     * decompressed while it is parsed.
+     * @param pathToJsonFile Path of the JSON file
+     * @return JSONObject of the file
+     * @throws IOException Thrown when the file cannot be read
+     * @throws JSONException Thrown when the file is malformed or is not a JSONObject
+     * @throws URISyntaxException Thrown when the path is malformed
+     */
     public JSONObject readJSONFile(String pathToJsonFile) throws IOException, URISyntaxException {
         URL jsonFileUrl = new File(pathToJsonFile).toURI().toURL();
 
-        String fileContentJson = new String(Files.readAllBytes(Paths.get(jsonFileUrl.toURI())), Charset.forName("UTF-8"));
+        Object rootValue;
+        try (InputStream inputStream = openInputStream(Paths.get(jsonFileUrl.toURI()))) {
+            rootValue = streamReaderJSON.readDocument(inputStream);
+        } catch (JsonProcessingException e) {
+            //a malformed file is reported as by the parser of org.json
+            throw new JSONException(e.getOriginalMessage(), e);
+        }
+        if(!(rootValue instanceof JSONObject))
+            throw new JSONException("A JSONObject text must begin with '{'");
+        return (JSONObject) rootValue;
+    }
+
+    /**
+     * Reads a whole JSON file in a Jackson tree, for the filters working on the Jackson model (e.g. JsonPath) without
+     * converting the document from org.json
+     * @param pathToJsonFile Path of the JSON file
+     * @return JsonNode of the root of the document
+     * @throws IOException Thrown when the file cannot be read or is malformed
+     */
+    public JsonNode readJsonTree(String pathToJsonFile) throws IOException {
+        try (InputStream inputStream = openInputStream(Paths.get(pathToJsonFile))) {
+            return OBJECT_MAPPER.readTree(inputStream);
+        }
+    }
+
+    /**
+     * Opens a JSON file : a plain file is memory-mapped, a compressed file is decompressed while it is read
+     * @param pathFile Path of the file
+     * @return InputStream of the JSON document
+     * @throws IOException Thrown when the file cannot be opened
+     */
+    private InputStream openInputStream(Path pathFile) throws IOException {
+        if(Compression.detect(pathFile) == Compression.NONE)
+            return new MappedFileInputStream(pathFile);
+        return Compression.openInputStream(pathFile);
+    }
+
+    /**
+     * Reads the items of a JSON file one by one without loading the whole file (see StreamReaderJSON).
+     * The files with the extension ".ndjson" or ".jsonl" are read as newline-delimited JSON (see NDJSONReader).
+     * The files compressed with gzip are decompressed while they are read.
+     * @param pathToJsonFile Path of the JSON file
+     * @param jsonItemHandler Handler receiving the items, it can stop the reading by returning false
+     * @return Long number of items given to the handler
+     * @throws IOException Thrown when the file cannot be read or is malformed
+     */
+    public long forEachItem(String pathToJsonFile, JSONItemHandler jsonItemHandler) throws IOException {
+        if(NDJSONReader.isNDJSONFile(pathToJsonFile))
+            return new NDJSONReader().forEachItem(Paths.get(pathToJsonFile), jsonItemHandler);
+
+        try (InputStream inputStream = openInputStream(Paths.get(pathToJsonFile))) {
+            return streamReaderJSON.forEachItem(inputStream, jsonItemHandler);
+        }
+    }
+
+    /**
+     * Gives the parser positioned on each item of a JSON or NDJSON file to the handler, which reads only the tokens
+     * it needs without building the items (see JSONItemParserHandler). The files are read as by forEachItem.
+     * @param pathToJsonFile Path of the JSON file
+     * @param jsonItemParserHandler Handler reading or skipping each item, it can stop the reading by returning false
+     * @return Long number of items given to the handler
+     * @throws IOException Thrown when the file cannot be read or is malformed
+     */
+    public long forEachItemParser(String pathToJsonFile, JSONItemParserHandler jsonItemParserHandler) throws IOException {
+        if(NDJSONReader.isNDJSONFile(pathToJsonFile))
+            return new NDJSONReader().forEachItemParser(Paths.get(pathToJsonFile), jsonItemParserHandler);
 
-        return new JSONObject(fileContentJson);
+        try (InputStream inputStream = openInputStream(Paths.get(pathToJsonFile))) {
+            return streamReaderJSON.forEachItemParser(inputStream, jsonItemParserHandler);
+        }
     }
 }
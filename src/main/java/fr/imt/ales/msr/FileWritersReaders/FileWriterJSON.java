@@ -1,15 +1,29 @@
 package fr.imt.ales.msr.FileWritersReaders;
 
 import fr.imt.ales.msr.GithubClient.GithubHttpClient;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.json.JSONObject;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -18,27 +32,248 @@ import java.util.concurrent.TimeUnit;
 public class FileWriterJSON {
     final static Logger logger = LogManager.getLogger(FileWriterJSON.class);
     private final int INDENT_FACTOR = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private int compressionLevel = Compression.DEFAULT_LEVEL;
     /**
      * Default constructor
      */
     public FileWriterJSON(){}
 
     /**
-     * Writes a file with the given name and containing the given JSON Object
+     * Setter for the level of compression of the files with the extension ".gz"
+     * @param compressionLevel Level between 0 (no compression) and 9 (best compression), or -1 for the default level
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        Compression.checkLevel(compressionLevel);
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Getter for the level of compression of the files with the extension ".gz"
+     * @return Integer compression level
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Writes a file with the given name and containing the given JSON Object, indented as toString(2) of org.json
      * @param jsonObjectToWrite JSON Object to write in the file
+     * @param path Path of the directory of the file
      * @param filename Name of the file to write
+     * @throws IOException Thrown when the file cannot be written or moved in place, the previous file is kept
      */
-    public void writeJsonFile(JSONObject jsonObjectToWrite, String path, String filename) {
+    public void writeJsonFile(JSONObject jsonObjectToWrite, String path, String filename) throws IOException {
+        writeJsonFile(jsonObjectToWrite, path, filename, true);
+    }
+
+    /**
+     * Writes a file with the given name and containing the given JSON Object. The object is streamed into the file
+     * by StreamWriterJSON, the document is not converted into a String before being written.
+     * When the name ends with ".gz", the document is compressed with gzip while it is written.
+     * The file is replaced atomically : the document is written in a temporary file of the same directory, synchronized
+     * on the disk and moved over the previous file, so a crash during the writing leaves the previous file intact.
+     * When the content is identical to the file in place, the file is not replaced.
+     * @param jsonObjectToWrite JSON Object to write in the file
+     * @param path Path of the directory of the file
+     * @param filename Name of the file to write
+     * @param prettyPrint true to indent the document, false to write it on one line
+     * @throws IOException Thrown when the file cannot be written or moved in place, the previous file is kept
+     */
+    public void writeJsonFile(JSONObject jsonObjectToWrite, String path, String filename, boolean prettyPrint) throws IOException {
         if(!new File(path).isDirectory())
             throw new InvalidPathException(path, "Error path to write JSON file is invalid or is not a directory");
 
-        try (FileWriter fileWriter = new FileWriter(path + "/" + filename)) {
-        	String stringToWrite = jsonObjectToWrite.toString(INDENT_FACTOR);
-            fileWriter.write(stringToWrite);
+        Path pathFile = Paths.get(path, filename).toAbsolutePath();
+        Path pathTmpFile = null;
+        try {
+            pathTmpFile = newTmpFile(pathFile);
+            MessageDigest messageDigest = newMessageDigest();
+            try (FileChannel fileChannel = FileChannel.open(pathTmpFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                //the shield keeps the channel open after the streams are closed to synchronize it
+                try (OutputStream outputStream = Compression.fromFilename(filename).wrapOutputStream(new BufferedOutputStream(
+                        new DigestOutputStream(new CloseShieldOutputStream(Channels.newOutputStream(fileChannel)), messageDigest), BUFFER_SIZE), compressionLevel)) {
+                    new StreamWriterJSON(prettyPrint).write(jsonObjectToWrite, outputStream);
+                }
+
+                FileFingerprint fileFingerprint = new FileFingerprint(fileChannel.size(), messageDigest.digest());
+                if(fileFingerprint.isSameContent(fingerprintOfFile(pathFile, fileFingerprint.size))){
+                    logger.info("JSON Object " + filename + " unchanged, file not rewritten");
+                    return;
+                }
+                fileChannel.force(true);
+                replaceFile(pathTmpFile, pathFile);
+                pathTmpFile = null;
+            }
             logger.info("Successfully wrote JSON Object");
         } catch (IOException e) {
             logger.error("Error during writing JSON object " +filename+ " : " + e.getMessage());
+            throw e;
+        } finally {
+            if(pathTmpFile != null)
+                deleteTmpFile(pathTmpFile);
+        }
+
+    }
+
+    /**
+     * Writes a file with a content given by a writer. The file is replaced atomically as by writeJsonFile : the content
+     * is written in a temporary file of the same directory, synchronized on the disk and moved over the previous file.
+     * When the name ends with ".gz", the content is compressed with gzip while it is written.
+     * @param path Path of the directory of the file
+     * @param filename Name of the file to write
+     * @param fileContentWriter Writer of the content
+     * @throws IOException Thrown when the content cannot be written or the file cannot be moved in place, the previous file is kept
+     */
+    public void writeFileAtomically(String path, String filename, FileContentWriter fileContentWriter) throws IOException {
+        if(!new File(path).isDirectory())
+            throw new InvalidPathException(path, "Error path to write JSON file is invalid or is not a directory");
+
+        Path pathFile = Paths.get(path, filename).toAbsolutePath();
+        Path pathTmpFile = newTmpFile(pathFile);
+        try {
+            try (FileChannel fileChannel = FileChannel.open(pathTmpFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                try (OutputStream outputStream = Compression.fromFilename(filename).wrapOutputStream(new BufferedOutputStream(
+                        new CloseShieldOutputStream(Channels.newOutputStream(fileChannel)), BUFFER_SIZE), compressionLevel)) {
+                    fileContentWriter.writeContent(outputStream);
+                }
+                fileChannel.force(true);
+            }
+            replaceFile(pathTmpFile, pathFile);
+            pathTmpFile = null;
+        } catch (IOException e) {
+            logger.error("Error during writing file " + filename + " : " + e.getMessage());
+            throw e;
+        } finally {
+            if(pathTmpFile != null)
+                deleteTmpFile(pathTmpFile);
+        }
+    }
+
+    /**
+     * Returns the path of a new temporary file in the directory of a file
+     * @param pathFile Path of the file to replace
+     * @return Path of the temporary file, hidden and unique
+     */
+    private static Path newTmpFile(Path pathFile){
+        //created with the default permissions, unlike Files.createTempFile which restricts them to the owner
+        return pathFile.resolveSibling("." + pathFile.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+    }
+
+    /**
+     * Moves the temporary file over the target file with an atomic rename, then synchronizes the directory so that the
+     * rename survives a crash
+     * @param pathTmpFile Path of the temporary file
+     * @param pathFile Path of the target file
+     * @throws IOException Thrown when the file cannot be moved
+     */
+    private void replaceFile(Path pathTmpFile, Path pathFile) throws IOException {
+        try {
+            Files.move(pathTmpFile, pathFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            logger.warn("Atomic move not supported for " + pathFile + ", the file is replaced without atomicity");
+            Files.move(pathTmpFile, pathFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        try (FileChannel directoryChannel = FileChannel.open(pathFile.getParent(), StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        } catch (IOException e) {
+            //some systems (e.g. Windows) cannot open a directory, the rename is synchronized by the file system
+            logger.debug("Directory " + pathFile.getParent() + " not synchronized : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the fingerprint of the file in place when it has the size of the new content, the file is then read each
+     * time : another writer may have changed its content without changing its size nor its time of modification.
+     * A file of another size has another content, it is not read.
+     * @param pathFile Path of the file
+     * @param size Size of the new content
+     * @return FileFingerprint of the file, null if it does not exist or if its size is not the size given
+     * @throws IOException Thrown when the file cannot be read
+     */
+    private FileFingerprint fingerprintOfFile(Path pathFile, long size) throws IOException {
+        if(!Files.isRegularFile(pathFile) || Files.size(pathFile) != size)
+            return null;
+
+        MessageDigest messageDigest = newMessageDigest();
+        long sizeRead = 0;
+        try (InputStream inputStream = Files.newInputStream(pathFile)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int nbBytesRead;
+            while ((nbBytesRead = inputStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, nbBytesRead);
+                sizeRead += nbBytesRead;
+            }
+        }
+        return new FileFingerprint(sizeRead, messageDigest.digest());
+    }
+
+    /**
+     * Deletes a temporary file, a failure is only logged
+     * @param pathTmpFile Path of the temporary file
+     */
+    private void deleteTmpFile(Path pathTmpFile){
+        try {
+            Files.deleteIfExists(pathTmpFile);
+        } catch (IOException e) {
+            logger.warn("Temporary file " + pathTmpFile + " not deleted : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the digest used to compare the contents of the files
+     * @return MessageDigest SHA-256
+     */
+    private static MessageDigest newMessageDigest(){
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
+    }
 
+    /**
+     * Opens a newline-delimited JSON file (NDJSON) to append the items one by one as they are received
+     * @param path Path of the directory of the file
+     * @param filename Name of the file, usually with the extension ".ndjson". The NDJSON files are not compressed :
+     *                 they are appended and truncated at the offsets of the items, which a compressed stream does not allow
+     * @param append true to keep the items already in the file, false to replace them
+     * @return NDJSONWriter to close after the last item
+     * @throws IOException Thrown when the file cannot be opened
+     */
+    public NDJSONWriter openNDJSONWriter(String path, String filename, boolean append) throws IOException {
+        if(!new File(path).isDirectory())
+            throw new InvalidPathException(path, "Error path to write JSON file is invalid or is not a directory");
+        if(Compression.fromFilename(filename) != Compression.NONE)
+            throw new IllegalArgumentException("A NDJSON file cannot be appended in a compressed format : " + filename);
+        return new NDJSONWriter(Paths.get(path, filename), append);
+    }
+
+    /**
+     * Size and digest of the content of a file
+     */
+    private static class FileFingerprint {
+        private final long size;
+        private final byte[] digest;
+
+        /**
+         * Constructor of the fingerprint of a content
+         * @param size Size of the content in bytes
+         * @param digest SHA-256 digest of the content
+         */
+        private FileFingerprint(long size, byte[] digest) {
+            this.size = size;
+            this.digest = digest;
+        }
+
+        /**
+         * Indicates if the file has the same content
+         * @param fileFingerprint Fingerprint of the file, null if it does not exist
+         * @return true if the sizes and the digests are equal
+         */
+        private boolean isSameContent(FileFingerprint fileFingerprint){
+            return fileFingerprint != null && fileFingerprint.size == size && MessageDigest.isEqual(fileFingerprint.digest, digest);
+        }
     }
 }
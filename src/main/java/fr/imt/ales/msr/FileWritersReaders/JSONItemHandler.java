@@ -0,0 +1,19 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import java.io.IOException;
+
+/**
+ * Callback receiving the items of a JSON file one by one while the file is read
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public interface JSONItemHandler {
+
+    /**
+     * Handles an item of the file
+     * @param item JSONObject, JSONArray or scalar value (String, Number, Boolean, JSONObject.NULL) read
+     * @return true to read the next item, false to stop the reading
+     * @throws IOException Thrown when the item cannot be handled (e.g. during the writing of the item in a file)
+     */
+    boolean handleItem(Object item) throws IOException;
+}
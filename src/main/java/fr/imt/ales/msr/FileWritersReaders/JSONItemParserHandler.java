@@ -0,0 +1,22 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * Callback receiving the items of a JSON file as Jackson tokens, for the handlers reading only a part of each item
+ * without building it in memory
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public interface JSONItemParserHandler {
+
+    /**
+     * Handles an item of the file, the handler must read or skip the whole item
+     * @param jsonParser Parser positioned on the first token of the item
+     * @return true to read the next item, false to stop the reading
+     * @throws IOException Thrown when the item cannot be read or handled
+     */
+    boolean handleItem(JsonParser jsonParser) throws IOException;
+}
@@ -0,0 +1,161 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stream reading a file through memory mappings (FileChannel.map) : the bytes are read directly from the page cache
+ * of the system, without being copied in a heap buffer by the file system calls.
+ * The file is mapped by windows of WINDOW_SIZE bytes by default, so the files larger than 2 GB can be read, and the stream is not
+ * synchronized, unlike BufferedInputStream, since a stream is read by one thread.
+ * The mappings are released by the garbage collector, the file must not be truncated while it is read.
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class MappedFileInputStream extends InputStream {
+    /**
+     * Size of the windows mapped in memory
+     */
+    public static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+    private final FileChannel fileChannel;
+    private final long windowSize;
+    private final boolean closeChannel;
+    private final long size;
+    private long windowStart;
+    private MappedByteBuffer window;
+
+    /**
+     * Opens a file to read it from the beginning
+     * @param pathFile Path of the file
+     * @throws IOException Thrown when the file cannot be opened or mapped
+     */
+    public MappedFileInputStream(Path pathFile) throws IOException {
+        this(pathFile, WINDOW_SIZE);
+    }
+
+    /**
+     * Opens a file to read it from the beginning with windows of a given size
+     * @param pathFile Path of the file
+     * @param windowSize Size of the windows mapped in memory, must be strictly positive
+     * @throws IOException Thrown when the file cannot be opened or mapped
+     * @throws IllegalArgumentException Thrown when the size of the windows is not strictly positive
+     */
+    MappedFileInputStream(Path pathFile, long windowSize) throws IOException {
+        this(FileChannel.open(pathFile, StandardOpenOption.READ), 0, true, windowSize);
+    }
+
+    /**
+     * Reads a file opened from a given position, the channel is not closed with the stream
+     * @param fileChannel Channel of the file opened for reading
+     * @param position Offset of the first byte to read
+     * @throws IOException Thrown when the file cannot be mapped
+     */
+    public MappedFileInputStream(FileChannel fileChannel, long position) throws IOException {
+        this(fileChannel, position, false, WINDOW_SIZE);
+    }
+
+    /**
+     * Constructor of the stream
+     * @param fileChannel Channel of the file opened for reading
+     * @param position Offset of the first byte to read
+     * @param closeChannel true to close the channel with the stream
+     * @param windowSize Size of the windows mapped in memory, must be strictly positive
+     * @throws IOException Thrown when the file cannot be mapped
+     */
+    private MappedFileInputStream(FileChannel fileChannel, long position, boolean closeChannel, long windowSize) throws IOException {
+        this.fileChannel = fileChannel;
+        this.closeChannel = closeChannel;
+        this.windowSize = windowSize;
+        try {
+            if(windowSize < 1)
+                throw new IllegalArgumentException("The size of the windows must be strictly positive");
+            size = fileChannel.size();
+            mapWindow(Math.min(position, size));
+        } catch (IOException | RuntimeException e) {
+            if(closeChannel)
+                fileChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the window starting at a given offset
+     * @param start Offset of the first byte of the window
+     * @throws IOException Thrown when the file cannot be mapped
+     */
+    private void mapWindow(long start) throws IOException {
+        windowStart = start;
+        window = fileChannel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+    }
+
+    /**
+     * Maps the next window when the current one has been read
+     * @return false at the end of the file
+     * @throws IOException Thrown when the file cannot be mapped
+     */
+    private boolean ensureRemaining() throws IOException {
+        if(window.hasRemaining())
+            return true;
+        long nextStart = windowStart + window.limit();
+        if(nextStart >= size)
+            return false;
+        mapWindow(nextStart);
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if(!ensureRemaining())
+            return -1;
+        return window.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if(length == 0)
+            return 0;
+        if(!ensureRemaining())
+            return -1;
+        int nbBytes = Math.min(length, window.remaining());
+        window.get(bytes, offset, nbBytes);
+        return nbBytes;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if(n <= 0)
+            return 0;
+        long position = getPosition();
+        long nbBytes = Math.min(n, size - position);
+        if(nbBytes < window.remaining()){
+            window.position(window.position() + (int) nbBytes);
+        }else{
+            mapWindow(position + nbBytes);
+        }
+        return nbBytes;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, size - getPosition());
+    }
+
+    /**
+     * Returns the offset of the next byte to read
+     * @return Long offset in the file
+     */
+    public long getPosition() {
+        return windowStart + window.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(closeChannel)
+            fileChannel.close();
+    }
+}
@@ -0,0 +1,293 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the items of a newline-delimited JSON file (NDJSON), one JSON value per line.
+ * A file can be divided in byte ranges (splits) read in parallel : a split handles the lines starting in its range,
+ * so each line is read by exactly one split whatever the boundaries.
+ * A last line without new line which cannot be parsed is the item being written during a crash, it is ignored.
+ * The plain files are memory-mapped (see MappedFileInputStream).
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class NDJSONReader {
+    private final static Logger logger = LogManager.getLogger(NDJSONReader.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final List<String> NDJSON_EXTENSIONS = Arrays.asList(".ndjson", ".jsonl");
+
+    private final StreamReaderJSON streamReaderJSON = new StreamReaderJSON();
+
+    /**
+     * Default constructor
+     */
+    public NDJSONReader(){}
+
+    /**
+     * Indicates if a file is a NDJSON file according to its extension (".ndjson" or ".jsonl"), possibly followed by
+     * the extension of a compression format (e.g. ".ndjson.gz")
+     * @param filename Name or path of the file
+     * @return true if the extension is a NDJSON extension
+     */
+    public static boolean isNDJSONFile(String filename){
+        String filenameLowerCase = Compression.removeExtension(filename).toLowerCase();
+        for (String extension : NDJSON_EXTENSIONS) {
+            if(filenameLowerCase.endsWith(extension))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads all the items of a NDJSON file
+     * @param pathFile Path of the NDJSON file
+     * @param jsonItemHandler Handler receiving the items, it can stop the reading by returning false
+     * @return Long number of items given to the handler
+     * @throws IOException Thrown when the file cannot be read or when a line is malformed
+     */
+    public long forEachItem(Path pathFile, JSONItemHandler jsonItemHandler) throws IOException {
+        return forEachItem(pathFile, new Split(0, Files.size(pathFile)), jsonItemHandler);
+    }
+
+    /**
+     * Divides a NDJSON file in byte ranges of the same size to read them in parallel.
+     * A compressed file cannot be read from the middle, it is returned as one split.
+     * @param pathFile Path of the NDJSON file
+     * @param nbSplits Number of ranges, must be strictly positive
+     * @return List of the splits covering the file, empty splits are not returned
+     * @throws IOException Thrown when the size of the file cannot be read
+     */
+    public List<Split> split(Path pathFile, int nbSplits) throws IOException {
+        if(nbSplits < 1)
+            throw new IllegalArgumentException("The number of splits must be strictly positive");
+
+        long size = Files.size(pathFile);
+        List<Split> listSplits = new ArrayList<>();
+        if(size > 0 && Compression.detect(pathFile) != Compression.NONE){
+            listSplits.add(new Split(0, size));
+            return listSplits;
+        }
+        long splitSize = Math.max(1, (size + nbSplits - 1) / nbSplits);
+        for (long start = 0; start < size; start += splitSize) {
+            listSplits.add(new Split(start, Math.min(size, start + splitSize)));
+        }
+        return listSplits;
+    }
+
+    /**
+     * Reads the items of the lines starting in the range of a split, a compressed file is read whole by the split
+     * starting at the offset 0
+     * @param pathFile Path of the NDJSON file
+     * @param split Range of the file to read
+     * @param jsonItemHandler Handler receiving the items, it can stop the reading by returning false
+     * @return Long number of items given to the handler
+     * @throws IOException Thrown when the file cannot be read or when a line is malformed
+     */
+    public long forEachItem(Path pathFile, Split split, JSONItemHandler jsonItemHandler) throws IOException {
+        return forEachItemParser(pathFile, split, jsonParser -> {
+            Object item = streamReaderJSON.readValue(jsonParser);
+            checkEndOfLine(jsonParser);
+            return jsonItemHandler.handleItem(item);
+        });
+    }
+
+    /**
+     * Gives the parser positioned on the item of each line of a NDJSON file to the handler, which reads only what it
+     * needs (see JSONItemParserHandler)
+     * @param pathFile Path of the NDJSON file
+     * @param jsonItemParserHandler Handler reading or skipping each item, it can stop the reading by returning false
+     * @return Long number of items given to the handler
+     * @throws IOException Thrown when the file cannot be read or when a line is malformed
+     */
+    public long forEachItemParser(Path pathFile, JSONItemParserHandler jsonItemParserHandler) throws IOException {
+        return forEachItemParser(pathFile, new Split(0, Files.size(pathFile)), jsonItemParserHandler);
+    }
+
+    /**
+     * Gives the parser positioned on the item of each line starting in the range of a split to the handler, a
+     * compressed file is read whole by the split starting at the offset 0
+     * @param pathFile Path of the NDJSON file
+     * @param split Range of the file to read
+     * @param jsonItemParserHandler Handler reading or skipping each item, it can stop the reading by returning false
+     * @return Long number of items given to the handler
+     * @throws IOException Thrown when the file cannot be read or when a line is malformed
+     */
+    public long forEachItemParser(Path pathFile, Split split, JSONItemParserHandler jsonItemParserHandler) throws IOException {
+        if(Files.size(pathFile) > 0 && Compression.detect(pathFile) != Compression.NONE){
+            if(split.getStart() > 0)
+                return 0;
+            try (InputStream inputStream = Compression.openInputStream(pathFile)) {
+                return readLines(pathFile, inputStream, Long.MAX_VALUE, jsonItemParserHandler);
+            }
+        }
+
+        try (FileChannel fileChannel = FileChannel.open(pathFile, StandardOpenOption.READ)) {
+            //the line crossing the start of the split belongs to the previous split
+            long position = split.getStart() == 0 ? 0 : split.getStart() - 1;
+            InputStream inputStream = new MappedFileInputStream(fileChannel, position);
+
+            if(split.getStart() > 0){
+                int readByte;
+                while ((readByte = inputStream.read()) != -1) {
+                    position++;
+                    if(readByte == '\n')
+                        break;
+                }
+            }
+
+            return readLines(pathFile, inputStream, split.getEnd() - position, jsonItemParserHandler);
+        }
+    }
+
+    /**
+     * Reads the items of the lines of a stream
+     * @param pathFile Path of the NDJSON file, used in the messages
+     * @param inputStream Stream positioned at the start of a line
+     * @param maxLength Number of bytes after which no line is started
+     * @param jsonItemParserHandler Handler reading or skipping each item, it can stop the reading by returning false
+     * @return Long number of items given to the handler
+     * @throws IOException Thrown when the stream cannot be read or when a line is malformed
+     */
+    private long readLines(Path pathFile, InputStream inputStream, long maxLength, JSONItemParserHandler jsonItemParserHandler) throws IOException {
+        long nbItems = 0;
+        long position = 0;
+        LineBuffer lineBuffer = new LineBuffer();
+        while (position < maxLength) {
+            long lineLength = lineBuffer.readLine(inputStream);
+            if(lineLength < 0)
+                break;
+            position += lineLength;
+
+            if(lineBuffer.isBlank())
+                continue;
+
+            boolean readNext;
+            try (JsonParser jsonParser = JSON_FACTORY.createParser(lineBuffer.bytes, 0, lineBuffer.length)) {
+                jsonParser.nextToken();
+                readNext = jsonItemParserHandler.handleItem(jsonParser);
+                checkEndOfLine(jsonParser);
+            } catch (JsonParseException e) {
+                if(lineBuffer.isTerminated())
+                    throw e;
+                logger.warn("Partial line ignored at the end of " + pathFile);
+                break;
+            }
+
+            nbItems++;
+            if(!readNext)
+                break;
+        }
+        return nbItems;
+    }
+
+    /**
+     * Checks that the item read is the only JSON value of its line
+     * @param jsonParser Parser of the line positioned on the last token of the item
+     * @throws IOException Thrown when another value follows the item
+     */
+    private void checkEndOfLine(JsonParser jsonParser) throws IOException {
+        if(jsonParser.nextToken() != null)
+            throw new JsonParseException(jsonParser, "Several JSON values on the same line");
+    }
+
+    /**
+     * Range of bytes of a NDJSON file, the split handles the lines starting in [start, end[
+     */
+    public static class Split {
+        private final long start;
+        private final long end;
+
+        /**
+         * Constructor of a split
+         * @param start Offset of the first byte of the range
+         * @param end Offset following the last byte of the range
+         */
+        public Split(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Getter for the offset of the first byte of the range
+         * @return Long offset in the file
+         */
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * Getter for the offset following the last byte of the range
+         * @return Long offset in the file
+         */
+        public long getEnd() {
+            return end;
+        }
+    }
+
+    /**
+     * Buffer receiving a line of the file, reused for all the lines
+     */
+    private static class LineBuffer {
+        private byte[] bytes = new byte[1024];
+        private int length;
+        private boolean terminated;
+
+        /**
+         * Reads the next line, without the new line
+         * @param inputStream Stream of the file
+         * @return Long number of bytes read including the new line, -1 at the end of the stream
+         * @throws IOException Thrown when the stream cannot be read
+         */
+        private long readLine(InputStream inputStream) throws IOException {
+            length = 0;
+            terminated = false;
+            long nbBytesRead = 0;
+            int readByte;
+            while ((readByte = inputStream.read()) != -1) {
+                nbBytesRead++;
+                if(readByte == '\n'){
+                    terminated = true;
+                    return nbBytesRead;
+                }
+                if(length == bytes.length)
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                bytes[length++] = (byte) readByte;
+            }
+            return nbBytesRead == 0 ? -1 : nbBytesRead;
+        }
+
+        /**
+         * Indicates if the line contains only spaces
+         * @return true if the line is empty or contains only spaces, tabulations or carriage returns
+         */
+        private boolean isBlank(){
+            for (int i = 0; i < length; i++) {
+                if(bytes[i] != ' ' && bytes[i] != '\t' && bytes[i] != '\r')
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * Indicates if the line ends with a new line
+         * @return false for a last line without new line
+         */
+        private boolean isTerminated(){
+            return terminated;
+        }
+    }
+}
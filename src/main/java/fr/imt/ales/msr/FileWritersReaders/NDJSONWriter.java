@@ -0,0 +1,203 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the items in a newline-delimited JSON file (NDJSON) : one compact JSON value per line, appended at the end
+ * of the file as soon as it is received, so a file is never rewritten.
+ * The file is synchronized on the disk every syncInterval items and when it is closed. When a file is opened in append
+ * mode after a crash, the last line partially written is removed.
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class NDJSONWriter implements Closeable, Flushable {
+    private final static Logger logger = LogManager.getLogger(NDJSONWriter.class);
+    /**
+     * Default number of items written between two synchronizations on the disk
+     */
+    public static final int DEFAULT_SYNC_INTERVAL = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path pathFile;
+    private final FileChannel fileChannel;
+    private final OutputStream outputStream;
+    private final StreamWriterJSON streamWriterJSON = new StreamWriterJSON(false);
+    private final int syncInterval;
+    private int nbItemsNotSynced = 0;
+    private long nbItemsWritten = 0;
+
+    /**
+     * Constructor of the writer with the default synchronization interval
+     * @param pathFile Path of the NDJSON file, it is created if it does not exist
+     * @param append true to add the items at the end of the file, false to replace its content
+     * @throws IOException Thrown when the file cannot be opened
+     */
+    public NDJSONWriter(Path pathFile, boolean append) throws IOException {
+        this(pathFile, append, DEFAULT_SYNC_INTERVAL);
+    }
+
+    /**
+     * Constructor of the writer
+     * @param pathFile Path of the NDJSON file, it is created if it does not exist
+     * @param append true to add the items at the end of the file, false to replace its content
+     * @param syncInterval Number of items written between two synchronizations on the disk, must be strictly positive
+     * @throws IOException Thrown when the file cannot be opened
+     */
+    public NDJSONWriter(Path pathFile, boolean append, int syncInterval) throws IOException {
+        if(syncInterval < 1)
+            throw new IllegalArgumentException("The synchronization interval must be strictly positive");
+
+        this.pathFile = pathFile;
+        this.syncInterval = syncInterval;
+        fileChannel = FileChannel.open(pathFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        try {
+            if(append){
+                truncatePartialLine();
+            }else{
+                fileChannel.truncate(0);
+            }
+            fileChannel.position(fileChannel.size());
+        } catch (IOException e) {
+            fileChannel.close();
+            throw e;
+        }
+        outputStream = new BufferedOutputStream(Channels.newOutputStream(fileChannel), BUFFER_SIZE);
+    }
+
+    /**
+     * Removes the end of the file after the last new line, i.e. the item being written during a crash
+     * @throws IOException Thrown when the file cannot be read or truncated
+     */
+    private void truncatePartialLine() throws IOException {
+        long size = fileChannel.size();
+        ByteBuffer byteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long position = size;
+
+        while (position > 0) {
+            int length = (int) Math.min(BUFFER_SIZE, position);
+            position -= length;
+            byteBuffer.clear().limit(length);
+            while (byteBuffer.hasRemaining()) {
+                if(fileChannel.read(byteBuffer, position + byteBuffer.position()) < 0)
+                    break;
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                if(byteBuffer.get(i) == '\n'){
+                    truncate(position + i + 1, size);
+                    return;
+                }
+            }
+        }
+        truncate(0, size);
+    }
+
+    /**
+     * Truncates the file when it is longer than the given size
+     * @param newSize New size of the file
+     * @param size Current size of the file
+     * @throws IOException Thrown when the file cannot be truncated
+     */
+    private void truncate(long newSize, long size) throws IOException {
+        if(newSize < size){
+            logger.warn("Partial line removed at the end of " + pathFile + " (" + (size - newSize) + " bytes)");
+            fileChannel.truncate(newSize);
+        }
+    }
+
+    /**
+     * Writes an item on a new line
+     * @param item JSONObject, JSONArray or scalar value to write
+     * @throws IOException Thrown when the item cannot be written
+     */
+    public void writeItem(Object item) throws IOException {
+        streamWriterJSON.write(item, outputStream);
+        outputStream.write('\n');
+        nbItemsWritten++;
+        nbItemsNotSynced++;
+        if(nbItemsNotSynced >= syncInterval)
+            sync();
+    }
+
+    /**
+     * Writes the items buffered in the file and synchronizes it on the disk
+     * @throws IOException Thrown when the file cannot be written
+     */
+    public void sync() throws IOException {
+        outputStream.flush();
+        fileChannel.force(false);
+        nbItemsNotSynced = 0;
+    }
+
+    /**
+     * Returns the size of the file including the items buffered
+     * @return Long position of the next item in the file
+     * @throws IOException Thrown when the buffered items cannot be written
+     */
+    public long getPosition() throws IOException {
+        outputStream.flush();
+        return fileChannel.position();
+    }
+
+    /**
+     * Removes the end of the file, e.g. the items of a page not recorded in a checkpoint
+     * @param size New size of the file, the file is not modified when it is not longer
+     * @throws IOException Thrown when the file cannot be truncated
+     */
+    public void truncate(long size) throws IOException {
+        outputStream.flush();
+        if(size < fileChannel.size()){
+            fileChannel.truncate(size);
+            fileChannel.position(size);
+        }
+    }
+
+    /**
+     * Writes the items buffered in the file without synchronizing it on the disk
+     * @throws IOException Thrown when the file cannot be written
+     */
+    @Override
+    public void flush() throws IOException {
+        outputStream.flush();
+    }
+
+    /**
+     * Synchronizes the file on the disk and closes it
+     * @throws IOException Thrown when the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * Getter for the number of items written since the opening of the file
+     * @return Long number of items written
+     */
+    public long getNbItemsWritten() {
+        return nbItemsWritten;
+    }
+
+    /**
+     * Getter for the path of the file
+     * @return Path of the NDJSON file
+     */
+    public Path getPathFile() {
+        return pathFile;
+    }
+}
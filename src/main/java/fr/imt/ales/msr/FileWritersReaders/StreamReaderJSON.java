@@ -0,0 +1,204 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the items of a JSON file with a Jackson JsonParser : only the item being read is in memory, so the files
+ * of several GB can be filtered in constant memory.
+ * The items are the elements of the field "items" of the root object, or of the root array. The pages accumulated
+ * by GithubHttpClient.getRawTagCommitIssueJson ("items": [[page 1], [page 2]]) are flattened : each element of a page
+ * is an item. When the field "items" is an object (GithubHttpClient.getRawDataJson), this object is the only item.
+ * The items are converted in org.json objects, the numbers are typed as by the parser of org.json.
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class StreamReaderJSON {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String FIELD_ITEMS = "items";
+
+    /**
+     * Default constructor
+     */
+    public StreamReaderJSON(){}
+
+    /**
+     * Reads the items of a JSON document and gives them to the handler
+     * @param inputStream Stream of the document, it is not closed
+     * @param jsonItemHandler Handler receiving the items
+     * @return Long number of items given to the handler
+     * @throws IOException Thrown when the stream cannot be read or when the document is malformed
+     */
+    public long forEachItem(InputStream inputStream, JSONItemHandler jsonItemHandler) throws IOException {
+        try (JsonParser jsonParser = JSON_FACTORY.createParser(inputStream)) {
+            jsonParser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return forEachItem(jsonParser, jsonItemHandler);
+        }
+    }
+
+    /**
+     * Reads a whole JSON document and converts it in an org.json value
+     * @param inputStream Stream of the document, it is not closed
+     * @return JSONObject, JSONArray or scalar value of the root of the document
+     * @throws IOException Thrown when the stream cannot be read or when the document is malformed
+     */
+    public Object readDocument(InputStream inputStream) throws IOException {
+        try (JsonParser jsonParser = JSON_FACTORY.createParser(inputStream)) {
+            jsonParser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if(jsonParser.nextToken() == null)
+                throw new JsonParseException(jsonParser, "The JSON document is empty");
+            Object rootValue = readValue(jsonParser);
+            if(jsonParser.nextToken() != null)
+                throw new JsonParseException(jsonParser, "Several JSON values at the root of the document");
+            return rootValue;
+        }
+    }
+
+    /**
+     * Reads the items of a JSON document from a parser positioned before the root value
+     * @param jsonParser Parser of the document
+     * @param jsonItemHandler Handler receiving the items
+     * @return Long number of items given to the handler
+     * @throws IOException Thrown when the document cannot be read or is malformed
+     */
+    public long forEachItem(JsonParser jsonParser, JSONItemHandler jsonItemHandler) throws IOException {
+        return forEachItemParser(jsonParser, itemParser -> jsonItemHandler.handleItem(readValue(itemParser)));
+    }
+
+    /**
+     * Gives the parser positioned on each item of a JSON document to the handler, which reads only what it needs
+     * @param inputStream Stream of the document, it is not closed
+     * @param jsonItemParserHandler Handler reading or skipping each item
+     * @return Long number of items given to the handler
+     * @throws IOException Thrown when the stream cannot be read or when the document is malformed
+     */
+    public long forEachItemParser(InputStream inputStream, JSONItemParserHandler jsonItemParserHandler) throws IOException {
+        try (JsonParser jsonParser = JSON_FACTORY.createParser(inputStream)) {
+            jsonParser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return forEachItemParser(jsonParser, jsonItemParserHandler);
+        }
+    }
+
+    /**
+     * Gives the parser positioned on each item of a JSON document to the handler, which reads only what it needs
+     * @param jsonParser Parser of the document positioned before the root value
+     * @param jsonItemParserHandler Handler reading or skipping each item
+     * @return Long number of items given to the handler
+     * @throws IOException Thrown when the document cannot be read or is malformed
+     */
+    public long forEachItemParser(JsonParser jsonParser, JSONItemParserHandler jsonItemParserHandler) throws IOException {
+        CountingItemHandler countingItemHandler = new CountingItemHandler(jsonItemParserHandler);
+
+        JsonToken rootToken = jsonParser.nextToken();
+        if(rootToken == JsonToken.START_ARRAY){
+            handleArrayItems(jsonParser, countingItemHandler);
+            return countingItemHandler.nbItems;
+        }
+        if(rootToken != JsonToken.START_OBJECT)
+            throw new JsonParseException(jsonParser, "The root of the JSON document must be an object or an array");
+
+        boolean readNext = true;
+        while (readNext && jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jsonParser.getCurrentName();
+            JsonToken valueToken = jsonParser.nextToken();
+
+            if(!fieldName.equals(FIELD_ITEMS)){
+                jsonParser.skipChildren();
+            }else if(valueToken == JsonToken.START_ARRAY){
+                readNext = handleArrayItems(jsonParser, countingItemHandler);
+            }else{
+                readNext = countingItemHandler.handleItem(jsonParser);
+            }
+        }
+        return countingItemHandler.nbItems;
+    }
+
+    /**
+     * Gives the elements of the current array to the handler, the nested arrays (pages) are flattened
+     * @param jsonParser Parser positioned on the start of the array
+     * @param jsonItemParserHandler Handler receiving the items
+     * @return true if the whole array has been read, false if the handler stopped the reading
+     * @throws IOException Thrown when the document cannot be read or is malformed
+     */
+    private boolean handleArrayItems(JsonParser jsonParser, JSONItemParserHandler jsonItemParserHandler) throws IOException {
+        JsonToken token;
+        while ((token = jsonParser.nextToken()) != JsonToken.END_ARRAY) {
+            if(token == JsonToken.START_ARRAY){
+                while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                    if(!jsonItemParserHandler.handleItem(jsonParser))
+                        return false;
+                }
+            }else if(!jsonItemParserHandler.handleItem(jsonParser)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the value starting at the current token of the parser and converts it in an org.json value
+     * @param jsonParser Parser positioned on the first token of the value
+     * @return JSONObject, JSONArray, String, Number, Boolean or JSONObject.NULL
+     * @throws IOException Thrown when the document cannot be read or is malformed
+     */
+    public Object readValue(JsonParser jsonParser) throws IOException {
+        switch (jsonParser.getCurrentToken()){
+            case START_OBJECT:
+                JSONObject jsonObject = new JSONObject();
+                while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                    String fieldName = jsonParser.getCurrentName();
+                    jsonParser.nextToken();
+                    jsonObject.put(fieldName, readValue(jsonParser));
+                }
+                return jsonObject;
+            case START_ARRAY:
+                JSONArray jsonArray = new JSONArray();
+                while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                    jsonArray.put(readValue(jsonParser));
+                }
+                return jsonArray;
+            case VALUE_STRING:
+                return jsonParser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return JSONObject.stringToValue(jsonParser.getText());
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return JSONObject.NULL;
+            default:
+                throw new JsonParseException(jsonParser, "Unexpected token " + jsonParser.getCurrentToken());
+        }
+    }
+
+    /**
+     * Handler counting the items given to another handler
+     */
+    private static class CountingItemHandler implements JSONItemParserHandler {
+        private final JSONItemParserHandler jsonItemParserHandler;
+        private long nbItems = 0;
+
+        /**
+         * Constructor of the counting handler
+         * @param jsonItemParserHandler Handler receiving the items
+         */
+        private CountingItemHandler(JSONItemParserHandler jsonItemParserHandler){
+            this.jsonItemParserHandler = jsonItemParserHandler;
+        }
+
+        @Override
+        public boolean handleItem(JsonParser jsonParser) throws IOException {
+            nbItems++;
+            return jsonItemParserHandler.handleItem(jsonParser);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.PrettyPrinter;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Writes a JSONObject or a JSONArray with a Jackson JsonGenerator while walking the tree : the document is never
+ * converted into one String, the generator writes its buffer to the output as it fills up.
+ * The output is the same as the method toString of org.json (toString(2) with the pretty printing) : the scalar values
+ * are formatted by org.json, the field names are escaped by Jackson which only differs for the control characters.
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class StreamWriterJSON {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private final int INDENT_FACTOR = 2;
+
+    private final boolean prettyPrint;
+
+    /**
+     * Constructor of the writer
+     * @param prettyPrint true to indent the document as org.json toString(2), false to write it on one line
+     */
+    public StreamWriterJSON(boolean prettyPrint){
+        this.prettyPrint = prettyPrint;
+    }
+
+    /**
+     * Writes a JSON value in the output stream encoded in UTF-8, the stream is neither flushed nor closed
+     * @param value JSONObject, JSONArray or scalar value to write
+     * @param outputStream Stream where the document is written
+     * @throws IOException Thrown when the stream cannot be written
+     */
+    public void write(Object value, OutputStream outputStream) throws IOException {
+        try (JsonGenerator jsonGenerator = JSON_FACTORY.createGenerator(outputStream, JsonEncoding.UTF8)) {
+            jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            jsonGenerator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+
+            OrgJsonPrettyPrinter orgJsonPrettyPrinter = null;
+            if(prettyPrint){
+                orgJsonPrettyPrinter = new OrgJsonPrettyPrinter(INDENT_FACTOR);
+                jsonGenerator.setPrettyPrinter(orgJsonPrettyPrinter);
+            }
+            writeValue(jsonGenerator, orgJsonPrettyPrinter, value);
+        }
+    }
+
+    /**
+     * Writes a value and its children
+     * @param jsonGenerator Generator of the document
+     * @param orgJsonPrettyPrinter Pretty printer of the generator, null without pretty printing
+     * @param value Value to write
+     * @throws IOException Thrown when the output cannot be written
+     */
+    private void writeValue(JsonGenerator jsonGenerator, OrgJsonPrettyPrinter orgJsonPrettyPrinter, Object value) throws IOException {
+        Object wrappedValue = value instanceof JSONObject || value instanceof JSONArray ? value : JSONObject.wrap(value);
+
+        if(wrappedValue instanceof JSONObject){
+            JSONObject jsonObject = (JSONObject) wrappedValue;
+            if(orgJsonPrettyPrinter != null)
+                orgJsonPrettyPrinter.announceContainerSize(jsonObject.length());
+            jsonGenerator.writeStartObject();
+            for (String key : jsonObject.keySet()) {
+                jsonGenerator.writeFieldName(key);
+                writeValue(jsonGenerator, orgJsonPrettyPrinter, jsonObject.opt(key));
+            }
+            jsonGenerator.writeEndObject();
+        }else if(wrappedValue instanceof JSONArray){
+            JSONArray jsonArray = (JSONArray) wrappedValue;
+            if(orgJsonPrettyPrinter != null)
+                orgJsonPrettyPrinter.announceContainerSize(jsonArray.length());
+            jsonGenerator.writeStartArray();
+            for (int i = 0; i < jsonArray.length(); i++) {
+                writeValue(jsonGenerator, orgJsonPrettyPrinter, jsonArray.opt(i));
+            }
+            jsonGenerator.writeEndArray();
+        }else{
+            jsonGenerator.writeRawValue(JSONObject.valueToString(value));
+        }
+    }
+
+    /**
+     * Getter for the pretty printing
+     * @return true if the document is indented
+     */
+    public boolean isPrettyPrint() {
+        return prettyPrint;
+    }
+
+    /**
+     * Pretty printer reproducing the layout of org.json : "key": value, one entry per line indented by the indent factor,
+     * except for the containers with a single entry which are written on one line.
+     * The size of each container must be announced before it is started.
+     */
+    private static class OrgJsonPrettyPrinter implements PrettyPrinter {
+        private final int indentFactor;
+        private final Deque<Integer> containerSizes = new ArrayDeque<>();
+        private int nextContainerSize;
+        private int indentation = 0;
+
+        /**
+         * Constructor of the pretty printer
+         * @param indentFactor Number of spaces per level
+         */
+        private OrgJsonPrettyPrinter(int indentFactor){
+            this.indentFactor = indentFactor;
+        }
+
+        /**
+         * Gives the number of entries of the next container started
+         * @param containerSize Number of entries of the container
+         */
+        private void announceContainerSize(int containerSize){
+            nextContainerSize = containerSize;
+        }
+
+        /**
+         * Starts a container with the size announced
+         * @param jsonGenerator Generator of the document
+         * @param startChar '{' or '['
+         * @throws IOException Thrown when the output cannot be written
+         */
+        private void startContainer(JsonGenerator jsonGenerator, char startChar) throws IOException {
+            containerSizes.push(nextContainerSize);
+            jsonGenerator.writeRaw(startChar);
+        }
+
+        /**
+         * Starts the first entry of the current container
+         * @param jsonGenerator Generator of the document
+         * @throws IOException Thrown when the output cannot be written
+         */
+        private void beforeEntries(JsonGenerator jsonGenerator) throws IOException {
+            if(containerSizes.peek() > 1){
+                indentation += indentFactor;
+                newLine(jsonGenerator);
+            }
+        }
+
+        /**
+         * Ends the current container
+         * @param jsonGenerator Generator of the document
+         * @param endChar '}' or ']'
+         * @throws IOException Thrown when the output cannot be written
+         */
+        private void endContainer(JsonGenerator jsonGenerator, char endChar) throws IOException {
+            if(containerSizes.pop() > 1){
+                indentation -= indentFactor;
+                newLine(jsonGenerator);
+            }
+            jsonGenerator.writeRaw(endChar);
+        }
+
+        /**
+         * Writes a new line followed by the current indentation
+         * @param jsonGenerator Generator of the document
+         * @throws IOException Thrown when the output cannot be written
+         */
+        private void newLine(JsonGenerator jsonGenerator) throws IOException {
+            jsonGenerator.writeRaw('\n');
+            for (int i = 0; i < indentation; i++) {
+                jsonGenerator.writeRaw(' ');
+            }
+        }
+
+        @Override
+        public void writeRootValueSeparator(JsonGenerator jsonGenerator) throws IOException {
+            jsonGenerator.writeRaw('\n');
+        }
+
+        @Override
+        public void writeStartObject(JsonGenerator jsonGenerator) throws IOException {
+            startContainer(jsonGenerator, '{');
+        }
+
+        @Override
+        public void writeEndObject(JsonGenerator jsonGenerator, int nrOfEntries) throws IOException {
+            endContainer(jsonGenerator, '}');
+        }
+
+        @Override
+        public void writeObjectEntrySeparator(JsonGenerator jsonGenerator) throws IOException {
+            jsonGenerator.writeRaw(',');
+            newLine(jsonGenerator);
+        }
+
+        @Override
+        public void writeObjectFieldValueSeparator(JsonGenerator jsonGenerator) throws IOException {
+            jsonGenerator.writeRaw(": ");
+        }
+
+        @Override
+        public void writeStartArray(JsonGenerator jsonGenerator) throws IOException {
+            startContainer(jsonGenerator, '[');
+        }
+
+        @Override
+        public void writeEndArray(JsonGenerator jsonGenerator, int nrOfValues) throws IOException {
+            endContainer(jsonGenerator, ']');
+        }
+
+        @Override
+        public void writeArrayValueSeparator(JsonGenerator jsonGenerator) throws IOException {
+            jsonGenerator.writeRaw(',');
+            newLine(jsonGenerator);
+        }
+
+        @Override
+        public void beforeArrayValues(JsonGenerator jsonGenerator) throws IOException {
+            beforeEntries(jsonGenerator);
+        }
+
+        @Override
+        public void beforeObjectEntries(JsonGenerator jsonGenerator) throws IOException {
+            beforeEntries(jsonGenerator);
+        }
+    }
+}
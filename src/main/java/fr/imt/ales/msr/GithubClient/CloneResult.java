@@ -0,0 +1,110 @@
+package fr.imt.ales.msr.GithubClient;
+
+/**
+ * Result of the clone of one repository of a list, a failed clone does not stop the clone of the other repositories
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class CloneResult {
+
+    /**
+     * Operation done on the repository
+     */
+    public enum Action {
+        /** The repository has been cloned */
+        CLONED,
+        /** The existing repository has been fetched and the new commit checked out */
+        UPDATED,
+        /** The existing repository was already on the commit, nothing has been done */
+        UP_TO_DATE,
+        /** The clone or the update failed */
+        FAILED
+    }
+
+    private final String fullName;
+    private final String pathDirectory;
+    private final String commitSha;
+    private final Action action;
+    private final Exception error;
+    private final long durationMillis;
+
+    /**
+     * Constructor of the result of a clone
+     * @param fullName Full name of the repository (e.g. "octocat/Hello-World")
+     * @param pathDirectory Path of the directory of the working tree
+     * @param commitSha Sha of the commit checked out
+     * @param action Operation done on the repository, FAILED is used when an error is given
+     * @param error Exception thrown during the clone or the checkout, null if the clone succeeded
+     * @param durationMillis Duration of the clone and of the checkout in milliseconds
+     */
+    public CloneResult(String fullName, String pathDirectory, String commitSha, Action action, Exception error, long durationMillis) {
+        this.fullName = fullName;
+        this.pathDirectory = pathDirectory;
+        this.commitSha = commitSha;
+        this.action = error == null ? action : Action.FAILED;
+        this.error = error;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Indicates if the repository has been cloned and checked out
+     * @return true if no exception has been thrown
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Getter for the full name of the repository
+     * @return String full name (e.g. "octocat/Hello-World")
+     */
+    public String getFullName() {
+        return fullName;
+    }
+
+    /**
+     * Getter for the path of the working tree
+     * @return String path of the directory
+     */
+    public String getPathDirectory() {
+        return pathDirectory;
+    }
+
+    /**
+     * Getter for the sha of the commit checked out
+     * @return String sha of the commit
+     */
+    public String getCommitSha() {
+        return commitSha;
+    }
+
+    /**
+     * Getter for the operation done on the repository
+     * @return Action done
+     */
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * Getter for the exception thrown during the clone
+     * @return Exception thrown, null if the clone succeeded
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * Getter for the duration of the clone
+     * @return Long duration in milliseconds
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return fullName + " (" + commitSha + ") : " + (isSuccess() ? action.toString().toLowerCase() : "failed, " + error.getMessage())
+                + " in " + durationMillis + " ms";
+    }
+}
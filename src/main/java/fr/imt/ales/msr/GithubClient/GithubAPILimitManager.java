@@ -6,17 +6,247 @@ import org.apache.logging.log4j.Logger;
 import org.json.JSONObject;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Manager of the rate limit of the Github API.
+ * Without token, the requests are anonymous and the thread sleeps when the limit is reached.
+ * With a pool of personal access tokens, each request uses the token with the most requests remaining
+ * and the thread sleeps only when all the tokens are exhausted.
+ * The requests are paced by default : they are spaced to spread the requests remaining until the reset instead of
+ * consuming them in a burst and waiting up to an hour.
+ * @author Quentin Perez
+ * @version 1.0
+ */
 public class GithubAPILimitManager {
     final static Logger logger = LogManager.getLogger(GithubAPILimitManager.class);
+    private static final long RESET_MARGIN_SECONDS = 3;
+
+    private final List<TokenRateLimit> tokensRateLimit = new ArrayList<>();
+    private Long anonymousRateLimitReset;
+    private Integer anonymousRateLimitRemaining;
+
+    private boolean pacingEnabled = true;
+    private long nextRequestSlotMillis = 0;
+    private volatile long lastAppliedDelayMillis = 0;
+    private final AtomicLong totalAppliedDelayMillis = new AtomicLong();
 
     public GithubAPILimitManager(){}
 
+    /**
+     * Adds a personal access token in the pool, its rate limit is unknown until the first response
+     * @param token Personal access token
+     */
+    public synchronized void addToken(String token){
+        if(token == null || token.equals(""))
+            throw new IllegalArgumentException("The token cannot be null or empty");
+        for (TokenRateLimit tokenRateLimit : tokensRateLimit) {
+            if(tokenRateLimit.token.equals(token))
+                return;
+        }
+        tokensRateLimit.add(new TokenRateLimit(token));
+    }
+
+    /**
+     * Returns the number of tokens in the pool
+     * @return Integer number of tokens
+     */
+    public synchronized int getNbTokens(){
+        return tokensRateLimit.size();
+    }
+
+    /**
+     * Returns the token to use for the next request : the token with the most requests remaining.
+     * One request is reserved on the token returned so concurrent requests are distributed over the pool.
+     * When all the tokens are exhausted, the thread sleeps until the first reset of the rate limit.
+     * @return String token to send in the HTTP Header field "Authorization", null if the pool is empty
+     * @throws InterruptedException Exception thrown when a problem occurred with the Thread
+     */
+    public synchronized String acquireToken() throws InterruptedException {
+        if(tokensRateLimit.isEmpty())
+            return null;
+
+        while (true){
+            long nowSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+            TokenRateLimit tokenSelected = null;
+            long nextResetSeconds = Long.MAX_VALUE;
+
+            for (TokenRateLimit tokenRateLimit : tokensRateLimit) {
+                //the rate limit of the token has been reset since the last response
+                if(tokenRateLimit.remaining <= 0 && tokenRateLimit.reset + RESET_MARGIN_SECONDS <= nowSeconds){
+                    tokenRateLimit.remaining = TokenRateLimit.UNKNOWN_REMAINING;
+                    tokenRateLimit.rateLimitKnown = false;
+                }
+
+                if(tokenRateLimit.remaining > 0 && (tokenSelected == null || tokenRateLimit.remaining > tokenSelected.remaining))
+                    tokenSelected = tokenRateLimit;
+                nextResetSeconds = Math.min(nextResetSeconds, tokenRateLimit.reset);
+            }
+
+            if(tokenSelected != null){
+                tokenSelected.remaining--;
+                return tokenSelected.token;
+            }
+
+            long sleepTime = Math.max(0, nextResetSeconds + RESET_MARGIN_SECONDS - nowSeconds) * 1000;
+            logger.info("==< GitHub API Limit reached for all the tokens >==");
+            logger.info("WAIT : " + sleepTime + " milliseconds before next request");
+            //wait releases the lock, the other threads can update the rate limits in the meantime
+            wait(Math.max(1, sleepTime));
+        }
+    }
+
+    /**
+     * Updates the rate limit of a token with the values of the HTTP Headers of a response
+     * @param token Token used for the request, null for an anonymous request
+     * @param timestampRateLimitReset Long timestamp rate limit reset (corresponds to HTTP Header field : X-RateLimit-Reset)
+     * @param rateLimitRemaining Integer rate limit remaining (corresponds to HTTP Header field : X-RateLimit-Remaining)
+     */
+    public synchronized void updateTokenRateLimit(String token, Long timestampRateLimitReset, Integer rateLimitRemaining){
+        if(timestampRateLimitReset == null || rateLimitRemaining == null)
+            return;
+
+        if(token == null){
+            anonymousRateLimitReset = timestampRateLimitReset;
+            anonymousRateLimitRemaining = rateLimitRemaining;
+            return;
+        }
+
+        for (TokenRateLimit tokenRateLimit : tokensRateLimit) {
+            if(tokenRateLimit.token.equals(token)){
+                tokenRateLimit.reset = timestampRateLimitReset;
+                tokenRateLimit.remaining = rateLimitRemaining;
+                tokenRateLimit.rateLimitKnown = true;
+                logger.debug("Rate limit remaining for the token " + tokensRateLimit.indexOf(tokenRateLimit) + " : " + rateLimitRemaining);
+                notifyAll();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits for the slot of the next request. When the pacing is enabled, the slots are spaced by the time remaining
+     * until the reset divided by the requests remaining (summed over the tokens of the pool), so the budget is spread
+     * evenly. The slots are shared by all the threads, and a delay asked by the API (HTTP Header field "Retry-After")
+     * postpones the slots even if the pacing is disabled.
+     * @return Long delay applied in milliseconds
+     * @throws InterruptedException Exception thrown when a problem occurred with the Thread
+     */
+    public long paceRequest() throws InterruptedException {
+        long delayMillis;
+        synchronized (this){
+            long nowMillis = System.currentTimeMillis();
+            long slotMillis = Math.max(nowMillis, nextRequestSlotMillis);
+            nextRequestSlotMillis = slotMillis + (pacingEnabled ? computePacingInterval(nowMillis) : 0);
+            delayMillis = slotMillis - nowMillis;
+        }
+        lastAppliedDelayMillis = delayMillis;
+        totalAppliedDelayMillis.addAndGet(delayMillis);
+        if(delayMillis > 0){
+            logger.debug("Pacing : " + delayMillis + " milliseconds before next request");
+            Thread.sleep(delayMillis);
+        }
+        return delayMillis;
+    }
+
+    /**
+     * Waits the delay asked by the API after a secondary rate limit (HTTP status 403 or 429), the next requests of all
+     * the threads are postponed after this delay
+     * @param retryAfterSeconds Delay in seconds (corresponds to HTTP Header field : Retry-After)
+     * @return Long delay applied in milliseconds
+     * @throws InterruptedException Exception thrown when a problem occurred with the Thread
+     */
+    public long waitRetryAfter(long retryAfterSeconds) throws InterruptedException {
+        long delayMillis = TimeUnit.SECONDS.toMillis(Math.max(0, retryAfterSeconds));
+        synchronized (this){
+            nextRequestSlotMillis = Math.max(nextRequestSlotMillis, System.currentTimeMillis() + delayMillis);
+        }
+        lastAppliedDelayMillis = delayMillis;
+        totalAppliedDelayMillis.addAndGet(delayMillis);
+        logger.info("==< GitHub API secondary rate limit >==");
+        logger.info("WAIT : " + delayMillis + " milliseconds before next request");
+        Thread.sleep(delayMillis);
+        return delayMillis;
+    }
+
+    /**
+     * Computes the interval between two requests to consume the requests remaining evenly until the reset
+     * @param nowMillis Current timestamp in milliseconds
+     * @return Long interval in milliseconds, 0 when the rate limit is unknown or exhausted (the wait is then handled at the reset)
+     */
+    private long computePacingInterval(long nowMillis){
+        double requestsPerMillis = 0;
+        if(tokensRateLimit.isEmpty()){
+            if(anonymousRateLimitReset == null || anonymousRateLimitRemaining == null)
+                return 0;
+            requestsPerMillis = computeRequestsPerMillis(anonymousRateLimitReset, anonymousRateLimitRemaining, nowMillis);
+        } else {
+            for (TokenRateLimit tokenRateLimit : tokensRateLimit) {
+                if(!tokenRateLimit.rateLimitKnown)
+                    return 0;
+                requestsPerMillis += computeRequestsPerMillis(tokenRateLimit.reset, tokenRateLimit.remaining, nowMillis);
+            }
+        }
+        if(requestsPerMillis <= 0 || Double.isInfinite(requestsPerMillis))
+            return 0;
+        return (long) (1 / requestsPerMillis);
+    }
+
+    /**
+     * Computes the rate of requests allowed until the reset
+     * @param timestampRateLimitReset Long timestamp rate limit reset in seconds
+     * @param rateLimitRemaining Integer rate limit remaining
+     * @param nowMillis Current timestamp in milliseconds
+     * @return Double number of requests per millisecond
+     */
+    private double computeRequestsPerMillis(long timestampRateLimitReset, int rateLimitRemaining, long nowMillis){
+        if(rateLimitRemaining <= 0)
+            return 0;
+        long timeLeftMillis = TimeUnit.SECONDS.toMillis(timestampRateLimitReset + RESET_MARGIN_SECONDS) - nowMillis;
+        if(timeLeftMillis <= 0)
+            return Double.POSITIVE_INFINITY;
+        return rateLimitRemaining / (double) timeLeftMillis;
+    }
+
+    /**
+     * Indicates if the requests are paced
+     * @return true if the pacing is enabled
+     */
+    public boolean isPacingEnabled() {
+        return pacingEnabled;
+    }
+
+    /**
+     * Enables or disables the pacing of the requests, it is enabled by default
+     * @param pacingEnabled true to spread the requests remaining until the reset, false to consume them in a burst
+     */
+    public synchronized void setPacingEnabled(boolean pacingEnabled) {
+        this.pacingEnabled = pacingEnabled;
+    }
+
+    /**
+     * Returns the delay applied before the last request by the pacing or after a secondary rate limit
+     * @return Long delay in milliseconds
+     */
+    public long getLastAppliedDelayMillis() {
+        return lastAppliedDelayMillis;
+    }
+
+    /**
+     * Returns the sum of the delays applied by the pacing and after the secondary rate limits
+     * @return Long delay in milliseconds
+     */
+    public long getTotalAppliedDelayMillis() {
+        return totalAppliedDelayMillis.get();
+    }
+
     /**
      * Sleep the main Thread according to the rate limit remaining and the rate limit timestamp provided by the GitHub API
      * @param timestampRateLimitReset Long timestamp rate limit reset (corresponds to HTTP Header field : X-RateLimit-Reset)
@@ -26,7 +256,7 @@ public class GithubAPILimitManager {
     public long handleLimitAPIGithub(Long timestampRateLimitReset, Integer rateLimitRemaining) throws InterruptedException {
         if(rateLimitRemaining == 0){
             //Create the time diff between the timestamp returned by Github in the headers and the timestamp obtained from the local system
-            long sleepTime = Math.abs(timestampRateLimitReset - TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 3)*1000;
+            long sleepTime = Math.abs(timestampRateLimitReset - TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + RESET_MARGIN_SECONDS)*1000;
             logger.info("==< GitHub API Limit reached >==");
             logger.info("WAIT : "+ sleepTime + " milliseconds before next request");
             logger.info("==< The program is not freeze, it's just a thread sleep ;-) >==");
@@ -71,4 +301,19 @@ public class GithubAPILimitManager {
         LoggerPrintUtils.printMapAsTable(logger,  mapLimit);
     }
 
+    /**
+     * Rate limit of a personal access token
+     */
+    private static class TokenRateLimit {
+        private static final int UNKNOWN_REMAINING = Integer.MAX_VALUE;
+
+        private final String token;
+        private int remaining = UNKNOWN_REMAINING;
+        private boolean rateLimitKnown = false;
+        private long reset = 0;
+
+        private TokenRateLimit(String token){
+            this.token = token;
+        }
+    }
 }
@@ -3,13 +3,35 @@ package fr.imt.ales.msr.GithubClient;
 import fr.imt.ales.msr.LoggerUtils.LoggerPrintUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.eclipse.jgit.api.CloneCommand;
+import org.eclipse.jgit.api.FetchCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.api.errors.InvalidRemoteException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.transport.CredentialsProvider;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.RemoteConfig;
+import org.eclipse.jgit.transport.TagOpt;
+import org.eclipse.jgit.transport.URIish;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Github client using JGit to checkout a project
@@ -18,6 +40,9 @@ import java.io.File;
  */
 public class GithubGitClient {
     private Git git;
+    private int nbParallelClones = 1;
+    private boolean singleBranchClone = false;
+    private final static String DEFAULT_BRANCH = "master";
     private final static Logger logger = LogManager.getLogger(GithubGitClient.class);
 
     /**
@@ -54,21 +79,31 @@ public class GithubGitClient {
     }
 
     /**
-     *
-     * @param jsonObjectListRepositories
-     * @param pathDirectory
-     * @param username
-     * @param password
+     * Clones the repositories of the list and checkouts their last commit (field "last_commit" added by
+     * GithubHttpClient.getLastCommitForRepositoriesList). The repositories are cloned by nbParallelClones threads,
+     * each clone uses its own Git object and a failed clone is reported in its result without stopping the others.
+     * A repository already cloned in the directory is fetched and checked out on the new commit, or skipped when
+     * the commit has not changed.
+     * @param jsonObjectListRepositories JSONObject with the list of repositories in the field "items"
+     * @param pathDirectory Path of the directory where the repositories are cloned (one sub directory per full name)
+     * @param username Username for the authentication, the clone is anonymous if the username or the password is empty
+     * @param password Password for the authentication
+     * @return List of the results of the clones in the order of the list
      */
-    public void cloneRepositoriesFromList(JSONObject jsonObjectListRepositories, String pathDirectory, String username, String password) throws GitAPIException, GitRepositoryNotInitializedException {
+    public List<CloneResult> cloneRepositoriesFromList(JSONObject jsonObjectListRepositories, String pathDirectory, String username, String password) {
         JSONArray jsonArrayItems = jsonObjectListRepositories.getJSONArray("items");
 
         if(!pathDirectory.endsWith("/"))
             pathDirectory+= "/";
 
-        for (int i = 0; i < jsonArrayItems.length(); i++) {
+        CredentialsProvider credentialsProvider = null;
+        if((username != null && !username.equals("") &&
+                (password != null && !password.equals("")))){
+            credentialsProvider = new UsernamePasswordCredentialsProvider(username, password);
+        }
 
-            LoggerPrintUtils.printLaunchBar(logger,"==< Clone repositories >==",i+1,jsonArrayItems.length());
+        List<Callable<CloneResult>> listCloneTasks = new ArrayList<>();
+        for (int i = 0; i < jsonArrayItems.length(); i++) {
             if(jsonArrayItems.get(i) instanceof JSONObject){
                 JSONObject jsonObjectRepo = jsonArrayItems.getJSONObject(i);
 
@@ -79,24 +114,249 @@ public class GithubGitClient {
                         String cloneUrl = jsonObjectRepo.getString("clone_url");
                         String fullname = jsonObjectRepo.getString("full_name");
                         String sha = jsonObjectCommit.getString("sha");
+                        //the branch on which GithubHttpClient.getLastCommitForRepositoriesList resolved the last commit
+                        String branch = jsonObjectCommit.optString("branch", jsonObjectRepo.optString("default_branch", DEFAULT_BRANCH));
+                        String pathRepository = pathDirectory + fullname;
+                        CredentialsProvider credentialsProviderRepo = credentialsProvider;
 
-                        logger.info("== Clone: " + fullname + "==");
-                        if((username != null && !username.equals("") &&
-                                (password != null && !password.equals("")))){
-                            cloneRepository(cloneUrl,pathDirectory + fullname, username, password);
-                        }else{
-                            cloneRepository(cloneUrl,pathDirectory + fullname);
-                        }
-                        checkoutWithCommitID(sha);
+                        listCloneTasks.add(() -> cloneAndCheckout(cloneUrl, pathRepository, fullname, branch, sha, credentialsProviderRepo));
                     }
-
                 }
                 else{
                     logger.warn("Unknown object type");
                 }
             }
+        }
+
+        return runCloneTasks(listCloneTasks);
+    }
+
+    /**
+     * Runs the clones on a pool of nbParallelClones threads and displays the progress
+     * @param listCloneTasks Clones to run
+     * @return List of the results of the clones in the order of the tasks
+     */
+    private List<CloneResult> runCloneTasks(List<Callable<CloneResult>> listCloneTasks){
+        List<CloneResult> listCloneResults = new ArrayList<>();
+        if(listCloneTasks.isEmpty())
+            return listCloneResults;
+
+        int nbTasks = listCloneTasks.size();
+        AtomicInteger nbTasksDone = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(nbParallelClones, nbTasks));
+        try {
+            List<Future<CloneResult>> listFutures = new ArrayList<>();
+            for (Callable<CloneResult> cloneTask : listCloneTasks) {
+                listFutures.add(executorService.submit(() -> {
+                    CloneResult cloneResult = cloneTask.call();
+                    synchronized (logger){
+                        LoggerPrintUtils.printLaunchBar(logger,"==< Clone repositories >==",nbTasksDone.incrementAndGet(),nbTasks);
+                    }
+                    return cloneResult;
+                }));
+            }
+
+            for (Future<CloneResult> future : listFutures) {
+                listCloneResults.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("The clone of the repositories has been interrupted");
+        } catch (ExecutionException e) {
+            //cloneAndCheckout catches the exceptions of the clone
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        int nbFailures = 0;
+        for (CloneResult cloneResult : listCloneResults) {
+            if(!cloneResult.isSuccess())
+                nbFailures++;
+        }
+        logger.info("== " + (listCloneResults.size() - nbFailures) + " repositories cloned or updated, " + nbFailures + " failed ==");
+        return listCloneResults;
+    }
+
+    /**
+     * Clones a repository and checkouts a commit with its own Git object, the exceptions are reported in the result.
+     * When the directory already contains a repository, it is updated with updateAndCheckout instead of cloned.
+     * @param gitURL Url of the repository
+     * @param absolutePathDirectory Path of the directory of the working tree
+     * @param fullName Full name of the repository
+     * @param branch Branch containing the commit, only this branch is fetched in the single branch mode
+     * @param commitSha Sha of the commit to checkout
+     * @param credentialsProvider Credentials for the authentication, null for an anonymous clone
+     * @return CloneResult of the clone
+     */
+    private CloneResult cloneAndCheckout(String gitURL, String absolutePathDirectory, String fullName, String branch, String commitSha, CredentialsProvider credentialsProvider){
+        long startMillis = System.currentTimeMillis();
+        if(new File(absolutePathDirectory, Constants.DOT_GIT).isDirectory()){
+            try {
+                CloneResult.Action action = updateAndCheckout(absolutePathDirectory, fullName, branch, commitSha, credentialsProvider);
+                return new CloneResult(fullName, absolutePathDirectory, commitSha, action, null, System.currentTimeMillis() - startMillis);
+            } catch (Exception e) {
+                logger.error("== Update of " + fullName + " failed : " + e.getMessage() + " ==");
+                return new CloneResult(fullName, absolutePathDirectory, commitSha, CloneResult.Action.FAILED, e, System.currentTimeMillis() - startMillis);
+            }
+        }
+
+        logger.info("== Clone: " + fullName + "==");
+        try (Git gitRepository = singleBranchClone ?
+                fetchSingleBranch(gitURL, absolutePathDirectory, branch, credentialsProvider) :
+                cloneFull(gitURL, absolutePathDirectory, credentialsProvider)){
+            gitRepository.checkout().setName(commitSha).call();
+        } catch (Exception e) {
+            logger.error("== Clone of " + fullName + " failed : " + e.getMessage() + " ==");
+            return new CloneResult(fullName, absolutePathDirectory, commitSha, CloneResult.Action.FAILED, e, System.currentTimeMillis() - startMillis);
+        }
+        return new CloneResult(fullName, absolutePathDirectory, commitSha, CloneResult.Action.CLONED, null, System.currentTimeMillis() - startMillis);
+    }
+
+    /**
+     * Updates a repository already cloned : nothing is done when HEAD is already on the commit, the remote is fetched
+     * only when the commit is not in the local repository, then the commit is checked out
+     * @param absolutePathDirectory Path of the directory of the working tree
+     * @param fullName Full name of the repository
+     * @param branch Branch containing the commit, only this branch is fetched in the single branch mode
+     * @param commitSha Sha of the commit to checkout
+     * @param credentialsProvider Credentials for the authentication, null for an anonymous fetch
+     * @return CloneResult.Action UP_TO_DATE or UPDATED
+     * @throws GitAPIException Thrown when the fetch or the checkout fails
+     * @throws IOException Thrown when the repository cannot be read
+     */
+    private CloneResult.Action updateAndCheckout(String absolutePathDirectory, String fullName, String branch, String commitSha, CredentialsProvider credentialsProvider) throws GitAPIException, IOException {
+        try (Git gitRepository = Git.open(new File(absolutePathDirectory))){
+            Repository repository = gitRepository.getRepository();
+            ObjectId objectIdCommit = ObjectId.fromString(commitSha);
+
+            ObjectId objectIdHead = repository.resolve(Constants.HEAD);
+            if(objectIdCommit.equals(objectIdHead)){
+                logger.info("== " + fullName + " is up to date ==");
+                return CloneResult.Action.UP_TO_DATE;
+            }
+
+            logger.info("== Update: " + fullName + "==");
+            if(!repository.hasObject(objectIdCommit)){
+                if(singleBranchClone){
+                    fetchBranch(gitRepository, branch, credentialsProvider);
+                }else{
+                    FetchCommand fetchCommand = gitRepository.fetch().setRemote(Constants.DEFAULT_REMOTE_NAME);
+                    if(credentialsProvider != null)
+                        fetchCommand.setCredentialsProvider(credentialsProvider);
+                    fetchCommand.call();
+                }
+            }
+            gitRepository.checkout().setName(commitSha).call();
+            return CloneResult.Action.UPDATED;
+        }
+    }
+
+    /**
+     * Clones all the branches and the tags of a repository
+     * @param gitURL Url of the repository
+     * @param absolutePathDirectory Path of the directory of the working tree
+     * @param credentialsProvider Credentials for the authentication, null for an anonymous clone
+     * @return Git object of the repository, to close by the caller
+     * @throws GitAPIException Thrown when the clone fails
+     */
+    private Git cloneFull(String gitURL, String absolutePathDirectory, CredentialsProvider credentialsProvider) throws GitAPIException {
+        CloneCommand cloneCommand = Git.cloneRepository()
+                .setURI(gitURL)
+                .setDirectory(new File(absolutePathDirectory));
+        if(credentialsProvider != null)
+            cloneCommand.setCredentialsProvider(credentialsProvider);
+        return cloneCommand.call();
+    }
 
+    /**
+     * Initializes a repository and fetches only one branch without the tags, the working tree is not checked out.
+     * JGit does not support the shallow fetch (--depth), the history of the branch is fetched
+     * but not the objects of the other branches and of the tags.
+     * @param gitURL Url of the repository
+     * @param absolutePathDirectory Path of the directory of the working tree
+     * @param branch Name of the branch to fetch
+     * @param credentialsProvider Credentials for the authentication, null for an anonymous fetch
+     * @return Git object of the repository, to close by the caller
+     * @throws GitAPIException Thrown when the fetch fails
+     * @throws IOException Thrown when the configuration of the repository cannot be saved
+     */
+    private Git fetchSingleBranch(String gitURL, String absolutePathDirectory, String branch, CredentialsProvider credentialsProvider) throws GitAPIException, IOException {
+        Git gitRepository = Git.init().setDirectory(new File(absolutePathDirectory)).call();
+        try {
+            RefSpec refSpecBranch = new RefSpec("+" + Constants.R_HEADS + branch + ":" + Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/" + branch);
+
+            StoredConfig config = gitRepository.getRepository().getConfig();
+            RemoteConfig remoteConfig = new RemoteConfig(config, Constants.DEFAULT_REMOTE_NAME);
+            remoteConfig.addURI(new URIish(gitURL));
+            remoteConfig.addFetchRefSpec(refSpecBranch);
+            remoteConfig.setTagOpt(TagOpt.NO_TAGS);
+            remoteConfig.update(config);
+            config.save();
+
+            fetchBranch(gitRepository, branch, credentialsProvider);
+        } catch (GitAPIException | IOException | RuntimeException e) {
+            gitRepository.close();
+            throw e;
+        } catch (URISyntaxException e) {
+            gitRepository.close();
+            throw new InvalidRemoteException("Invalid remote: " + gitURL);
         }
+        return gitRepository;
+    }
+
+    /**
+     * Fetches one branch of the remote "origin" without the tags
+     * @param gitRepository Git object of the repository
+     * @param branch Name of the branch to fetch
+     * @param credentialsProvider Credentials for the authentication, null for an anonymous fetch
+     * @throws GitAPIException Thrown when the fetch fails
+     */
+    private void fetchBranch(Git gitRepository, String branch, CredentialsProvider credentialsProvider) throws GitAPIException {
+        RefSpec refSpecBranch = new RefSpec("+" + Constants.R_HEADS + branch + ":" + Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/" + branch);
+        FetchCommand fetchCommand = gitRepository.fetch()
+                .setRemote(Constants.DEFAULT_REMOTE_NAME)
+                .setRefSpecs(refSpecBranch)
+                .setTagOpt(TagOpt.NO_TAGS);
+        if(credentialsProvider != null)
+            fetchCommand.setCredentialsProvider(credentialsProvider);
+        fetchCommand.call();
+    }
+
+    /**
+     * Indicates if cloneRepositoriesFromList fetches only the branch of the last commit, without the tags
+     * @return true if the single branch mode is enabled
+     */
+    public boolean isSingleBranchClone() {
+        return singleBranchClone;
+    }
+
+    /**
+     * Enables or disables the single branch mode of cloneRepositoriesFromList : only the branch of the last commit
+     * (field "default_branch" of the repository, "master" otherwise) is fetched without the tags, then the commit is checked out
+     * @param singleBranchClone true to fetch only the branch of the last commit
+     */
+    public void setSingleBranchClone(boolean singleBranchClone) {
+        this.singleBranchClone = singleBranchClone;
+    }
+
+    /**
+     * Getter for the number of repositories cloned at the same time by cloneRepositoriesFromList
+     * @return Integer number of parallel clones
+     */
+    public int getNbParallelClones() {
+        return nbParallelClones;
+    }
+
+    /**
+     * Setter for the number of repositories cloned at the same time by cloneRepositoriesFromList, the clones are
+     * bound by the network and the disk so a value greater than the number of processors can be used
+     * @param nbParallelClones Integer number of parallel clones, must be strictly positive
+     */
+    public void setNbParallelClones(int nbParallelClones) {
+        if(nbParallelClones < 1)
+            throw new IllegalArgumentException("The number of parallel clones must be strictly positive");
+        this.nbParallelClones = nbParallelClones;
     }
 
     /**
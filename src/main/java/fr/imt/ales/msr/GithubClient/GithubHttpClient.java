@@ -1,319 +1,662 @@
 package fr.imt.ales.msr.GithubClient;
 
+import fr.imt.ales.msr.Checkpoint.CheckpointJournal;
+import fr.imt.ales.msr.FileWritersReaders.CommitTimeIndex;
 import fr.imt.ales.msr.FileWritersReaders.FileWriterJSON;
+import fr.imt.ales.msr.FileWritersReaders.JSONItemHandler;
+import fr.imt.ales.msr.FileWritersReaders.NDJSONReader;
+import fr.imt.ales.msr.FileWritersReaders.NDJSONWriter;
 import fr.imt.ales.msr.LoggerUtils.LoggerPrintUtils;
-import net.minidev.json.parser.JSONParser;
 
-import org.apache.commons.lang3.StringUtils;
-import org.apache.http.*;
+import org.apache.http.Header;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.utils.URLEncodedUtils;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.Closeable;
 import java.io.IOException;
-import java.net.URI;
+import java.io.UnsupportedEncodingException;
 import java.net.URISyntaxException;
-import java.nio.charset.Charset;
+import java.net.URLEncoder;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * HTTP Client to request the Github API
  * @author Quentin Perez
  * @version 1.0
  */
-public class GithubHttpClient {
+public class GithubHttpClient implements Closeable {
+    /**
+     * Value of maxPages to request all the pages of a paginated request
+     */
+    public static final int UNLIMITED_PAGES = 0;
+
+    private static final int MAX_ATTEMPTS_RATE_LIMITED = 5;
+    private static final long DEFAULT_RETRY_AFTER_SECONDS = 60;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String DEFAULT_BRANCH = "master";
+
     private CloseableHttpClient httpClient;
     private GithubAPILimitManager githubAPILimitManager;
+    private int nbParallelRequests = 1;
+    private GithubResponseCache responseCache;
     private final static Logger logger = LogManager.getLogger(GithubHttpClient.class);
 
     /**
-     * Default constructor
+     * Default constructor, the connections are pooled with the default settings of GithubHttpTransport
      */
     public GithubHttpClient(){
-        httpClient = HttpClients.createDefault();
-        githubAPILimitManager = new GithubAPILimitManager();
+        this(new GithubHttpTransport());
     }
-    
-    static int comp = 0;
 
     /**
-     *
-     * @param URLStringApi
-     * @param jsonAllItems
-     * @return
-     * @throws IOException
-     * @throws URISyntaxException
-     * @throws InterruptedException
+     * Constructor with specific settings for the pool of connections, the timeouts and the compression
+     * @param githubHttpTransport Settings of the HTTP transport
      */
-    
-    public JSONObject getRawTagCommitIssueJson(String URLStringApi, JSONObject jsonAllItems) throws IOException, URISyntaxException, InterruptedException {
-        List<NameValuePair> urlParams = URLEncodedUtils.parse(new URI(urlEncodeSpecificChars(URLStringApi)), Charset.forName("UTF-8"));
-
-        int currentPageNumber = 1;
-        int lastPageNumber = 1;
-        String urlNextPageString = null;
-        boolean isFirstPage = true;
+    public GithubHttpClient(GithubHttpTransport githubHttpTransport){
+        setHttpClient(githubHttpTransport.build());
+        githubAPILimitManager = new GithubAPILimitManager();
+    }
 
+    /**
+     * Requests the given URL and returns the page received with the values of the headers used for the pagination
+     * and the API limitations
+     * @param URLStringApi URL to request
+     * @return GithubPage corresponding to the response
+     * @throws IOException Thrown when a problem occurred during the request, or when the request is still rejected by
+     * a rate limit after MAX_ATTEMPTS_RATE_LIMITED attempts
+     * @throws URISyntaxException Thrown when the URL is malformed
+     * @throws InterruptedException Thrown when the thread is interrupted while waiting for the API limit reset
+     */
+    public GithubPage fetchPage(String URLStringApi) throws IOException, URISyntaxException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            //Wait for the slot given by the pacing of the requests
+            githubAPILimitManager.paceRequest();
+
+            logger.info("Get on : " + URLStringApi);
+            HttpGet httpGet = new HttpGet(urlEncodeSpecificChars(URLStringApi));
+
+            //Authenticate the request with the token of the pool which has the most requests remaining
+            String token = githubAPILimitManager.acquireToken();
+            if(token != null)
+                httpGet.setHeader("Authorization", "token " + token);
+
+            //Revalidate the response stored in the cache, a "304 Not Modified" is not counted in the rate limit
+            GithubResponseCache.CachedResponse cachedResponse = responseCache != null ? responseCache.get(URLStringApi) : null;
+            if(cachedResponse != null)
+                httpGet.setHeader("If-None-Match", cachedResponse.getEtag());
+
+            String responseString;
+            String linkHeaderValue;
+            Long timestampLimitResetHeader;
+            Integer rateLimitRemainingHeader;
+            Long retryAfterSeconds = null;
+            int statusCode;
+
+            //Handle response body, the entity is always consumed to give the connection back to the pool
+            CloseableHttpResponse httpResponse = httpClient.execute(httpGet);
+            try {
+                statusCode = httpResponse.getStatusLine().getStatusCode();
+
+                //Get headers and values for API limitations
+                timestampLimitResetHeader = parseLongHeader(httpResponse.getFirstHeader("X-RateLimit-Reset"));
+                rateLimitRemainingHeader  = parseIntegerHeader(httpResponse.getFirstHeader("X-RateLimit-Remaining"));
+
+                if(cachedResponse != null && statusCode == HttpStatus.SC_NOT_MODIFIED){
+                    logger.debug("Not modified, response read from the cache");
+                    responseString  = cachedResponse.getBody();
+                    linkHeaderValue = cachedResponse.getLinkHeaderValue();
+                    if(timestampLimitResetHeader == null || rateLimitRemainingHeader == null){
+                        timestampLimitResetHeader = cachedResponse.getRateLimitReset();
+                        rateLimitRemainingHeader  = cachedResponse.getRateLimitRemaining();
+                    }
+                } else {
+                    responseString = EntityUtils.toString(httpResponse.getEntity(), "UTF-8");
+
+                    //Get header for the next page
+                    Header linkHeader = httpResponse.getFirstHeader("Link");
+                    linkHeaderValue = linkHeader != null ? linkHeader.getValue() : null;
+
+                    Header etagHeader = httpResponse.getFirstHeader("ETag");
+                    if(responseCache != null && etagHeader != null && statusCode == HttpStatus.SC_OK){
+                        responseCache.put(new GithubResponseCache.CachedResponse(URLStringApi, etagHeader.getValue(),
+                                linkHeaderValue, timestampLimitResetHeader, rateLimitRemainingHeader, responseString));
+                    }
+
+                    retryAfterSeconds = getRetryAfterSeconds(statusCode, httpResponse.getFirstHeader("Retry-After"), rateLimitRemainingHeader, responseString);
+                }
+            } finally {
+                EntityUtils.consumeQuietly(httpResponse.getEntity());
+                httpResponse.close();
+            }
 
-        for (NameValuePair param : urlParams) {
-            if(param.getName().equals("page")){
-                currentPageNumber = Integer.parseInt(param.getValue());
+            logger.debug("Rate limit remaining : " + rateLimitRemainingHeader);
+
+            githubAPILimitManager.updateTokenRateLimit(token, timestampLimitResetHeader, rateLimitRemainingHeader);
+            if(token == null && timestampLimitResetHeader != null && rateLimitRemainingHeader != null)
+                githubAPILimitManager.handleLimitAPIGithub(timestampLimitResetHeader, rateLimitRemainingHeader);
+
+            //The request has been rejected by a rate limit, it is sent again after the delay asked by the API
+            if(retryAfterSeconds != null){
+                //the body of the rejection is not a page of the list, it must not be written as data
+                if(attempt >= MAX_ATTEMPTS_RATE_LIMITED)
+                    throw new IOException("Request rejected by the rate limit of the Github API after " + attempt
+                            + " attempts (HTTP status " + statusCode + ") : " + URLStringApi);
+                logger.warn("Request rejected by the rate limit of the Github API (attempt " + attempt + ") : " + URLStringApi);
+                if(retryAfterSeconds > 0)
+                    githubAPILimitManager.waitRetryAfter(retryAfterSeconds);
+                continue;
             }
+
+            return new GithubPage(URLStringApi, responseString, linkHeaderValue,
+                    timestampLimitResetHeader, rateLimitRemainingHeader);
         }
+    }
 
-        logger.info("Get on : " + URLStringApi);
-        //Execute the first request
-        HttpGet httpGet = new HttpGet(urlEncodeSpecificChars(URLStringApi));
-
-        //Handle response body
-        HttpResponse httpResponse = httpClient.execute(httpGet);
-        HttpEntity httpEntity = httpResponse.getEntity();
-        String responseString = EntityUtils.toString(httpEntity, "UTF-8");
-        
-        // Delete "[" and "]" to get json format understood by api 
-//        if ( responseString.substring(0, 1).equals("[") ){
-//        	responseString = responseString.substring(1,responseString.length()-1);
-//        }
-        
-        //responseString = "{" + responseString + "}";
-        
-        //Get header for the next page
-        Header linkHeader = httpResponse.getFirstHeader("Link");
-
-        //Get headers and values for API limitations
-        Long timestampLimitResetHeader   = Long.parseLong(httpResponse.getFirstHeader("X-RateLimit-Reset").getValue());
-        Integer rateLimitRemainingHeader = Integer.parseInt(httpResponse.getFirstHeader("X-RateLimit-Remaining").getValue());
-        
-        
-        JSONArray jsonObject = new JSONArray(responseString);
-        
-        
-        // For API handling JSONObject, must begin by { and end by }, forced to create several JSONObject
-//        ArrayList<JSONObject> jsonObjectList = new ArrayList<JSONObject>();
-//        boolean check = true;
-//        // No proof that it ends
-//        while(check) {
-//        	System.out.println(responseString);
-//        	jsonObjectList.add(new JSONObject(responseString));
-//        	int sizeJson = jsonObjectList.get(jsonObjectList.size()-1).toString().length();
-//        	
-//        	if(sizeJson+1<responseString.length()) {
-//        		responseString = responseString.substring(sizeJson+1, responseString.length());	
-//        	}
-//        	else {
-//        		check = false;
-//        	}
-//        	
-//
-//        }
-               
-        logger.debug("Rate limit remaining : " + rateLimitRemainingHeader);
-
-        githubAPILimitManager.handleLimitAPIGithub(timestampLimitResetHeader, rateLimitRemainingHeader);
-
-        if(linkHeader != null){
-        	System.out.println(linkHeader);
-            HeaderElement[] headerElementTabLink = linkHeader.getElements();
-            for (HeaderElement headerElement : headerElementTabLink) {
-                String headerElementLinkString = headerElement.toString();
-
-                if(headerElementLinkString.contains("next")) {
-                    urlNextPageString = headerElementLinkString.substring(headerElementLinkString.indexOf("<") + 1, headerElementLinkString.indexOf(">"));
-                    logger.debug("Next page : " + urlNextPageString);
-                }
-                if(headerElementLinkString.contains("prev")) {
-                    isFirstPage = false;
-                }
-                if (headerElementLinkString.contains("last")){
-                    lastPageNumber = Integer.parseInt(StringUtils.substringBetween(headerElementLinkString,"page=", ">"));
-                }
+    /**
+     * Returns the delay before sending again a request rejected by a rate limit.
+     * The primary rate limit (X-RateLimit-Remaining at 0) is already handled by the limit manager, so the request can be
+     * sent again immediately. The secondary rate limits give the delay in the HTTP Header field "Retry-After" or
+     * only in the message of the body, in this case the delay is DEFAULT_RETRY_AFTER_SECONDS.
+     * @param statusCode HTTP status code of the response
+     * @param retryAfterHeader HTTP Header field "Retry-After", can be null
+     * @param rateLimitRemaining Rate limit remaining, can be null
+     * @param responseString Body of the response
+     * @return Long delay in seconds, null if the request has not been rejected by a rate limit
+     */
+    private Long getRetryAfterSeconds(int statusCode, Header retryAfterHeader, Integer rateLimitRemaining, String responseString){
+        if(statusCode != HttpStatus.SC_FORBIDDEN && statusCode != 429)
+            return null;
+
+        if(retryAfterHeader != null){
+            try {
+                return Long.parseLong(retryAfterHeader.getValue().trim());
+            } catch (NumberFormatException e) {
+                return DEFAULT_RETRY_AFTER_SECONDS;
             }
         }
-        
-        if(isFirstPage){
-        	// run through list of JSON object
-//        	for(JSONObject jsonObject : jsonObjectList) {
-//        		jsonAllItems.accumulate("items", jsonObject);
-        	jsonAllItems.accumulate("items", jsonObject);
-        	
-        	}
-
-        else{
-            //concatenate list items
-//        	for(JSONObject jsonObject : jsonObjectList) {
-//        		jsonAllItems.accumulate("items", jsonObject);      	   	
-//        	}
-        	jsonAllItems.accumulate("items", jsonObject);
-        	System.out.println("ICCCCCCCIIIIIII" + jsonAllItems.toString().length());
-        	
-        }
+        if(rateLimitRemaining != null && rateLimitRemaining == 0)
+            return 0L;
 
-        //return the json object if there is no next page
-        comp++;
-        if(urlNextPageString == null || urlNextPageString.equals("") || comp == 5)
-            return jsonAllItems;
+        String responseLowerCase = responseString.toLowerCase();
+        if(responseLowerCase.contains("secondary rate limit") || responseLowerCase.contains("abuse"))
+            return DEFAULT_RETRY_AFTER_SECONDS;
+        return null;
+    }
 
-        //display launchbar
-        LoggerPrintUtils.printLaunchBar(logger,"Progress status request Github API" ,currentPageNumber,lastPageNumber);
-        //Call recursively on the next page
-        return getRawTagCommitIssueJson(urlNextPageString, jsonAllItems);
+    /**
+     * Parses the value of a header as a Long
+     * @param header Header to parse, can be null
+     * @return Long value, null if the header is absent
+     */
+    private Long parseLongHeader(Header header){
+        return header != null ? Long.parseLong(header.getValue()) : null;
     }
-    
-    public JSONObject getRawDataJson(String URLStringApi, JSONObject jsonAllItems) throws IOException, URISyntaxException, InterruptedException {
-        List<NameValuePair> urlParams = URLEncodedUtils.parse(new URI(urlEncodeSpecificChars(URLStringApi)), Charset.forName("UTF-8"));
 
-        int currentPageNumber = 1;
-        int lastPageNumber = 1;
-        String urlNextPageString = null;
-        boolean isFirstPage = true;
+    /**
+     * Parses the value of a header as an Integer
+     * @param header Header to parse, can be null
+     * @return Integer value, null if the header is absent
+     */
+    private Integer parseIntegerHeader(Header header){
+        return header != null ? Integer.parseInt(header.getValue()) : null;
+    }
 
+    /**
+     * Walks iteratively through the pages of a paginated request (HTTP Header field "Link") and gives each page
+     * to the handler as soon as it is received, so the pages never need to be kept in memory together
+     * @param URLStringApi URL of the first page to request
+     * @param maxPages Maximum number of pages to request, UNLIMITED_PAGES to request all the pages
+     * @param githubPageHandler Handler receiving the pages in order
+     * @return Integer number of pages requested
+     * @throws IOException Thrown when a problem occurred during a request or in the handler
+     * @throws URISyntaxException Thrown when an URL is malformed
+     * @throws InterruptedException Thrown when the thread is interrupted while waiting for the API limit reset
+     */
+    public int forEachPage(String URLStringApi, int maxPages, GithubPageHandler githubPageHandler) throws IOException, URISyntaxException, InterruptedException {
+        String urlPageString = URLStringApi;
+        int nbPagesRequested = 0;
 
-        for (NameValuePair param : urlParams) {
-            if(param.getName().equals("page")){
-                currentPageNumber = Integer.parseInt(param.getValue());
-            }
+        while (urlPageString != null){
+            GithubPage githubPage = fetchPage(urlPageString);
+            nbPagesRequested++;
+
+            boolean continuePagination = githubPageHandler.handlePage(githubPage);
+
+            //stop if there is no next page, if the handler asked it or if the maximum of pages is reached
+            if(!continuePagination || !githubPage.hasNextPage() || (maxPages > UNLIMITED_PAGES && nbPagesRequested >= maxPages))
+                break;
+
+            //display launchbar
+            LoggerPrintUtils.printLaunchBar(logger,"Progress status request Github API" ,githubPage.getPageNumber(),githubPage.getLastPageNumber());
+            logger.debug("Next page : " + githubPage.getNextPageUrl());
+            urlPageString = githubPage.getNextPageUrl();
         }
+        return nbPagesRequested;
+    }
 
-        logger.info("Get on : " + URLStringApi);
-        //execute the first request
-        HttpGet httpGet = new HttpGet(urlEncodeSpecificChars(URLStringApi));
-
-        //Handle response body
-        HttpResponse httpResponse = httpClient.execute(httpGet);
-        HttpEntity httpEntity = httpResponse.getEntity();
-        String responseString = EntityUtils.toString(httpEntity, "UTF-8");
-        //System.out.println(responseString);
-        
-        //Get header for the next page
-        Header linkHeader = httpResponse.getFirstHeader("Link");
-
-        //Get headers and values for API limitations
-        Long timestampLimitResetHeader   = Long.parseLong(httpResponse.getFirstHeader("X-RateLimit-Reset").getValue());
-        Integer rateLimitRemainingHeader = Integer.parseInt(httpResponse.getFirstHeader("X-RateLimit-Remaining").getValue());
-        
-        JSONObject jsonObjectResponse = new JSONObject(responseString);
-
-        logger.debug("Rate limit remaining : " + rateLimitRemainingHeader);
-
-        githubAPILimitManager.handleLimitAPIGithub(timestampLimitResetHeader, rateLimitRemainingHeader);
-
-        if(linkHeader != null){
-        	//System.out.println(linkHeader);
-            HeaderElement[] headerElementTabLink = linkHeader.getElements();
-            for (HeaderElement headerElement : headerElementTabLink) {
-                String headerElementLinkString = headerElement.toString();
-                System.out.println(headerElementLinkString);
-                if(headerElementLinkString.contains("next")) {
-                    urlNextPageString = headerElementLinkString.substring(headerElementLinkString.indexOf("<") + 1, headerElementLinkString.indexOf(">"));
-                    logger.debug("Next page : " + urlNextPageString);
-                }
-                if(headerElementLinkString.contains("prev")) {
-                    isFirstPage = false;
+    /**
+     * Walks through the pages of a paginated request by fetching the pages concurrently.
+     * The first page is requested alone to know the last page (relation "last" of the HTTP Header field "Link"),
+     * the URLs of the other pages are built with the parameter "page" and requested by batches on a pool of threads.
+     * The size of a batch never exceeds the rate limit remaining known, and the pages are given to the handler in order.
+     * When the first page does not give the last page, the remaining pages are requested sequentially.
+     * @param URLStringApi URL of the first page to request
+     * @param maxPages Maximum number of pages to request, UNLIMITED_PAGES to request all the pages
+     * @param nbThreads Number of requests executed at the same time
+     * @param githubPageHandler Handler receiving the pages in order
+     * @return Integer number of pages requested
+     * @throws IOException Thrown when a problem occurred during a request or in the handler
+     * @throws URISyntaxException Thrown when an URL is malformed
+     * @throws InterruptedException Thrown when the thread is interrupted while waiting for the pages
+     */
+    public int forEachPageParallel(String URLStringApi, int maxPages, int nbThreads, GithubPageHandler githubPageHandler) throws IOException, URISyntaxException, InterruptedException {
+        GithubPage firstPage = fetchPage(URLStringApi);
+        if(!githubPageHandler.handlePage(firstPage) || !firstPage.hasNextPage() || maxPages == 1)
+            return 1;
+
+        int remainingMaxPages = maxPages > UNLIMITED_PAGES ? maxPages - 1 : UNLIMITED_PAGES;
+        if(firstPage.getLastPageUrl() == null || nbThreads <= 1)
+            return 1 + forEachPage(firstPage.getNextPageUrl(), remainingMaxPages, githubPageHandler);
+
+        int firstPageToPrefetch = firstPage.getPageNumber() + 1;
+        int lastPageToPrefetch  = firstPage.getLastPageNumber();
+        if(remainingMaxPages > UNLIMITED_PAGES)
+            lastPageToPrefetch = Math.min(lastPageToPrefetch, firstPage.getPageNumber() + remainingMaxPages);
+
+        int nbPagesRequested = 1;
+        int rateLimitRemaining = firstPage.getRateLimitRemaining() != null ? firstPage.getRateLimitRemaining() : nbThreads;
+        ExecutorService executorService = Executors.newFixedThreadPool(nbThreads);
+        try {
+            int currentPage = firstPageToPrefetch;
+            while (currentPage <= lastPageToPrefetch){
+                //never send more requests than the API allows, the limit manager makes the thread sleep when it reaches 0
+                int batchSize = Math.min(Math.min(nbThreads, Math.max(1, rateLimitRemaining)), lastPageToPrefetch - currentPage + 1);
+
+                List<Future<GithubPage>> futuresPages = new ArrayList<>(batchSize);
+                for (int i = 0; i < batchSize; i++) {
+                    String urlPage = buildPageUrl(firstPage.getLastPageUrl(), currentPage + i);
+                    futuresPages.add(executorService.submit(() -> fetchPage(urlPage)));
                 }
-                if (headerElementLinkString.contains("last")){
-                    lastPageNumber = Integer.parseInt(StringUtils.substringBetween(headerElementLinkString,"page=", ">"));
+                currentPage += batchSize;
+
+                int batchRateLimitRemaining = Integer.MAX_VALUE;
+                for (int i = 0; i < futuresPages.size(); i++) {
+                    GithubPage githubPage = getPageFromFuture(futuresPages.get(i));
+                    nbPagesRequested++;
+                    if(githubPage.getRateLimitRemaining() != null)
+                        batchRateLimitRemaining = Math.min(batchRateLimitRemaining, githubPage.getRateLimitRemaining());
+
+                    LoggerPrintUtils.printLaunchBar(logger,"Progress status request Github API" ,githubPage.getPageNumber(),lastPageToPrefetch);
+                    if(!githubPageHandler.handlePage(githubPage)){
+                        for (int j = i + 1; j < futuresPages.size(); j++) {
+                            futuresPages.get(j).cancel(true);
+                        }
+                        return nbPagesRequested;
+                    }
                 }
+                //when the limit is reached, the limit manager has already waited for the reset in the thread of the request
+                rateLimitRemaining = batchRateLimitRemaining > 0 ? batchRateLimitRemaining : nbThreads;
             }
+        } finally {
+            executorService.shutdownNow();
         }
+        return nbPagesRequested;
+    }
 
-        if(isFirstPage){
-            jsonAllItems.put("items", jsonObjectResponse);
-        }else{
-            //concatenate list items
-            jsonAllItems.put("items", jsonObjectResponse);
+    /**
+     * Waits for a page requested in another thread and rethrows the exception which occurred during the request
+     * @param futurePage Future of the page
+     * @return GithubPage received
+     * @throws IOException
+     * @throws URISyntaxException
+     * @throws InterruptedException
+     */
+    private GithubPage getPageFromFuture(Future<GithubPage> futurePage) throws IOException, URISyntaxException, InterruptedException {
+        try {
+            return futurePage.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof IOException)
+                throw (IOException) cause;
+            if(cause instanceof URISyntaxException)
+                throw (URISyntaxException) cause;
+            if(cause instanceof InterruptedException)
+                throw (InterruptedException) cause;
+            if(cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new IOException(cause);
         }
+    }
 
-        //return the json object if there is no next page
-        
-        if(urlNextPageString == null || urlNextPageString.equals(""))
-            return jsonAllItems;
+    /**
+     * Builds the URL of a page from the URL of another page of the same request
+     * @param urlPageString URL of a page containing the parameter "page"
+     * @param pageNumber Number of the page
+     * @return String URL of the page
+     */
+    public String buildPageUrl(String urlPageString, int pageNumber){
+        return urlPageString.replaceFirst("([?&])page=\\d+", "$1page=" + pageNumber);
+    }
 
-        //display launchbar
-        LoggerPrintUtils.printLaunchBar(logger,"Progress status request Github API" ,currentPageNumber,lastPageNumber);
-        //Call recursively on the next page
-        return getRawDataJson(urlNextPageString, jsonAllItems);
+    /**
+     * Walks through the pages sequentially or in parallel according to the number of parallel requests
+     * @param URLStringApi URL of the first page to request
+     * @param maxPages Maximum number of pages to request, UNLIMITED_PAGES to request all the pages
+     * @param githubPageHandler Handler receiving the pages in order
+     * @return Integer number of pages requested
+     * @throws IOException
+     * @throws URISyntaxException
+     * @throws InterruptedException
+     */
+    private int walkPages(String URLStringApi, int maxPages, GithubPageHandler githubPageHandler) throws IOException, URISyntaxException, InterruptedException {
+        if(nbParallelRequests > 1)
+            return forEachPageParallel(URLStringApi, maxPages, nbParallelRequests, githubPageHandler);
+        return forEachPage(URLStringApi, maxPages, githubPageHandler);
+    }
+
+    /**
+     * Gets all the pages of a list of tags, commits or issues, each page is accumulated as a JSONArray in the element "items"
+     * @param URLStringApi URL to request
+     * @param jsonAllItems JSONObject receiving the pages
+     * @return JSONObject given in parameter with the pages accumulated
+     * @throws IOException
+     * @throws URISyntaxException
+     * @throws InterruptedException
+     */
+    public JSONObject getRawTagCommitIssueJson(String URLStringApi, JSONObject jsonAllItems) throws IOException, URISyntaxException, InterruptedException {
+        return getRawTagCommitIssueJson(URLStringApi, jsonAllItems, UNLIMITED_PAGES);
     }
-    
-    public JSONObject getCommitBoundedJson(String URLStringApi, JSONObject jsonAllItems, String dateBoundaryInf, String dateBoundarySup) throws IOException, URISyntaxException, InterruptedException {
-        List<NameValuePair> urlParams = URLEncodedUtils.parse(new URI(urlEncodeSpecificChars(URLStringApi)), Charset.forName("UTF-8"));
 
-        int currentPageNumber = 1;
-        int lastPageNumber = 1;
-        String urlNextPageString = null;
-        boolean isFirstPage = true;
+    /**
+     * Gets the pages of a list of tags, commits or issues, each page is accumulated as a JSONArray in the element "items"
+     * @param URLStringApi URL to request
+     * @param jsonAllItems JSONObject receiving the pages
+     * @param maxPages Maximum number of pages to request, UNLIMITED_PAGES to request all the pages
+     * @return JSONObject given in parameter with the pages accumulated
+     * @throws IOException
+     * @throws URISyntaxException
+     * @throws InterruptedException
+     */
+    public JSONObject getRawTagCommitIssueJson(String URLStringApi, JSONObject jsonAllItems, int maxPages) throws IOException, URISyntaxException, InterruptedException {
+        walkPages(URLStringApi, maxPages, githubPage -> {
+            jsonAllItems.accumulate("items", githubPage.getBodyAsJSONArray());
+            return true;
+        });
+        return jsonAllItems;
+    }
 
+    /**
+     * Gets the data returned by the URL, the element "items" contains the JSONObject of the last page requested
+     * @param URLStringApi URL to request
+     * @param jsonAllItems JSONObject receiving the response
+     * @return JSONObject given in parameter with the response
+     * @throws IOException
+     * @throws URISyntaxException
+     * @throws InterruptedException
+     */
+    public JSONObject getRawDataJson(String URLStringApi, JSONObject jsonAllItems) throws IOException, URISyntaxException, InterruptedException {
+        return getRawDataJson(URLStringApi, jsonAllItems, UNLIMITED_PAGES);
+    }
 
-        for (NameValuePair param : urlParams) {
-            if(param.getName().equals("page")){
-                currentPageNumber = Integer.parseInt(param.getValue());
-            }
+    /**
+     * Gets the data returned by the URL, the element "items" contains the JSONObject of the last page requested
+     * @param URLStringApi URL to request
+     * @param jsonAllItems JSONObject receiving the response
+     * @param maxPages Maximum number of pages to request, UNLIMITED_PAGES to request all the pages
+     * @return JSONObject given in parameter with the response
+     * @throws IOException
+     * @throws URISyntaxException
+     * @throws InterruptedException
+     */
+    public JSONObject getRawDataJson(String URLStringApi, JSONObject jsonAllItems, int maxPages) throws IOException, URISyntaxException, InterruptedException {
+        forEachPage(URLStringApi, maxPages, githubPage -> {
+            jsonAllItems.put("items", githubPage.getBodyAsJSONObject());
+            return true;
+        });
+        return jsonAllItems;
+    }
+
+    /**
+     * Appends the items of the pages of a list (tags, commits, issues...) to a NDJSON file as soon as each page is received,
+     * each element of a page is written on its own line. A page which is an object (e.g. a repository) is written as one item.
+     * @param URLStringApi URL to request
+     * @param maxPages Maximum number of pages to request, UNLIMITED_PAGES to request all the pages
+     * @param ndjsonWriter Writer of the NDJSON file
+     * @return Long number of items written
+     * @throws IOException Thrown when a request fails or when the file cannot be written
+     * @throws URISyntaxException Thrown when the URL is malformed
+     * @throws InterruptedException Thrown when the thread is interrupted while waiting for the rate limit
+     */
+    public long appendItemsToNDJSON(String URLStringApi, int maxPages, NDJSONWriter ndjsonWriter) throws IOException, URISyntaxException, InterruptedException {
+        long nbItemsBefore = ndjsonWriter.getNbItemsWritten();
+        walkPages(URLStringApi, maxPages, githubPage -> {
+            writePageItems(githubPage, ndjsonWriter);
+            ndjsonWriter.flush();
+            return true;
+        });
+        return ndjsonWriter.getNbItemsWritten() - nbItemsBefore;
+    }
+
+    /**
+     * Appends the items of the pages of a list to a NDJSON file and records the progress in a checkpoint journal after
+     * each page : when the chain has been interrupted, the file is truncated to the last checkpoint and the pagination
+     * resumes at the next page recorded, so each item is written once. A chain already completed is not requested.
+     * @param chainKey Key of the pagination chain in the journal
+     * @param URLStringApi URL of the first page
+     * @param maxPages Maximum number of pages to request, UNLIMITED_PAGES to request all the pages
+     * @param ndjsonWriter Writer of the NDJSON file opened in append mode
+     * @param checkpointJournal Journal recording the progress
+     * @return Long number of items written by this call
+     * @throws IOException Thrown when a request fails or when the file or the journal cannot be written
+     * @throws URISyntaxException Thrown when the URL is malformed
+     * @throws InterruptedException Thrown when the thread is interrupted while waiting for the rate limit
+     */
+    public long appendItemsToNDJSON(String chainKey, String URLStringApi, int maxPages, NDJSONWriter ndjsonWriter,
+                                    CheckpointJournal checkpointJournal) throws IOException, URISyntaxException, InterruptedException {
+        if(checkpointJournal.isCompleted(chainKey)){
+            logger.info("== " + chainKey + " already extracted ==");
+            return 0;
         }
 
-        logger.info("Get on : " + URLStringApi);
-        //execute the first request
-        HttpGet httpGet = new HttpGet(urlEncodeSpecificChars(URLStringApi));
-
-        //Handle response body
-        HttpResponse httpResponse = httpClient.execute(httpGet);
-        HttpEntity httpEntity = httpResponse.getEntity();
-        String responseString = EntityUtils.toString(httpEntity, "UTF-8");
-        //System.out.println(responseString);
-        
-        //Get header for the next page
-        Header linkHeader = httpResponse.getFirstHeader("Link");
-
-        //Get headers and values for API limitations
-        Long timestampLimitResetHeader   = Long.parseLong(httpResponse.getFirstHeader("X-RateLimit-Reset").getValue());
-        Integer rateLimitRemainingHeader = Integer.parseInt(httpResponse.getFirstHeader("X-RateLimit-Remaining").getValue());
-        
-        JSONObject jsonObjectResponse = new JSONObject(responseString);
-
-        logger.debug("Rate limit remaining : " + rateLimitRemainingHeader);
-
-        githubAPILimitManager.handleLimitAPIGithub(timestampLimitResetHeader, rateLimitRemainingHeader);
-
-        if(linkHeader != null){
-        	//System.out.println(linkHeader);
-            HeaderElement[] headerElementTabLink = linkHeader.getElements();
-            for (HeaderElement headerElement : headerElementTabLink) {
-                String headerElementLinkString = headerElement.toString();
-                System.out.println(headerElementLinkString);
-                if(headerElementLinkString.contains("next")) {
-                    urlNextPageString = headerElementLinkString.substring(headerElementLinkString.indexOf("<") + 1, headerElementLinkString.indexOf(">"));
-                    logger.debug("Next page : " + urlNextPageString);
-                }
-                if(headerElementLinkString.contains("prev")) {
-                    isFirstPage = false;
-                }
-                if (headerElementLinkString.contains("last")){
-                    lastPageNumber = Integer.parseInt(StringUtils.substringBetween(headerElementLinkString,"page=", ">"));
-                }
-            }
+        CheckpointJournal.PageCheckpoint pageCheckpoint = checkpointJournal.getPageCheckpoint(chainKey);
+        String startUrl = URLStringApi;
+        if(pageCheckpoint != null){
+            logger.info("== Resume " + chainKey + " at " + pageCheckpoint.getNextPageUrl() + " ==");
+            ndjsonWriter.truncate(pageCheckpoint.getOutputOffset());
+            startUrl = pageCheckpoint.getNextPageUrl();
+        }else{
+            checkpointJournal.recordPage(chainKey, startUrl, ndjsonWriter.getPosition());
         }
 
-        if(isFirstPage){
-            jsonAllItems.put("items", jsonObjectResponse);
+        long nbItemsBefore = ndjsonWriter.getNbItemsWritten();
+        boolean[] chainCompleted = {false};
+        walkPages(startUrl, maxPages, githubPage -> {
+            writePageItems(githubPage, ndjsonWriter);
+            ndjsonWriter.sync();
+            if(githubPage.hasNextPage()){
+                checkpointJournal.recordPage(chainKey, githubPage.getNextPageUrl(), ndjsonWriter.getPosition());
+            }else{
+                chainCompleted[0] = true;
+            }
+            return true;
+        });
+        if(chainCompleted[0])
+            checkpointJournal.recordCompleted(chainKey);
+        return ndjsonWriter.getNbItemsWritten() - nbItemsBefore;
+    }
+
+    /**
+     * Writes the items of a page in a NDJSON file : each element of a list, or the page itself when it is an object
+     * @param githubPage Page received
+     * @param ndjsonWriter Writer of the NDJSON file
+     * @throws IOException Thrown when the file cannot be written
+     */
+    private void writePageItems(GithubPage githubPage, NDJSONWriter ndjsonWriter) throws IOException {
+        if(githubPage.getBody().trim().startsWith("[")){
+            JSONArray jsonArrayPage = githubPage.getBodyAsJSONArray();
+            for (int i = 0; i < jsonArrayPage.length(); i++) {
+                ndjsonWriter.writeItem(jsonArrayPage.get(i));
+            }
         }else{
-            //concatenate list items
-            jsonAllItems.put("items", jsonObjectResponse);
+            ndjsonWriter.writeItem(githubPage.getBodyAsJSONObject());
         }
+    }
 
-        //return the json object if there is no next page
-        
-        if(urlNextPageString == null || urlNextPageString.equals(""))
-            return jsonAllItems;
+    /**
+     * Gets the commits of a repository committed in a window of time, the commits are stored in a JSONArray in the
+     * element "items"
+     * @param URLStringApi URL of the commits of the repository, example : "https://api.github.com/repos/mybatis/spring/commits"
+     * @param jsonAllItems JSONObject receiving the commits
+     * @param dateBoundaryInf Lower bound of the window (inclusive) in ISO 8601, null for no lower bound
+     * @param dateBoundarySup Upper bound of the window (inclusive) in ISO 8601, null for no upper bound
+     * @return JSONObject given in parameter with the commits of the window
+     * @throws IOException
+     * @throws URISyntaxException
+     * @throws InterruptedException
+     */
+    public JSONObject getCommitBoundedJson(String URLStringApi, JSONObject jsonAllItems, String dateBoundaryInf, String dateBoundarySup) throws IOException, URISyntaxException, InterruptedException {
+        return getCommitBoundedJson(URLStringApi, jsonAllItems, dateBoundaryInf, dateBoundarySup, null, null);
+    }
 
-        //display launchbar
-        LoggerPrintUtils.printLaunchBar(logger,"Progress status request Github API" ,currentPageNumber,lastPageNumber);
-        //Call recursively on the next page
-        return getRawDataJson(urlNextPageString, jsonAllItems);
+    /**
+     * Gets the commits of a repository committed in a window of time, the commits are stored in a JSONArray in the
+     * element "items". The window, the branch and the path are sent to the API, so only the pages of the window are requested
+     * @param URLStringApi URL of the commits of the repository, example : "https://api.github.com/repos/mybatis/spring/commits"
+     * @param jsonAllItems JSONObject receiving the commits
+     * @param dateBoundaryInf Lower bound of the window (inclusive) in ISO 8601, null for no lower bound
+     * @param dateBoundarySup Upper bound of the window (inclusive) in ISO 8601, null for no upper bound
+     * @param sha SHA or branch to start listing the commits from, null for the default branch
+     * @param pathInRepository Only the commits containing this file path are returned, null for all the commits
+     * @return JSONObject given in parameter with the commits of the window
+     * @throws IOException
+     * @throws URISyntaxException
+     * @throws InterruptedException
+     */
+    public JSONObject getCommitBoundedJson(String URLStringApi, JSONObject jsonAllItems, String dateBoundaryInf, String dateBoundarySup,
+                                           String sha, String pathInRepository) throws IOException, URISyntaxException, InterruptedException {
+        JSONArray jsonArrayCommits = new JSONArray();
+        forEachCommitInWindow(URLStringApi, dateBoundaryInf, dateBoundarySup, sha, pathInRepository, commit -> {
+            jsonArrayCommits.put(commit);
+            return true;
+        });
+        jsonAllItems.put("items", jsonArrayCommits);
+        return jsonAllItems;
+    }
+
+    /**
+     * Appends the commits of a repository committed in a window of time to a NDJSON file as soon as each page is received
+     * @param URLStringApi URL of the commits of the repository, example : "https://api.github.com/repos/mybatis/spring/commits"
+     * @param dateBoundaryInf Lower bound of the window (inclusive) in ISO 8601, null for no lower bound
+     * @param dateBoundarySup Upper bound of the window (inclusive) in ISO 8601, null for no upper bound
+     * @param sha SHA or branch to start listing the commits from, null for the default branch
+     * @param pathInRepository Only the commits containing this file path are returned, null for all the commits
+     * @param ndjsonWriter Writer of the NDJSON file
+     * @return Long number of commits written
+     * @throws IOException Thrown when a request fails or when the file cannot be written
+     * @throws URISyntaxException Thrown when the URL is malformed
+     * @throws InterruptedException Thrown when the thread is interrupted while waiting for the rate limit
+     */
+    public long appendCommitsBoundedToNDJSON(String URLStringApi, String dateBoundaryInf, String dateBoundarySup, String sha,
+                                             String pathInRepository, NDJSONWriter ndjsonWriter) throws IOException, URISyntaxException, InterruptedException {
+        long nbItemsBefore = ndjsonWriter.getNbItemsWritten();
+        forEachCommitInWindow(URLStringApi, dateBoundaryInf, dateBoundarySup, sha, pathInRepository, commit -> {
+            ndjsonWriter.writeItem(commit);
+            return true;
+        });
+        return ndjsonWriter.getNbItemsWritten() - nbItemsBefore;
+    }
+
+    /**
+     * Gives to the handler the commits committed in a window of time, in the order of the API (newest first).
+     * The pages are requested sequentially : the pagination stops at the first page containing a commit older than
+     * the lower bound, the next pages would only contain older commits. The commits out of the window returned by
+     * the API are ignored, and so are the commits without committer date.
+     * @param URLStringApi URL of the commits of the repository
+     * @param dateBoundaryInf Lower bound of the window (inclusive) in ISO 8601, null for no lower bound
+     * @param dateBoundarySup Upper bound of the window (inclusive) in ISO 8601, null for no upper bound
+     * @param sha SHA or branch to start listing the commits from, null for the default branch
+     * @param pathInRepository Only the commits containing this file path are returned, null for all the commits
+     * @param jsonItemHandler Handler receiving the commits
+     * @return Integer number of pages requested
+     * @throws IOException
+     * @throws URISyntaxException
+     * @throws InterruptedException
+     */
+    private int forEachCommitInWindow(String URLStringApi, String dateBoundaryInf, String dateBoundarySup, String sha,
+                                      String pathInRepository, JSONItemHandler jsonItemHandler) throws IOException, URISyntaxException, InterruptedException {
+        Instant instantInf = dateBoundaryInf != null ? CommitTimeIndex.parseInstant(dateBoundaryInf) : null;
+        Instant instantSup = dateBoundarySup != null ? CommitTimeIndex.parseInstant(dateBoundarySup) : null;
+        if(instantInf != null && instantSup != null && instantInf.isAfter(instantSup))
+            throw new IllegalArgumentException("The lower bound " + dateBoundaryInf + " is after the upper bound " + dateBoundarySup);
+
+        String urlCommitsWindow = buildCommitsWindowUrl(URLStringApi, instantInf, instantSup, sha, pathInRepository);
+        logger.debug("Commits of the window : " + urlCommitsWindow);
+        return forEachPage(urlCommitsWindow, UNLIMITED_PAGES, githubPage -> {
+            JSONArray jsonArrayCommits = githubPage.getBodyAsJSONArray();
+            boolean lowerBoundPassed = false;
+            for (int i = 0; i < jsonArrayCommits.length(); i++) {
+                JSONObject jsonObjectCommit = jsonArrayCommits.getJSONObject(i);
+                Object date = jsonObjectCommit.optQuery(CommitTimeIndex.DATE_PATH);
+                Instant instantCommit = CommitTimeIndex.parseDate(date instanceof String ? (String) date : null);
+                if(instantCommit == null || (instantSup != null && instantCommit.isAfter(instantSup)))
+                    continue;
+                if(instantInf != null && instantCommit.isBefore(instantInf)){
+                    lowerBoundPassed = true;
+                    continue;
+                }
+                if(!jsonItemHandler.handleItem(jsonObjectCommit))
+                    return false;
+            }
+            return !lowerBoundPassed;
+        });
+    }
+
+    /**
+     * Builds the URL of the commits of a repository with the parameters of the API restricting the list :
+     * "since", "until", "sha" and "path". The template "{/sha}" of the URL is removed and the pages have the maximum size
+     * @param URLStringApi URL of the commits of the repository
+     * @param instantInf Lower bound of the window, null for no lower bound
+     * @param instantSup Upper bound of the window, null for no upper bound
+     * @param sha SHA or branch to start listing the commits from, null for the default branch
+     * @param pathInRepository Only the commits containing this file path are returned, null for all the commits
+     * @return String URL of the first page
+     * @throws UnsupportedEncodingException Never thrown, UTF-8 is always supported
+     */
+    public String buildCommitsWindowUrl(String URLStringApi, Instant instantInf, Instant instantSup, String sha, String pathInRepository) throws UnsupportedEncodingException {
+        StringBuilder urlBuilder = new StringBuilder(URLStringApi.replace("{/sha}", ""));
+        char separator = urlBuilder.indexOf("?") < 0 ? '?' : '&';
+        if(urlBuilder.indexOf("per_page=") < 0){
+            urlBuilder.append(separator).append("per_page=").append(MAX_PAGE_SIZE);
+            separator = '&';
+        }
+        String[][] parameters = {
+                {"since", instantInf != null ? instantInf.toString() : null},
+                {"until", instantSup != null ? instantSup.toString() : null},
+                {"sha", sha},
+                {"path", pathInRepository}};
+        for (String[] parameter : parameters) {
+            if(parameter[1] == null || parameter[1].isEmpty())
+                continue;
+            urlBuilder.append(separator).append(parameter[0]).append('=').append(URLEncoder.encode(parameter[1], "UTF-8"));
+            separator = '&';
+        }
+        return urlBuilder.toString();
     }
 
     /**
@@ -336,40 +679,189 @@ public class GithubHttpClient {
         return null;
     }
 
+    /**
+     * Associates the last commit of the default branch ("default_branch", master by default) to each repository of the list (field "last_commit").
+     * The progress is saved after each repository : the whole list is rewritten in the JSON file, or only the repository
+     * is appended when the file is a NDJSON file (extension ".ndjson" or ".jsonl"). A NDJSON file is kept when the
+     * list is associated again, the repositories already written in the file are skipped.
+     * @param jsonObjectListRepo JSONObject with the list of repositories in the field "items"
+     * @param fileWriterJSON Writer of the JSON file
+     * @param path Path of the directory of the file
+     * @param filename Name of the file
+     * @return JSONObject given in parameter with the last commits
+     * @throws InterruptedException
+     * @throws IOException
+     * @throws URISyntaxException
+     */
     public JSONObject getLastCommitForRepositoriesList(JSONObject jsonObjectListRepo, FileWriterJSON fileWriterJSON, String path, String filename) throws InterruptedException, IOException, URISyntaxException {
-        JSONArray jsonArrayItems = jsonObjectListRepo.getJSONArray("items");
+        return getLastCommitForRepositoriesList(jsonObjectListRepo, fileWriterJSON, path, filename, null);
+    }
 
-        for (int i = 0; i < jsonArrayItems.length(); i++) {
+    /**
+     * Associates the last commit of the default branch ("default_branch", master by default) to each repository of the list (field "last_commit").
+     * The progress is saved after each repository : the whole list is rewritten in the JSON file, or only the repository
+     * is appended when the file is a NDJSON file (extension ".ndjson" or ".jsonl"). A NDJSON file is kept when the
+     * list is associated again : the repositories recorded as completed in the journal are skipped, or the
+     * repositories already written in the file when there is no journal.
+     * @param jsonObjectListRepo JSONObject with the list of repositories in the field "items"
+     * @param fileWriterJSON Writer of the JSON file
+     * @param path Path of the directory of the file
+     * @param filename Name of the file
+     * @param checkpointJournal Journal recording the repositories written in the NDJSON file, null to read them from the file
+     * @return JSONObject given in parameter with the last commits, the repositories skipped have no field "last_commit"
+     * @throws InterruptedException
+     * @throws IOException
+     * @throws URISyntaxException
+     */
+    public JSONObject getLastCommitForRepositoriesList(JSONObject jsonObjectListRepo, FileWriterJSON fileWriterJSON, String path, String filename,
+                                                       CheckpointJournal checkpointJournal) throws InterruptedException, IOException, URISyntaxException {
+        if(NDJSONReader.isNDJSONFile(filename)){
+            //the writer removes the repository partially written during a crash before the file is read
+            try (NDJSONWriter ndjsonWriter = fileWriterJSON.openNDJSONWriter(path, filename, true)) {
+                if(checkpointJournal != null)
+                    return getLastCommitForRepositoriesList(jsonObjectListRepo, ndjsonWriter, checkpointJournal);
+
+                Set<String> setRepositoriesWritten = new HashSet<>();
+                new NDJSONReader().forEachItem(ndjsonWriter.getPathFile(), item -> {
+                    if(item instanceof JSONObject)
+                        setRepositoriesWritten.add(getRepositoryKey((JSONObject) item));
+                    return true;
+                });
+                return appendLastCommitsToNDJSON(jsonObjectListRepo, ndjsonWriter, setRepositoriesWritten, null);
+            }
+        }
 
+        JSONArray jsonArrayItems = jsonObjectListRepo.getJSONArray("items");
+        for (int i = 0; i < jsonArrayItems.length(); i++) {
             LoggerPrintUtils.printLaunchBar(logger,"==< Association of commit and repositories >==",i+1,jsonArrayItems.length());
-            JSONObject commit = new JSONObject();
+            associateLastCommit(jsonArrayItems.get(i));
+            fileWriterJSON.writeJsonFile(jsonObjectListRepo,path,filename);
+        }
+        return jsonObjectListRepo;
+    }
+
+    /**
+     * Associates the last commit of the default branch ("default_branch", master by default) to each repository of the list and appends each repository to a NDJSON file
+     * @param jsonObjectListRepo JSONObject with the list of repositories in the field "items"
+     * @param ndjsonWriter Writer of the NDJSON file
+     * @return JSONObject given in parameter with the last commits
+     * @throws InterruptedException
+     * @throws IOException
+     * @throws URISyntaxException
+     */
+    public JSONObject getLastCommitForRepositoriesList(JSONObject jsonObjectListRepo, NDJSONWriter ndjsonWriter) throws InterruptedException, IOException, URISyntaxException {
+        return appendLastCommitsToNDJSON(jsonObjectListRepo, ndjsonWriter, Collections.emptySet(), null);
+    }
 
-            if(jsonArrayItems.get(i) instanceof JSONObject){
-                JSONObject jsonObjectRepo = jsonArrayItems.getJSONObject(i);
-                JSONObject jsonObjectResponseCommit = null;
+    /**
+     * Associates the last commit of the default branch to each repository of the list and appends each repository to a
+     * NDJSON file, the progress is recorded in a checkpoint journal after each repository (key "last_commit", the
+     * repository and the file) : a repository already completed is skipped, and a repository interrupted during its
+     * writing is removed from the file before being associated again, so each repository is written once
+     * @param jsonObjectListRepo JSONObject with the list of repositories in the field "items"
+     * @param ndjsonWriter Writer of the NDJSON file opened in append mode
+     * @param checkpointJournal Journal recording the progress
+     * @return JSONObject given in parameter with the last commits, the repositories skipped have no field "last_commit"
+     * @throws InterruptedException
+     * @throws IOException
+     * @throws URISyntaxException
+     */
+    public JSONObject getLastCommitForRepositoriesList(JSONObject jsonObjectListRepo, NDJSONWriter ndjsonWriter, CheckpointJournal checkpointJournal) throws InterruptedException, IOException, URISyntaxException {
+        return appendLastCommitsToNDJSON(jsonObjectListRepo, ndjsonWriter, Collections.emptySet(), checkpointJournal);
+    }
 
-                //get the JSON Object which corresponds to the response of the request on the API
-                if (jsonObjectRepo.has("commits_url")){
-                    jsonObjectResponseCommit = getLastCommitFromRepo(jsonObjectRepo.getString("commits_url"),"master");
+    /**
+     * Associates the last commit to each repository of the list which has not been written yet and appends it to a NDJSON file
+     * @param jsonObjectListRepo JSONObject with the list of repositories in the field "items"
+     * @param ndjsonWriter Writer of the NDJSON file
+     * @param setRepositoriesWritten Keys of the repositories already in the file (see getRepositoryKey)
+     * @param checkpointJournal Journal recording the progress, null for no journal
+     * @return JSONObject given in parameter with the last commits
+     * @throws InterruptedException
+     * @throws IOException
+     * @throws URISyntaxException
+     */
+    private JSONObject appendLastCommitsToNDJSON(JSONObject jsonObjectListRepo, NDJSONWriter ndjsonWriter, Set<String> setRepositoriesWritten,
+                                                 CheckpointJournal checkpointJournal) throws InterruptedException, IOException, URISyntaxException {
+        JSONArray jsonArrayItems = jsonObjectListRepo.getJSONArray("items");
+        int nbRepositoriesSkipped = 0;
 
-                    if (jsonObjectResponseCommit != null && jsonObjectResponseCommit.has("sha"))
-                        commit.put("sha", jsonObjectResponseCommit.get("sha"));
-                    if(jsonObjectResponseCommit != null && jsonObjectResponseCommit.has("html_url"))
-                        commit.put("html_url", jsonObjectResponseCommit.get("html_url"));
+        for (int i = 0; i < jsonArrayItems.length(); i++) {
+            LoggerPrintUtils.printLaunchBar(logger,"==< Association of commit and repositories >==",i+1,jsonArrayItems.length());
+            Object item = jsonArrayItems.get(i);
+
+            String checkpointKey = null;
+            if(item instanceof JSONObject){
+                String repositoryKey = getRepositoryKey((JSONObject) item);
+                checkpointKey = "last_commit " + repositoryKey + " " + ndjsonWriter.getPathFile();
+                if(setRepositoriesWritten.contains(repositoryKey) || (checkpointJournal != null && checkpointJournal.isCompleted(checkpointKey))){
+                    nbRepositoriesSkipped++;
+                    continue;
                 }
 
-                jsonObjectRepo.put("last_commit",commit);
-            }
-            else{
-                commit.put("unknown_type",jsonArrayItems.get(i).toString());
+                if(checkpointJournal != null){
+                    CheckpointJournal.PageCheckpoint pageCheckpoint = checkpointJournal.getPageCheckpoint(checkpointKey);
+                    if(pageCheckpoint != null)
+                        ndjsonWriter.truncate(pageCheckpoint.getOutputOffset());
+                    else
+                        checkpointJournal.recordPage(checkpointKey, repositoryKey, ndjsonWriter.getPosition());
+                }
             }
 
-            fileWriterJSON.writeJsonFile(jsonObjectListRepo,path,filename);
+            associateLastCommit(item);
+            ndjsonWriter.writeItem(item);
+            ndjsonWriter.sync();
+            if(checkpointJournal != null && checkpointKey != null)
+                checkpointJournal.recordCompleted(checkpointKey);
         }
 
+        if(nbRepositoriesSkipped > 0)
+            logger.info("== " + nbRepositoriesSkipped + " repositories already written in " + ndjsonWriter.getPathFile() + " ==");
         return jsonObjectListRepo;
     }
 
+    /**
+     * Returns the key identifying a repository in a NDJSON file or in a checkpoint journal
+     * @param jsonObjectRepo JSONObject of the repository
+     * @return String URL of the repository ("url"), else the URL of its commits, else the repository itself
+     */
+    private static String getRepositoryKey(JSONObject jsonObjectRepo){
+        return jsonObjectRepo.optString("url", jsonObjectRepo.optString("commits_url", jsonObjectRepo.toString()));
+    }
+
+    /**
+     * Associates the last commit of the default branch ("default_branch", master by default) to a repository (field "last_commit")
+     * @param item Repository of the list, an item which is not a JSONObject is left unchanged
+     * @throws InterruptedException
+     * @throws IOException
+     * @throws URISyntaxException
+     */
+    private void associateLastCommit(Object item) throws InterruptedException, IOException, URISyntaxException {
+        if(!(item instanceof JSONObject))
+            return;
+
+        JSONObject jsonObjectRepo = (JSONObject) item;
+        JSONObject commit = new JSONObject();
+
+        //get the JSON Object which corresponds to the response of the request on the API
+        if (jsonObjectRepo.has("commits_url")){
+            //the last commit is resolved on the default branch, the branch is recorded for the clone of the commit
+            String branch = jsonObjectRepo.optString("default_branch", DEFAULT_BRANCH);
+            JSONObject jsonObjectResponseCommit = null;
+            JSONObject jsonObjectResponse = getLastCommitFromRepo(jsonObjectRepo.getString("commits_url"), branch);
+            if(jsonObjectResponse != null)
+                jsonObjectResponseCommit = jsonObjectResponse.optJSONObject("items");
+            commit.put("branch", branch);
+
+            if (jsonObjectResponseCommit != null && jsonObjectResponseCommit.has("sha"))
+                commit.put("sha", jsonObjectResponseCommit.get("sha"));
+            if(jsonObjectResponseCommit != null && jsonObjectResponseCommit.has("html_url"))
+                commit.put("html_url", jsonObjectResponseCommit.get("html_url"));
+        }
+
+        jsonObjectRepo.put("last_commit",commit);
+    }
+
     /**
      * Replace specifically  the char '<' and '>' by the encoding char in HTML format
      * @param urlToEncodeString String url to encode
@@ -388,10 +880,78 @@ public class GithubHttpClient {
     }
 
     /**
-     * Setter for the httpClient
+     * Setter for the httpClient, the previous client is closed with the connections of its pool
      * @param httpClient CloseableHttpClient
      */
     public void setHttpClient(CloseableHttpClient httpClient){
+        CloseableHttpClient previousHttpClient = this.httpClient;
         this.httpClient = httpClient;
+        if(previousHttpClient != null && previousHttpClient != httpClient){
+            try {
+                previousHttpClient.close();
+            } catch (IOException e) {
+                logger.warn("The previous HTTP client has not been closed : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Closes the HTTP client and the connections of its pool
+     * @throws IOException Thrown when a problem occurred during the closing of the connections
+     */
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    /**
+     * Getter for the manager of the rate limit
+     * @return GithubAPILimitManager used for the requests
+     */
+    public GithubAPILimitManager getGithubAPILimitManager(){
+        return githubAPILimitManager;
+    }
+
+    /**
+     * Adds a personal access token to the pool used to authenticate the requests
+     * @param token Personal access token
+     */
+    public void addToken(String token){
+        githubAPILimitManager.addToken(token);
+    }
+
+    /**
+     * Getter for the cache of the responses
+     * @return GithubResponseCache used to send conditional requests, null if the cache is disabled
+     */
+    public GithubResponseCache getResponseCache(){
+        return responseCache;
+    }
+
+    /**
+     * Setter for the cache of the responses, each request is revalidated with the ETag stored in the cache
+     * @param responseCache GithubResponseCache to use, null to disable the cache
+     */
+    public void setResponseCache(GithubResponseCache responseCache){
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Getter for the number of pages requested at the same time
+     * @return Integer number of parallel requests
+     */
+    public int getNbParallelRequests(){
+        return nbParallelRequests;
+    }
+
+    /**
+     * Setter for the number of pages requested at the same time for the lists of tags, commits and issues,
+     * 1 to request the pages one after the other
+     * @param nbParallelRequests Integer number of parallel requests
+     */
+    public void setNbParallelRequests(int nbParallelRequests){
+        if(nbParallelRequests < 1)
+            throw new IllegalArgumentException("The number of parallel requests must be at least 1");
+        this.nbParallelRequests = nbParallelRequests;
     }
 }
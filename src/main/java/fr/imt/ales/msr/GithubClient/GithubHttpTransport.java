@@ -0,0 +1,217 @@
+package fr.imt.ales.msr.GithubClient;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings of the HTTP transport used to request the Github API : pool of persistent connections,
+ * timeouts and compression of the responses
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class GithubHttpTransport {
+    private int maxConnectionsTotal = 20;
+    private int maxConnectionsPerRoute = 10;
+    private int connectTimeoutMillis = 10000;
+    private int socketTimeoutMillis = 60000;
+    private int connectionRequestTimeoutMillis = 30000;
+    private long keepAliveMillis = 30000;
+    private boolean compressionEnabled = true;
+    private String userAgent = "MiSoRTIMA";
+
+    /**
+     * Default constructor with the default settings
+     */
+    public GithubHttpTransport(){}
+
+    /**
+     * Builds a HTTP client according to the settings.
+     * The connections are kept alive during the duration given by the server (HTTP Header field "Keep-Alive")
+     * or keepAliveMillis, the idle and expired connections are closed by a background thread of the client.
+     * @return CloseableHttpClient to give to GithubHttpClient.setHttpClient
+     */
+    public CloseableHttpClient build(){
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(keepAliveMillis, TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxConnectionsTotal);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMillis)
+                .setSocketTimeout(socketTimeoutMillis)
+                .setConnectionRequestTimeout(connectionRequestTimeoutMillis)
+                .build();
+
+        ConnectionKeepAliveStrategy keepAliveStrategy = (httpResponse, httpContext) -> {
+            long keepAliveServer = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(httpResponse, httpContext);
+            return keepAliveServer > 0 ? Math.min(keepAliveServer, keepAliveMillis) : keepAliveMillis;
+        };
+
+        HttpClientBuilder httpClientBuilder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveMillis, TimeUnit.MILLISECONDS)
+                .setUserAgent(userAgent);
+
+        //By default the client sends "Accept-Encoding: gzip,deflate" and decompresses the responses
+        if(!compressionEnabled)
+            httpClientBuilder.disableContentCompression();
+
+        return httpClientBuilder.build();
+    }
+
+    /**
+     * Getter for the maximum number of connections in the pool
+     * @return Integer maximum number of connections
+     */
+    public int getMaxConnectionsTotal() {
+        return maxConnectionsTotal;
+    }
+
+    /**
+     * Setter for the maximum number of connections in the pool
+     * @param maxConnectionsTotal Integer maximum number of connections, must be positive
+     */
+    public void setMaxConnectionsTotal(int maxConnectionsTotal) {
+        checkPositive(maxConnectionsTotal, "maximum number of connections");
+        this.maxConnectionsTotal = maxConnectionsTotal;
+    }
+
+    /**
+     * Getter for the maximum number of connections to the same host (e.g. api.github.com)
+     * @return Integer maximum number of connections per route
+     */
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    /**
+     * Setter for the maximum number of connections to the same host, it should not be lower than the number
+     * of parallel requests of GithubHttpClient
+     * @param maxConnectionsPerRoute Integer maximum number of connections per route, must be positive
+     */
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        checkPositive(maxConnectionsPerRoute, "maximum number of connections per route");
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    /**
+     * Getter for the timeout to establish a connection
+     * @return Integer timeout in milliseconds
+     */
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    /**
+     * Setter for the timeout to establish a connection
+     * @param connectTimeoutMillis Integer timeout in milliseconds, must be positive
+     */
+    public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+        checkPositive(connectTimeoutMillis, "connect timeout");
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    /**
+     * Getter for the maximum time of inactivity while waiting for data
+     * @return Integer timeout in milliseconds
+     */
+    public int getSocketTimeoutMillis() {
+        return socketTimeoutMillis;
+    }
+
+    /**
+     * Setter for the maximum time of inactivity while waiting for data
+     * @param socketTimeoutMillis Integer timeout in milliseconds, must be positive
+     */
+    public void setSocketTimeoutMillis(int socketTimeoutMillis) {
+        checkPositive(socketTimeoutMillis, "socket timeout");
+        this.socketTimeoutMillis = socketTimeoutMillis;
+    }
+
+    /**
+     * Getter for the timeout to obtain a connection from the pool
+     * @return Integer timeout in milliseconds
+     */
+    public int getConnectionRequestTimeoutMillis() {
+        return connectionRequestTimeoutMillis;
+    }
+
+    /**
+     * Setter for the timeout to obtain a connection from the pool
+     * @param connectionRequestTimeoutMillis Integer timeout in milliseconds, must be positive
+     */
+    public void setConnectionRequestTimeoutMillis(int connectionRequestTimeoutMillis) {
+        checkPositive(connectionRequestTimeoutMillis, "connection request timeout");
+        this.connectionRequestTimeoutMillis = connectionRequestTimeoutMillis;
+    }
+
+    /**
+     * Getter for the maximum duration a connection is kept alive
+     * @return Long duration in milliseconds
+     */
+    public long getKeepAliveMillis() {
+        return keepAliveMillis;
+    }
+
+    /**
+     * Setter for the maximum duration a connection is kept alive
+     * @param keepAliveMillis Long duration in milliseconds, must be positive
+     */
+    public void setKeepAliveMillis(long keepAliveMillis) {
+        checkPositive(keepAliveMillis, "keep alive duration");
+        this.keepAliveMillis = keepAliveMillis;
+    }
+
+    /**
+     * Indicates if the compressed responses (gzip, deflate) are accepted
+     * @return true if the compression is enabled
+     */
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    /**
+     * Enables or disables the compressed responses (gzip, deflate)
+     * @param compressionEnabled true to accept the compressed responses
+     */
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    /**
+     * Getter for the User-Agent sent to the API
+     * @return String User-Agent
+     */
+    public String getUserAgent() {
+        return userAgent;
+    }
+
+    /**
+     * Setter for the User-Agent sent to the API, the Github API rejects the requests without User-Agent
+     * @param userAgent String User-Agent
+     */
+    public void setUserAgent(String userAgent) {
+        if(userAgent == null || userAgent.equals(""))
+            throw new IllegalArgumentException("The User-Agent cannot be null or empty");
+        this.userAgent = userAgent;
+    }
+
+    /**
+     * Checks a setting is strictly positive
+     * @param value Value of the setting
+     * @param settingName Name of the setting for the error message
+     */
+    private void checkPositive(long value, String settingName){
+        if(value <= 0)
+            throw new IllegalArgumentException("The " + settingName + " must be strictly positive");
+    }
+}
@@ -0,0 +1,210 @@
+package fr.imt.ales.msr.GithubClient;
+
+import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Page of results returned by the Github API for a paginated request
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class GithubPage {
+    private static final Pattern PATTERN_LINK_ELEMENT = Pattern.compile("<([^>]*)>\\s*;\\s*rel=\"([^\"]*)\"");
+
+    private final String url;
+    private final String body;
+    private final String linkHeaderValue;
+    private final Long rateLimitReset;
+    private final Integer rateLimitRemaining;
+
+    private int pageNumber = 1;
+    private int lastPageNumber = 1;
+    private String nextPageUrl;
+    private String lastPageUrl;
+    private boolean firstPage = true;
+
+    /**
+     * Constructor of a page from the elements of the HTTP response
+     * @param url URL requested to obtain the page
+     * @param body Body of the HTTP response
+     * @param linkHeaderValue Value of the HTTP Header field "Link", can be null when there is only one page
+     * @param rateLimitReset Long timestamp rate limit reset (corresponds to HTTP Header field : X-RateLimit-Reset)
+     * @param rateLimitRemaining Integer rate limit remaining (corresponds to HTTP Header field : X-RateLimit-Remaining)
+     * @throws URISyntaxException Thrown when the URL of the page or of the Link header is malformed
+     */
+    public GithubPage(String url, String body, String linkHeaderValue, Long rateLimitReset, Integer rateLimitRemaining) throws URISyntaxException {
+        this.url = url;
+        this.body = body;
+        this.linkHeaderValue = linkHeaderValue;
+        this.rateLimitReset = rateLimitReset;
+        this.rateLimitRemaining = rateLimitRemaining;
+
+        Integer pageNumberParam = getPageParameter(url);
+        if(pageNumberParam != null)
+            pageNumber = pageNumberParam;
+
+        parseLinkHeader();
+        if(lastPageNumber < pageNumber)
+            lastPageNumber = pageNumber;
+    }
+
+    /**
+     * Reads the relations "next", "prev" and "last" of the Link header
+     * @throws URISyntaxException Thrown when an URL of the Link header is malformed
+     */
+    private void parseLinkHeader() throws URISyntaxException {
+        if(linkHeaderValue == null)
+            return;
+
+        Matcher matcherLink = PATTERN_LINK_ELEMENT.matcher(linkHeaderValue);
+        while (matcherLink.find()){
+            String linkUrl = matcherLink.group(1);
+            switch (matcherLink.group(2)){
+                case "next":
+                    nextPageUrl = linkUrl;
+                    break;
+                case "prev":
+                    firstPage = false;
+                    break;
+                case "last":
+                    lastPageUrl = linkUrl;
+                    Integer lastPageParam = getPageParameter(linkUrl);
+                    if(lastPageParam != null)
+                        lastPageNumber = lastPageParam;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Returns the value of the parameter "page" of the given URL
+     * @param urlString URL to parse
+     * @return Integer value of the parameter or null when the URL has no parameter "page"
+     * @throws URISyntaxException Thrown when the URL is malformed
+     */
+    static Integer getPageParameter(String urlString) throws URISyntaxException {
+        String urlEncoded = urlString.replace(">","%3E").replace("<","%3C");
+        List<NameValuePair> urlParams = URLEncodedUtils.parse(new URI(urlEncoded), Charset.forName("UTF-8"));
+        for (NameValuePair param : urlParams) {
+            if(param.getName().equals("page")){
+                return Integer.parseInt(param.getValue());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses the body of the page as a JSONArray, e.g. for the lists of commits, tags or issues
+     * @return JSONArray corresponding to the body
+     */
+    public JSONArray getBodyAsJSONArray(){
+        return new JSONArray(body);
+    }
+
+    /**
+     * Parses the body of the page as a JSONObject, e.g. for a repository or a search result
+     * @return JSONObject corresponding to the body
+     */
+    public JSONObject getBodyAsJSONObject(){
+        return new JSONObject(body);
+    }
+
+    /**
+     * Indicates if a next page can be requested
+     * @return true if the Link header contains a relation "next"
+     */
+    public boolean hasNextPage(){
+        return nextPageUrl != null && !nextPageUrl.equals("");
+    }
+
+    /**
+     * Getter for the URL requested to obtain the page
+     * @return String URL
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Getter for the body of the HTTP response
+     * @return String body
+     */
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * Getter for the value of the HTTP Header field "Link"
+     * @return String value of the header, null if absent
+     */
+    public String getLinkHeaderValue() {
+        return linkHeaderValue;
+    }
+
+    /**
+     * Getter for the timestamp of the rate limit reset
+     * @return Long timestamp (X-RateLimit-Reset)
+     */
+    public Long getRateLimitReset() {
+        return rateLimitReset;
+    }
+
+    /**
+     * Getter for the rate limit remaining
+     * @return Integer rate limit remaining (X-RateLimit-Remaining)
+     */
+    public Integer getRateLimitRemaining() {
+        return rateLimitRemaining;
+    }
+
+    /**
+     * Getter for the number of the page
+     * @return Integer number of the page, 1 when the URL has no parameter "page"
+     */
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    /**
+     * Getter for the number of the last page
+     * @return Integer number of the last page given by the relation "last"
+     */
+    public int getLastPageNumber() {
+        return lastPageNumber;
+    }
+
+    /**
+     * Getter for the URL of the next page
+     * @return String URL of the next page, null if there is no next page
+     */
+    public String getNextPageUrl() {
+        return nextPageUrl;
+    }
+
+    /**
+     * Getter for the URL of the last page
+     * @return String URL of the last page, null if the relation "last" is absent
+     */
+    public String getLastPageUrl() {
+        return lastPageUrl;
+    }
+
+    /**
+     * Getter for the first page flag
+     * @return true if the Link header has no relation "prev"
+     */
+    public boolean isFirstPage() {
+        return firstPage;
+    }
+}
@@ -0,0 +1,19 @@
+package fr.imt.ales.msr.GithubClient;
+
+import java.io.IOException;
+
+/**
+ * Callback receiving the pages of a paginated request on the Github API as soon as they are parsed
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public interface GithubPageHandler {
+
+    /**
+     * Handles a page returned by the Github API
+     * @param githubPage Page received
+     * @return true to request the next page, false to stop the pagination
+     * @throws IOException Thrown when the page cannot be handled (e.g. during the writing of the page in a file)
+     */
+    boolean handlePage(GithubPage githubPage) throws IOException;
+}
@@ -0,0 +1,211 @@
+package fr.imt.ales.msr.GithubClient;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * On-disk cache of the responses of the Github API used to send conditional requests (HTTP Header field "If-None-Match").
+ * When the data has not changed, the API answers "304 Not Modified" without counting the request in the rate limit
+ * and the body is read from the cache.
+ * Each URL is stored in two files named with the SHA-256 of the URL : the metadata (ETag, Link and rate limit headers)
+ * and the body of the response.
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class GithubResponseCache {
+    private final static Logger logger = LogManager.getLogger(GithubResponseCache.class);
+    private static final Charset CHARSET_UTF8 = Charset.forName("UTF-8");
+
+    private final Path cacheDirectory;
+
+    /**
+     * Constructor of the cache, the directory is created if it does not exist
+     * @param pathCacheDirectory Path of the directory storing the responses
+     * @throws IOException Thrown when the directory cannot be created
+     */
+    public GithubResponseCache(String pathCacheDirectory) throws IOException {
+        cacheDirectory = Paths.get(pathCacheDirectory);
+        Files.createDirectories(cacheDirectory);
+    }
+
+    /**
+     * Returns the response stored for the given URL
+     * @param url URL requested
+     * @return CachedResponse stored, null if the URL is not in the cache or if the entry cannot be read
+     */
+    public CachedResponse get(String url){
+        String key = keyOf(url);
+        Path pathMetadata = cacheDirectory.resolve(key + ".meta.json");
+        Path pathBody = cacheDirectory.resolve(key + ".body");
+
+        if(!Files.isRegularFile(pathMetadata) || !Files.isRegularFile(pathBody))
+            return null;
+
+        try {
+            JSONObject jsonObjectMetadata = new JSONObject(new String(Files.readAllBytes(pathMetadata), CHARSET_UTF8));
+            //two URLs with the same hash are not expected, but the entry must belong to the URL requested
+            if(!url.equals(jsonObjectMetadata.getString("url")))
+                return null;
+
+            return new CachedResponse(url,
+                    jsonObjectMetadata.getString("etag"),
+                    jsonObjectMetadata.optString("link", null),
+                    jsonObjectMetadata.has("rate_limit_reset") ? jsonObjectMetadata.getLong("rate_limit_reset") : null,
+                    jsonObjectMetadata.has("rate_limit_remaining") ? jsonObjectMetadata.getInt("rate_limit_remaining") : null,
+                    new String(Files.readAllBytes(pathBody), CHARSET_UTF8));
+        } catch (Exception e) {
+            logger.warn("Unreadable entry in the response cache for " + url + " : " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stores a response in the cache, the body is written before the metadata so an entry is never used half written
+     * @param cachedResponse Response to store
+     * @throws IOException Thrown when the files of the entry cannot be written
+     */
+    public void put(CachedResponse cachedResponse) throws IOException {
+        String key = keyOf(cachedResponse.getUrl());
+
+        JSONObject jsonObjectMetadata = new JSONObject();
+        jsonObjectMetadata.put("url", cachedResponse.getUrl());
+        jsonObjectMetadata.put("etag", cachedResponse.getEtag());
+        jsonObjectMetadata.putOpt("link", cachedResponse.getLinkHeaderValue());
+        jsonObjectMetadata.putOpt("rate_limit_reset", cachedResponse.getRateLimitReset());
+        jsonObjectMetadata.putOpt("rate_limit_remaining", cachedResponse.getRateLimitRemaining());
+
+        writeReplace(cacheDirectory.resolve(key + ".body"), cachedResponse.getBody().getBytes(CHARSET_UTF8));
+        writeReplace(cacheDirectory.resolve(key + ".meta.json"), jsonObjectMetadata.toString().getBytes(CHARSET_UTF8));
+    }
+
+    /**
+     * Writes the bytes in a temporary file then moves it on the target
+     * @param pathTarget Path of the file to replace
+     * @param bytes Content of the file
+     * @throws IOException Thrown when the file cannot be written
+     */
+    private void writeReplace(Path pathTarget, byte[] bytes) throws IOException {
+        Path pathTmp = Files.createTempFile(cacheDirectory, pathTarget.getFileName().toString(), ".tmp");
+        try {
+            Files.write(pathTmp, bytes);
+            Files.move(pathTmp, pathTarget, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(pathTmp);
+        }
+    }
+
+    /**
+     * Computes the name of the files of an entry
+     * @param url URL requested
+     * @return String SHA-256 of the URL in hexadecimal
+     */
+    private String keyOf(String url){
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(CHARSET_UTF8));
+            StringBuilder keyBuilder = new StringBuilder();
+            for (byte b : digest) {
+                keyBuilder.append(String.format("%02x", b));
+            }
+            return keyBuilder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            //SHA-256 is available on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Getter for the directory of the cache
+     * @return Path of the directory
+     */
+    public Path getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    /**
+     * Response of the Github API stored in the cache
+     */
+    public static class CachedResponse {
+        private final String url;
+        private final String etag;
+        private final String linkHeaderValue;
+        private final Long rateLimitReset;
+        private final Integer rateLimitRemaining;
+        private final String body;
+
+        /**
+         * Constructor of a cached response
+         * @param url URL requested
+         * @param etag Value of the HTTP Header field "ETag"
+         * @param linkHeaderValue Value of the HTTP Header field "Link", can be null
+         * @param rateLimitReset Value of the HTTP Header field "X-RateLimit-Reset", can be null
+         * @param rateLimitRemaining Value of the HTTP Header field "X-RateLimit-Remaining", can be null
+         * @param body Body of the response
+         */
+        public CachedResponse(String url, String etag, String linkHeaderValue, Long rateLimitReset, Integer rateLimitRemaining, String body) {
+            this.url = url;
+            this.etag = etag;
+            this.linkHeaderValue = linkHeaderValue;
+            this.rateLimitReset = rateLimitReset;
+            this.rateLimitRemaining = rateLimitRemaining;
+            this.body = body;
+        }
+
+        /**
+         * Getter for the URL requested
+         * @return URL requested
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * Getter for the value of the HTTP Header field "ETag"
+         * @return Value of the HTTP Header field "ETag"
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Getter for the value of the HTTP Header field "Link"
+         * @return Value of the HTTP Header field "Link", null if absent
+         */
+        public String getLinkHeaderValue() {
+            return linkHeaderValue;
+        }
+
+        /**
+         * Getter for the value of the HTTP Header field "X-RateLimit-Reset"
+         * @return Value of the HTTP Header field "X-RateLimit-Reset", null if absent
+         */
+        public Long getRateLimitReset() {
+            return rateLimitReset;
+        }
+
+        /**
+         * Getter for the value of the HTTP Header field "X-RateLimit-Remaining"
+         * @return Value of the HTTP Header field "X-RateLimit-Remaining", null if absent
+         */
+        public Integer getRateLimitRemaining() {
+            return rateLimitRemaining;
+        }
+
+        /**
+         * Getter for the body of the response
+         * @return Body of the response
+         */
+        public String getBody() {
+            return body;
+        }
+    }
+}
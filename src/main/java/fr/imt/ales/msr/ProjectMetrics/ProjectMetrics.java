@@ -0,0 +1,112 @@
+package fr.imt.ales.msr.ProjectMetrics;
+
+/**
+ * Metrics of the Spring beans of a project, one line of the report "report_imt_beans.txt"
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class ProjectMetrics {
+    /**
+     * Header of the report "report_imt_beans.txt"
+     */
+    public static final String CSV_HEADER = "project_name,project_path,nb_XML_files_beans_config,nb_Java_files_beans_config," +
+            "nb_total_files_beans_config,nb_XML_beans,nb_Java_beans,nb_total_beans";
+
+    private final String projectName;
+    private final String projectPath;
+    private final int nbXMLFilesBeansConfig;
+    private final int nbJavaFilesBeansConfig;
+    private final int nbXMLBeans;
+    private final int nbJavaBeans;
+
+    /**
+     * Constructor of the metrics of a project
+     * @param projectName Name of the project (e.g. "spring-projects/spring-petclinic")
+     * @param projectPath Path of the project
+     * @param nbXMLFilesBeansConfig Number of XML files containing the tags "beans" and "bean"
+     * @param nbJavaFilesBeansConfig Number of Java files containing the annotations "@Configuration" and "@Bean"
+     * @param nbXMLBeans Number of tags "bean" in the XML files
+     * @param nbJavaBeans Number of annotations "@Bean" in the Java files
+     */
+    public ProjectMetrics(String projectName, String projectPath, int nbXMLFilesBeansConfig, int nbJavaFilesBeansConfig, int nbXMLBeans, int nbJavaBeans) {
+        this.projectName = projectName;
+        this.projectPath = projectPath;
+        this.nbXMLFilesBeansConfig = nbXMLFilesBeansConfig;
+        this.nbJavaFilesBeansConfig = nbJavaFilesBeansConfig;
+        this.nbXMLBeans = nbXMLBeans;
+        this.nbJavaBeans = nbJavaBeans;
+    }
+
+    /**
+     * Formats the metrics as a line of the report "report_imt_beans.txt"
+     * @return String line with the columns of CSV_HEADER
+     */
+    public String toCsvLine(){
+        return projectName + "," + projectPath + "," + nbXMLFilesBeansConfig + "," + nbJavaFilesBeansConfig + "," +
+                getNbTotalFilesBeansConfig() + "," + nbXMLBeans + "," + nbJavaBeans + "," + getNbTotalBeans();
+    }
+
+    /**
+     * Getter for the name of the project
+     * @return String name of the project
+     */
+    public String getProjectName() {
+        return projectName;
+    }
+
+    /**
+     * Getter for the path of the project
+     * @return String path of the project
+     */
+    public String getProjectPath() {
+        return projectPath;
+    }
+
+    /**
+     * Getter for the number of XML files configuring beans
+     * @return Integer number of XML files containing the tags "beans" and "bean"
+     */
+    public int getNbXMLFilesBeansConfig() {
+        return nbXMLFilesBeansConfig;
+    }
+
+    /**
+     * Getter for the number of Java files configuring beans
+     * @return Integer number of Java files containing the annotations "@Configuration" and "@Bean"
+     */
+    public int getNbJavaFilesBeansConfig() {
+        return nbJavaFilesBeansConfig;
+    }
+
+    /**
+     * Getter for the total number of files configuring beans
+     * @return Integer number of XML and Java files configuring beans
+     */
+    public int getNbTotalFilesBeansConfig() {
+        return nbXMLFilesBeansConfig + nbJavaFilesBeansConfig;
+    }
+
+    /**
+     * Getter for the number of beans declared in XML
+     * @return Integer number of tags "bean"
+     */
+    public int getNbXMLBeans() {
+        return nbXMLBeans;
+    }
+
+    /**
+     * Getter for the number of beans declared in Java
+     * @return Integer number of annotations "@Bean"
+     */
+    public int getNbJavaBeans() {
+        return nbJavaBeans;
+    }
+
+    /**
+     * Getter for the total number of beans
+     * @return Integer number of beans declared in XML and in Java
+     */
+    public int getNbTotalBeans() {
+        return nbXMLBeans + nbJavaBeans;
+    }
+}
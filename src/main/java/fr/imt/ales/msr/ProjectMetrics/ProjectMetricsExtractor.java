@@ -0,0 +1,278 @@
+package fr.imt.ales.msr.ProjectMetrics;
+
+import fr.imt.ales.msr.LoggerUtils.LoggerPrintUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.OrTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Extracts the metrics of the Spring beans of the projects cloned, replaces the script "extractor_files.sh" without
+ * external process : the files of a project are read in a single parallel pass, or directly from the object database
+ * of the repository at a given commit without checkout.
+ * The occurrences are counted as "grep -w" : the tag or the annotation must not be surrounded by a letter, a digit or '_'.
+ * The files in a directory "test" and in the directory ".git" are ignored.
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class ProjectMetricsExtractor {
+    private final static Logger logger = LogManager.getLogger(ProjectMetricsExtractor.class);
+
+    /**
+     * Name of the report written in the directory of each project
+     */
+    public static final String REPORT_FILENAME = "report_imt_beans.txt";
+    /**
+     * Name of the list of the projects written in the directory of the repositories
+     */
+    public static final String PROJECTS_LIST_FILENAME = "projects_list.txt";
+
+    private static final Pattern PATTERN_XML_BEANS = Pattern.compile("(?<!\\w)<beans(?!\\w)");
+    private static final Pattern PATTERN_XML_BEAN = Pattern.compile("(?<!\\w)<bean(?!\\w)");
+    private static final Pattern PATTERN_JAVA_CONFIGURATION = Pattern.compile("(?<!\\w)@Configuration(?!\\w)");
+    private static final Pattern PATTERN_JAVA_BEAN = Pattern.compile("(?<!\\w)@Bean(?!\\w)");
+    //the patterns are ASCII, each byte is decoded as one char whatever the encoding of the file
+    private static final Charset CHARSET_BYTES = Charset.forName("ISO-8859-1");
+    private static final String EXCLUDED_DIRECTORY = "test";
+    private static final String GIT_DIRECTORY = ".git";
+
+    /**
+     * Default constructor
+     */
+    public ProjectMetricsExtractor(){}
+
+    /**
+     * Extracts the metrics of the files of a project directory, the files are read in parallel
+     * @param projectName Name of the project written in the report
+     * @param pathProjectDirectory Path of the directory of the project
+     * @return ProjectMetrics of the project
+     * @throws IOException Thrown when the directory cannot be walked
+     */
+    public ProjectMetrics extractFromDirectory(String projectName, String pathProjectDirectory) throws IOException {
+        Path projectDirectory = Paths.get(pathProjectDirectory).toAbsolutePath();
+
+        List<Path> listFiles;
+        try (Stream<Path> streamPaths = Files.walk(projectDirectory)) {
+            listFiles = streamPaths
+                    .filter(path -> isSourceFile(projectDirectory.relativize(path).toString().replace(File.separatorChar, '/')))
+                    .filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+        }
+
+        FileCounts fileCounts = listFiles.parallelStream()
+                .map(path -> {
+                    try {
+                        return countOccurrences(path.getFileName().toString(), Files.readAllBytes(path));
+                    } catch (IOException e) {
+                        logger.warn("Unreadable file " + path + " : " + e.getMessage());
+                        return new FileCounts();
+                    }
+                })
+                .reduce(new FileCounts(), FileCounts::add);
+
+        return fileCounts.toProjectMetrics(projectName, projectDirectory.toString());
+    }
+
+    /**
+     * Extracts the metrics of a project at a given commit, the files are read from the object database of the
+     * repository so the working tree is neither required nor modified
+     * @param projectName Name of the project written in the report
+     * @param pathRepository Path of the working tree or of the directory ".git" of the repository
+     * @param commitSha Sha of the commit
+     * @return ProjectMetrics of the project
+     * @throws IOException Thrown when the repository or the commit cannot be read
+     */
+    public ProjectMetrics extractFromCommit(String projectName, String pathRepository, String commitSha) throws IOException {
+        File fileRepository = new File(pathRepository);
+        FileRepositoryBuilder repositoryBuilder = new FileRepositoryBuilder().setMustExist(true);
+        if(fileRepository.getName().equals(GIT_DIRECTORY))
+            repositoryBuilder.setGitDir(fileRepository);
+        else
+            repositoryBuilder.setWorkTree(fileRepository);
+
+        FileCounts fileCounts = new FileCounts();
+        try (Repository repository = repositoryBuilder.build();
+             ObjectReader objectReader = repository.newObjectReader();
+             RevWalk revWalk = new RevWalk(objectReader);
+             TreeWalk treeWalk = new TreeWalk(objectReader)) {
+
+            RevCommit revCommit = revWalk.parseCommit(ObjectId.fromString(commitSha));
+            treeWalk.addTree(revCommit.getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(OrTreeFilter.create(PathSuffixFilter.create(".xml"), PathSuffixFilter.create(".java")));
+
+            while (treeWalk.next()) {
+                if(!isSourceFile(treeWalk.getPathString()))
+                    continue;
+                ObjectLoader objectLoader = objectReader.open(treeWalk.getObjectId(0));
+                try (InputStream inputStream = objectLoader.openStream()) {
+                    fileCounts = fileCounts.add(countOccurrences(treeWalk.getNameString(), IOUtils.toByteArray(inputStream)));
+                }
+            }
+        }
+
+        return fileCounts.toProjectMetrics(projectName, fileRepository.getAbsolutePath());
+    }
+
+    /**
+     * Writes the report "report_imt_beans.txt" of a project : the header then the line of the metrics
+     * @param projectMetrics Metrics of the project
+     * @param pathReportFile Path of the report to write
+     * @throws IOException Thrown when the report cannot be written
+     */
+    public void writeReport(ProjectMetrics projectMetrics, String pathReportFile) throws IOException {
+        List<String> listLines = Arrays.asList(ProjectMetrics.CSV_HEADER, projectMetrics.toCsvLine());
+        Files.write(Paths.get(pathReportFile), listLines, Charset.forName("UTF-8"));
+    }
+
+    /**
+     * Extracts the metrics of every project cloned in the directory (one sub directory per owner then per project,
+     * as cloned by GithubGitClient.cloneRepositoriesFromList), writes the report "report_imt_beans.txt" in the directory
+     * of each project and the list of the projects in "projects_list.txt"
+     * @param pathRepositoriesDirectory Path of the directory of the repositories
+     * @return List of the metrics of the projects
+     * @throws IOException Thrown when a directory cannot be walked or a report cannot be written
+     */
+    public List<ProjectMetrics> createReportsProjects(String pathRepositoriesDirectory) throws IOException {
+        Path repositoriesDirectory = Paths.get(pathRepositoriesDirectory).toAbsolutePath();
+
+        List<Path> listProjectDirectories = new ArrayList<>();
+        try (Stream<Path> streamOwners = Files.list(repositoriesDirectory)) {
+            for (Path ownerDirectory : streamOwners.filter(Files::isDirectory).sorted().collect(Collectors.toList())) {
+                try (Stream<Path> streamProjects = Files.list(ownerDirectory)) {
+                    listProjectDirectories.addAll(streamProjects.filter(Files::isDirectory).sorted().collect(Collectors.toList()));
+                }
+            }
+        }
+
+        Path pathProjectsList = repositoriesDirectory.resolve(PROJECTS_LIST_FILENAME);
+        Files.deleteIfExists(pathProjectsList);
+
+        List<ProjectMetrics> listProjectMetrics = new ArrayList<>();
+        for (int i = 0; i < listProjectDirectories.size(); i++) {
+            Path projectDirectory = listProjectDirectories.get(i);
+            String projectName = projectDirectory.getParent().getFileName() + "/" + projectDirectory.getFileName();
+            LoggerPrintUtils.printLaunchBar(logger, "==< Metrics of the projects >==", i + 1, listProjectDirectories.size());
+
+            ProjectMetrics projectMetrics = extractFromDirectory(projectName, projectDirectory.toString());
+            writeReport(projectMetrics, projectDirectory.resolve(REPORT_FILENAME).toString());
+            Files.write(pathProjectsList, (projectDirectory + System.lineSeparator()).getBytes(Charset.forName("UTF-8")),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            listProjectMetrics.add(projectMetrics);
+        }
+        return listProjectMetrics;
+    }
+
+    /**
+     * Indicates if a file is analyzed : XML or Java file outside of a directory "test" or ".git"
+     * @param relativePath Path of the file relative to the project with '/' as separator
+     * @return true if the file is analyzed
+     */
+    private boolean isSourceFile(String relativePath){
+        if(!relativePath.endsWith(".xml") && !relativePath.endsWith(".java"))
+            return false;
+
+        String[] pathSegments = relativePath.split("/");
+        for (int i = 0; i < pathSegments.length - 1; i++) {
+            if(pathSegments[i].equals(EXCLUDED_DIRECTORY) || pathSegments[i].equals(GIT_DIRECTORY))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Counts the occurrences of the tags or of the annotations in the content of a file
+     * @param filename Name of the file, its extension gives the patterns to count
+     * @param content Bytes of the file
+     * @return FileCounts of the file
+     */
+    private FileCounts countOccurrences(String filename, byte[] content){
+        String text = new String(content, CHARSET_BYTES);
+        FileCounts fileCounts = new FileCounts();
+
+        if(filename.endsWith(".xml")){
+            fileCounts.nbXMLBeans = countMatches(PATTERN_XML_BEAN, text);
+            if(fileCounts.nbXMLBeans > 0 && PATTERN_XML_BEANS.matcher(text).find())
+                fileCounts.nbXMLFilesBeansConfig = 1;
+        }else if(filename.endsWith(".java")){
+            fileCounts.nbJavaBeans = countMatches(PATTERN_JAVA_BEAN, text);
+            if(fileCounts.nbJavaBeans > 0 && PATTERN_JAVA_CONFIGURATION.matcher(text).find())
+                fileCounts.nbJavaFilesBeansConfig = 1;
+        }
+        return fileCounts;
+    }
+
+    /**
+     * Counts the matches of a pattern in a text
+     * @param pattern Pattern to count
+     * @param text Text to search
+     * @return Integer number of matches
+     */
+    private int countMatches(Pattern pattern, String text){
+        Matcher matcher = pattern.matcher(text);
+        int nbMatches = 0;
+        while (matcher.find()) {
+            nbMatches++;
+        }
+        return nbMatches;
+    }
+
+    /**
+     * Counts of one or several files
+     */
+    private static class FileCounts {
+        private int nbXMLFilesBeansConfig;
+        private int nbJavaFilesBeansConfig;
+        private int nbXMLBeans;
+        private int nbJavaBeans;
+
+        /**
+         * Sums two counts
+         * @param other Counts to add
+         * @return FileCounts sum of the counts
+         */
+        private FileCounts add(FileCounts other){
+            FileCounts sum = new FileCounts();
+            sum.nbXMLFilesBeansConfig = nbXMLFilesBeansConfig + other.nbXMLFilesBeansConfig;
+            sum.nbJavaFilesBeansConfig = nbJavaFilesBeansConfig + other.nbJavaFilesBeansConfig;
+            sum.nbXMLBeans = nbXMLBeans + other.nbXMLBeans;
+            sum.nbJavaBeans = nbJavaBeans + other.nbJavaBeans;
+            return sum;
+        }
+
+        /**
+         * Creates the metrics of a project from the counts
+         * @param projectName Name of the project
+         * @param projectPath Path of the project
+         * @return ProjectMetrics of the project
+         */
+        private ProjectMetrics toProjectMetrics(String projectName, String projectPath){
+            return new ProjectMetrics(projectName, projectPath, nbXMLFilesBeansConfig, nbJavaFilesBeansConfig, nbXMLBeans, nbJavaBeans);
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package fr.imt.ales.msr.RawDataFilters;
+
+import fr.imt.ales.msr.FileWritersReaders.Compression;
+import fr.imt.ales.msr.FileWritersReaders.FileWriterJSON;
+import fr.imt.ales.msr.FileWritersReaders.NDJSONReader;
+import fr.imt.ales.msr.FileWritersReaders.NDJSONWriter;
+import fr.imt.ales.msr.LoggerUtils.LoggerPrintUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the same filter (a list of fields or a JsonPath expression) on many files, e.g. the "_raw.json" or
+ * "_commits.json" files of the mined repositories. The files are filtered at the same time on a fork-join pool, each
+ * file is read item by item when the filter is a list of fields (see RawDataFilter.projectFieldsFromJSONFile).
+ * The result is one file per input file, or one file merging the items of all the input files in their order.
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class BatchFilter {
+    private final static Logger logger = LogManager.getLogger(BatchFilter.class);
+
+    private final RawDataFilter rawDataFilter;
+    private final FileWriterJSON fileWriterJSON = new FileWriterJSON();
+    private int nbParallelFilters = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Constructor of a batch filter
+     * @param rawDataFilter Filter applied to each file, it is shared by the threads of the pool
+     */
+    public BatchFilter(RawDataFilter rawDataFilter){
+        this.rawDataFilter = rawDataFilter;
+    }
+
+    /**
+     * Lists the files of a directory matching a glob pattern, sorted by name
+     * @param pathDirectory Path of the directory
+     * @param glob Glob pattern of the file names (e.g. "*_commits.json"), "*" for all the files
+     * @return List of the paths of the regular files matching the pattern
+     * @throws IOException Thrown when the directory cannot be read
+     */
+    public static List<String> listFiles(String pathDirectory, String glob) throws IOException {
+        List<String> listPathFiles = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(Paths.get(pathDirectory), glob)) {
+            for (Path pathFile : directoryStream) {
+                if(Files.isRegularFile(pathFile))
+                    listPathFiles.add(pathFile.toString());
+            }
+        }
+        Collections.sort(listPathFiles);
+        return listPathFiles;
+    }
+
+    /**
+     * Keeps the fields of the items of each file and writes one file per input file
+     * @param listPathInputFiles Paths of the JSON or NDJSON files to filter
+     * @param fieldPaths Dotted paths of the fields to keep, at any depth (see FieldProjection)
+     * @param pathOutputDirectory Path of the directory of the files written
+     * @param outputSuffix Suffix replacing the extension of the input file in the name of the file written
+     *                     (e.g. "_filtered.json" writes "repo_raw_filtered.json" for "repo_raw.json")
+     * @return List of the results of the filters in the order of the input files
+     * @throws IllegalArgumentException Thrown when two input files have the same name of file written, or when a
+     * file written is one of the input files
+     */
+    public List<FilterResult> filterFields(List<String> listPathInputFiles, List<String> fieldPaths, String pathOutputDirectory, String outputSuffix){
+        //the paths are checked once before the threads are started
+        new FieldProjection(fieldPaths);
+        return filterFiles(listPathInputFiles, pathOutputDirectory, outputSuffix,
+                (pathInputFile, pathDirectory, filename) -> rawDataFilter.projectFieldsFromJSONFile(pathInputFile, fieldPaths, pathDirectory, filename));
+    }
+
+    /**
+     * Extracts the values matching a JsonPath expression in each file and writes one file per input file
+     * @param listPathInputFiles Paths of the JSON files to filter, each file is read whole by JsonPath
+     * @param jsonPathExprString JsonPath expression
+     * @param pathOutputDirectory Path of the directory of the files written
+     * @param outputSuffix Suffix replacing the extension of the input file in the name of the file written
+     * @return List of the results of the filters in the order of the input files
+     * @throws IllegalArgumentException Thrown when two input files have the same name of file written, or when a
+     * file written is one of the input files
+     */
+    public List<FilterResult> filterJsonPath(List<String> listPathInputFiles, String jsonPathExprString, String pathOutputDirectory, String outputSuffix){
+        checkJsonPathExpression(jsonPathExprString);
+        return filterFiles(listPathInputFiles, pathOutputDirectory, outputSuffix,
+                (pathInputFile, pathDirectory, filename) -> extractJsonPath(pathInputFile, jsonPathExprString, pathDirectory, filename));
+    }
+
+    /**
+     * Keeps the fields of the items of all the files and writes them in one file, in the order of the input files
+     * @param listPathInputFiles Paths of the JSON or NDJSON files to filter
+     * @param fieldPaths Dotted paths of the fields to keep, at any depth (see FieldProjection)
+     * @param pathOutputDirectory Path of the directory of the file written
+     * @param filename Name of the file written, the extension ".ndjson" writes one item per line
+     * @return Long number of items written
+     * @throws IOException Thrown when a file cannot be filtered or the merged file cannot be written
+     */
+    public long filterFieldsMerged(List<String> listPathInputFiles, List<String> fieldPaths, String pathOutputDirectory, String filename) throws IOException {
+        new FieldProjection(fieldPaths);
+        return filterFilesMerged(listPathInputFiles, pathOutputDirectory, filename,
+                (pathInputFile, pathDirectory, partFilename) -> rawDataFilter.projectFieldsFromJSONFile(pathInputFile, fieldPaths, pathDirectory, partFilename));
+    }
+
+    /**
+     * Extracts the values matching a JsonPath expression in all the files and writes them in one file, in the order
+     * of the input files
+     * @param listPathInputFiles Paths of the JSON files to filter, each file is read whole by JsonPath
+     * @param jsonPathExprString JsonPath expression
+     * @param pathOutputDirectory Path of the directory of the file written
+     * @param filename Name of the file written, the extension ".ndjson" writes one value per line
+     * @return Long number of values written
+     * @throws IOException Thrown when a file cannot be filtered or the merged file cannot be written
+     */
+    public long filterJsonPathMerged(List<String> listPathInputFiles, String jsonPathExprString, String pathOutputDirectory, String filename) throws IOException {
+        checkJsonPathExpression(jsonPathExprString);
+        return filterFilesMerged(listPathInputFiles, pathOutputDirectory, filename,
+                (pathInputFile, pathDirectory, partFilename) -> extractJsonPath(pathInputFile, jsonPathExprString, pathDirectory, partFilename));
+    }
+
+    /**
+     * Filters each file on the pool and writes one file per input file
+     * @param listPathInputFiles Paths of the files to filter
+     * @param pathOutputDirectory Path of the directory of the files written
+     * @param outputSuffix Suffix replacing the extension of the input files
+     * @param fileFilter Filter of one file
+     * @return List of the results of the filters in the order of the input files
+     * @throws IllegalArgumentException Thrown when two input files have the same name of file written
+     * (e.g. "a.json" and "a.json.gz", or "a.json" and "a.ndjson"), or when a file written is one of the input files
+     */
+    private List<FilterResult> filterFiles(List<String> listPathInputFiles, String pathOutputDirectory, String outputSuffix, FileFilter fileFilter){
+        checkDirectory(pathOutputDirectory);
+
+        //the names are checked before the threads are started : two filters would write the same file, and a filter
+        //writing over an input file would replace it while it is read
+        Set<Path> setPathInputFiles = new HashSet<>();
+        for (String pathInputFile : listPathInputFiles) {
+            setPathInputFiles.add(Paths.get(pathInputFile).toAbsolutePath().normalize());
+        }
+        Map<String, String> mapFilenameToInputFile = new HashMap<>();
+        List<String> listFilenames = new ArrayList<>();
+        List<Callable<FilterResult>> listFilterTasks = new ArrayList<>();
+        for (String pathInputFile : listPathInputFiles) {
+            String filename = getOutputFilename(pathInputFile, outputSuffix);
+            String pathOtherInputFile = mapFilenameToInputFile.putIfAbsent(filename, pathInputFile);
+            if(pathOtherInputFile != null)
+                throw new IllegalArgumentException("The files " + pathOtherInputFile + " and " + pathInputFile + " would both be filtered in " + filename);
+            Path pathOutputFile = Paths.get(pathOutputDirectory, filename).toAbsolutePath().normalize();
+            if(setPathInputFiles.contains(pathOutputFile))
+                throw new IllegalArgumentException("The file " + pathInputFile + " would be filtered over the input file " + pathOutputFile);
+            listFilenames.add(filename);
+            listFilterTasks.add(() -> runFilter(fileFilter, pathInputFile, pathOutputDirectory, filename));
+        }
+        List<FilterResult> listFilterResults = runFilterTasks(listFilterTasks, listPathInputFiles, pathOutputDirectory, listFilenames);
+
+        int nbFailures = 0;
+        for (FilterResult filterResult : listFilterResults) {
+            if(!filterResult.isSuccess())
+                nbFailures++;
+        }
+        logger.info("== " + (listFilterResults.size() - nbFailures) + " files filtered, " + nbFailures + " failed ==");
+        return listFilterResults;
+    }
+
+    /**
+     * Filters each file on the pool in a NDJSON part, then merges the parts in the order of the input files
+     * @param listPathInputFiles Paths of the files to filter
+     * @param pathOutputDirectory Path of the directory of the file written
+     * @param filename Name of the merged file
+     * @param fileFilter Filter of one file
+     * @return Long number of items written
+     * @throws IOException Thrown when a file cannot be filtered or the merged file cannot be written
+     */
+    private long filterFilesMerged(List<String> listPathInputFiles, String pathOutputDirectory, String filename, FileFilter fileFilter) throws IOException {
+        checkDirectory(pathOutputDirectory);
+
+        Path pathPartsDirectory = Files.createTempDirectory(Paths.get(pathOutputDirectory), "." + filename + ".parts");
+        try {
+            List<String> listPartFilenames = new ArrayList<>();
+            List<Callable<FilterResult>> listFilterTasks = new ArrayList<>();
+            for (int i = 0; i < listPathInputFiles.size(); i++) {
+                String pathInputFile = listPathInputFiles.get(i);
+                String partFilename = "part-" + i + ".ndjson";
+                listPartFilenames.add(partFilename);
+                listFilterTasks.add(() -> runFilter(fileFilter, pathInputFile, pathPartsDirectory.toString(), partFilename));
+            }
+
+            List<String> listPathParts = new ArrayList<>();
+            for (FilterResult filterResult : runFilterTasks(listFilterTasks, listPathInputFiles, pathPartsDirectory.toString(), listPartFilenames)) {
+                if(!filterResult.isSuccess())
+                    throw new IOException("The filter of " + filterResult.getPathInputFile() + " failed : " + filterResult.getError().getMessage(), filterResult.getError());
+                listPathParts.add(filterResult.getPathOutputFile());
+            }
+
+            long nbItems = rawDataFilter.mergeItems(listPathParts, pathOutputDirectory, filename);
+            logger.info("== " + listPathInputFiles.size() + " files filtered, " + nbItems + " items merged in " + filename + " ==");
+            return nbItems;
+        } finally {
+            deleteParts(pathPartsDirectory);
+        }
+    }
+
+    /**
+     * Runs the filters on a fork-join pool of nbParallelFilters threads and displays the progress. When the thread is
+     * interrupted, the filters not finished are cancelled and reported as failed with an InterruptedException.
+     * @param listFilterTasks Filters to run
+     * @param listPathInputFiles Paths of the files filtered by the tasks, in the same order
+     * @param pathOutputDirectory Path of the directory of the files written
+     * @param listFilenames Names of the files written by the tasks, in the same order
+     * @return List of the results of the filters in the order of the tasks, one result per task
+     */
+    private List<FilterResult> runFilterTasks(List<Callable<FilterResult>> listFilterTasks, List<String> listPathInputFiles, String pathOutputDirectory, List<String> listFilenames){
+        List<FilterResult> listFilterResults = new ArrayList<>();
+        if(listFilterTasks.isEmpty())
+            return listFilterResults;
+
+        int nbTasks = listFilterTasks.size();
+        AtomicInteger nbTasksDone = new AtomicInteger();
+        ForkJoinPool forkJoinPool = new ForkJoinPool(Math.min(nbParallelFilters, nbTasks));
+        try {
+            List<Future<FilterResult>> listFutures = new ArrayList<>();
+            for (Callable<FilterResult> filterTask : listFilterTasks) {
+                listFutures.add(forkJoinPool.submit(() -> {
+                    FilterResult filterResult = filterTask.call();
+                    synchronized (logger){
+                        LoggerPrintUtils.printLaunchBar(logger,"==< Filter files >==",nbTasksDone.incrementAndGet(),nbTasks);
+                    }
+                    return filterResult;
+                }));
+            }
+
+            for (Future<FilterResult> future : listFutures) {
+                listFilterResults.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("The filter of the files has been interrupted, " + (nbTasks - listFilterResults.size()) + " files not filtered");
+            for (int i = listFilterResults.size(); i < nbTasks; i++) {
+                String pathOutputFile = Paths.get(pathOutputDirectory, listFilenames.get(i)).toString();
+                listFilterResults.add(new FilterResult(listPathInputFiles.get(i), pathOutputFile, 0, e, 0));
+            }
+        } catch (ExecutionException e) {
+            //runFilter catches the exceptions of the filter
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            forkJoinPool.shutdownNow();
+        }
+        return listFilterResults;
+    }
+
+    /**
+     * Filters a file, the exceptions are reported in the result
+     * @param fileFilter Filter of one file
+     * @param pathInputFile Path of the file to filter
+     * @param pathOutputDirectory Path of the directory of the file written
+     * @param filename Name of the file written
+     * @return FilterResult of the filter
+     */
+    private FilterResult runFilter(FileFilter fileFilter, String pathInputFile, String pathOutputDirectory, String filename){
+        long startMillis = System.currentTimeMillis();
+        String pathOutputFile = Paths.get(pathOutputDirectory, filename).toString();
+        try {
+            long nbItems = fileFilter.filter(pathInputFile, pathOutputDirectory, filename);
+            return new FilterResult(pathInputFile, pathOutputFile, nbItems, null, System.currentTimeMillis() - startMillis);
+        } catch (Exception e) {
+            logger.error("== Filter of " + pathInputFile + " failed : " + e.getMessage() + " ==");
+            return new FilterResult(pathInputFile, pathOutputFile, 0, e, System.currentTimeMillis() - startMillis);
+        }
+    }
+
+    /**
+     * Extracts the values matching a JsonPath expression in a file and writes them in a JSON or NDJSON file
+     * @param pathInputFile Path of the JSON file to filter
+     * @param jsonPathExprString JsonPath expression
+     * @param pathOutputDirectory Path of the directory of the file written
+     * @param filename Name of the file written, the extension ".ndjson" writes one value per line
+     * @return Long number of values written
+     * @throws Exception Thrown when the file cannot be read or written
+     */
+    private long extractJsonPath(String pathInputFile, String jsonPathExprString, String pathOutputDirectory, String filename) throws Exception {
+        JSONObject jsonObjectExtracted = rawDataFilter.extractSpecificFieldsFromJSONFile(pathInputFile, jsonPathExprString);
+        if(!NDJSONReader.isNDJSONFile(filename)){
+            fileWriterJSON.writeJsonFile(jsonObjectExtracted, pathOutputDirectory, filename);
+            return jsonObjectExtracted.getInt("total_count");
+        }
+
+        try (NDJSONWriter ndjsonWriter = fileWriterJSON.openNDJSONWriter(pathOutputDirectory, filename, false)) {
+            for (Object value : jsonObjectExtracted.getJSONArray("items")) {
+                ndjsonWriter.writeItem(value);
+            }
+            return ndjsonWriter.getNbItemsWritten();
+        }
+    }
+
+    /**
+     * Returns the name of the file written for an input file : the extension of the input file (and of its
+     * compression) is replaced by the suffix
+     * @param pathInputFile Path of the input file
+     * @param outputSuffix Suffix of the file written
+     * @return String name of the file written
+     */
+    static String getOutputFilename(String pathInputFile, String outputSuffix){
+        String filename = Compression.removeExtension(Paths.get(pathInputFile).getFileName().toString());
+        int indexExtension = filename.lastIndexOf('.');
+        if(indexExtension > 0)
+            filename = filename.substring(0, indexExtension);
+        return filename + outputSuffix;
+    }
+
+    /**
+     * Checks that a JsonPath expression is given
+     * @param jsonPathExprString JsonPath expression
+     * @throws IllegalArgumentException Thrown when the expression is null or empty
+     */
+    private static void checkJsonPathExpression(String jsonPathExprString){
+        if(jsonPathExprString == null || jsonPathExprString.equals(""))
+            throw new IllegalArgumentException("The Json Path expression cannot be null or empty");
+    }
+
+    /**
+     * Checks that the output directory exists
+     * @param pathOutputDirectory Path of the directory
+     * @throws InvalidPathException Thrown when the path is not a directory
+     */
+    private static void checkDirectory(String pathOutputDirectory){
+        if(!new File(pathOutputDirectory).isDirectory())
+            throw new InvalidPathException(pathOutputDirectory, "Error path to write JSON file is invalid or is not a directory");
+    }
+
+    /**
+     * Deletes the directory of the parts of a merged file
+     * @param pathPartsDirectory Path of the directory of the parts
+     */
+    private static void deleteParts(Path pathPartsDirectory){
+        File[] partFiles = pathPartsDirectory.toFile().listFiles();
+        if(partFiles != null){
+            for (File partFile : partFiles) {
+                if(!partFile.delete())
+                    logger.warn("The part " + partFile + " cannot be deleted");
+            }
+        }
+        if(!pathPartsDirectory.toFile().delete())
+            logger.warn("The directory " + pathPartsDirectory + " cannot be deleted");
+    }
+
+    /**
+     * Getter for the number of files filtered at the same time
+     * @return Integer number of parallel filters
+     */
+    public int getNbParallelFilters() {
+        return nbParallelFilters;
+    }
+
+    /**
+     * Sets the number of files filtered at the same time, the number of cores by default
+     * @param nbParallelFilters Integer number of parallel filters, must be strictly positive
+     */
+    public void setNbParallelFilters(int nbParallelFilters) {
+        if(nbParallelFilters < 1)
+            throw new IllegalArgumentException("The number of parallel filters must be strictly positive");
+        this.nbParallelFilters = nbParallelFilters;
+    }
+
+    /**
+     * Filter of one file
+     */
+    private interface FileFilter {
+        /**
+         * Filters a file and writes the result
+         * @param pathInputFile Path of the file to filter
+         * @param pathOutputDirectory Path of the directory of the file written
+         * @param filename Name of the file written
+         * @return Long number of items or values written
+         * @throws Exception Thrown when the file cannot be filtered or written
+         */
+        long filter(String pathInputFile, String pathOutputDirectory, String filename) throws Exception;
+    }
+}
@@ -0,0 +1,304 @@
+package fr.imt.ales.msr.RawDataFilters;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Detects the duplicate items of a dataset read item by item : each item is reduced to a 128-bit hash of its key
+ * (MurmurHash3 x64 128), kept in an open-addressing set of primitive longs. An item is never kept in memory, the set
+ * uses about 32 bytes per distinct item, so millions of items are deduplicated in a small heap.
+ * Two distinct keys have the same hash with a probability of about n^2 / 2^129, negligible for a mined dataset.
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class DuplicateFilter {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Fields identifying an item of the Github API, in the order in which they are looked for
+     */
+    public static final List<String> IDENTIFIER_FIELDS = Collections.unmodifiableList(Arrays.asList("id", "sha", "node_id"));
+
+    /**
+     * Key on which two items are considered as duplicates
+     */
+    public enum KeyStrategy {
+        /**
+         * Whole content of the item : two items are duplicates when they have the same fields and values, whatever the
+         * order of their fields
+         */
+        CONTENT,
+        /**
+         * Identifier of the item (the first of the fields IDENTIFIER_FIELDS), the content is used for the items
+         * without identifier
+         */
+        IDENTIFIER
+    }
+
+    private final KeyStrategy keyStrategy;
+    private final HashSet128 hashSet128 = new HashSet128();
+    private final ByteArrayOutputStream keyBytes = new ByteArrayOutputStream(1024);
+    private final long[] hash = new long[2];
+
+    /**
+     * Constructor of a duplicate filter
+     * @param keyStrategy Key on which the items are compared
+     */
+    public DuplicateFilter(KeyStrategy keyStrategy){
+        this.keyStrategy = keyStrategy;
+    }
+
+    /**
+     * Adds the key of an item to the keys already met
+     * @param item Item of the dataset (object, array or scalar value)
+     * @return true if the key is met for the first time, false if the item is a duplicate
+     */
+    public boolean add(JsonNode item){
+        keyBytes.reset();
+        try {
+            if(keyStrategy != KeyStrategy.IDENTIFIER || !writeIdentifier(item))
+                writeCanonicalContent(item);
+        } catch (IOException e) {
+            //the bytes are written in memory
+            throw new UncheckedIOException(e);
+        }
+        murmurHash3(keyBytes.toByteArray(), hash);
+        return hashSet128.add(hash[0], hash[1]);
+    }
+
+    /**
+     * Returns the number of distinct keys met
+     * @return Integer number of distinct items
+     */
+    public int size(){
+        return hashSet128.size;
+    }
+
+    /**
+     * Writes the identifier of an item in the key
+     * @param item Item of the dataset
+     * @return true if the item has an identifier, false otherwise
+     */
+    private boolean writeIdentifier(JsonNode item){
+        if(!item.isObject())
+            return false;
+        for (String identifierField : IDENTIFIER_FIELDS) {
+            JsonNode identifier = item.get(identifierField);
+            if(identifier != null && identifier.isValueNode() && !identifier.isNull()){
+                //the prefix separates the identifiers from the contents and the fields from each other
+                byte[] bytes = ("#" + identifierField + ":" + identifier.asText()).getBytes(StandardCharsets.UTF_8);
+                keyBytes.write(bytes, 0, bytes.length);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the content of an item in the key as compact JSON with the fields sorted by name, so the order of the
+     * fields does not change the key
+     * @param item Item of the dataset
+     * @throws IOException Thrown when the item cannot be written
+     */
+    private void writeCanonicalContent(JsonNode item) throws IOException {
+        try (JsonGenerator jsonGenerator = JSON_FACTORY.createGenerator(keyBytes, JsonEncoding.UTF8)) {
+            writeCanonical(jsonGenerator, item);
+        }
+    }
+
+    /**
+     * Writes a value with the fields of its objects sorted by name
+     * @param jsonGenerator Generator of the key
+     * @param value Value to write
+     * @throws IOException Thrown when the value cannot be written
+     */
+    private void writeCanonical(JsonGenerator jsonGenerator, JsonNode value) throws IOException {
+        if(value.isObject()){
+            List<String> listFieldNames = new ArrayList<>(value.size());
+            Iterator<String> iteratorFieldNames = value.fieldNames();
+            while (iteratorFieldNames.hasNext()) {
+                listFieldNames.add(iteratorFieldNames.next());
+            }
+            Collections.sort(listFieldNames);
+
+            jsonGenerator.writeStartObject();
+            for (String fieldName : listFieldNames) {
+                jsonGenerator.writeFieldName(fieldName);
+                writeCanonical(jsonGenerator, value.get(fieldName));
+            }
+            jsonGenerator.writeEndObject();
+        }else if(value.isArray()){
+            jsonGenerator.writeStartArray();
+            for (JsonNode element : value) {
+                writeCanonical(jsonGenerator, element);
+            }
+            jsonGenerator.writeEndArray();
+        }else if(value.isTextual()){
+            jsonGenerator.writeString(value.textValue());
+        }else if(value.isNumber()){
+            jsonGenerator.writeNumber(value.asText());
+        }else if(value.isBoolean()){
+            jsonGenerator.writeBoolean(value.booleanValue());
+        }else{
+            jsonGenerator.writeNull();
+        }
+    }
+
+    /**
+     * Computes the 128-bit MurmurHash3 (x64 variant, seed 0) of bytes
+     * @param bytes Bytes to hash
+     * @param hash Array receiving the two halves of the hash
+     */
+    static void murmurHash3(byte[] bytes, long[] hash){
+        final long c1 = 0x87c37b91114253d5L;
+        final long c2 = 0x4cf5ad432745937fL;
+        int length = bytes.length;
+        int nbBlocks = length / 16;
+        long h1 = 0;
+        long h2 = 0;
+
+        for (int i = 0; i < nbBlocks; i++) {
+            long k1 = getLittleEndianLong(bytes, i * 16);
+            long k2 = getLittleEndianLong(bytes, i * 16 + 8);
+
+            k1 *= c1; k1 = Long.rotateLeft(k1, 31); k1 *= c2; h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27); h1 += h2; h1 = h1 * 5 + 0x52dce729;
+            k2 *= c2; k2 = Long.rotateLeft(k2, 33); k2 *= c1; h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31); h2 += h1; h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        //tail : the last bytes which do not fill a block
+        long k1 = 0;
+        long k2 = 0;
+        int tail = nbBlocks * 16;
+        for (int i = length - tail - 1; i >= 8; i--) {
+            k2 ^= (bytes[tail + i] & 0xffL) << ((i - 8) * 8);
+        }
+        for (int i = Math.min(length - tail, 8) - 1; i >= 0; i--) {
+            k1 ^= (bytes[tail + i] & 0xffL) << (i * 8);
+        }
+        if(length - tail > 8){
+            k2 *= c2; k2 = Long.rotateLeft(k2, 33); k2 *= c1; h2 ^= k2;
+        }
+        if(length - tail > 0){
+            k1 *= c1; k1 = Long.rotateLeft(k1, 31); k1 *= c2; h1 ^= k1;
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        hash[0] = h1;
+        hash[1] = h2;
+    }
+
+    /**
+     * Reads 8 bytes in little endian order
+     * @param bytes Bytes to read
+     * @param offset Offset of the first byte
+     * @return Long value of the bytes
+     */
+    private static long getLittleEndianLong(byte[] bytes, int offset){
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (bytes[offset + i] & 0xffL);
+        }
+        return value;
+    }
+
+    /**
+     * Final mix of MurmurHash3, spreading each bit of the input on all the bits of the output
+     * @param k Value to mix
+     * @return Long value mixed
+     */
+    private static long fmix64(long k){
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /**
+     * Set of 128-bit values stored in an array of longs with linear probing, the empty slots are (0, 0)
+     */
+    private static class HashSet128 {
+        private long[] slots = new long[2 * 1024];
+        private int size = 0;
+        private boolean containsZero = false;
+
+        /**
+         * Adds a value to the set
+         * @param high First half of the value
+         * @param low Second half of the value
+         * @return true if the value was not in the set
+         */
+        private boolean add(long high, long low){
+            if(high == 0 && low == 0){
+                if(containsZero)
+                    return false;
+                containsZero = true;
+                size++;
+                return true;
+            }
+
+            //at most 3/4 of the slots are used
+            if((size + 1) * 4L > (slots.length / 2) * 3L)
+                grow();
+            if(!insert(slots, high, low))
+                return false;
+            size++;
+            return true;
+        }
+
+        /**
+         * Inserts a value in an array of slots
+         * @param slots Array of the slots
+         * @param high First half of the value
+         * @param low Second half of the value
+         * @return true if the value has been inserted, false if it was already in the array
+         */
+        private static boolean insert(long[] slots, long high, long low){
+            int mask = slots.length / 2 - 1;
+            //the value is already a hash, its bits are spread
+            int index = (int) high & mask;
+            while (slots[2 * index] != 0 || slots[2 * index + 1] != 0) {
+                if(slots[2 * index] == high && slots[2 * index + 1] == low)
+                    return false;
+                index = (index + 1) & mask;
+            }
+            slots[2 * index] = high;
+            slots[2 * index + 1] = low;
+            return true;
+        }
+
+        /**
+         * Doubles the number of slots and inserts the values again
+         */
+        private void grow(){
+            long[] newSlots = new long[slots.length * 2];
+            for (int i = 0; i < slots.length; i += 2) {
+                if(slots[i] != 0 || slots[i + 1] != 0)
+                    insert(newSlots, slots[i], slots[i + 1]);
+            }
+            slots = newSlots;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package fr.imt.ales.msr.RawDataFilters;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Projects the items of a dataset on a list of fields while they are parsed : the fields are given by dotted paths at
+ * any depth (e.g. "commit.committer.date"), the arrays met on a path are projected element by element (e.g.
+ * "labels.name" keeps the name of each label). The projected item keeps the structure of the original one, the
+ * fields not selected are skipped by the parser without being built, so the memory used does not depend on the size
+ * of the items nor of the file.
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class FieldProjection {
+    private final PathNode rootPathNode = new PathNode();
+
+    /**
+     * Constructor of a projection
+     * @param listFieldPaths Dotted paths of the fields to keep, a field selected keeps its whole value
+     * @throws IllegalArgumentException Thrown when no path is given or when a path is empty
+     */
+    public FieldProjection(List<String> listFieldPaths){
+        if(listFieldPaths == null || listFieldPaths.isEmpty())
+            throw new IllegalArgumentException("At least one field to extract must be specified");
+
+        for (String fieldPath : listFieldPaths) {
+            PathNode pathNode = rootPathNode;
+            for (String step : fieldPath.split("\\.", -1)) {
+                if(step.isEmpty())
+                    throw new IllegalArgumentException("Malformed field path : '" + fieldPath + "'");
+                pathNode = pathNode.mapChildren.computeIfAbsent(step, name -> new PathNode());
+            }
+            pathNode.selected = true;
+        }
+    }
+
+    /**
+     * Projects the item on which the parser is positioned, the whole item is read. The projected item is buffered
+     * before being written, so nothing is written when the item is malformed.
+     * @param jsonParser Parser positioned on the first token of the item
+     * @param jsonGenerator Generator receiving the projected item
+     * @return true if the item has at least one field selected and has been written, false if it has been skipped
+     * @throws IOException Thrown when the item cannot be read or written
+     */
+    public boolean project(JsonParser jsonParser, JsonGenerator jsonGenerator) throws IOException {
+        if(jsonParser.currentToken() != JsonToken.START_OBJECT){
+            jsonParser.skipChildren();
+            return false;
+        }
+
+        TokenBuffer tokenBuffer = new TokenBuffer(jsonParser.getCodec(), false);
+        PendingContainer pendingItem = new PendingContainer(null, null, false);
+        projectObject(jsonParser, tokenBuffer, rootPathNode, pendingItem);
+        if(!pendingItem.opened)
+            return false;
+
+        tokenBuffer.serialize(jsonGenerator);
+        return true;
+    }
+
+    /**
+     * Projects the fields of the current object
+     * @param jsonParser Parser positioned on the start of the object
+     * @param tokenBuffer Buffer receiving the projected item
+     * @param pathNode Node of the paths matching the fields of the object
+     * @param pendingObject Projected object, opened on its first field selected
+     * @throws IOException Thrown when the object cannot be read
+     */
+    private void projectObject(JsonParser jsonParser, TokenBuffer tokenBuffer, PathNode pathNode, PendingContainer pendingObject) throws IOException {
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jsonParser.getCurrentName();
+            JsonToken valueToken = jsonParser.nextToken();
+            PathNode childPathNode = pathNode.mapChildren.get(fieldName);
+
+            if(childPathNode == null){
+                jsonParser.skipChildren();
+            }else if(childPathNode.selected){
+                pendingObject.open(tokenBuffer);
+                tokenBuffer.writeFieldName(fieldName);
+                tokenBuffer.copyCurrentStructure(jsonParser);
+            }else{
+                projectValue(jsonParser, valueToken, tokenBuffer, childPathNode, new PendingContainer(pendingObject, fieldName, valueToken == JsonToken.START_ARRAY));
+            }
+        }
+        pendingObject.close(tokenBuffer);
+    }
+
+    /**
+     * Projects a value met in the middle of a path : the objects are projected on the following steps, the arrays are
+     * projected element by element and the scalar values are skipped
+     * @param jsonParser Parser positioned on the first token of the value
+     * @param valueToken First token of the value
+     * @param tokenBuffer Buffer receiving the projected item
+     * @param pathNode Node of the remaining steps of the paths
+     * @param pendingContainer Projected value, opened on its first field selected
+     * @throws IOException Thrown when the value cannot be read
+     */
+    private void projectValue(JsonParser jsonParser, JsonToken valueToken, TokenBuffer tokenBuffer, PathNode pathNode, PendingContainer pendingContainer) throws IOException {
+        if(valueToken == JsonToken.START_OBJECT){
+            projectObject(jsonParser, tokenBuffer, pathNode, pendingContainer);
+        }else if(valueToken == JsonToken.START_ARRAY){
+            JsonToken elementToken;
+            while ((elementToken = jsonParser.nextToken()) != JsonToken.END_ARRAY) {
+                projectValue(jsonParser, elementToken, tokenBuffer, pathNode, new PendingContainer(pendingContainer, null, elementToken == JsonToken.START_ARRAY));
+            }
+            pendingContainer.close(tokenBuffer);
+        }else{
+            jsonParser.skipChildren();
+        }
+    }
+
+    /**
+     * Step of the dotted paths, with the following steps
+     */
+    private static class PathNode {
+        private final Map<String, PathNode> mapChildren = new HashMap<>();
+        private boolean selected = false;
+    }
+
+    /**
+     * Object or array of the projected item written only when a field selected is found inside it, so the
+     * containers without any field selected are not written
+     */
+    private static class PendingContainer {
+        private final PendingContainer parent;
+        private final String fieldName;
+        private final boolean array;
+        private boolean opened = false;
+
+        /**
+         * Constructor of a pending container
+         * @param parent Container enclosing this one, null for the item
+         * @param fieldName Name of the field of the container, null for the item and the elements of an array
+         * @param array true for an array, false for an object
+         */
+        private PendingContainer(PendingContainer parent, String fieldName, boolean array) {
+            this.parent = parent;
+            this.fieldName = fieldName;
+            this.array = array;
+        }
+
+        /**
+         * Writes the start of the container and of the enclosing containers if they are not written yet
+         * @param tokenBuffer Buffer receiving the projected item
+         * @throws IOException Thrown when the buffer cannot be written
+         */
+        private void open(TokenBuffer tokenBuffer) throws IOException {
+            if(opened)
+                return;
+            if(parent != null)
+                parent.open(tokenBuffer);
+            if(fieldName != null)
+                tokenBuffer.writeFieldName(fieldName);
+            if(array){
+                tokenBuffer.writeStartArray();
+            }else{
+                tokenBuffer.writeStartObject();
+            }
+            opened = true;
+        }
+
+        /**
+         * Writes the end of the container if its start has been written
+         * @param tokenBuffer Buffer receiving the projected item
+         * @throws IOException Thrown when the buffer cannot be written
+         */
+        private void close(TokenBuffer tokenBuffer) throws IOException {
+            if(!opened)
+                return;
+            if(array){
+                tokenBuffer.writeEndArray();
+            }else{
+                tokenBuffer.writeEndObject();
+            }
+        }
+    }
+}
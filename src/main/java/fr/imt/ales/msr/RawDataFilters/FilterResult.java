@@ -0,0 +1,84 @@
+package fr.imt.ales.msr.RawDataFilters;
+
+/**
+ * Result of the filter of one file of a batch, a failed filter does not stop the filter of the other files
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class FilterResult {
+    private final String pathInputFile;
+    private final String pathOutputFile;
+    private final long nbItems;
+    private final Exception error;
+    private final long durationMillis;
+
+    /**
+     * Constructor of the result of a filter
+     * @param pathInputFile Path of the file filtered
+     * @param pathOutputFile Path of the file written
+     * @param nbItems Number of items or values written
+     * @param error Exception thrown during the filter, null if the filter succeeded
+     * @param durationMillis Duration of the filter in milliseconds
+     */
+    public FilterResult(String pathInputFile, String pathOutputFile, long nbItems, Exception error, long durationMillis) {
+        this.pathInputFile = pathInputFile;
+        this.pathOutputFile = pathOutputFile;
+        this.nbItems = nbItems;
+        this.error = error;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Indicates if the file has been filtered
+     * @return true if no exception has been thrown
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Getter for the path of the file filtered
+     * @return String path of the input file
+     */
+    public String getPathInputFile() {
+        return pathInputFile;
+    }
+
+    /**
+     * Getter for the path of the file written
+     * @return String path of the output file
+     */
+    public String getPathOutputFile() {
+        return pathOutputFile;
+    }
+
+    /**
+     * Getter for the number of items or values written
+     * @return Long number of items, 0 when the filter failed
+     */
+    public long getNbItems() {
+        return nbItems;
+    }
+
+    /**
+     * Getter for the exception thrown during the filter
+     * @return Exception thrown, null if the filter succeeded
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * Getter for the duration of the filter
+     * @return Long duration in milliseconds
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return pathInputFile + " -> " + pathOutputFile + " : " + (isSuccess() ? nbItems + " items" : "FAILED (" + error.getMessage() + ")")
+                + " in " + durationMillis + " ms";
+    }
+}
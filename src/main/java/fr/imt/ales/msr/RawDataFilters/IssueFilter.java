@@ -0,0 +1,228 @@
+package fr.imt.ales.msr.RawDataFilters;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import fr.imt.ales.msr.FileWritersReaders.CommitTimeIndex;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Selects the issues of a dataset on their labels, their state and their creation date.
+ * The predicates are prepared once : the labels are kept in a hash set and compared exactly to the field "name" of
+ * the labels of an issue, so each issue is tested in one pass over its tokens, without building the issue in memory.
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class IssueFilter {
+    /**
+     * Label of the issues reporting a bug
+     */
+    public static final String BUG_LABEL = "type-bug";
+
+    private final Set<String> labels;
+    private String state;
+    private Instant createdFrom;
+    private Instant createdTo;
+
+    /**
+     * Constructor of a filter selecting the issues having at least one of the labels given
+     * @param labels Names of the labels accepted, an empty collection accepts the issues whatever their labels
+     */
+    public IssueFilter(Collection<String> labels){
+        this.labels = Collections.unmodifiableSet(new HashSet<>(labels));
+    }
+
+    /**
+     * Creates the filter of the issues labeled as bug (label BUG_LABEL)
+     * @return IssueFilter selecting the bugs
+     */
+    public static IssueFilter bugs(){
+        return new IssueFilter(Collections.singleton(BUG_LABEL));
+    }
+
+    /**
+     * Reads an issue and returns its title if the issue is selected. The whole issue is read, the fields which are
+     * not tested are skipped, and so are the fields tested after the issue has been rejected.
+     * @param jsonParser Parser positioned on the first token of the issue
+     * @return String title of the issue, null if the issue is rejected or has no title
+     * @throws IOException Thrown when the issue cannot be read
+     */
+    String readSelectedTitle(JsonParser jsonParser) throws IOException {
+        if(jsonParser.getCurrentToken() != JsonToken.START_OBJECT){
+            jsonParser.skipChildren();
+            return null;
+        }
+
+        String title = null;
+        boolean labelFound = labels.isEmpty();
+        boolean rejected = false;
+        boolean stateRead = false;
+        boolean creationDateRead = false;
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jsonParser.getCurrentName();
+            JsonToken token = jsonParser.nextToken();
+            if(rejected){
+                jsonParser.skipChildren();
+                continue;
+            }
+            switch (fieldName){
+                case "title":
+                    title = token == JsonToken.VALUE_STRING ? jsonParser.getText() : null;
+                    break;
+                case "state":
+                    stateRead = true;
+                    rejected = !acceptsState(token == JsonToken.VALUE_STRING ? jsonParser.getText() : null);
+                    break;
+                case "created_at":
+                    creationDateRead = true;
+                    if(createdFrom != null || createdTo != null)
+                        rejected = !acceptsCreationDate(token == JsonToken.VALUE_STRING ? parseDate(jsonParser.getText()) : null);
+                    break;
+                case "labels":
+                    if(!labelFound && token == JsonToken.START_ARRAY)
+                        labelFound = readLabels(jsonParser);
+                    else
+                        jsonParser.skipChildren();
+                    break;
+                default:
+                    jsonParser.skipChildren();
+            }
+        }
+        //the fields missing are tested as null values
+        if(!stateRead && !acceptsState(null))
+            rejected = true;
+        if(!creationDateRead && !acceptsCreationDate(null))
+            rejected = true;
+        return rejected || !labelFound ? null : title;
+    }
+
+    /**
+     * Reads the labels of an issue, each label is an object with the field "name" or the name itself
+     * @param jsonParser Parser positioned on the start of the array of the labels
+     * @return true if a label is accepted
+     * @throws IOException Thrown when the labels cannot be read
+     */
+    private boolean readLabels(JsonParser jsonParser) throws IOException {
+        boolean labelFound = false;
+        JsonToken token;
+        while ((token = jsonParser.nextToken()) != JsonToken.END_ARRAY) {
+            if(token == JsonToken.VALUE_STRING){
+                if(!labelFound)
+                    labelFound = acceptsLabel(jsonParser.getText());
+            }else if(token == JsonToken.START_OBJECT){
+                while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                    String fieldName = jsonParser.getCurrentName();
+                    if(jsonParser.nextToken() == JsonToken.VALUE_STRING && !labelFound && fieldName.equals("name"))
+                        labelFound = acceptsLabel(jsonParser.getText());
+                    else
+                        jsonParser.skipChildren();
+                }
+            }else{
+                jsonParser.skipChildren();
+            }
+        }
+        return labelFound;
+    }
+
+    /**
+     * Parses the creation date of an issue
+     * @param date Date in ISO 8601
+     * @return Instant of the date, null when the date is malformed
+     */
+    private static Instant parseDate(String date){
+        try {
+            return CommitTimeIndex.parseInstant(date);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Tests a label
+     * @param label Name of a label of an issue
+     * @return true if the label is one of the labels accepted, or if all the labels are accepted
+     */
+    public boolean acceptsLabel(String label){
+        return labels.isEmpty() || labels.contains(label);
+    }
+
+    /**
+     * Tests the state of an issue
+     * @param state State of the issue, null when the issue has no state
+     * @return true if no state is required or if the state is the state required
+     */
+    public boolean acceptsState(String state){
+        return this.state == null || this.state.equals(state);
+    }
+
+    /**
+     * Tests the creation date of an issue, the bounds of the window are included
+     * @param createdAt Creation date of the issue, null when the issue has no date
+     * @return true if no window is set or if the date is in the window
+     */
+    public boolean acceptsCreationDate(Instant createdAt){
+        if(createdFrom == null && createdTo == null)
+            return true;
+        return createdAt != null && (createdFrom == null || !createdAt.isBefore(createdFrom))
+                && (createdTo == null || !createdAt.isAfter(createdTo));
+    }
+
+    /**
+     * Getter for the labels accepted
+     * @return Set of the names of the labels, empty when all the labels are accepted
+     */
+    public Set<String> getLabels() {
+        return labels;
+    }
+
+    /**
+     * Getter for the lower bound of the creation dates
+     * @return Instant lower bound (inclusive), null when there is no lower bound
+     */
+    public Instant getCreatedFrom() {
+        return createdFrom;
+    }
+
+    /**
+     * Getter for the upper bound of the creation dates
+     * @return Instant upper bound (inclusive), null when there is no upper bound
+     */
+    public Instant getCreatedTo() {
+        return createdTo;
+    }
+
+    /**
+     * Getter for the state required
+     * @return String state, null when all the states are accepted
+     */
+    public String getState() {
+        return state;
+    }
+
+    /**
+     * Setter for the state required
+     * @param state State of the issues selected (e.g. "open" or "closed"), null to accept all the states
+     */
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    /**
+     * Setter for the window of the creation dates
+     * @param createdFrom Lower bound (inclusive), null for no lower bound
+     * @param createdTo Upper bound (inclusive), null for no upper bound
+     * @throws IllegalArgumentException Thrown when the lower bound is after the upper bound
+     */
+    public void setCreationWindow(Instant createdFrom, Instant createdTo) {
+        if(createdFrom != null && createdTo != null && createdFrom.isAfter(createdTo))
+            throw new IllegalArgumentException("The lower bound " + createdFrom + " is after the upper bound " + createdTo);
+        this.createdFrom = createdFrom;
+        this.createdTo = createdTo;
+    }
+}
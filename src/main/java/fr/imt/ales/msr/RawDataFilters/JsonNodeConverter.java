@@ -0,0 +1,135 @@
+package fr.imt.ales.msr.RawDataFilters;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Converts the values between the org.json model and the Jackson tree model without printing and parsing them again.
+ * The numbers are converted as the text of org.json would be parsed : a number written by org.json without decimal
+ * part (e.g. the Double 2.0 written "2") becomes an integer.
+ * @author Quentin Perez
+ * @version 1.0
+ */
+public class JsonNodeConverter {
+    private static final JsonNodeFactory NODE_FACTORY = JsonNodeFactory.instance;
+
+    /**
+     * Private constructor, the class only has static methods
+     */
+    private JsonNodeConverter(){}
+
+    /**
+     * Converts an org.json value in a Jackson node
+     * @param value JSONObject, JSONArray, String, Number, Boolean or JSONObject.NULL
+     * @return JsonNode equivalent
+     */
+    public static JsonNode toJsonNode(Object value){
+        if(value instanceof JSONObject){
+            JSONObject jsonObject = (JSONObject) value;
+            ObjectNode objectNode = NODE_FACTORY.objectNode();
+            for (String key : jsonObject.keySet()) {
+                objectNode.set(key, toJsonNode(jsonObject.opt(key)));
+            }
+            return objectNode;
+        }
+        if(value instanceof JSONArray){
+            JSONArray jsonArray = (JSONArray) value;
+            ArrayNode arrayNode = NODE_FACTORY.arrayNode(jsonArray.length());
+            for (int i = 0; i < jsonArray.length(); i++) {
+                arrayNode.add(toJsonNode(jsonArray.opt(i)));
+            }
+            return arrayNode;
+        }
+        if(value instanceof Number)
+            return toNumberNode((Number) value);
+        if(value instanceof Boolean)
+            return NODE_FACTORY.booleanNode((Boolean) value);
+        if(value == null || value == JSONObject.NULL)
+            return NODE_FACTORY.nullNode();
+        return NODE_FACTORY.textNode(value.toString());
+    }
+
+    /**
+     * Converts a number as its text written by org.json would be parsed by Jackson
+     * @param number Number of an org.json value
+     * @return JsonNode of the number
+     */
+    private static JsonNode toNumberNode(Number number){
+        if(number instanceof Integer || number instanceof Short || number instanceof Byte)
+            return NODE_FACTORY.numberNode(number.intValue());
+        if(number instanceof Long)
+            return NODE_FACTORY.numberNode(number.longValue());
+
+        String text = JSONObject.numberToString(number);
+        if(text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0){
+            BigInteger bigInteger = new BigInteger(text);
+            if(bigInteger.bitLength() < Integer.SIZE)
+                return NODE_FACTORY.numberNode(bigInteger.intValue());
+            if(bigInteger.bitLength() < Long.SIZE)
+                return NODE_FACTORY.numberNode(bigInteger.longValue());
+            return NODE_FACTORY.numberNode(bigInteger);
+        }
+        return NODE_FACTORY.numberNode(Double.parseDouble(text));
+    }
+
+    /**
+     * Converts a Jackson node in an org.json value
+     * @param jsonNode Node to convert
+     * @return JSONObject, JSONArray, String, Number, Boolean or JSONObject.NULL
+     */
+    public static Object toOrgJson(JsonNode jsonNode){
+        switch (jsonNode.getNodeType()){
+            case OBJECT:
+                JSONObject jsonObject = new JSONObject();
+                Iterator<Map.Entry<String, JsonNode>> iteratorFields = jsonNode.fields();
+                while (iteratorFields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = iteratorFields.next();
+                    jsonObject.put(field.getKey(), toOrgJson(field.getValue()));
+                }
+                return jsonObject;
+            case ARRAY:
+                return toJSONArray(jsonNode);
+            case NUMBER:
+                return toOrgJsonNumber(jsonNode);
+            case BOOLEAN:
+                return jsonNode.booleanValue();
+            case STRING:
+                return jsonNode.textValue();
+            case NULL:
+            case MISSING:
+                return JSONObject.NULL;
+            default:
+                return jsonNode.asText();
+        }
+    }
+
+    /**
+     * Converts the elements of a Jackson array in a JSONArray
+     * @param arrayNode Array to convert
+     * @return JSONArray equivalent
+     */
+    public static JSONArray toJSONArray(JsonNode arrayNode){
+        JSONArray jsonArray = new JSONArray();
+        for (JsonNode element : arrayNode) {
+            jsonArray.put(toOrgJson(element));
+        }
+        return jsonArray;
+    }
+
+    /**
+     * Converts a number as its text would be parsed by org.json
+     * @param numberNode Node of the number
+     * @return Number typed by org.json
+     */
+    private static Object toOrgJsonNumber(JsonNode numberNode){
+        return JSONObject.stringToValue(JSONObject.numberToString(numberNode.numberValue()));
+    }
+}
@@ -1,27 +1,58 @@
 package fr.imt.ales.msr.RawDataFilters;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.Option;
 import com.jayway.jsonpath.spi.json.JacksonJsonNodeJsonProvider;
+import fr.imt.ales.msr.FileWritersReaders.CommitTimeIndex;
+import fr.imt.ales.msr.FileWritersReaders.Compression;
 import fr.imt.ales.msr.FileWritersReaders.FileReaderJSON;
+import fr.imt.ales.msr.FileWritersReaders.FileWriterJSON;
+import fr.imt.ales.msr.FileWritersReaders.JSONItemParserHandler;
+import fr.imt.ales.msr.FileWritersReaders.NDJSONReader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URISyntaxException;
-import java.util.LinkedHashSet;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class RawDataFilter {
     final static Logger logger = LogManager.getLogger(RawDataFilter.class);
+    //the decimal numbers are rewritten as they are read
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .setNodeFactory(JsonNodeFactory.withExactBigDecimals(true));
 
 
     private FileReaderJSON fileReaderJSON;
+    private final FileWriterJSON fileWriterJSON = new FileWriterJSON();
     private Configuration confJsonPath;
+    private final Map<String, JsonPath> mapCompiledJsonPaths = new ConcurrentHashMap<>();
 
     /**
      * Constructor by default
@@ -37,9 +68,8 @@ public class RawDataFilter {
     /**
      * Extracts the fields according to the list of fields to extract and the path to the JSON file.
      * The function returns a JSONObject corresponding to the fields and values extracted from the JSON file.
-     * -------------------------------------------------------------------------------------------
-     * WARNING : the function can extract the fields only on a same depth level in the JSONObject
-     * -------------------------------------------------------------------------------------------
+     * The fields are extracted on a same depth level of the JSONObject, projectFieldsFromJSONFile extracts nested
+     * fields (e.g. "commit.committer.date") item by item without loading the whole file.
      * @param pathToJSONFileFromGithub Path to the JSON file obtained from the GitHub API
      * @param fieldsToExtract List of fields in String to extract
      * @return A JSONObject (org.json) which contains only the fields extracted
@@ -52,8 +82,8 @@ public class RawDataFilter {
             return null;
         }
 
-        //read the JSON file saved from Github
-        JSONObject allItemsFromGHjsonObject = fileReaderJSON.readJSONFile(pathToJSONFileFromGithub);
+        //read the JSON file saved from Github directly in the Jackson model used by JsonPath
+        JsonNode allItemsFromGHJsonNode = fileReaderJSON.readJsonTree(pathToJSONFileFromGithub);
 
         //Construct the build path
         StringBuilder jsonPathStringBuilder = new StringBuilder("$..[");
@@ -63,15 +93,14 @@ public class RawDataFilter {
         jsonPathStringBuilder.deleteCharAt(jsonPathStringBuilder.lastIndexOf(",")).append("]");
 
         //Filter fields with json path expression and return the JSON object with the extracted fields
-        return extract(jsonPathStringBuilder.toString(), allItemsFromGHjsonObject);
+        return toExtractionResults(extractNodes(jsonPathStringBuilder.toString(), allItemsFromGHJsonNode));
     }
 
     /**
      * Extracts the fields according to jsonPath expression and the path to the JSON file.
      * The function returns a JSONObject corresponding to the fields and values extracted from the JSON file.
-     * -------------------------------------------------------------------------------------------
-     * WARNING : the function can extract the fields only on a same depth level in the JSONObject
-     * -------------------------------------------------------------------------------------------
+     * The fields are extracted on a same depth level of the JSONObject, projectFieldsFromJSONFile extracts nested
+     * fields (e.g. "commit.committer.date") item by item without loading the whole file.
      * @param pathToJSONFileFromGithub Path to the JSON file obtained from the GitHub API
      * @param jsonPathExprString JsonPath expression
      * @return A JSONObject (org.json) which contains only the fields extracted
@@ -84,10 +113,236 @@ public class RawDataFilter {
             return null;
         }
 
-        //read the JSON file saved from Github
-        JSONObject allItemsFromGHjsonObject = fileReaderJSON.readJSONFile(pathToJSONFileFromGithub);
+        //read the JSON file saved from Github directly in the Jackson model used by JsonPath
+        JsonNode allItemsFromGHJsonNode = fileReaderJSON.readJsonTree(pathToJSONFileFromGithub);
 
-        return extract(jsonPathExprString, allItemsFromGHjsonObject);
+        return toExtractionResults(extractNodes(jsonPathExprString, allItemsFromGHJsonNode));
+    }
+
+    /**
+     * Projects the items of a JSON or NDJSON file on a list of fields and writes the projected items as they are read :
+     * the file is parsed item by item and the fields not selected are skipped without being built, so the memory used
+     * stays constant whatever the size of the file (see FieldProjection). The items without any field selected are
+     * not written.
+     * The output is a NDJSON file (one item per line) when the filename has the extension ".ndjson" or ".jsonl", a
+     * JSON file with the fields "items" and "total_count" otherwise, compressed with gzip when it ends with ".gz".
+     * @param pathToJSONFileFromGithub Path to the JSON or NDJSON file obtained from the GitHub API
+     * @param fieldPaths Dotted paths of the fields to keep, at any depth (e.g. "sha", "commit.committer.date")
+     * @param pathToStoreFile Path of the directory of the file to write
+     * @param filename Name of the file to write
+     * @return Long number of items written
+     * @throws IOException Thrown when the file cannot be read or the projected file cannot be written
+     */
+    public long projectFieldsFromJSONFile(String pathToJSONFileFromGithub, List<String> fieldPaths, String pathToStoreFile, String filename) throws IOException {
+        FieldProjection fieldProjection = new FieldProjection(fieldPaths);
+
+        long nbItemsWritten = writeItems(pathToJSONFileFromGithub, pathToStoreFile, filename, fieldProjection::project);
+        logger.info(nbItemsWritten + " items projected in " + filename);
+        return nbItemsWritten;
+    }
+
+    /**
+     * Writes the titles of the issues of a JSON or NDJSON file selected by a filter, one title per line : the issues
+     * are read one by one in a single pass (see IssueFilter) and the titles go through a buffered writer, so the
+     * filter is bounded by the reading of the file
+     * @param pathToIssuesFile Path to the JSON or NDJSON file of the issues
+     * @param issueFilter Filter selecting the issues on their labels, state and creation date
+     * @param pathTargetFile Path of the text file to write (UTF-8)
+     * @return Long number of titles written
+     * @throws IOException Thrown when the file cannot be read or the text file cannot be written
+     */
+    public long filterIssuesTitleFromJSONFile(String pathToIssuesFile, IssueFilter issueFilter, String pathTargetFile) throws IOException {
+        long[] nbTitlesWritten = {0};
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(Paths.get(pathTargetFile)),
+                StandardCharsets.UTF_8), 64 * 1024)) {
+            fileReaderJSON.forEachItemParser(pathToIssuesFile, jsonParser -> {
+                String title = issueFilter.readSelectedTitle(jsonParser);
+                if(title != null){
+                    writer.write(title);
+                    writer.write('\n');
+                    nbTitlesWritten[0]++;
+                }
+                return true;
+            });
+        }
+        logger.info(nbTitlesWritten[0] + " issues titles written in " + pathTargetFile);
+        return nbTitlesWritten[0];
+    }
+
+    /**
+     * Deletes the duplicate items of a JSON or NDJSON file while it is read and writes the first occurrence of each
+     * item : the items are compared on a 128-bit hash of their key (see DuplicateFilter), only the hashes are kept in
+     * memory. The output is written as by projectFieldsFromJSONFile.
+     * @param pathToJSONFileFromGithub Path to the JSON or NDJSON file obtained from the GitHub API
+     * @param keyStrategy Key on which the items are compared : their whole content or their identifier (id, sha or node_id)
+     * @param pathToStoreFile Path of the directory of the file to write
+     * @param filename Name of the file to write
+     * @return Long number of items written
+     * @throws IOException Thrown when the file cannot be read or the file without duplicates cannot be written
+     */
+    public long deleteDuplicateEntriesFromJSONFile(String pathToJSONFileFromGithub, DuplicateFilter.KeyStrategy keyStrategy, String pathToStoreFile, String filename) throws IOException {
+        DuplicateFilter duplicateFilter = new DuplicateFilter(keyStrategy);
+
+        long nbItemsWritten = writeItems(pathToJSONFileFromGithub, pathToStoreFile, filename, (jsonParser, jsonGenerator) -> {
+            JsonNode item = OBJECT_MAPPER.readTree(jsonParser);
+            if(!duplicateFilter.add(item))
+                return false;
+            OBJECT_MAPPER.writeTree(jsonGenerator, item);
+            return true;
+        });
+        logger.info(nbItemsWritten + " distinct items written in " + filename);
+        return nbItemsWritten;
+    }
+
+    /**
+     * Writes the commits of a JSON or NDJSON file whose committer date is in a time window, the bounds are included.
+     * The commits are streamed to the file written as they are found, none is kept in memory : a plain file is
+     * queried through its persistent time index (see CommitTimeIndex) and the commits of the window are copied
+     * without being built, a compressed file is read item by item. The output is written as by projectFieldsFromJSONFile.
+     * @param pathToCommitsFile Path to the JSON or NDJSON file of the commits
+     * @param from First instant of the window, included
+     * @param to Last instant of the window, included
+     * @param pathToStoreFile Path of the directory of the file to write
+     * @param filename Name of the file to write
+     * @return Long number of commits written
+     * @throws IOException Thrown when the commits cannot be read or the file cannot be written
+     */
+    public long filterCommitsInWindowFromJSONFile(String pathToCommitsFile, Instant from, Instant to, String pathToStoreFile, String filename) throws IOException {
+        checkTargetIsNotInput(Collections.singletonList(pathToCommitsFile), pathToStoreFile, filename);
+        Path pathCommitsFile = Paths.get(pathToCommitsFile);
+        long nbCommitsWritten;
+        if(Compression.detect(pathCommitsFile) == Compression.NONE){
+            try (CommitTimeIndex commitTimeIndex = CommitTimeIndex.open(pathCommitsFile)) {
+                nbCommitsWritten = writeItems(jsonItemParserHandler -> commitTimeIndex.forEachCommitParserInWindow(from, to, jsonItemParserHandler),
+                        pathToStoreFile, filename, (jsonParser, jsonGenerator) -> {
+                            jsonGenerator.copyCurrentStructure(jsonParser);
+                            return true;
+                        });
+            }
+        }else{
+            nbCommitsWritten = writeItems(pathToCommitsFile, pathToStoreFile, filename, (jsonParser, jsonGenerator) -> {
+                JsonNode commit = OBJECT_MAPPER.readTree(jsonParser);
+                Instant dateCommit = CommitTimeIndex.parseDate(commit.at(CommitTimeIndex.DATE_PATH).textValue());
+                if(dateCommit == null || dateCommit.isBefore(from) || dateCommit.isAfter(to))
+                    return false;
+                OBJECT_MAPPER.writeTree(jsonGenerator, commit);
+                return true;
+            });
+        }
+        logger.info(nbCommitsWritten + " commits of the window written in " + filename);
+        return nbCommitsWritten;
+    }
+
+    /**
+     * Reads the items of a file one by one and writes the items given by a writer in a new file, no item is kept in
+     * memory. The file written is a NDJSON file (one item per line) when the filename has the extension ".ndjson" or
+     * ".jsonl", a JSON file with the fields "items" and "total_count" otherwise, compressed with gzip when it ends
+     * with ".gz".
+     * @param pathToJSONFile Path of the JSON or NDJSON file to read
+     * @param pathToStoreFile Path of the directory of the file to write
+     * @param filename Name of the file to write
+     * @param itemWriter Writer reading each item and writing the item to keep
+     * @return Long number of items written
+     * @throws IOException Thrown when the file cannot be read or written
+     */
+    private long writeItems(String pathToJSONFile, String pathToStoreFile, String filename, ItemWriter itemWriter) throws IOException {
+        return writeItems(Collections.singletonList(pathToJSONFile), pathToStoreFile, filename, itemWriter);
+    }
+
+    /**
+     * Writes the items of several JSON or NDJSON files in one file, in the order of the files, without keeping them
+     * in memory. The file written is a JSON or NDJSON file according to its extension (see writeItems).
+     * @param listPathJSONFiles Paths of the files to merge
+     * @param pathToStoreFile Path of the directory of the file to write
+     * @param filename Name of the file to write
+     * @return Long number of items written
+     * @throws IOException Thrown when a file cannot be read or the merged file cannot be written
+     */
+    long mergeItems(List<String> listPathJSONFiles, String pathToStoreFile, String filename) throws IOException {
+        return writeItems(listPathJSONFiles, pathToStoreFile, filename, (jsonParser, jsonGenerator) -> {
+            jsonGenerator.copyCurrentStructure(jsonParser);
+            return true;
+        });
+    }
+
+    /**
+     * Reads the items of files one by one and writes the items given by a writer in a new file (see writeItems)
+     * @param listPathJSONFiles Paths of the JSON or NDJSON files to read, in the order of the items written
+     * @param pathToStoreFile Path of the directory of the file to write
+     * @param filename Name of the file to write
+     * @param itemWriter Writer reading each item and writing the item to keep
+     * @return Long number of items written
+     * @throws IOException Thrown when a file cannot be read or written
+     */
+    private long writeItems(List<String> listPathJSONFiles, String pathToStoreFile, String filename, ItemWriter itemWriter) throws IOException {
+        checkTargetIsNotInput(listPathJSONFiles, pathToStoreFile, filename);
+        return writeItems(jsonItemParserHandler -> {
+            for (String pathToJSONFile : listPathJSONFiles) {
+                fileReaderJSON.forEachItemParser(pathToJSONFile, jsonItemParserHandler);
+            }
+        }, pathToStoreFile, filename, itemWriter);
+    }
+
+    /**
+     * Reads the items given by a source one by one and writes the items given by a writer in a new file (see writeItems).
+     * The items are written in a temporary file moved over the file at the end (see FileWriterJSON.writeFileAtomically),
+     * so a failure leaves the previous file intact.
+     * @param itemSource Source giving the parser positioned on each item
+     * @param pathToStoreFile Path of the directory of the file to write
+     * @param filename Name of the file to write
+     * @param itemWriter Writer reading each item and writing the item to keep
+     * @return Long number of items written
+     * @throws IOException Thrown when an item cannot be read or the file cannot be written
+     */
+    private long writeItems(ItemSource itemSource, String pathToStoreFile, String filename, ItemWriter itemWriter) throws IOException {
+        if(!new File(pathToStoreFile).isDirectory())
+            throw new InvalidPathException(pathToStoreFile, "Error path to write JSON file is invalid or is not a directory");
+
+        boolean ndjsonOutput = NDJSONReader.isNDJSONFile(filename);
+        long[] nbItemsWritten = {0};
+        fileWriterJSON.writeFileAtomically(pathToStoreFile, filename, outputStream -> {
+            //the stream is closed by writeFileAtomically, which finishes the compression
+            try (JsonGenerator jsonGenerator = OBJECT_MAPPER.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                if(ndjsonOutput){
+                    jsonGenerator.setRootValueSeparator(new SerializedString("\n"));
+                }else{
+                    jsonGenerator.writeStartObject();
+                    jsonGenerator.writeArrayFieldStart("items");
+                }
+
+                itemSource.forEachItemParser(jsonParser -> {
+                    if(itemWriter.writeItem(jsonParser, jsonGenerator))
+                        nbItemsWritten[0]++;
+                    return true;
+                });
+
+                if(ndjsonOutput){
+                    if(nbItemsWritten[0] > 0)
+                        jsonGenerator.writeRaw('\n');
+                }else{
+                    jsonGenerator.writeEndArray();
+                    jsonGenerator.writeNumberField("total_count", nbItemsWritten[0]);
+                    jsonGenerator.writeEndObject();
+                }
+            }
+        });
+        return nbItemsWritten[0];
+    }
+
+    /**
+     * Checks that the file to write is not one of the files read : it would be replaced while it is read
+     * @param listPathJSONFiles Paths of the files read
+     * @param pathToStoreFile Path of the directory of the file to write
+     * @param filename Name of the file to write
+     * @throws IllegalArgumentException Thrown when the file to write is one of the files read
+     */
+    static void checkTargetIsNotInput(List<String> listPathJSONFiles, String pathToStoreFile, String filename){
+        Path pathTargetFile = Paths.get(pathToStoreFile, filename).toAbsolutePath().normalize();
+        for (String pathToJSONFile : listPathJSONFiles) {
+            if(Paths.get(pathToJSONFile).toAbsolutePath().normalize().equals(pathTargetFile))
+                throw new IllegalArgumentException("The file " + pathTargetFile + " cannot be written over the file it is filtered from");
+        }
     }
 
     /**
@@ -97,13 +352,38 @@ public class RawDataFilter {
      * @return A JSONObject (org.json) which contains only the fields extracted
      */
     public JSONObject extract(String jsonPathExprString, JSONObject allItemsFromGHJsonObject) {
-        ArrayNode arrayNodeExtractedItems = JsonPath.using(confJsonPath)
-                .parse(allItemsFromGHJsonObject.toString())
-                .read(jsonPathExprString);
+        return toExtractionResults(extractNodes(jsonPathExprString, JsonNodeConverter.toJsonNode(allItemsFromGHJsonObject)));
+    }
+
+    /**
+     * Extracts the fields according to jsonPath expression from a Jackson tree, the document and the results stay in
+     * the Jackson model. The expression is compiled once and reused by the following calls.
+     * @param jsonPathExprString JsonPath expression
+     * @param allItemsFromGHJsonNode Jackson tree from Github which contains the fields to extract
+     * @return ArrayNode of the values extracted
+     */
+    public ArrayNode extractNodes(String jsonPathExprString, JsonNode allItemsFromGHJsonNode) {
+        return getCompiledJsonPath(jsonPathExprString).read(allItemsFromGHJsonNode, confJsonPath);
+    }
 
+    /**
+     * Returns the compiled form of a JsonPath expression, compiled on its first use
+     * @param jsonPathExprString JsonPath expression
+     * @return JsonPath compiled
+     */
+    private JsonPath getCompiledJsonPath(String jsonPathExprString){
+        return mapCompiledJsonPaths.computeIfAbsent(jsonPathExprString, expression -> JsonPath.compile(expression));
+    }
+
+    /**
+     * Builds the result of an extraction : the number of values extracted and the values
+     * @param arrayNodeExtractedItems Values extracted
+     * @return A JSONObject (org.json) with the fields "total_count" and "items"
+     */
+    private JSONObject toExtractionResults(ArrayNode arrayNodeExtractedItems) {
         JSONObject jsonObjExtractionResults = new JSONObject();
         jsonObjExtractionResults.put("total_count", arrayNodeExtractedItems.size());
-        jsonObjExtractionResults.put("items", new JSONArray(arrayNodeExtractedItems.toString()));
+        jsonObjExtractionResults.put("items", JsonNodeConverter.toJSONArray(arrayNodeExtractedItems));
 
         return jsonObjExtractionResults;
     }
@@ -132,16 +412,45 @@ public class RawDataFilter {
     }
 
     /**
-     * Deletes the duplicate entries into the JSONArray given in parameter
+     * Deletes the duplicate entries into the JSONArray given in parameter, the first occurrence of each entry is kept.
+     * The entries are compared on a 128-bit hash of their content (see DuplicateFilter), they are not copied.
      * @param jsonArrayToClean JSONArray which contains duplicate entries
      * @return JSONArray witout duplicate entries
      */
     public JSONArray deleteDuplicateEntriesJSONArray(JSONArray jsonArrayToClean){
-        List<Object> listWithDuplicateEntries = jsonArrayToClean.toList();
-        //Create a linkedHashSet to delete the duplicate
-        LinkedHashSet<Object> linkedHashSetClean = new LinkedHashSet<>(listWithDuplicateEntries);
-        //Create a new JSON Array with the linkedHashSet without duplicate objects
-        return new JSONArray(linkedHashSetClean);
+        DuplicateFilter duplicateFilter = new DuplicateFilter(DuplicateFilter.KeyStrategy.CONTENT);
+        JSONArray jsonArrayClean = new JSONArray();
+        for (Object entry : jsonArrayToClean) {
+            if(duplicateFilter.add(JsonNodeConverter.toJsonNode(entry)))
+                jsonArrayClean.put(entry);
+        }
+        return jsonArrayClean;
+    }
+
+    /**
+     * Gives the items of one or several files to a handler
+     */
+    private interface ItemSource {
+        /**
+         * Gives the parser positioned on each item to the handler
+         * @param jsonItemParserHandler Handler reading each item
+         * @throws IOException Thrown when the items cannot be read
+         */
+        void forEachItemParser(JSONItemParserHandler jsonItemParserHandler) throws IOException;
+    }
+
+    /**
+     * Reads an item and writes the part of the item to keep
+     */
+    private interface ItemWriter {
+        /**
+         * Reads the item on which the parser is positioned and writes what is kept of it
+         * @param jsonParser Parser positioned on the first token of the item, the whole item must be read
+         * @param jsonGenerator Generator of the file written
+         * @return true if an item has been written, false if the item has been skipped
+         * @throws IOException Thrown when the item cannot be read or written
+         */
+        boolean writeItem(JsonParser jsonParser, JsonGenerator jsonGenerator) throws IOException;
     }
 
 }
@@ -0,0 +1,83 @@
+package fr.imt.ales.msr.Checkpoint;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckpointJournalTest {
+    private String pathTmpDir;
+    private String pathJournal;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        pathTmpDir = System.getProperty("java.io.tmpdir") + "/test-checkpoint-journal";
+        Files.createDirectories(new File(pathTmpDir).toPath());
+        pathJournal = pathTmpDir + "/journal.ndjson";
+    }
+
+    @Test
+    public void testReplayAfterReopen() throws IOException {
+        try (CheckpointJournal checkpointJournal = new CheckpointJournal(pathJournal)) {
+            checkpointJournal.recordCompleted("commits repo1");
+            checkpointJournal.recordPage("commits repo2", "https://api.github.com/repos/o/repo2/commits?page=2", 120);
+            checkpointJournal.recordPage("commits repo2", "https://api.github.com/repos/o/repo2/commits?page=3", 240);
+        }
+
+        try (CheckpointJournal checkpointJournal = new CheckpointJournal(pathJournal)) {
+            assertTrue(checkpointJournal.isCompleted("commits repo1"));
+            assertFalse(checkpointJournal.isCompleted("commits repo2"));
+            assertNull(checkpointJournal.getPageCheckpoint("commits repo1"));
+
+            CheckpointJournal.PageCheckpoint pageCheckpoint = checkpointJournal.getPageCheckpoint("commits repo2");
+            assertEquals("https://api.github.com/repos/o/repo2/commits?page=3", pageCheckpoint.getNextPageUrl());
+            assertEquals(240, pageCheckpoint.getOutputOffset());
+        }
+    }
+
+    @Test
+    public void testCompletedRemovesPageCheckpoint() throws IOException {
+        try (CheckpointJournal checkpointJournal = new CheckpointJournal(pathJournal)) {
+            checkpointJournal.recordPage("issues repo1", "https://api.github.com/repos/o/repo1/issues?page=2", 10);
+            checkpointJournal.recordCompleted("issues repo1");
+            assertNull(checkpointJournal.getPageCheckpoint("issues repo1"));
+        }
+
+        try (CheckpointJournal checkpointJournal = new CheckpointJournal(pathJournal)) {
+            assertTrue(checkpointJournal.isCompleted("issues repo1"));
+            assertNull(checkpointJournal.getPageCheckpoint("issues repo1"));
+        }
+    }
+
+    @Test
+    public void testPartialRecordIgnored() throws IOException {
+        try (CheckpointJournal checkpointJournal = new CheckpointJournal(pathJournal)) {
+            checkpointJournal.recordCompleted("tags repo1");
+        }
+        Files.write(new File(pathJournal).toPath(), "{\"type\":\"completed\",\"key\":\"tags re".getBytes(Charset.forName("UTF-8")),
+                StandardOpenOption.APPEND);
+
+        try (CheckpointJournal checkpointJournal = new CheckpointJournal(pathJournal)) {
+            assertTrue(checkpointJournal.isCompleted("tags repo1"));
+            assertFalse(checkpointJournal.isCompleted("tags re"));
+            checkpointJournal.recordCompleted("tags repo2");
+        }
+
+        try (CheckpointJournal checkpointJournal = new CheckpointJournal(pathJournal)) {
+            assertTrue(checkpointJournal.isCompleted("tags repo2"));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(new File(pathTmpDir));
+    }
+}
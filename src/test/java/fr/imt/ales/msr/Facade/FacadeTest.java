@@ -1,8 +1,13 @@
 package fr.imt.ales.msr.Facade;
 
+import fr.imt.ales.msr.FileWritersReaders.CommitTimeIndex;
+import fr.imt.ales.msr.FileWritersReaders.FileReaderJSON;
+import fr.imt.ales.msr.FileWritersReaders.FileWriterJSON;
 import fr.imt.ales.msr.GithubClient.GitRepositoryNotInitializedException;
+import fr.imt.ales.msr.RawDataFilters.IssueFilter;
 import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +21,7 @@ import java.net.UnknownHostException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -89,6 +95,84 @@ public class FacadeTest {
         assertEquals(new JSONObject(fileContentJsonObjectFiltered).toString(2),new JSONObject(fileContentActualJsonFiltered).toString(2));
     }
 
+    @Test
+    public void testFilterCommitTemporalBoundOnSnapshot() throws GitAPIException, IOException, URISyntaxException, ParseException {
+        MisortimaFacade misortimaFacade = new MisortimaFacade();
+        JSONArray page = new JSONArray();
+        String[] dates = {"2019-01-01T10:00:00Z", "2019-03-15T23:30:00Z", "2019-06-01T00:00:00Z", "2018-12-31T23:59:59Z"};
+        for (int i = 0; i < dates.length; i++) {
+            page.put(new JSONObject().put("sha", "sha" + i)
+                    .put("commit", new JSONObject().put("committer", new JSONObject().put("date", dates[i]))));
+        }
+        new FileWriterJSON().writeJsonFile(new JSONObject().put("items", new JSONArray().put(page)), pathTmpDir, "commits-snapshot.json");
+
+        assertEquals(4, misortimaFacade.exportCommitsSnapshot(pathTmpDir + "/commits-snapshot.json", pathTmpDir + "/commits.msrcol"));
+        misortimaFacade.filterCommitTemporalBound(pathTmpDir + "/commits-snapshot.json", pathTmpDir, "filtered-json.json", "2019-01-01T00:00:00", "2019-05-01T00:00:00");
+        misortimaFacade.filterCommitTemporalBound(pathTmpDir + "/commits.msrcol", pathTmpDir, "filtered-snapshot.json", "2019-01-01T00:00:00", "2019-05-01T00:00:00");
+
+        JSONArray itemsFromJson = new FileReaderJSON().readJSONFile(pathTmpDir + "/filtered-json.json").getJSONArray("items");
+        JSONArray itemsFromSnapshot = new FileReaderJSON().readJSONFile(pathTmpDir + "/filtered-snapshot.json").getJSONArray("items");
+        assertEquals(2, itemsFromSnapshot.length());
+        assertTrue(itemsFromJson.similar(itemsFromSnapshot));
+
+        for (String filename : Arrays.asList("commits-snapshot.json", "commits.msrcol", "filtered-json.json", "filtered-snapshot.json")) {
+            Files.deleteIfExists(Paths.get(pathTmpDir, filename));
+        }
+    }
+
+    @Test
+    public void testFilterCommitTemporalBoundIncludesBounds() throws GitAPIException, IOException, URISyntaxException, ParseException {
+        MisortimaFacade misortimaFacade = new MisortimaFacade();
+        JSONArray page = new JSONArray();
+        String[] dates = {"2019-05-01T00:00:00Z", "2019-01-01T00:00:00Z", "2019-05-01T00:00:01Z"};
+        for (int i = 0; i < dates.length; i++) {
+            page.put(new JSONObject().put("sha", "sha" + i)
+                    .put("commit", new JSONObject().put("committer", new JSONObject().put("date", dates[i]))));
+        }
+        new FileWriterJSON().writeJsonFile(new JSONObject().put("items", new JSONArray().put(page)), pathTmpDir, "commits-window.json");
+        new FileWriterJSON().writeJsonFile(new JSONObject().put("items", new JSONArray().put(page)), pathTmpDir, "commits-window.json.gz");
+
+        for (String filename : Arrays.asList("commits-window.json", "commits-window.json", "commits-window.json.gz")) {
+            misortimaFacade.filterCommitTemporalBound(pathTmpDir + "/" + filename, pathTmpDir, "filtered-window.json", "2019-01-01T00:00:00", "2019-05-01T00:00:00Z");
+            JSONArray items = new FileReaderJSON().readJSONFile(pathTmpDir + "/filtered-window.json").getJSONArray("items");
+            assertEquals(2, items.length());
+            assertEquals("sha0", items.getJSONObject(0).getString("sha"));
+            assertEquals("sha1", items.getJSONObject(1).getString("sha"));
+        }
+        assertThrows(ParseException.class, () -> misortimaFacade.filterCommitTemporalBound(pathTmpDir + "/commits-window.json", pathTmpDir, "filtered-window.json", "2019-01-01", "2019-05-01"));
+
+        for (String filename : Arrays.asList("commits-window.json", "commits-window.json.gz", "commits-window.json" + CommitTimeIndex.EXTENSION, "filtered-window.json")) {
+            Files.deleteIfExists(Paths.get(pathTmpDir, filename));
+        }
+    }
+
+    @Test
+    public void testFilterIssuesTitleFromJSONAndSnapshot() throws GitAPIException, IOException, URISyntaxException {
+        MisortimaFacade misortimaFacade = new MisortimaFacade();
+        JSONArray page = new JSONArray();
+        String[][] issues = {{"Crash", "open", "type-bug"}, {"Glitch", "closed", "type-bug-minor"}, {"Leak", "closed", "type-bug"}};
+        for (String[] issue : issues) {
+            page.put(new JSONObject().put("title", issue[0]).put("state", issue[1]).put("created_at", "2019-01-01T00:00:00Z")
+                    .put("labels", new JSONArray().put(new JSONObject().put("name", issue[2]))));
+        }
+        new FileWriterJSON().writeJsonFile(new JSONObject().put("items", new JSONArray().put(page)), pathTmpDir, "issues-titles.json");
+        misortimaFacade.exportIssuesSnapshot(pathTmpDir + "/issues-titles.json", pathTmpDir + "/issues-titles.snapshot");
+
+        for (String filename : Arrays.asList("issues-titles.json", "issues-titles.snapshot")) {
+            misortimaFacade.filterIssuesTitle(pathTmpDir + "/" + filename, pathTmpDir + "/titles.txt");
+            assertEquals(Arrays.asList("Crash", "Leak"), Files.readAllLines(Paths.get(pathTmpDir, "titles.txt")));
+
+            IssueFilter issueFilter = IssueFilter.bugs();
+            issueFilter.setState("closed");
+            assertEquals(1, misortimaFacade.filterIssuesTitle(pathTmpDir + "/" + filename, issueFilter, pathTmpDir + "/titles.txt"));
+            assertEquals(Arrays.asList("Leak"), Files.readAllLines(Paths.get(pathTmpDir, "titles.txt")));
+        }
+
+        for (String filename : Arrays.asList("issues-titles.json", "issues-titles.snapshot", "titles.txt")) {
+            Files.deleteIfExists(Paths.get(pathTmpDir, filename));
+        }
+    }
+
     @Test
     public void testCloneRepositoriesNominalCase() throws GitAPIException, URISyntaxException, IOException, GitRepositoryNotInitializedException {
         MisortimaFacade misortimaFacade = new MisortimaFacade();
@@ -0,0 +1,101 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import org.apache.commons.io.FileUtils;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarSnapshotTest {
+    private String pathTmpDir;
+    private Path pathSnapshot;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        pathTmpDir = System.getProperty("java.io.tmpdir") + "/test-columnar-snapshot";
+        Files.createDirectories(new File(pathTmpDir).toPath());
+        pathSnapshot = new File(pathTmpDir, "issues.msrcol").toPath();
+
+        JSONArray page1 = new JSONArray()
+                .put(createIssue("Crash at startup", "open", "2019-01-10T08:00:00Z", "type-bug", "priority-high"))
+                .put(createIssue("Add a dark theme", "closed", "2019-02-10T08:00:00Z", "enhancement"));
+        JSONArray page2 = new JSONArray()
+                .put(createIssue("Memory leak \u00e9", "open", null, "type-bug"));
+        new FileWriterJSON().writeJsonFile(new JSONObject().put("items", new JSONArray().put(page1).put(page2)), pathTmpDir, "issues.json");
+
+        int nbRows = new ColumnarSnapshotWriter().write(pathTmpDir + "/issues.json", pathSnapshot, ColumnarSnapshotWriter.ISSUE_COLUMNS);
+        assertEquals(3, nbRows);
+    }
+
+    private JSONObject createIssue(String title, String state, String createdAt, String... labels){
+        JSONArray jsonArrayLabels = new JSONArray();
+        for (String label : labels) {
+            jsonArrayLabels.put(new JSONObject().put("name", label).put("color", "f29513"));
+        }
+        return new JSONObject().put("title", title).put("state", state)
+                .put("created_at", createdAt == null ? JSONObject.NULL : createdAt).put("labels", jsonArrayLabels);
+    }
+
+    @Test
+    public void testReadColumns() throws IOException {
+        assertTrue(ColumnarSnapshot.isSnapshotFile(pathSnapshot));
+        try (ColumnarSnapshot columnarSnapshot = new ColumnarSnapshot(pathSnapshot)) {
+            assertEquals(3, columnarSnapshot.getNbRows());
+            assertEquals(Arrays.asList("title", "state", "labels.name", "created_at", "closed_at", "item"), columnarSnapshot.getColumnNames());
+
+            ColumnarSnapshot.StringColumn titles = columnarSnapshot.getStringColumn("title");
+            assertEquals("Memory leak \u00e9", titles.get(2));
+            ColumnarSnapshot.StringColumn states = columnarSnapshot.getStringColumn("state");
+            assertEquals(states.getCode(0), states.getCode(2));
+            assertEquals(2, states.getDictionary().size());
+
+            ColumnarSnapshot.StringListColumn labels = columnarSnapshot.getStringListColumn("labels.name");
+            assertEquals(Arrays.asList("type-bug", "priority-high"), labels.get(0));
+            assertEquals(Collections.singletonList("enhancement"), labels.get(1));
+            int codeBug = labels.getDictionary().indexOf("type-bug");
+            assertTrue(labels.contains(2, codeBug));
+            assertFalse(labels.contains(1, codeBug));
+
+            ColumnarSnapshot.DateColumn createdAt = columnarSnapshot.getDateColumn("created_at");
+            assertEquals(1547107200000L, createdAt.get(0));
+            assertEquals(ColumnarSnapshot.NULL_DATE, createdAt.get(2));
+            assertEquals(ColumnarSnapshot.NULL_DATE, columnarSnapshot.getDateColumn("closed_at").get(1));
+        }
+    }
+
+    @Test
+    public void testGetItem() throws IOException {
+        try (ColumnarSnapshot columnarSnapshot = new ColumnarSnapshot(pathSnapshot)) {
+            JSONObject item = (JSONObject) columnarSnapshot.getItem(1);
+            assertTrue(createIssue("Add a dark theme", "closed", "2019-02-10T08:00:00Z", "enhancement").similar(item));
+        }
+    }
+
+    @Test
+    public void testWrongColumnType() throws IOException {
+        try (ColumnarSnapshot columnarSnapshot = new ColumnarSnapshot(pathSnapshot)) {
+            assertThrows(IllegalArgumentException.class, () -> columnarSnapshot.getDateColumn("title"));
+            assertThrows(IllegalArgumentException.class, () -> columnarSnapshot.getStringColumn("unknown"));
+        }
+    }
+
+    @Test
+    public void testOpenFileNotSnapshot() {
+        assertThrows(IOException.class, () -> new ColumnarSnapshot(new File(pathTmpDir, "issues.json").toPath()));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(new File(pathTmpDir));
+    }
+}
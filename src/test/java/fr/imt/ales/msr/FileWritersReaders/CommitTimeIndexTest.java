@@ -0,0 +1,198 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import org.apache.commons.io.FileUtils;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+public class CommitTimeIndexTest {
+    private static final String[] DATES = {"2019-03-15T23:30:00Z", "2019-01-01T00:00:00Z", "2019-06-01T00:00:00Z",
+            "2018-12-31T23:59:59Z", "2019-05-01T00:00:00Z", "2019-01-01T00:00:00Z"};
+    private String pathTmpDir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        pathTmpDir = System.getProperty("java.io.tmpdir") + "/test-commit-time-index";
+        FileUtils.deleteDirectory(new File(pathTmpDir));
+        Files.createDirectories(Paths.get(pathTmpDir));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(new File(pathTmpDir));
+    }
+
+    /**
+     * Writes the commits in pages of 2 commits, as written by the extraction of the commits
+     */
+    private Path writeCommitsFile(String filename, boolean ndjson) throws IOException {
+        StringBuilder stringBuilder = new StringBuilder(ndjson ? "" : "{\"items\":[[");
+        for (int i = 0; i < DATES.length; i++) {
+            JSONObject commit = new JSONObject().put("sha", "sha" + i)
+                    .put("commit", new JSONObject().put("message", "caf\u00e9 \"" + i + "\"").put("committer", new JSONObject().put("date", DATES[i])));
+            if(ndjson){
+                stringBuilder.append(commit.toString()).append('\n');
+            }else{
+                stringBuilder.append(i == 0 ? "" : i % 2 == 0 ? "],\n  [" : ",\n    ").append(commit.toString(2));
+            }
+        }
+        //a commit without date is not indexed
+        stringBuilder.append(ndjson ? "{\"sha\":\"no date\"}\n" : ",{\"sha\":\"no date\"}]]}");
+        Path pathCommitsFile = Paths.get(pathTmpDir, filename);
+        Files.write(pathCommitsFile, stringBuilder.toString().getBytes(StandardCharsets.UTF_8));
+        return pathCommitsFile;
+    }
+
+    private List<String> queryShas(CommitTimeIndex commitTimeIndex, String from, String to) throws IOException {
+        List<String> listShas = new ArrayList<>();
+        commitTimeIndex.forEachCommitInWindow(CommitTimeIndex.parseInstant(from), CommitTimeIndex.parseInstant(to), commit -> {
+            listShas.add(((JSONObject) commit).getString("sha"));
+            return true;
+        });
+        return listShas;
+    }
+
+    @Test
+    public void testWindowQueryOnJsonFile() throws IOException {
+        Path pathCommitsFile = writeCommitsFile("commits.json", false);
+
+        try (CommitTimeIndex commitTimeIndex = CommitTimeIndex.open(pathCommitsFile)) {
+            assertEquals(DATES.length, commitTimeIndex.getNbEntries());
+            //the bounds are included and the commits are given in the order of the file
+            assertEquals("[sha0, sha1, sha4, sha5]", queryShas(commitTimeIndex, "2019-01-01T00:00:00", "2019-05-01T00:00:00Z").toString());
+            assertEquals("[sha3]", queryShas(commitTimeIndex, "2018-01-01T00:00:00", "2018-12-31T23:59:59").toString());
+            assertEquals("[sha2]", queryShas(commitTimeIndex, "2019-06-01T02:00:00+02:00", "2030-01-01T00:00:00").toString());
+            assertEquals("[]", queryShas(commitTimeIndex, "2019-05-02T00:00:00", "2019-05-31T00:00:00").toString());
+            assertEquals("[]", queryShas(commitTimeIndex, "2019-05-01T00:00:00", "2019-01-01T00:00:00").toString());
+        }
+        assertTrue(Files.isRegularFile(CommitTimeIndex.getIndexPath(pathCommitsFile)));
+    }
+
+    @Test
+    public void testWindowQueryOnNDJSONFile() throws IOException {
+        Path pathCommitsFile = writeCommitsFile("commits.ndjson", true);
+
+        try (CommitTimeIndex commitTimeIndex = CommitTimeIndex.open(pathCommitsFile)) {
+            assertEquals(DATES.length, commitTimeIndex.getNbEntries());
+            assertEquals("[sha0, sha1, sha4, sha5]", queryShas(commitTimeIndex, "2019-01-01T00:00:00", "2019-05-01T00:00:00").toString());
+        }
+    }
+
+    @Test
+    public void testIndexRebuiltWhenTheFileChanges() throws IOException {
+        Path pathCommitsFile = writeCommitsFile("commits.json", false);
+        Path pathIndex = CommitTimeIndex.getIndexPath(pathCommitsFile);
+        try (CommitTimeIndex commitTimeIndex = CommitTimeIndex.open(pathCommitsFile)) {
+            assertEquals(DATES.length, commitTimeIndex.getNbEntries());
+        }
+        FileTime indexModifiedTime = Files.getLastModifiedTime(pathIndex);
+
+        //the index up to date is reused
+        try (CommitTimeIndex commitTimeIndex = CommitTimeIndex.open(pathCommitsFile)) {
+            assertEquals(DATES.length, commitTimeIndex.getNbEntries());
+        }
+        assertEquals(indexModifiedTime, Files.getLastModifiedTime(pathIndex));
+
+        JSONArray page = new JSONArray().put(new JSONObject().put("sha", "new")
+                .put("commit", new JSONObject().put("committer", new JSONObject().put("date", "2020-01-01T00:00:00Z"))));
+        Files.write(pathCommitsFile, new JSONObject().put("items", new JSONArray().put(page)).toString().getBytes(StandardCharsets.UTF_8));
+        try (CommitTimeIndex commitTimeIndex = CommitTimeIndex.open(pathCommitsFile)) {
+            assertEquals(1, commitTimeIndex.getNbEntries());
+            assertEquals("[new]", queryShas(commitTimeIndex, "2019-01-01T00:00:00", "2021-01-01T00:00:00").toString());
+        }
+    }
+
+    @Test
+    public void testIndexInFallbackDirectoryWhenDirectoryIsReadOnly() throws IOException {
+        Path pathCommitsFile = writeCommitsFile("commits.json", false);
+        Path pathFallbackDirectory = Paths.get(pathTmpDir + "-fallback");
+        File fileDirectory = new File(pathTmpDir);
+        fileDirectory.setWritable(false);
+        try {
+            //the permissions do not apply to root
+            assumeFalse(Files.isWritable(fileDirectory.toPath()));
+            try (CommitTimeIndex commitTimeIndex = CommitTimeIndex.open(pathCommitsFile, pathFallbackDirectory)) {
+                assertEquals("[sha0, sha1, sha5]", queryShas(commitTimeIndex, "2019-01-01T00:00:00Z", "2019-03-15T23:30:00Z").toString());
+            }
+            assertFalse(Files.exists(CommitTimeIndex.getIndexPath(pathCommitsFile)));
+            assertTrue(Files.isRegularFile(CommitTimeIndex.getFallbackIndexPath(pathCommitsFile, pathFallbackDirectory)));
+        } finally {
+            fileDirectory.setWritable(true);
+            FileUtils.deleteDirectory(pathFallbackDirectory.toFile());
+        }
+    }
+
+    @Test
+    public void testFallbackIndexPathsAreDistinct() {
+        Path pathFallbackDirectory = Paths.get(pathTmpDir, "fallback");
+        Path pathIndexA = CommitTimeIndex.getFallbackIndexPath(Paths.get(pathTmpDir, "a", "commits.json"), pathFallbackDirectory);
+        Path pathIndexB = CommitTimeIndex.getFallbackIndexPath(Paths.get(pathTmpDir, "b", "commits.json"), pathFallbackDirectory);
+        assertNotEquals(pathIndexA, pathIndexB);
+        assertEquals(pathFallbackDirectory, pathIndexA.getParent());
+    }
+
+    @Test
+    public void testConcurrentBuildsOfTheSameIndex() throws Exception {
+        Path pathCommitsFile = writeCommitsFile("commits.ndjson", true);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> listFutures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                listFutures.add(executorService.submit(() -> {
+                    try (CommitTimeIndex commitTimeIndex = CommitTimeIndex.open(pathCommitsFile)) {
+                        return commitTimeIndex.getNbEntries();
+                    }
+                }));
+            }
+            for (Future<Integer> future : listFutures) {
+                assertEquals(DATES.length, (int) future.get());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        //no temporary index is left
+        File[] tmpFiles = new File(pathTmpDir).listFiles((dir, name) -> name.endsWith(".tmp"));
+        assertEquals(0, tmpFiles.length);
+    }
+
+    @Test
+    public void testParseDates() {
+        assertEquals(Instant.parse("2019-01-01T10:00:00Z"), CommitTimeIndex.parseInstant("2019-01-01T10:00:00"));
+        assertEquals(Instant.parse("2019-01-01T08:00:00Z"), CommitTimeIndex.parseInstant("2019-01-01T10:00:00+02:00"));
+        assertNull(CommitTimeIndex.parseDate("01/01/2019"));
+        assertNull(CommitTimeIndex.parseDate(null));
+    }
+
+    @Test
+    public void testCompressedFileIsNotIndexed() throws IOException {
+        Path pathCommitsFile = Paths.get(pathTmpDir, "commits.json.gz");
+        FileWriterJSON fileWriterJSON = new FileWriterJSON();
+        fileWriterJSON.writeJsonFile(new JSONObject().put("items", new JSONArray()), pathTmpDir, "commits.json.gz");
+
+        assertThrows(IllegalArgumentException.class, () -> CommitTimeIndex.open(pathCommitsFile));
+    }
+}
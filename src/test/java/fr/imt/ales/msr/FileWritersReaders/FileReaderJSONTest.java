@@ -1,6 +1,8 @@
 package fr.imt.ales.msr.FileWritersReaders;
 
 import fr.imt.ales.msr.FileWritersReaders.FileReaderJSON;
+import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,10 +13,14 @@ import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 public class FileReaderJSONTest {
@@ -36,6 +42,20 @@ public class FileReaderJSONTest {
         assertEquals(fileContentJsonObjectExpected,jsonObjectActual.toString(2));
     }
 
+    @Test
+    public void testForEachItemNominalCase() throws IOException, URISyntaxException {
+        FileReaderJSON fileReaderJSON = new FileReaderJSON();
+        JSONArray jsonArrayExpected = fileReaderJSON.readJSONFile(pathToJsonFile).getJSONArray("items");
+        List<Object> listItems = new ArrayList<>();
+
+        long nbItems = fileReaderJSON.forEachItem(pathToJsonFile, item -> listItems.add(item));
+
+        assertEquals(jsonArrayExpected.length(), nbItems);
+        for (int i = 0; i < jsonArrayExpected.length(); i++) {
+            assertTrue(jsonArrayExpected.getJSONObject(i).similar(listItems.get(i)));
+        }
+    }
+
     @Test
     public void testReadJSONFileWithMalformedPath(){
         FileReaderJSON fileReaderJSON = new FileReaderJSON();
@@ -50,4 +70,22 @@ public class FileReaderJSONTest {
 
         assertThrows(IOException.class, ()->{fileReaderJSON.readJSONFile(pathToJsonFile + "Error");} );
     }
+
+    @Test
+    public void testReadJSONFileMalformed() throws IOException {
+        FileReaderJSON fileReaderJSON = new FileReaderJSON();
+        Path pathFile = Files.createTempFile("malformed", ".json");
+        try {
+            Files.write(pathFile, "{\"items\":[1,2".getBytes(Charset.forName("UTF-8")));
+            assertThrows(JSONException.class, ()->{fileReaderJSON.readJSONFile(pathFile.toString());} );
+
+            Files.write(pathFile, new byte[0]);
+            assertThrows(JSONException.class, ()->{fileReaderJSON.readJSONFile(pathFile.toString());} );
+
+            Files.write(pathFile, "[1,2]".getBytes(Charset.forName("UTF-8")));
+            assertThrows(JSONException.class, ()->{fileReaderJSON.readJSONFile(pathFile.toString());} );
+        } finally {
+            Files.deleteIfExists(pathFile);
+        }
+    }
 }
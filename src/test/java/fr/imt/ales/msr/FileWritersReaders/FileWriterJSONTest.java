@@ -1,6 +1,8 @@
 package fr.imt.ales.msr.FileWritersReaders;
 
 import fr.imt.ales.msr.FileWritersReaders.FileWriterJSON;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.json.JSONObject;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,12 +10,16 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -60,18 +66,114 @@ public class FileWriterJSONTest {
 
     @Test
     public void testWriteJsonFileWithIOExceptionThrown() throws IOException {
-        File file = new File(pathTmpDir +"/test");
-        file.mkdir();
-        //Lock the folder /tmp/test to generate IOException in the FileWriter
-        file.setWritable(false);
+        File file = new File(pathTmpDir +"/json-test-blocked");
+        //a non empty directory in place of the file : the temporary file cannot be moved over it
+        File fileBlocking = new File(file, NAME_FILE_JSON);
+        fileBlocking.mkdirs();
+        new File(fileBlocking, "child").createNewFile();
+
+        try {
+            FileWriterJSON fileWriterJSON = new FileWriterJSON();
+            assertThrows(IOException.class, () -> fileWriterJSON.writeJsonFile(jsonObjectExpected, file.getPath(), NAME_FILE_JSON));
+
+            File[] tmpFiles = file.listFiles((dir, name) -> name.startsWith("." + NAME_FILE_JSON));
+            assertEquals(0, tmpFiles.length);
+        } finally {
+            FileUtils.deleteDirectory(file);
+        }
+    }
+
+    @Test
+    public void testWriteJsonFileInSubdirectory() throws IOException {
+        File fileSubdirectory = new File(pathTmpDir, "json-test-subdirectory");
+        fileSubdirectory.mkdir();
+        try {
+            new FileWriterJSON().writeJsonFile(new JSONObject().put("total_count", 1), pathTmpDir, "json-test-subdirectory/" + NAME_FILE_JSON);
+            assertEquals(1, new JSONObject(new String(Files.readAllBytes(new File(fileSubdirectory, NAME_FILE_JSON).toPath()),
+                    Charset.forName("UTF-8"))).getInt("total_count"));
+        } finally {
+            FileUtils.deleteDirectory(fileSubdirectory);
+        }
+    }
+
+    @Test
+    public void testWriteJsonFileRewritesFileChangedWithSameSizeAndTime() throws IOException {
+        FileWriterJSON fileWriterJSON = new FileWriterJSON();
+        fileWriterJSON.writeJsonFile(new JSONObject().put("total_count", 1), pathTmpDir, NAME_FILE_JSON);
+        Path pathFile = Paths.get(pathTmpDir, NAME_FILE_JSON);
+        FileTime lastModifiedTime = Files.getLastModifiedTime(pathFile);
 
+        //another writer changes the content without changing the size nor the time of modification
+        String content = new String(Files.readAllBytes(pathFile), Charset.forName("UTF-8"));
+        Files.write(pathFile, content.replace('1', '2').getBytes(Charset.forName("UTF-8")));
+        Files.setLastModifiedTime(pathFile, lastModifiedTime);
+
+        fileWriterJSON.writeJsonFile(new JSONObject().put("total_count", 1), pathTmpDir, NAME_FILE_JSON);
+        assertEquals(content, new String(Files.readAllBytes(pathFile), Charset.forName("UTF-8")));
+    }
+
+    @Test
+    public void testWriteJsonFileCompressed() throws IOException, URISyntaxException {
         FileWriterJSON fileWriterJSON = new FileWriterJSON();
-        fileWriterJSON.writeJsonFile(jsonObjectExpected, pathTmpDir +"/test", NAME_FILE_JSON);
+        fileWriterJSON.setCompressionLevel(9);
+        fileWriterJSON.writeJsonFile(jsonObjectExpected, pathTmpDir, NAME_FILE_JSON + ".gz");
+
+        File fileCompressed = new File(pathTmpDir + "/" + NAME_FILE_JSON + ".gz");
+        try {
+            assertEquals(Compression.GZIP, Compression.detect(fileCompressed.toPath()));
+            assertTrue(fileCompressed.length() < fileContentJsonObjectExpected.length());
+
+            try (InputStream inputStream = Compression.openInputStream(fileCompressed.toPath())) {
+                assertEquals(fileContentJsonObjectExpected, IOUtils.toString(inputStream, Charset.forName("UTF-8")));
+            }
+            assertEquals(jsonObjectExpected.toString(), new FileReaderJSON().readJSONFile(fileCompressed.getPath()).toString());
+        } finally {
+            fileCompressed.delete();
+        }
+    }
 
-        assertFalse( new File(pathTmpDir + "/" + NAME_FILE_JSON).exists());
+    @Test
+    public void testWriteJsonFileReplacesAtomically() throws IOException {
+        FileWriterJSON fileWriterJSON = new FileWriterJSON();
+        fileWriterJSON.writeJsonFile(new JSONObject().put("total_count", 1), pathTmpDir, NAME_FILE_JSON);
+        Object fileKeyFirstWrite = Files.readAttributes(Paths.get(pathTmpDir, NAME_FILE_JSON), BasicFileAttributes.class).fileKey();
 
-        file.setWritable(true);
-        file.delete();
+        //identical content : the file is not replaced
+        new FileWriterJSON().writeJsonFile(new JSONObject().put("total_count", 1), pathTmpDir, NAME_FILE_JSON);
+        assertEquals(fileKeyFirstWrite, Files.readAttributes(Paths.get(pathTmpDir, NAME_FILE_JSON), BasicFileAttributes.class).fileKey());
+
+        //new content : a new file is moved over the previous one
+        fileWriterJSON.writeJsonFile(jsonObjectExpected, pathTmpDir, NAME_FILE_JSON);
+        assertNotEquals(fileKeyFirstWrite, Files.readAttributes(Paths.get(pathTmpDir, NAME_FILE_JSON), BasicFileAttributes.class).fileKey());
+        assertEquals(fileContentJsonObjectExpected, new String(Files.readAllBytes(Paths.get(pathTmpDir, NAME_FILE_JSON)), Charset.forName("UTF-8")));
+
+        File[] tmpFiles = new File(pathTmpDir).listFiles((dir, name) -> name.startsWith("." + NAME_FILE_JSON));
+        assertEquals(0, tmpFiles.length);
+    }
+
+    @Test
+    public void testWriteJsonFileFailureKeepsPreviousFile() throws IOException {
+        FileWriterJSON fileWriterJSON = new FileWriterJSON();
+        fileWriterJSON.writeJsonFile(jsonObjectExpected, pathTmpDir, NAME_FILE_JSON);
+
+        JSONObject jsonObjectFailing = new JSONObject().put("items", new JSONObject() {
+            @Override
+            public java.util.Set<String> keySet() {
+                throw new IllegalStateException("Failure during the writing");
+            }
+        });
+        assertThrows(IllegalStateException.class, () -> fileWriterJSON.writeJsonFile(jsonObjectFailing, pathTmpDir, NAME_FILE_JSON));
+
+        assertEquals(fileContentJsonObjectExpected, new String(Files.readAllBytes(Paths.get(pathTmpDir, NAME_FILE_JSON)), Charset.forName("UTF-8")));
+        File[] tmpFiles = new File(pathTmpDir).listFiles((dir, name) -> name.startsWith("." + NAME_FILE_JSON));
+        assertEquals(0, tmpFiles.length);
+    }
+
+    @Test
+    public void testSetCompressionLevelOutOfRange() {
+        FileWriterJSON fileWriterJSON = new FileWriterJSON();
+        assertThrows(IllegalArgumentException.class, () -> fileWriterJSON.setCompressionLevel(10));
+        assertThrows(IllegalArgumentException.class, () -> fileWriterJSON.openNDJSONWriter(pathTmpDir, "items.ndjson.gz", false));
     }
 
     @AfterEach
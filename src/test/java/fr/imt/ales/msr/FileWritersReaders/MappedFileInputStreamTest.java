@@ -0,0 +1,104 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedFileInputStreamTest {
+    private Path pathFile;
+    private byte[] bytesFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        bytesFile = new byte[100000];
+        for (int i = 0; i < bytesFile.length; i++) {
+            bytesFile[i] = (byte) (i % 251);
+        }
+        pathFile = Files.createTempFile("mapped", ".json");
+        Files.write(pathFile, bytesFile);
+    }
+
+    @Test
+    public void testReadWholeFile() throws IOException {
+        try (MappedFileInputStream mappedFileInputStream = new MappedFileInputStream(pathFile)) {
+            assertEquals(bytesFile[0] & 0xff, mappedFileInputStream.read());
+            byte[] bytesRead = IOUtils.toByteArray(mappedFileInputStream);
+            assertArrayEquals(Arrays.copyOfRange(bytesFile, 1, bytesFile.length), bytesRead);
+            assertEquals(-1, mappedFileInputStream.read());
+            assertEquals(bytesFile.length, mappedFileInputStream.getPosition());
+        }
+    }
+
+    @Test
+    public void testReadFromPositionAndSkip() throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(pathFile, StandardOpenOption.READ);
+             MappedFileInputStream mappedFileInputStream = new MappedFileInputStream(fileChannel, 500)) {
+            assertEquals(bytesFile[500] & 0xff, mappedFileInputStream.read());
+            assertEquals(1000, mappedFileInputStream.skip(1000));
+            assertEquals(bytesFile[1501] & 0xff, mappedFileInputStream.read());
+            assertEquals(bytesFile.length - 1502, mappedFileInputStream.available());
+            assertEquals(bytesFile.length - 1502, mappedFileInputStream.skip(Long.MAX_VALUE));
+            assertEquals(-1, mappedFileInputStream.read(new byte[10], 0, 10));
+        }
+    }
+
+    @Test
+    public void testReadAcrossWindows() throws IOException {
+        //windows of 4096 bytes : the reads of 1000 bytes cross the boundaries of the windows
+        try (MappedFileInputStream mappedFileInputStream = new MappedFileInputStream(pathFile, 4096)) {
+            byte[] bytesRead = new byte[bytesFile.length];
+            int position = 0;
+            int nbBytes;
+            while ((nbBytes = mappedFileInputStream.read(bytesRead, position, Math.min(1000, bytesRead.length - position))) > 0) {
+                position += nbBytes;
+            }
+            assertEquals(bytesFile.length, position);
+            assertArrayEquals(bytesFile, bytesRead);
+            assertEquals(-1, mappedFileInputStream.read());
+        }
+    }
+
+    @Test
+    public void testReadAndSkipWithSmallWindows() throws IOException {
+        try (MappedFileInputStream mappedFileInputStream = new MappedFileInputStream(pathFile, 7)) {
+            for (int i = 0; i < 20; i++) {
+                assertEquals(bytesFile[i] & 0xff, mappedFileInputStream.read());
+            }
+            //skip inside the window, then to the middle of a next window
+            assertEquals(1, mappedFileInputStream.skip(1));
+            assertEquals(bytesFile[21] & 0xff, mappedFileInputStream.read());
+            assertEquals(50, mappedFileInputStream.skip(50));
+            assertEquals(72, mappedFileInputStream.getPosition());
+            assertEquals(bytesFile[72] & 0xff, mappedFileInputStream.read());
+            assertArrayEquals(Arrays.copyOfRange(bytesFile, 73, bytesFile.length), IOUtils.toByteArray(mappedFileInputStream));
+        }
+    }
+
+    @Test
+    public void testInvalidWindowSize() {
+        assertThrows(IllegalArgumentException.class, () -> new MappedFileInputStream(pathFile, 0));
+    }
+
+    @Test
+    public void testReadEmptyFile() throws IOException {
+        Files.write(pathFile, new byte[0]);
+        try (MappedFileInputStream mappedFileInputStream = new MappedFileInputStream(pathFile)) {
+            assertEquals(-1, mappedFileInputStream.read());
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(pathFile);
+    }
+}
@@ -0,0 +1,108 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import org.apache.commons.io.FileUtils;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NDJSONReaderTest {
+    private final int NB_ITEMS = 50;
+    private String pathTmpDir;
+    private Path pathFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        pathTmpDir = System.getProperty("java.io.tmpdir") + "/test-ndjson-reader";
+        Files.createDirectories(new File(pathTmpDir).toPath());
+        pathFile = new File(pathTmpDir, "items.ndjson").toPath();
+
+        try (NDJSONWriter ndjsonWriter = new NDJSONWriter(pathFile, false)) {
+            for (int i = 0; i < NB_ITEMS; i++) {
+                ndjsonWriter.writeItem(new JSONObject().put("id", i).put("title", "Issue \u00e9 " + i));
+            }
+        }
+    }
+
+    @Test
+    public void testForEachItemNominalCase() throws IOException {
+        List<Object> listItems = new ArrayList<>();
+        long nbItems = new NDJSONReader().forEachItem(pathFile, item -> listItems.add(item));
+
+        assertEquals(NB_ITEMS, nbItems);
+        assertEquals(7, ((JSONObject) listItems.get(7)).getInt("id"));
+        assertEquals("Issue \u00e9 7", ((JSONObject) listItems.get(7)).getString("title"));
+    }
+
+    @Test
+    public void testSplitsReadEachLineOnce() throws IOException {
+        NDJSONReader ndjsonReader = new NDJSONReader();
+        for (int nbSplits = 1; nbSplits <= 40; nbSplits++) {
+            List<Integer> listIds = new ArrayList<>();
+            for (NDJSONReader.Split split : ndjsonReader.split(pathFile, nbSplits)) {
+                ndjsonReader.forEachItem(pathFile, split, item -> listIds.add(((JSONObject) item).getInt("id")));
+            }
+
+            assertEquals(NB_ITEMS, listIds.size());
+            for (int i = 0; i < NB_ITEMS; i++) {
+                assertEquals(Integer.valueOf(i), listIds.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testForEachItemIgnoresPartialLastLine() throws IOException {
+        Files.write(pathFile, "{\"id\":1}\n\n{\"id\":2}\n{\"id\":".getBytes(Charset.forName("UTF-8")));
+
+        assertEquals(2, new NDJSONReader().forEachItem(pathFile, item -> true));
+    }
+
+    @Test
+    public void testForEachItemWithMalformedLine() throws IOException {
+        Files.write(pathFile, "{\"id\":1}\n{\"id\":\n{\"id\":2}\n".getBytes(Charset.forName("UTF-8")));
+
+        assertThrows(JsonParseException.class, () -> new NDJSONReader().forEachItem(pathFile, item -> true));
+    }
+
+    @Test
+    public void testIsNDJSONFile() {
+        assertTrue(NDJSONReader.isNDJSONFile("commits.ndjson"));
+        assertTrue(NDJSONReader.isNDJSONFile("/tmp/commits.JSONL"));
+        assertTrue(NDJSONReader.isNDJSONFile("commits.ndjson.gz"));
+        assertFalse(NDJSONReader.isNDJSONFile("commits.json"));
+        assertFalse(NDJSONReader.isNDJSONFile("commits.json.gz"));
+    }
+
+    @Test
+    public void testForEachItemCompressedFile() throws IOException {
+        Path pathCompressedFile = new File(pathTmpDir, "items.ndjson.gz").toPath();
+        try (OutputStream outputStream = Compression.GZIP.wrapOutputStream(Files.newOutputStream(pathCompressedFile), 9)) {
+            Files.copy(pathFile, outputStream);
+        }
+
+        NDJSONReader ndjsonReader = new NDJSONReader();
+        List<NDJSONReader.Split> listSplits = ndjsonReader.split(pathCompressedFile, 4);
+        assertEquals(1, listSplits.size());
+
+        List<Object> listItems = new ArrayList<>();
+        assertEquals(NB_ITEMS, ndjsonReader.forEachItem(pathCompressedFile, listSplits.get(0), item -> listItems.add(item)));
+        assertEquals("Issue \u00e9 49", ((JSONObject) listItems.get(49)).getString("title"));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(new File(pathTmpDir));
+    }
+}
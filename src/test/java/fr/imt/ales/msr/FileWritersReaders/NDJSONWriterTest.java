@@ -0,0 +1,82 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import org.apache.commons.io.FileUtils;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NDJSONWriterTest {
+    private String pathTmpDir;
+    private Path pathFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        pathTmpDir = System.getProperty("java.io.tmpdir") + "/test-ndjson-writer";
+        Files.createDirectories(new File(pathTmpDir).toPath());
+        pathFile = new File(pathTmpDir, "items.ndjson").toPath();
+    }
+
+    @Test
+    public void testWriteItemNominalCase() throws IOException {
+        try (NDJSONWriter ndjsonWriter = new NDJSONWriter(pathFile, false, 2)) {
+            ndjsonWriter.writeItem(new JSONObject().put("sha", "1"));
+            ndjsonWriter.writeItem(new JSONObject().put("sha", "2").put("message", "line 1\nline 2"));
+            ndjsonWriter.writeItem("text");
+            assertEquals(3, ndjsonWriter.getNbItemsWritten());
+        }
+
+        List<String> listLines = Files.readAllLines(pathFile, Charset.forName("UTF-8"));
+        assertEquals(3, listLines.size());
+        assertEquals("{\"sha\":\"1\"}", listLines.get(0));
+        assertEquals("line 1\nline 2", new JSONObject(listLines.get(1)).getString("message"));
+        assertEquals("\"text\"", listLines.get(2));
+    }
+
+    @Test
+    public void testAppendRemovesPartialLine() throws IOException {
+        Files.write(pathFile, "{\"sha\":\"1\"}\n{\"sha\":".getBytes(Charset.forName("UTF-8")));
+
+        try (NDJSONWriter ndjsonWriter = new NDJSONWriter(pathFile, true)) {
+            ndjsonWriter.writeItem(new JSONObject().put("sha", "2"));
+        }
+
+        List<String> listLines = Files.readAllLines(pathFile, Charset.forName("UTF-8"));
+        assertEquals(2, listLines.size());
+        assertEquals("{\"sha\":\"1\"}", listLines.get(0));
+        assertEquals("{\"sha\":\"2\"}", listLines.get(1));
+    }
+
+    @Test
+    public void testWithoutAppendReplacesContent() throws IOException {
+        Files.write(pathFile, "{\"sha\":\"1\"}\n".getBytes(Charset.forName("UTF-8")), StandardOpenOption.CREATE);
+
+        try (NDJSONWriter ndjsonWriter = new NDJSONWriter(pathFile, false)) {
+            ndjsonWriter.writeItem(new JSONObject().put("sha", "2"));
+        }
+
+        List<String> listLines = Files.readAllLines(pathFile, Charset.forName("UTF-8"));
+        assertEquals(1, listLines.size());
+        assertEquals("{\"sha\":\"2\"}", listLines.get(0));
+    }
+
+    @Test
+    public void testInvalidSyncInterval() {
+        assertThrows(IllegalArgumentException.class, () -> new NDJSONWriter(pathFile, false, 0));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(new File(pathTmpDir));
+    }
+}
@@ -0,0 +1,80 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamReaderJSONTest {
+
+    @Test
+    public void testForEachItemFlattensPages() throws IOException {
+        String json = "{\"total_count\": {\"nested\": [1, 2]}, \"items\": [[{\"sha\": \"1\"}, {\"sha\": \"2\"}], [{\"sha\": \"3\"}]], \"after\": true}";
+        List<Object> listItems = new ArrayList<>();
+
+        long nbItems = readItems(json, item -> listItems.add(item));
+
+        assertEquals(3, nbItems);
+        assertEquals("1", ((JSONObject) listItems.get(0)).getString("sha"));
+        assertEquals("3", ((JSONObject) listItems.get(2)).getString("sha"));
+    }
+
+    @Test
+    public void testForEachItemStoppedByHandler() throws IOException {
+        String json = "{\"items\": [[{\"sha\": \"1\"}, {\"sha\": \"2\"}], [{\"sha\": \"3\"}]]}";
+        List<Object> listItems = new ArrayList<>();
+
+        long nbItems = readItems(json, item -> {
+            listItems.add(item);
+            return listItems.size() < 2;
+        });
+
+        assertEquals(2, nbItems);
+        assertEquals(2, listItems.size());
+    }
+
+    @Test
+    public void testForEachItemWithObjectItemsAndRootArray() throws IOException {
+        List<Object> listItems = new ArrayList<>();
+        assertEquals(1, readItems("{\"items\": {\"id\": 1}}", item -> listItems.add(item)));
+        assertEquals(2, readItems("[\"a\", null]", item -> listItems.add(item)));
+
+        assertEquals(1, ((JSONObject) listItems.get(0)).getInt("id"));
+        assertEquals("a", listItems.get(1));
+        assertEquals(JSONObject.NULL, listItems.get(2));
+    }
+
+    @Test
+    public void testReadValueSameAsOrgJson() throws IOException {
+        String json = "{\"items\": [{\"int\": 1, \"long\": 12345678901, \"double\": 1.5, \"big\": 123456789012345678901234567890," +
+                " \"bool\": false, \"null\": null, \"text\": \"\\u00e9\\n\", \"array\": [[], {}]}]}";
+        List<Object> listItems = new ArrayList<>();
+        readItems(json, item -> listItems.add(item));
+
+        JSONObject jsonObjectExpected = new JSONObject(json).getJSONArray("items").getJSONObject(0);
+        JSONObject jsonObjectActual = (JSONObject) listItems.get(0);
+        assertTrue(jsonObjectExpected.similar(jsonObjectActual));
+        assertEquals(jsonObjectExpected.toString(), jsonObjectActual.toString());
+        assertTrue(jsonObjectActual.get("array") instanceof JSONArray);
+    }
+
+    @Test
+    public void testForEachItemWithMalformedDocument() {
+        assertThrows(IOException.class, () -> readItems("{\"items\": [{\"sha\": }]}", item -> true));
+        assertThrows(IOException.class, () -> readItems("\"text\"", item -> true));
+    }
+
+    /**
+     * Reads the items of a JSON document given as a String
+     */
+    private long readItems(String json, JSONItemHandler jsonItemHandler) throws IOException {
+        return new StreamReaderJSON().forEachItem(new ByteArrayInputStream(json.getBytes(Charset.forName("UTF-8"))), jsonItemHandler);
+    }
+}
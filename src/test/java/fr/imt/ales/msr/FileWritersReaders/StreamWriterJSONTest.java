@@ -0,0 +1,57 @@
+package fr.imt.ales.msr.FileWritersReaders;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamWriterJSONTest {
+    private JSONObject jsonObjectToWrite;
+
+    @BeforeEach
+    public void setUp() throws URISyntaxException, IOException {
+        URL url = Thread.currentThread().getContextClassLoader().getResource("json-example.json");
+        jsonObjectToWrite = new JSONObject(new String(Files.readAllBytes(Paths.get(url.toURI())), Charset.forName("UTF-8")));
+        jsonObjectToWrite.put("single", new JSONObject().put("nested", new JSONArray().put(1).put(2.5).put(new BigDecimal("1.50"))));
+        jsonObjectToWrite.put("empty_object", new JSONObject());
+        jsonObjectToWrite.put("empty_array", new JSONArray());
+        jsonObjectToWrite.put("single_array", new JSONArray().put(new JSONObject().put("a", true).put("b", JSONObject.NULL)));
+        jsonObjectToWrite.put("text", "</script> \"quoted\" \\ \t\n \u00e9 \u2028 \u0001");
+    }
+
+    @Test
+    public void testWritePrettyPrintSameAsOrgJson() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new StreamWriterJSON(true).write(jsonObjectToWrite, outputStream);
+
+        assertEquals(jsonObjectToWrite.toString(2), new String(outputStream.toByteArray(), Charset.forName("UTF-8")));
+    }
+
+    @Test
+    public void testWriteCompactSameAsOrgJson() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new StreamWriterJSON(false).write(jsonObjectToWrite, outputStream);
+
+        assertEquals(jsonObjectToWrite.toString(), new String(outputStream.toByteArray(), Charset.forName("UTF-8")));
+    }
+
+    @Test
+    public void testWriteArray() throws IOException {
+        JSONArray jsonArray = new JSONArray().put(new JSONObject().put("sha", "1234")).put("text").put(new JSONArray());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new StreamWriterJSON(true).write(jsonArray, outputStream);
+
+        assertEquals(jsonArray.toString(2), new String(outputStream.toByteArray(), Charset.forName("UTF-8")));
+    }
+}
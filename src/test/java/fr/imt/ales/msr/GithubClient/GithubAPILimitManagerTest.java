@@ -20,6 +20,7 @@ import java.nio.file.Paths;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class GithubAPILimitManagerTest {
@@ -54,6 +55,95 @@ public class GithubAPILimitManagerTest {
         assertEquals(0.0,githubAPILimitManager.handleLimitAPIGithub(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()),-13));
     }
 
+    @Test
+    public void testAcquireTokenWithoutToken() throws InterruptedException {
+        assertNull(githubAPILimitManager.acquireToken());
+    }
+
+    @Test
+    public void testAcquireTokenWithMostRequestsRemaining() throws InterruptedException {
+        long resetTimestamp = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 3600;
+        githubAPILimitManager.addToken("token1");
+        githubAPILimitManager.addToken("token2");
+        githubAPILimitManager.addToken("token2");
+        githubAPILimitManager.updateTokenRateLimit("token1", resetTimestamp, 10);
+        githubAPILimitManager.updateTokenRateLimit("token2", resetTimestamp, 12);
+
+        assertEquals(2, githubAPILimitManager.getNbTokens());
+        assertEquals("token2", githubAPILimitManager.acquireToken());
+        assertEquals("token2", githubAPILimitManager.acquireToken());
+        //token2 has now 10 requests remaining reserved, as token1
+        assertEquals("token1", githubAPILimitManager.acquireToken());
+
+        githubAPILimitManager.updateTokenRateLimit("token2", resetTimestamp, 0);
+        githubAPILimitManager.updateTokenRateLimit("token1", resetTimestamp, 1);
+        assertEquals("token1", githubAPILimitManager.acquireToken());
+    }
+
+    @Test
+    public void testAcquireTokenWithTokenReset() throws InterruptedException {
+        long resetTimestampPassed = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) - 3600;
+        githubAPILimitManager.addToken("token1");
+        githubAPILimitManager.updateTokenRateLimit("token1", resetTimestampPassed, 0);
+
+        long start = System.currentTimeMillis();
+        assertEquals("token1", githubAPILimitManager.acquireToken());
+        assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+
+    @Test
+    public void testAcquireTokenWithAllTokensExhausted() throws InterruptedException {
+        long resetTimestamp = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        githubAPILimitManager.addToken("token1");
+        githubAPILimitManager.addToken("token2");
+        githubAPILimitManager.updateTokenRateLimit("token1", resetTimestamp + 1, 0);
+        githubAPILimitManager.updateTokenRateLimit("token2", resetTimestamp, 0);
+
+        long start = System.currentTimeMillis();
+        assertEquals("token2", githubAPILimitManager.acquireToken());
+        assertTrue(System.currentTimeMillis() - start >= 1000);
+    }
+
+    @Test
+    public void testPaceRequestSpreadsRequestsRemaining() throws InterruptedException {
+        long resetTimestamp = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 7;
+        githubAPILimitManager.setPacingEnabled(true);
+        githubAPILimitManager.updateTokenRateLimit(null, resetTimestamp, 100);
+
+        assertEquals(0, githubAPILimitManager.paceRequest());
+        //about 10 seconds left until the reset for 100 requests
+        long delay = githubAPILimitManager.paceRequest();
+        assertTrue(delay > 50 && delay <= 110, "Delay applied : " + delay);
+        assertEquals(delay, githubAPILimitManager.getLastAppliedDelayMillis());
+    }
+
+    @Test
+    public void testPaceRequestEnabledByDefault() throws InterruptedException {
+        GithubAPILimitManager githubAPILimitManagerDefault = new GithubAPILimitManager();
+        assertTrue(githubAPILimitManagerDefault.isPacingEnabled());
+        githubAPILimitManagerDefault.updateTokenRateLimit(null, TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 7, 100);
+
+        assertEquals(0, githubAPILimitManagerDefault.paceRequest());
+        long delay = githubAPILimitManagerDefault.paceRequest();
+        assertTrue(delay > 50 && delay <= 110, "Delay applied : " + delay);
+    }
+
+    @Test
+    public void testPaceRequestWithPacingDisabled() throws InterruptedException {
+        githubAPILimitManager.setPacingEnabled(false);
+        githubAPILimitManager.updateTokenRateLimit(null, TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 3600, 1);
+
+        assertEquals(0, githubAPILimitManager.paceRequest());
+        assertEquals(0, githubAPILimitManager.paceRequest());
+    }
+
+    @Test
+    public void testWaitRetryAfterPostponesNextRequest() throws InterruptedException {
+        assertEquals(1000, githubAPILimitManager.waitRetryAfter(1));
+        assertEquals(1000, githubAPILimitManager.getLastAppliedDelayMillis());
+        assertTrue(githubAPILimitManager.paceRequest() <= 0);
+    }
+
     @Test
     public void testPrintRateLimitAPINominalCase() throws URISyntaxException, IOException {
         URL url = Thread.currentThread().getContextClassLoader().getResource("json-rate-limit-example.json");
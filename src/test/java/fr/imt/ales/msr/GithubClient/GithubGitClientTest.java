@@ -1,8 +1,11 @@
 package fr.imt.ales.msr.GithubClient;
 
 import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.InvalidRemoteException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,8 +20,11 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -129,6 +135,157 @@ public class GithubGitClientTest {
         assertTrue(listFiles.contains("spring-projects"));
     }
 
+    @Test
+    public void cloneRepositoriesFromListInParallelWithFailure() throws IOException, GitAPIException {
+        File fileOrigin = new File(pathTmpDir + "-origin");
+        String sha = createLocalRepository(fileOrigin);
+
+        JSONArray jsonArrayItems = new JSONArray();
+        jsonArrayItems.put(createRepositoryItem("local/repo-a", fileOrigin.toURI().toString(), sha));
+        jsonArrayItems.put(createRepositoryItem("local/missing", new File(pathTmpDir + "-missing").toURI().toString(), sha));
+        jsonArrayItems.put(createRepositoryItem("local/repo-b", fileOrigin.toURI().toString(), sha));
+        JSONObject jsonObjectRepos = new JSONObject().put("items", jsonArrayItems);
+
+        try {
+            GithubGitClient githubGitClient = new GithubGitClient();
+            githubGitClient.setNbParallelClones(3);
+            List<CloneResult> listCloneResults = githubGitClient.cloneRepositoriesFromList(jsonObjectRepos, pathTmpDir, null, null);
+
+            assertEquals(3, listCloneResults.size());
+            assertEquals("local/repo-a", listCloneResults.get(0).getFullName());
+            assertTrue(listCloneResults.get(0).isSuccess());
+            assertFalse(listCloneResults.get(1).isSuccess());
+            assertNotNull(listCloneResults.get(1).getError());
+            assertTrue(listCloneResults.get(2).isSuccess());
+            assertTrue(new File(pathTmpDir + "/local/repo-a/README").isFile());
+            assertTrue(new File(pathTmpDir + "/local/repo-b/README").isFile());
+        } finally {
+            FileUtils.deleteDirectory(fileOrigin);
+        }
+    }
+
+    @Test
+    public void cloneRepositoriesFromListSingleBranch() throws IOException, GitAPIException {
+        File fileOrigin = new File(pathTmpDir + "-origin");
+        String sha = createLocalRepository(fileOrigin);
+        String shaOtherBranch;
+        try (Git gitOrigin = Git.open(fileOrigin)){
+            gitOrigin.tag().setName("v1.0").call();
+            gitOrigin.checkout().setCreateBranch(true).setName("other").call();
+            FileUtils.writeStringToFile(new File(fileOrigin, "OTHER"), "Other branch", Charset.forName("UTF-8"));
+            gitOrigin.add().addFilepattern("OTHER").call();
+            shaOtherBranch = gitOrigin.commit().setMessage("Other commit").setAuthor("test", "test@test.com").call().getName();
+        }
+
+        JSONArray jsonArrayItems = new JSONArray();
+        jsonArrayItems.put(createRepositoryItem("local/repo-a", fileOrigin.toURI().toString(), sha));
+        JSONObject jsonObjectRepos = new JSONObject().put("items", jsonArrayItems);
+
+        try {
+            GithubGitClient githubGitClient = new GithubGitClient();
+            githubGitClient.setSingleBranchClone(true);
+            List<CloneResult> listCloneResults = githubGitClient.cloneRepositoriesFromList(jsonObjectRepos, pathTmpDir, null, null);
+
+            assertTrue(listCloneResults.get(0).isSuccess());
+            assertTrue(new File(pathTmpDir + "/local/repo-a/README").isFile());
+            assertFalse(new File(pathTmpDir + "/local/repo-a/OTHER").exists());
+            try (Git gitClone = Git.open(new File(pathTmpDir + "/local/repo-a"))){
+                assertEquals(sha, gitClone.getRepository().resolve("HEAD").getName());
+                assertTrue(gitClone.tagList().call().isEmpty());
+                assertFalse(gitClone.getRepository().hasObject(ObjectId.fromString(shaOtherBranch)));
+            }
+        } finally {
+            FileUtils.deleteDirectory(fileOrigin);
+        }
+    }
+
+    @Test
+    public void cloneRepositoriesFromListSingleBranchNotMaster() throws IOException, GitAPIException {
+        File fileOrigin = new File(pathTmpDir + "-origin");
+        String sha = createLocalRepository(fileOrigin);
+        try (Git gitOrigin = Git.open(fileOrigin)){
+            gitOrigin.branchRename().setOldName("master").setNewName("main").call();
+        }
+
+        //the branch of the last commit is recorded by GithubHttpClient.getLastCommitForRepositoriesList
+        JSONObject jsonObjectRepo = createRepositoryItem("local/repo-main", fileOrigin.toURI().toString(), sha);
+        jsonObjectRepo.getJSONObject("last_commit").put("branch", "main");
+        JSONObject jsonObjectRepos = new JSONObject().put("items", new JSONArray().put(jsonObjectRepo));
+
+        try {
+            GithubGitClient githubGitClient = new GithubGitClient();
+            githubGitClient.setSingleBranchClone(true);
+            List<CloneResult> listCloneResults = githubGitClient.cloneRepositoriesFromList(jsonObjectRepos, pathTmpDir, null, null);
+
+            assertTrue(listCloneResults.get(0).isSuccess());
+            try (Git gitClone = Git.open(new File(pathTmpDir + "/local/repo-main"))){
+                assertEquals(sha, gitClone.getRepository().resolve("HEAD").getName());
+            }
+        } finally {
+            FileUtils.deleteDirectory(fileOrigin);
+        }
+    }
+
+    @Test
+    public void cloneRepositoriesFromListUpdatesExistingRepository() throws IOException, GitAPIException {
+        File fileOrigin = new File(pathTmpDir + "-origin");
+        String sha = createLocalRepository(fileOrigin);
+
+        try {
+            GithubGitClient githubGitClient = new GithubGitClient();
+            JSONObject jsonObjectRepos = new JSONObject().put("items",
+                    new JSONArray().put(createRepositoryItem("local/repo-a", fileOrigin.toURI().toString(), sha)));
+            assertEquals(CloneResult.Action.CLONED,
+                    githubGitClient.cloneRepositoriesFromList(jsonObjectRepos, pathTmpDir, null, null).get(0).getAction());
+            assertEquals(CloneResult.Action.UP_TO_DATE,
+                    githubGitClient.cloneRepositoriesFromList(jsonObjectRepos, pathTmpDir, null, null).get(0).getAction());
+
+            String newSha;
+            try (Git gitOrigin = Git.open(fileOrigin)){
+                FileUtils.writeStringToFile(new File(fileOrigin, "NEW"), "New file", Charset.forName("UTF-8"));
+                gitOrigin.add().addFilepattern("NEW").call();
+                newSha = gitOrigin.commit().setMessage("New commit").setAuthor("test", "test@test.com").call().getName();
+            }
+
+            jsonObjectRepos = new JSONObject().put("items",
+                    new JSONArray().put(createRepositoryItem("local/repo-a", fileOrigin.toURI().toString(), newSha)));
+            List<CloneResult> listCloneResults = githubGitClient.cloneRepositoriesFromList(jsonObjectRepos, pathTmpDir, null, null);
+            assertEquals(CloneResult.Action.UPDATED, listCloneResults.get(0).getAction());
+            assertTrue(new File(pathTmpDir + "/local/repo-a/NEW").isFile());
+        } finally {
+            FileUtils.deleteDirectory(fileOrigin);
+        }
+    }
+
+    @Test
+    public void setNbParallelClonesWithInvalidValue() throws GitAPIException {
+        GithubGitClient githubGitClient = new GithubGitClient();
+        assertThrows(IllegalArgumentException.class, ()->{githubGitClient.setNbParallelClones(0);});
+    }
+
+    /**
+     * Creates a local repository with one commit
+     * @param fileDirectory Directory of the repository
+     * @return String sha of the commit
+     */
+    private String createLocalRepository(File fileDirectory) throws IOException, GitAPIException {
+        try (Git git = Git.init().setDirectory(fileDirectory).call()){
+            FileUtils.writeStringToFile(new File(fileDirectory, "README"), "Hello World!", Charset.forName("UTF-8"));
+            git.add().addFilepattern("README").call();
+            return git.commit().setMessage("Initial commit").setAuthor("test", "test@test.com").call().getName();
+        }
+    }
+
+    /**
+     * Creates an item of the list of repositories with its last commit
+     */
+    private JSONObject createRepositoryItem(String fullName, String cloneUrl, String sha){
+        return new JSONObject()
+                .put("full_name", fullName)
+                .put("clone_url", cloneUrl)
+                .put("last_commit", new JSONObject().put("sha", sha));
+    }
+
     @AfterEach
     public void tearDown() throws IOException {
         File fileRepo = new File(pathTmpDir);
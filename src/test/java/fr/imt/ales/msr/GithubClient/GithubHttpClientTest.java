@@ -1,6 +1,9 @@
 package fr.imt.ales.msr.GithubClient;
 
+import fr.imt.ales.msr.Checkpoint.CheckpointJournal;
 import fr.imt.ales.msr.FileWritersReaders.FileWriterJSON;
+import fr.imt.ales.msr.FileWritersReaders.NDJSONWriter;
+import org.apache.commons.io.FileUtils;
 import org.apache.http.*;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
@@ -13,19 +16,28 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class GithubHttpClientTest {
@@ -91,6 +103,455 @@ public class GithubHttpClientTest {
         assertEquals(2, githubHttpClient.getRawDataJson(url,new JSONObject().put("items",new JSONArray())).getJSONArray("items").length());
     }
 
+    /**
+     * Creates a mock of response for a page of a list with the given Link header
+     */
+    private CloseableHttpResponse mockPageResponse(String body, String linkHeaderValue) throws IOException {
+        CloseableHttpResponse mockHttpResponse = mock(CloseableHttpResponse.class);
+        HttpEntity mockHttpEntity = mock(HttpEntity.class);
+
+        when(mockHttpResponse.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "FINE!"));
+        when(mockHttpResponse.getEntity()).thenReturn(mockHttpEntity);
+        when(mockHttpEntity.getContent()).thenReturn(new ByteArrayInputStream(body.getBytes(Charset.forName("UTF-8"))));
+        when(mockHttpResponse.getFirstHeader("Link")).thenReturn(linkHeaderValue == null ? null : new BasicHeader("Link", linkHeaderValue));
+        when(mockHttpResponse.getFirstHeader("X-RateLimit-Reset")).thenReturn(new BasicHeader("X-RateLimit-Reset", "1646594047"));
+        when(mockHttpResponse.getFirstHeader("X-RateLimit-Remaining")).thenReturn(new BasicHeader("X-RateLimit-Remaining", "1000"));
+        return mockHttpResponse;
+    }
+
+    @Test
+    public void testForEachPageNominalCase() throws IOException, URISyntaxException, InterruptedException {
+        String urlPage = "https://api.github.com/repos/octocat/Hello-World/commits?page=";
+        CloseableHttpClient mockHttpClient = mock(CloseableHttpClient.class);
+        CloseableHttpResponse response1 = mockPageResponse("[{\"sha\":\"1\"}]", "<" + urlPage + "2>; rel=\"next\", <" + urlPage + "3>; rel=\"last\"");
+        CloseableHttpResponse response2 = mockPageResponse("[{\"sha\":\"2\"}]", "<" + urlPage + "1>; rel=\"prev\", <" + urlPage + "3>; rel=\"next\", <" + urlPage + "3>; rel=\"last\"");
+        CloseableHttpResponse response3 = mockPageResponse("[{\"sha\":\"3\"}]", "<" + urlPage + "2>; rel=\"prev\", <" + urlPage + "1>; rel=\"first\"");
+        when(mockHttpClient.execute((HttpGet) any())).thenReturn(response1).thenReturn(response2).thenReturn(response3);
+
+        GithubHttpClient githubHttpClient = new GithubHttpClient();
+        githubHttpClient.setHttpClient(mockHttpClient);
+
+        List<GithubPage> pagesReceived = new ArrayList<>();
+        int nbPages = githubHttpClient.forEachPage(urlPage + "1", GithubHttpClient.UNLIMITED_PAGES, githubPage -> pagesReceived.add(githubPage));
+
+        assertEquals(3, nbPages);
+        assertEquals(3, pagesReceived.size());
+        for (int i = 0; i < pagesReceived.size(); i++) {
+            assertEquals(i + 1, pagesReceived.get(i).getPageNumber());
+            assertEquals(3, pagesReceived.get(i).getLastPageNumber());
+            assertEquals(Integer.toString(i + 1), pagesReceived.get(i).getBodyAsJSONArray().getJSONObject(0).getString("sha"));
+        }
+        assertTrue(pagesReceived.get(0).isFirstPage());
+        assertFalse(pagesReceived.get(2).hasNextPage());
+        verify(response1).close();
+        verify(response3).close();
+    }
+
+    @Test
+    public void testGetLastCommitForRepositoriesListOnDefaultBranch() throws IOException, URISyntaxException, InterruptedException {
+        CloseableHttpClient mockHttpClient = mock(CloseableHttpClient.class);
+        CloseableHttpResponse response = mockPageResponse("{\"sha\":\"abc123\",\"html_url\":\"https://github.com/octocat/Hello-World/commit/abc123\"}", null);
+        ArgumentCaptor<HttpGet> captorHttpGet = ArgumentCaptor.forClass(HttpGet.class);
+        when(mockHttpClient.execute(captorHttpGet.capture())).thenReturn(response);
+
+        GithubHttpClient githubHttpClient = new GithubHttpClient();
+        githubHttpClient.setHttpClient(mockHttpClient);
+
+        JSONObject jsonObjectRepo = new JSONObject()
+                .put("commits_url", "https://api.github.com/repos/octocat/Hello-World/commits{/sha}")
+                .put("default_branch", "main");
+        Path pathFile = Files.createTempFile("repositories", ".ndjson");
+        try (NDJSONWriter ndjsonWriter = new NDJSONWriter(pathFile, false)) {
+            githubHttpClient.getLastCommitForRepositoriesList(new JSONObject().put("items", new JSONArray().put(jsonObjectRepo)), ndjsonWriter);
+        } finally {
+            Files.deleteIfExists(pathFile);
+        }
+
+        assertEquals("https://api.github.com/repos/octocat/Hello-World/commits/main", captorHttpGet.getValue().getURI().toString());
+        JSONObject jsonObjectCommit = jsonObjectRepo.getJSONObject("last_commit");
+        assertEquals("abc123", jsonObjectCommit.getString("sha"));
+        assertEquals("main", jsonObjectCommit.getString("branch"));
+    }
+
+    /**
+     * Creates a repository of a list of repositories
+     */
+    private JSONObject createRepository(String name){
+        return new JSONObject().put("url", "https://api.github.com/repos/octocat/" + name)
+                .put("commits_url", "https://api.github.com/repos/octocat/" + name + "/commits{/sha}");
+    }
+
+    @Test
+    public void testGetLastCommitForRepositoriesListRerunKeepsRepositoriesWritten() throws IOException, URISyntaxException, InterruptedException {
+        Path pathDirectory = Files.createTempDirectory("repositories");
+        Path pathFile = pathDirectory.resolve("repositories.ndjson");
+        try {
+            CloseableHttpClient mockHttpClient = mock(CloseableHttpClient.class);
+            CloseableHttpResponse response1 = mockPageResponse("{\"sha\":\"1\"}", null);
+            when(mockHttpClient.execute((HttpGet) any())).thenReturn(response1);
+            GithubHttpClient githubHttpClient = new GithubHttpClient();
+            githubHttpClient.setHttpClient(mockHttpClient);
+            githubHttpClient.getLastCommitForRepositoriesList(new JSONObject().put("items", new JSONArray().put(createRepository("A"))),
+                    new FileWriterJSON(), pathDirectory.toString(), "repositories.ndjson");
+
+            //the second run appends only the repository B
+            mockHttpClient = mock(CloseableHttpClient.class);
+            CloseableHttpResponse response2 = mockPageResponse("{\"sha\":\"2\"}", null);
+            when(mockHttpClient.execute((HttpGet) any())).thenReturn(response2);
+            githubHttpClient.setHttpClient(mockHttpClient);
+            githubHttpClient.getLastCommitForRepositoriesList(new JSONObject().put("items", new JSONArray().put(createRepository("A")).put(createRepository("B"))),
+                    new FileWriterJSON(), pathDirectory.toString(), "repositories.ndjson");
+            verify(mockHttpClient, times(1)).execute((HttpGet) any());
+
+            List<String> listLines = Files.readAllLines(pathFile);
+            assertEquals(2, listLines.size());
+            assertEquals("1", new JSONObject(listLines.get(0)).getJSONObject("last_commit").getString("sha"));
+            assertEquals("2", new JSONObject(listLines.get(1)).getJSONObject("last_commit").getString("sha"));
+        } finally {
+            FileUtils.deleteDirectory(pathDirectory.toFile());
+        }
+    }
+
+    @Test
+    public void testGetLastCommitForRepositoriesListResumesFromCheckpoint() throws IOException, URISyntaxException, InterruptedException {
+        Path pathFile = Files.createTempFile("repositories", ".ndjson");
+        Path pathJournal = Files.createTempFile("journal", ".ndjson");
+        String checkpointKeyB = "last_commit https://api.github.com/repos/octocat/B " + pathFile;
+        try {
+            //first run interrupted while the repository B was written
+            CloseableHttpClient mockHttpClient = mock(CloseableHttpClient.class);
+            CloseableHttpResponse response1 = mockPageResponse("{\"sha\":\"1\"}", null);
+            when(mockHttpClient.execute((HttpGet) any())).thenReturn(response1);
+            GithubHttpClient githubHttpClient = new GithubHttpClient();
+            githubHttpClient.setHttpClient(mockHttpClient);
+            try (CheckpointJournal checkpointJournal = new CheckpointJournal(pathJournal.toString());
+                 NDJSONWriter ndjsonWriter = new NDJSONWriter(pathFile, false)) {
+                githubHttpClient.getLastCommitForRepositoriesList(new JSONObject().put("items", new JSONArray().put(createRepository("A"))),
+                        ndjsonWriter, checkpointJournal);
+                checkpointJournal.recordPage(checkpointKeyB, "https://api.github.com/repos/octocat/B", ndjsonWriter.getPosition());
+                ndjsonWriter.writeItem(createRepository("B"));
+            }
+
+            //second run requests only the repository B and replaces the line not recorded
+            mockHttpClient = mock(CloseableHttpClient.class);
+            CloseableHttpResponse response2 = mockPageResponse("{\"sha\":\"2\"}", null);
+            when(mockHttpClient.execute((HttpGet) any())).thenReturn(response2);
+            githubHttpClient.setHttpClient(mockHttpClient);
+            try (CheckpointJournal checkpointJournal = new CheckpointJournal(pathJournal.toString());
+                 NDJSONWriter ndjsonWriter = new NDJSONWriter(pathFile, true)) {
+                githubHttpClient.getLastCommitForRepositoriesList(new JSONObject().put("items", new JSONArray().put(createRepository("A")).put(createRepository("B"))),
+                        ndjsonWriter, checkpointJournal);
+                assertTrue(checkpointJournal.isCompleted(checkpointKeyB));
+            }
+            verify(mockHttpClient, times(1)).execute((HttpGet) any());
+
+            List<String> listLines = Files.readAllLines(pathFile);
+            assertEquals(2, listLines.size());
+            assertEquals("2", new JSONObject(listLines.get(1)).getJSONObject("last_commit").getString("sha"));
+        } finally {
+            Files.deleteIfExists(pathFile);
+            Files.deleteIfExists(pathJournal);
+        }
+    }
+
+    @Test
+    public void testBuildCommitsWindowUrl() throws IOException {
+        GithubHttpClient githubHttpClient = new GithubHttpClient();
+        String url = githubHttpClient.buildCommitsWindowUrl("https://api.github.com/repos/octocat/Hello-World/commits{/sha}",
+                Instant.parse("2019-01-01T00:00:00Z"), Instant.parse("2019-06-30T23:59:59Z"), "develop", "src/Main.java");
+        assertEquals("https://api.github.com/repos/octocat/Hello-World/commits?per_page=100&since=2019-01-01T00%3A00%3A00Z"
+                + "&until=2019-06-30T23%3A59%3A59Z&sha=develop&path=src%2FMain.java", url);
+
+        assertEquals("https://api.github.com/repos/octocat/Hello-World/commits?per_page=10",
+                githubHttpClient.buildCommitsWindowUrl("https://api.github.com/repos/octocat/Hello-World/commits?per_page=10",
+                        null, null, null, ""));
+    }
+
+    /**
+     * Creates a page of commits with the given committer dates
+     */
+    private String commitsPage(String... dates){
+        JSONArray jsonArrayCommits = new JSONArray();
+        for (String date : dates) {
+            jsonArrayCommits.put(new JSONObject().put("sha", date)
+                    .put("commit", new JSONObject().put("committer", new JSONObject().put("date", date))));
+        }
+        return jsonArrayCommits.toString();
+    }
+
+    @Test
+    public void testGetCommitBoundedJsonStopsAtLowerBound() throws IOException, URISyntaxException, InterruptedException {
+        String urlPage = "https://api.github.com/repos/octocat/Hello-World/commits?page=";
+        CloseableHttpClient mockHttpClient = mock(CloseableHttpClient.class);
+        CloseableHttpResponse response1 = mockPageResponse(commitsPage("2019-03-01T00:00:00Z", "2019-02-01T00:00:00Z"),
+                "<" + urlPage + "2>; rel=\"next\", <" + urlPage + "3>; rel=\"last\"");
+        CloseableHttpResponse response2 = mockPageResponse(commitsPage("2019-01-01T00:00:00Z", "2018-12-31T23:59:59Z"),
+                "<" + urlPage + "3>; rel=\"next\", <" + urlPage + "3>; rel=\"last\"");
+        CloseableHttpResponse response3 = mockPageResponse(commitsPage("2018-06-01T00:00:00Z"), null);
+        when(mockHttpClient.execute((HttpGet) any())).thenReturn(response1).thenReturn(response2).thenReturn(response3);
+
+        GithubHttpClient githubHttpClient = new GithubHttpClient();
+        githubHttpClient.setHttpClient(mockHttpClient);
+
+        JSONObject jsonObject = githubHttpClient.getCommitBoundedJson(urlPage + "1", new JSONObject(),
+                "2019-01-01T00:00:00Z", "2019-02-15T00:00:00");
+        JSONArray jsonArrayCommits = jsonObject.getJSONArray("items");
+
+        //the commit after the upper bound and the commit before the lower bound are ignored, the bounds are inclusive
+        assertEquals(2, jsonArrayCommits.length());
+        assertEquals("2019-02-01T00:00:00Z", jsonArrayCommits.getJSONObject(0).getString("sha"));
+        assertEquals("2019-01-01T00:00:00Z", jsonArrayCommits.getJSONObject(1).getString("sha"));
+        //the third page is never requested
+        verify(mockHttpClient, times(2)).execute((HttpGet) any());
+    }
+
+    @Test
+    public void testGetCommitBoundedJsonRejectsInvertedWindow() {
+        GithubHttpClient githubHttpClient = new GithubHttpClient();
+        assertThrows(IllegalArgumentException.class, () -> githubHttpClient.getCommitBoundedJson(
+                "https://api.github.com/repos/octocat/Hello-World/commits", new JSONObject(),
+                "2019-02-01T00:00:00Z", "2019-01-01T00:00:00Z"));
+    }
+
+    @Test
+    public void testAppendCommitsBoundedToNDJSON() throws IOException, URISyntaxException, InterruptedException {
+        CloseableHttpClient mockHttpClient = mock(CloseableHttpClient.class);
+        CloseableHttpResponse response1 = mockPageResponse(commitsPage("2019-03-01T00:00:00Z", "2019-02-01T00:00:00Z"), null);
+        when(mockHttpClient.execute((HttpGet) any())).thenReturn(response1);
+
+        GithubHttpClient githubHttpClient = new GithubHttpClient();
+        githubHttpClient.setHttpClient(mockHttpClient);
+
+        Path pathFile = Files.createTempFile("commits", ".ndjson");
+        try {
+            try (NDJSONWriter ndjsonWriter = new NDJSONWriter(pathFile, false)) {
+                assertEquals(1, githubHttpClient.appendCommitsBoundedToNDJSON("https://api.github.com/repos/octocat/Hello-World/commits",
+                        "2019-02-15T00:00:00Z", null, null, null, ndjsonWriter));
+            }
+            List<String> listLines = Files.readAllLines(pathFile);
+            assertEquals(1, listLines.size());
+            assertEquals("2019-03-01T00:00:00Z", new JSONObject(listLines.get(0)).getString("sha"));
+        } finally {
+            Files.deleteIfExists(pathFile);
+        }
+    }
+
+    @Test
+    public void testAppendItemsToNDJSON() throws IOException, URISyntaxException, InterruptedException {
+        String urlPage = "https://api.github.com/repos/octocat/Hello-World/commits?page=";
+        CloseableHttpClient mockHttpClient = mock(CloseableHttpClient.class);
+        CloseableHttpResponse response1 = mockPageResponse("[{\"sha\":\"1\"},{\"sha\":\"2\"}]", "<" + urlPage + "2>; rel=\"next\", <" + urlPage + "2>; rel=\"last\"");
+        CloseableHttpResponse response2 = mockPageResponse("[{\"sha\":\"3\"}]", "<" + urlPage + "1>; rel=\"prev\", <" + urlPage + "1>; rel=\"first\"");
+        when(mockHttpClient.execute((HttpGet) any())).thenReturn(response1).thenReturn(response2);
+
+        GithubHttpClient githubHttpClient = new GithubHttpClient();
+        githubHttpClient.setHttpClient(mockHttpClient);
+
+        Path pathFile = Files.createTempFile("commits", ".ndjson");
+        try {
+            try (NDJSONWriter ndjsonWriter = new NDJSONWriter(pathFile, false)) {
+                assertEquals(3, githubHttpClient.appendItemsToNDJSON(urlPage + "1", GithubHttpClient.UNLIMITED_PAGES, ndjsonWriter));
+            }
+            List<String> listLines = Files.readAllLines(pathFile);
+            assertEquals(3, listLines.size());
+            assertEquals("3", new JSONObject(listLines.get(2)).getString("sha"));
+        } finally {
+            Files.deleteIfExists(pathFile);
+        }
+    }
+
+    @Test
+    public void testAppendItemsToNDJSONResumesFromCheckpoint() throws IOException, URISyntaxException, InterruptedException {
+        String urlPage = "https://api.github.com/repos/octocat/Hello-World/commits?page=";
+        Path pathFile = Files.createTempFile("commits", ".ndjson");
+        Path pathJournal = Files.createTempFile("journal", ".ndjson");
+        try {
+            //first run interrupted after the first page, the second page has been partially written
+            CloseableHttpClient mockHttpClient = mock(CloseableHttpClient.class);
+            CloseableHttpResponse response1 = mockPageResponse("[{\"sha\":\"1\"},{\"sha\":\"2\"}]", "<" + urlPage + "2>; rel=\"next\", <" + urlPage + "2>; rel=\"last\"");
+            when(mockHttpClient.execute((HttpGet) any())).thenReturn(response1);
+            GithubHttpClient githubHttpClient = new GithubHttpClient();
+            githubHttpClient.setHttpClient(mockHttpClient);
+            try (CheckpointJournal checkpointJournal = new CheckpointJournal(pathJournal.toString());
+                 NDJSONWriter ndjsonWriter = new NDJSONWriter(pathFile, false)) {
+                assertEquals(2, githubHttpClient.appendItemsToNDJSON("commits Hello-World", urlPage + "1", 1, ndjsonWriter, checkpointJournal));
+                ndjsonWriter.writeItem(new JSONObject().put("sha", "3"));
+                assertFalse(checkpointJournal.isCompleted("commits Hello-World"));
+            }
+
+            //second run requests only the second page and replaces the item not recorded
+            mockHttpClient = mock(CloseableHttpClient.class);
+            CloseableHttpResponse response2 = mockPageResponse("[{\"sha\":\"3\"}]", "<" + urlPage + "1>; rel=\"prev\", <" + urlPage + "1>; rel=\"first\"");
+            when(mockHttpClient.execute((HttpGet) any())).thenReturn(response2);
+            githubHttpClient.setHttpClient(mockHttpClient);
+            try (CheckpointJournal checkpointJournal = new CheckpointJournal(pathJournal.toString());
+                 NDJSONWriter ndjsonWriter = new NDJSONWriter(pathFile, true)) {
+                assertEquals(1, githubHttpClient.appendItemsToNDJSON("commits Hello-World", urlPage + "1", GithubHttpClient.UNLIMITED_PAGES, ndjsonWriter, checkpointJournal));
+                assertTrue(checkpointJournal.isCompleted("commits Hello-World"));
+                assertEquals(0, githubHttpClient.appendItemsToNDJSON("commits Hello-World", urlPage + "1", GithubHttpClient.UNLIMITED_PAGES, ndjsonWriter, checkpointJournal));
+            }
+            verify(mockHttpClient, times(1)).execute((HttpGet) any());
+
+            List<String> listLines = Files.readAllLines(pathFile);
+            assertEquals(3, listLines.size());
+            assertEquals("3", new JSONObject(listLines.get(2)).getString("sha"));
+        } finally {
+            Files.deleteIfExists(pathFile);
+            Files.deleteIfExists(pathJournal);
+        }
+    }
+
+    @Test
+    public void testForEachPageWithMaxPages() throws IOException, URISyntaxException, InterruptedException {
+        String urlPage = "https://api.github.com/repos/octocat/Hello-World/commits?page=";
+        CloseableHttpClient mockHttpClient = mock(CloseableHttpClient.class);
+        CloseableHttpResponse response1 = mockPageResponse("[{\"sha\":\"1\"}]", "<" + urlPage + "2>; rel=\"next\", <" + urlPage + "3>; rel=\"last\"");
+        CloseableHttpResponse response2 = mockPageResponse("[{\"sha\":\"2\"}]", "<" + urlPage + "1>; rel=\"prev\", <" + urlPage + "3>; rel=\"next\", <" + urlPage + "3>; rel=\"last\"");
+        when(mockHttpClient.execute((HttpGet) any())).thenReturn(response1).thenReturn(response2);
+
+        GithubHttpClient githubHttpClient = new GithubHttpClient();
+        githubHttpClient.setHttpClient(mockHttpClient);
+
+        JSONObject jsonAllItems = githubHttpClient.getRawTagCommitIssueJson(urlPage + "1", new JSONObject(), 2);
+
+        assertEquals(2, jsonAllItems.getJSONArray("items").length());
+        assertEquals("2", jsonAllItems.getJSONArray("items").getJSONArray(1).getJSONObject(0).getString("sha"));
+        verify(mockHttpClient, times(2)).execute((HttpGet) any());
+    }
+
+    @Test
+    public void testForEachPageStoppedByHandler() throws IOException, URISyntaxException, InterruptedException {
+        String urlPage = "https://api.github.com/repos/octocat/Hello-World/commits?page=";
+        CloseableHttpClient mockHttpClient = mock(CloseableHttpClient.class);
+        CloseableHttpResponse response1 = mockPageResponse("[{\"sha\":\"1\"}]", "<" + urlPage + "2>; rel=\"next\", <" + urlPage + "3>; rel=\"last\"");
+        when(mockHttpClient.execute((HttpGet) any())).thenReturn(response1);
+
+        GithubHttpClient githubHttpClient = new GithubHttpClient();
+        githubHttpClient.setHttpClient(mockHttpClient);
+
+        assertEquals(1, githubHttpClient.forEachPage(urlPage + "1", GithubHttpClient.UNLIMITED_PAGES, githubPage -> false));
+        verify(mockHttpClient, times(1)).execute((HttpGet) any());
+    }
+
+    @Test
+    public void testForEachPageParallelNominalCase() throws IOException, URISyntaxException, InterruptedException {
+        String urlPage = "https://api.github.com/repos/octocat/Hello-World/commits?per_page=1&page=";
+        int nbPages = 7;
+        CloseableHttpClient mockHttpClient = mock(CloseableHttpClient.class);
+        when(mockHttpClient.execute((HttpGet) any())).thenAnswer(invocation -> {
+            HttpGet httpGet = invocation.getArgument(0);
+            String uri = httpGet.getURI().toString();
+            int page = Integer.parseInt(uri.substring(uri.lastIndexOf("=") + 1));
+            String linkHeader = "<" + urlPage + nbPages + ">; rel=\"last\"";
+            if(page < nbPages)
+                linkHeader = "<" + urlPage + (page + 1) + ">; rel=\"next\", " + linkHeader;
+            return mockPageResponse("[{\"sha\":\"" + page + "\"}]", linkHeader);
+        });
+
+        GithubHttpClient githubHttpClient = new GithubHttpClient();
+        githubHttpClient.setHttpClient(mockHttpClient);
+
+        List<GithubPage> pagesReceived = new ArrayList<>();
+        int nbPagesRequested = githubHttpClient.forEachPageParallel(urlPage + "1", GithubHttpClient.UNLIMITED_PAGES, 3, githubPage -> pagesReceived.add(githubPage));
+
+        assertEquals(nbPages, nbPagesRequested);
+        for (int i = 0; i < nbPages; i++) {
+            assertEquals(Integer.toString(i + 1), pagesReceived.get(i).getBodyAsJSONArray().getJSONObject(0).getString("sha"));
+        }
+    }
+
+    @Test
+    public void testBuildPageUrlNominalCase(){
+        GithubHttpClient githubHttpClient = new GithubHttpClient();
+
+        assertEquals("https://api.github.com/repos/octocat/Hello-World/commits?page=12&per_page=100",
+                githubHttpClient.buildPageUrl("https://api.github.com/repos/octocat/Hello-World/commits?page=300&per_page=100", 12));
+        assertEquals("https://api.github.com/repos/octocat/Hello-World/commits?per_page=100&page=12",
+                githubHttpClient.buildPageUrl("https://api.github.com/repos/octocat/Hello-World/commits?per_page=100&page=300", 12));
+    }
+
+    @Test
+    public void testFetchPageWithResponseCacheNotModified() throws IOException, URISyntaxException, InterruptedException {
+        String url = "https://api.github.com/repos/octocat/Hello-World/commits";
+        String pathCacheDir = pathTmpDir + "/test-http-client-cache";
+        CloseableHttpClient mockHttpClient = mock(CloseableHttpClient.class);
+
+        CloseableHttpResponse responseOk = mockPageResponse("[{\"sha\":\"1\"}]", null);
+        when(responseOk.getFirstHeader("ETag")).thenReturn(new BasicHeader("ETag", "\"etag-1\""));
+
+        CloseableHttpResponse responseNotModified = mock(CloseableHttpResponse.class);
+        when(responseNotModified.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, HttpStatus.SC_NOT_MODIFIED, "Not Modified"));
+        when(responseNotModified.getFirstHeader("X-RateLimit-Reset")).thenReturn(new BasicHeader("X-RateLimit-Reset", "1646594047"));
+        when(responseNotModified.getFirstHeader("X-RateLimit-Remaining")).thenReturn(new BasicHeader("X-RateLimit-Remaining", "1000"));
+
+        List<String> ifNoneMatchSent = new ArrayList<>();
+        when(mockHttpClient.execute((HttpGet) any())).thenAnswer(invocation -> {
+            HttpGet httpGet = invocation.getArgument(0);
+            Header ifNoneMatch = httpGet.getFirstHeader("If-None-Match");
+            ifNoneMatchSent.add(ifNoneMatch == null ? null : ifNoneMatch.getValue());
+            return ifNoneMatch == null ? responseOk : responseNotModified;
+        });
+
+        GithubHttpClient githubHttpClient = new GithubHttpClient();
+        githubHttpClient.setHttpClient(mockHttpClient);
+        githubHttpClient.setResponseCache(new GithubResponseCache(pathCacheDir));
+
+        try {
+            GithubPage firstPage = githubHttpClient.fetchPage(url);
+            GithubPage secondPage = githubHttpClient.fetchPage(url);
+
+            assertNull(ifNoneMatchSent.get(0));
+            assertEquals("\"etag-1\"", ifNoneMatchSent.get(1));
+            assertEquals(firstPage.getBody(), secondPage.getBody());
+            assertEquals(Integer.valueOf(1000), secondPage.getRateLimitRemaining());
+        } finally {
+            FileUtils.deleteDirectory(new File(pathCacheDir));
+        }
+    }
+
+    @Test
+    public void testFetchPageWithSecondaryRateLimit() throws IOException, URISyntaxException, InterruptedException {
+        String url = "https://api.github.com/repos/octocat/Hello-World/commits";
+        CloseableHttpClient mockHttpClient = mock(CloseableHttpClient.class);
+
+        CloseableHttpResponse responseForbidden = mockPageResponse("{\"message\":\"You have exceeded a secondary rate limit.\"}", null);
+        when(responseForbidden.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, HttpStatus.SC_FORBIDDEN, "Forbidden"));
+        when(responseForbidden.getFirstHeader("Retry-After")).thenReturn(new BasicHeader("Retry-After", "1"));
+        CloseableHttpResponse responseOk = mockPageResponse("[{\"sha\":\"1\"}]", null);
+        when(mockHttpClient.execute((HttpGet) any())).thenReturn(responseForbidden).thenReturn(responseOk);
+
+        GithubHttpClient githubHttpClient = new GithubHttpClient();
+        githubHttpClient.setHttpClient(mockHttpClient);
+
+        GithubPage githubPage = githubHttpClient.fetchPage(url);
+
+        assertEquals("1", githubPage.getBodyAsJSONArray().getJSONObject(0).getString("sha"));
+        assertTrue(githubHttpClient.getGithubAPILimitManager().getTotalAppliedDelayMillis() >= 1000);
+        verify(mockHttpClient, times(2)).execute((HttpGet) any());
+    }
+
+    @Test
+    public void testFetchPageStillRateLimitedAfterAllAttempts() throws IOException {
+        String url = "https://api.github.com/repos/octocat/Hello-World/commits";
+        CloseableHttpClient mockHttpClient = mock(CloseableHttpClient.class);
+        List<CloseableHttpResponse> listResponses = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            CloseableHttpResponse responseTooManyRequests = mockPageResponse("{\"message\":\"You have exceeded a secondary rate limit.\"}", null);
+            when(responseTooManyRequests.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, 429, "Too Many Requests"));
+            when(responseTooManyRequests.getFirstHeader("Retry-After")).thenReturn(new BasicHeader("Retry-After", "0"));
+            listResponses.add(responseTooManyRequests);
+        }
+        when(mockHttpClient.execute((HttpGet) any())).thenReturn(listResponses.get(0), listResponses.subList(1, 5).toArray(new CloseableHttpResponse[0]));
+
+        GithubHttpClient githubHttpClient = new GithubHttpClient();
+        githubHttpClient.setHttpClient(mockHttpClient);
+
+        IOException exception = assertThrows(IOException.class, () -> githubHttpClient.fetchPage(url));
+        assertTrue(exception.getMessage().contains(url));
+        assertTrue(exception.getMessage().contains("429"));
+        verify(mockHttpClient, times(5)).execute((HttpGet) any());
+    }
+
     @Test
     public void testGetterAndSetterHttpClient(){
         GithubHttpClient githubHttpClient = new GithubHttpClient();
@@ -101,6 +562,19 @@ public class GithubHttpClientTest {
         assertEquals(closeableHttpClientExpected,githubHttpClient.getHttpClient());
     }
 
+    @Test
+    public void testSetHttpClientClosesPreviousClient() throws IOException {
+        GithubHttpClient githubHttpClient = new GithubHttpClient();
+        CloseableHttpClient mockHttpClientPrevious = mock(CloseableHttpClient.class);
+        CloseableHttpClient mockHttpClient = mock(CloseableHttpClient.class);
+        githubHttpClient.setHttpClient(mockHttpClientPrevious);
+
+        githubHttpClient.setHttpClient(mockHttpClient);
+        verify(mockHttpClientPrevious, times(1)).close();
+        githubHttpClient.setHttpClient(mockHttpClient);
+        verify(mockHttpClient, never()).close();
+    }
+
     @Test
     public void testGetLastCommitFromRepoNominalCase() throws URISyntaxException, IOException, InterruptedException {
         URL urlJsonFileLastCommit= Thread.currentThread().getContextClassLoader().getResource("json-commits-repo-octocat-helloworld.json");
@@ -0,0 +1,37 @@
+package fr.imt.ales.msr.GithubClient;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GithubHttpTransportTest {
+
+    @Test
+    public void testBuildNominalCase() throws IOException {
+        GithubHttpTransport githubHttpTransport = new GithubHttpTransport();
+        githubHttpTransport.setMaxConnectionsTotal(40);
+        githubHttpTransport.setMaxConnectionsPerRoute(16);
+        githubHttpTransport.setSocketTimeoutMillis(5000);
+        githubHttpTransport.setCompressionEnabled(false);
+
+        try (CloseableHttpClient closeableHttpClient = githubHttpTransport.build()) {
+            assertNotNull(closeableHttpClient);
+        }
+        assertEquals(40, githubHttpTransport.getMaxConnectionsTotal());
+        assertEquals(16, githubHttpTransport.getMaxConnectionsPerRoute());
+        assertEquals(5000, githubHttpTransport.getSocketTimeoutMillis());
+        assertFalse(githubHttpTransport.isCompressionEnabled());
+    }
+
+    @Test
+    public void testSettersWithInvalidValues(){
+        GithubHttpTransport githubHttpTransport = new GithubHttpTransport();
+
+        assertThrows(IllegalArgumentException.class, ()->{githubHttpTransport.setMaxConnectionsPerRoute(0);});
+        assertThrows(IllegalArgumentException.class, ()->{githubHttpTransport.setConnectTimeoutMillis(-1);});
+        assertThrows(IllegalArgumentException.class, ()->{githubHttpTransport.setUserAgent("");});
+    }
+}
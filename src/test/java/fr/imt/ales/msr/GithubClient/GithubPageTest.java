@@ -0,0 +1,35 @@
+package fr.imt.ales.msr.GithubClient;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URISyntaxException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GithubPageTest {
+    private final String URL_SEARCH = "https://api.github.com/search/repositories?q=Spring+created%3A%3E%3D2010-01-01+language%3Ajava&per_page=100&page=";
+
+    @Test
+    public void testParseLinkHeaderNominalCase() throws URISyntaxException {
+        String linkHeader = "<" + URL_SEARCH + "1>; rel=\"prev\", <" + URL_SEARCH + "3>; rel=\"next\", <" + URL_SEARCH + "34>; rel=\"last\", <" + URL_SEARCH + "1>; rel=\"first\"";
+        GithubPage githubPage = new GithubPage(URL_SEARCH + "2", "{}", linkHeader, 1646594047L, 12);
+
+        assertEquals(2, githubPage.getPageNumber());
+        assertEquals(34, githubPage.getLastPageNumber());
+        assertEquals(URL_SEARCH + "3", githubPage.getNextPageUrl());
+        assertEquals(URL_SEARCH + "34", githubPage.getLastPageUrl());
+        assertTrue(githubPage.hasNextPage());
+        assertFalse(githubPage.isFirstPage());
+    }
+
+    @Test
+    public void testParseLinkHeaderWithoutLinkHeader() throws URISyntaxException {
+        GithubPage githubPage = new GithubPage("https://api.github.com/repos/octocat/Hello-World", "{}", null, 1646594047L, 12);
+
+        assertEquals(1, githubPage.getPageNumber());
+        assertEquals(1, githubPage.getLastPageNumber());
+        assertNull(githubPage.getNextPageUrl());
+        assertFalse(githubPage.hasNextPage());
+        assertTrue(githubPage.isFirstPage());
+    }
+}
@@ -0,0 +1,60 @@
+package fr.imt.ales.msr.GithubClient;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GithubResponseCacheTest {
+    private final String URL_COMMITS = "https://api.github.com/repos/octocat/Hello-World/commits?page=2";
+    private String pathTmpDir;
+
+    @BeforeEach
+    public void setUp(){
+        pathTmpDir = System.getProperty("java.io.tmpdir") + "/test-response-cache";
+    }
+
+    @Test
+    public void testPutAndGetNominalCase() throws IOException {
+        GithubResponseCache githubResponseCache = new GithubResponseCache(pathTmpDir);
+        githubResponseCache.put(new GithubResponseCache.CachedResponse(URL_COMMITS, "W/\"1234\"",
+                "<https://api.github.com/repos/octocat/Hello-World/commits?page=3>; rel=\"next\"", 1646594047L, 42, "[{\"sha\":\"\u00e9\"}]"));
+
+        GithubResponseCache.CachedResponse cachedResponse = new GithubResponseCache(pathTmpDir).get(URL_COMMITS);
+
+        assertNotNull(cachedResponse);
+        assertEquals("W/\"1234\"", cachedResponse.getEtag());
+        assertEquals("<https://api.github.com/repos/octocat/Hello-World/commits?page=3>; rel=\"next\"", cachedResponse.getLinkHeaderValue());
+        assertEquals(Long.valueOf(1646594047L), cachedResponse.getRateLimitReset());
+        assertEquals(Integer.valueOf(42), cachedResponse.getRateLimitRemaining());
+        assertEquals("[{\"sha\":\"\u00e9\"}]", cachedResponse.getBody());
+    }
+
+    @Test
+    public void testGetWithUnknownUrl() throws IOException {
+        GithubResponseCache githubResponseCache = new GithubResponseCache(pathTmpDir);
+
+        assertNull(githubResponseCache.get(URL_COMMITS));
+    }
+
+    @Test
+    public void testPutWithoutLinkAndRateLimit() throws IOException {
+        GithubResponseCache githubResponseCache = new GithubResponseCache(pathTmpDir);
+        githubResponseCache.put(new GithubResponseCache.CachedResponse(URL_COMMITS, "\"abcd\"", null, null, null, "{}"));
+
+        GithubResponseCache.CachedResponse cachedResponse = githubResponseCache.get(URL_COMMITS);
+        assertNull(cachedResponse.getLinkHeaderValue());
+        assertNull(cachedResponse.getRateLimitReset());
+        assertNull(cachedResponse.getRateLimitRemaining());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(new File(pathTmpDir));
+    }
+}
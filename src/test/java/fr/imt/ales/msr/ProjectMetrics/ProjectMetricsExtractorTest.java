@@ -0,0 +1,92 @@
+package fr.imt.ales.msr.ProjectMetrics;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProjectMetricsExtractorTest {
+    private final String XML_BEANS_CONFIG = "<beans>\n  <bean id=\"a\"/> <bean id=\"b\"/>\n  <beanx/>\n</beans>\n";
+    private final String JAVA_BEANS_CONFIG = "@Configuration\npublic class Config {\n  @Bean A a(){}\n  @Bean B b(){}\n  @BeanFactory C c(){}\n}\n";
+    private String pathTmpDir;
+    private String pathProject;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        pathTmpDir = System.getProperty("java.io.tmpdir") + "/test-project-metrics";
+        pathProject = pathTmpDir + "/owner/project";
+
+        writeFile("src/main/resources/context.xml", XML_BEANS_CONFIG);
+        writeFile("src/main/resources/pom-like.xml", "<project><bean/></project>");
+        writeFile("src/main/java/Config.java", JAVA_BEANS_CONFIG);
+        writeFile("src/main/java/Service.java", "public class Service { @Bean A a(){} }");
+        writeFile("src/test/java/TestConfig.java", JAVA_BEANS_CONFIG);
+        writeFile("src/test/resources/context.xml", XML_BEANS_CONFIG);
+    }
+
+    @Test
+    public void testExtractFromDirectoryNominalCase() throws IOException {
+        ProjectMetrics projectMetrics = new ProjectMetricsExtractor().extractFromDirectory("owner/project", pathProject);
+
+        assertEquals(1, projectMetrics.getNbXMLFilesBeansConfig());
+        assertEquals(1, projectMetrics.getNbJavaFilesBeansConfig());
+        assertEquals(2, projectMetrics.getNbTotalFilesBeansConfig());
+        assertEquals(3, projectMetrics.getNbXMLBeans());
+        assertEquals(3, projectMetrics.getNbJavaBeans());
+        assertEquals(6, projectMetrics.getNbTotalBeans());
+    }
+
+    @Test
+    public void testExtractFromCommitNominalCase() throws IOException, GitAPIException {
+        String sha;
+        try (Git git = Git.init().setDirectory(new File(pathProject)).call()){
+            git.add().addFilepattern(".").call();
+            sha = git.commit().setMessage("Initial commit").setAuthor("test", "test@test.com").call().getName();
+        }
+        //the working tree is not read
+        FileUtils.deleteDirectory(new File(pathProject + "/src"));
+
+        ProjectMetrics projectMetrics = new ProjectMetricsExtractor().extractFromCommit("owner/project", pathProject, sha);
+
+        assertEquals(1, projectMetrics.getNbXMLFilesBeansConfig());
+        assertEquals(1, projectMetrics.getNbJavaFilesBeansConfig());
+        assertEquals(3, projectMetrics.getNbXMLBeans());
+        assertEquals(3, projectMetrics.getNbJavaBeans());
+    }
+
+    @Test
+    public void testCreateReportsProjectsNominalCase() throws IOException {
+        List<ProjectMetrics> listProjectMetrics = new ProjectMetricsExtractor().createReportsProjects(pathTmpDir);
+
+        assertEquals(1, listProjectMetrics.size());
+        File fileReport = new File(pathProject, ProjectMetricsExtractor.REPORT_FILENAME);
+        List<String> listLines = Files.readAllLines(fileReport.toPath());
+        assertEquals(ProjectMetrics.CSV_HEADER, listLines.get(0));
+        assertEquals("owner/project," + new File(pathProject).getAbsolutePath() + ",1,1,2,3,3,6", listLines.get(1));
+
+        List<String> listProjects = Files.readAllLines(new File(pathTmpDir, ProjectMetricsExtractor.PROJECTS_LIST_FILENAME).toPath());
+        assertEquals(1, listProjects.size());
+    }
+
+    /**
+     * Writes a file of the test project
+     */
+    private void writeFile(String relativePath, String content) throws IOException {
+        FileUtils.writeStringToFile(new File(pathProject, relativePath), content, Charset.forName("UTF-8"));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(new File(pathTmpDir));
+    }
+}
@@ -0,0 +1,178 @@
+package fr.imt.ales.msr.RawDataFilters;
+
+import fr.imt.ales.msr.FileWritersReaders.FileReaderJSON;
+import org.apache.commons.io.FileUtils;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchFilterTest {
+    private String pathTmpDir;
+    private String pathOutputDir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        pathTmpDir = System.getProperty("java.io.tmpdir") + "/test-batch-filter";
+        pathOutputDir = pathTmpDir + "/filtered";
+        FileUtils.deleteDirectory(new File(pathTmpDir));
+        Files.createDirectories(Paths.get(pathOutputDir));
+
+        for (int i = 0; i < 6; i++) {
+            StringBuilder stringBuilder = new StringBuilder("{\"total_count\":3,\"items\":[");
+            for (int j = 0; j < 3; j++) {
+                stringBuilder.append(j > 0 ? "," : "").append("{\"sha\":\"").append(i).append('-').append(j)
+                        .append("\",\"commit\":{\"committer\":{\"date\":\"2019-01-0").append(j + 1).append("T00:00:00Z\",\"name\":\"n\"}},\"url\":\"u\"}");
+            }
+            stringBuilder.append("]}");
+            Files.write(Paths.get(pathTmpDir, "repo" + i + "_commits.json"), stringBuilder.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(Paths.get(pathTmpDir, "repo0_raw.json"), "{\"items\":[]}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(new File(pathTmpDir));
+    }
+
+    @Test
+    public void testFilterFieldsOneOutputPerFile() throws IOException, URISyntaxException {
+        BatchFilter batchFilter = new BatchFilter(new RawDataFilter());
+        batchFilter.setNbParallelFilters(3);
+        List<String> listPathFiles = BatchFilter.listFiles(pathTmpDir, "*_commits.json");
+        assertEquals(6, listPathFiles.size());
+
+        List<FilterResult> listFilterResults = batchFilter.filterFields(listPathFiles, Arrays.asList("sha", "commit.committer.date"), pathOutputDir, "_filtered.json");
+        assertEquals(6, listFilterResults.size());
+        for (int i = 0; i < 6; i++) {
+            FilterResult filterResult = listFilterResults.get(i);
+            assertTrue(filterResult.isSuccess());
+            assertEquals(3, filterResult.getNbItems());
+            assertEquals(Paths.get(pathOutputDir, "repo" + i + "_commits_filtered.json").toString(), filterResult.getPathOutputFile());
+
+            JSONObject jsonObjectFiltered = new FileReaderJSON().readJSONFile(filterResult.getPathOutputFile());
+            assertEquals("{\"commit\":{\"committer\":{\"date\":\"2019-01-01T00:00:00Z\"}},\"sha\":\"" + i + "-0\"}",
+                    jsonObjectFiltered.getJSONArray("items").getJSONObject(0).toString());
+        }
+    }
+
+    @Test
+    public void testFilterJsonPathReportsFailedWrite() throws IOException {
+        //a non empty directory in place of the output file of repo1 : the file cannot be written
+        Files.createDirectories(Paths.get(pathOutputDir, "repo1_commits_sha.json", "child"));
+        BatchFilter batchFilter = new BatchFilter(new RawDataFilter());
+        List<String> listPathFiles = Arrays.asList(Paths.get(pathTmpDir, "repo0_commits.json").toString(),
+                Paths.get(pathTmpDir, "repo1_commits.json").toString());
+
+        List<FilterResult> listFilterResults = batchFilter.filterJsonPath(listPathFiles, "$..sha", pathOutputDir, "_sha.json");
+        assertTrue(listFilterResults.get(0).isSuccess());
+        assertFalse(listFilterResults.get(1).isSuccess());
+        assertTrue(listFilterResults.get(1).getError() instanceof IOException);
+    }
+
+    @Test
+    public void testFilterFieldsMergedKeepsOrderOfFiles() throws IOException {
+        BatchFilter batchFilter = new BatchFilter(new RawDataFilter());
+        List<String> listPathFiles = BatchFilter.listFiles(pathTmpDir, "*_commits.json");
+
+        assertEquals(18, batchFilter.filterFieldsMerged(listPathFiles, Arrays.asList("sha"), pathOutputDir, "commits.ndjson"));
+        List<String> listLines = Files.readAllLines(Paths.get(pathOutputDir, "commits.ndjson"), StandardCharsets.UTF_8);
+        assertEquals(18, listLines.size());
+        for (int i = 0; i < 18; i++) {
+            assertEquals("{\"sha\":\"" + (i / 3) + "-" + (i % 3) + "\"}", listLines.get(i));
+        }
+        //the parts are deleted
+        assertEquals(1, new File(pathOutputDir).listFiles().length);
+    }
+
+    @Test
+    public void testFilterJsonPathMerged() throws IOException, URISyntaxException {
+        BatchFilter batchFilter = new BatchFilter(new RawDataFilter());
+        List<String> listPathFiles = BatchFilter.listFiles(pathTmpDir, "*.json");
+        assertEquals(7, listPathFiles.size());
+
+        assertEquals(18, batchFilter.filterJsonPathMerged(listPathFiles, "$.items[*].sha", pathOutputDir, "shas.json"));
+        JSONArray jsonArrayShas = new FileReaderJSON().readJSONFile(pathOutputDir + "/shas.json").getJSONArray("items");
+        assertEquals("0-0", jsonArrayShas.getString(0));
+        assertEquals("5-2", jsonArrayShas.getString(17));
+    }
+
+    @Test
+    public void testFailedFileDoesNotStopTheBatch() throws IOException {
+        BatchFilter batchFilter = new BatchFilter(new RawDataFilter());
+        Files.write(Paths.get(pathTmpDir, "repo9_commits.json"), "{\"items\":[{\"sha\":".getBytes(StandardCharsets.UTF_8));
+        List<String> listPathFiles = BatchFilter.listFiles(pathTmpDir, "*_commits.json");
+
+        List<FilterResult> listFilterResults = batchFilter.filterFields(listPathFiles, Arrays.asList("sha"), pathOutputDir, "_filtered.ndjson");
+        assertEquals(7, listFilterResults.size());
+        for (int i = 0; i < 6; i++) {
+            assertTrue(listFilterResults.get(i).isSuccess());
+        }
+        assertFalse(listFilterResults.get(6).isSuccess());
+
+        assertThrows(IOException.class, () -> batchFilter.filterFieldsMerged(listPathFiles, Arrays.asList("sha"), pathOutputDir, "merged.ndjson"));
+    }
+
+    @Test
+    public void testFilterFieldsWithSameOutputNames() throws IOException {
+        Files.copy(Paths.get(pathTmpDir, "repo0_commits.json"), Paths.get(pathTmpDir, "repo0_commits.ndjson"));
+        BatchFilter batchFilter = new BatchFilter(new RawDataFilter());
+        List<String> listPathFiles = Arrays.asList(Paths.get(pathTmpDir, "repo0_commits.json").toString(),
+                Paths.get(pathTmpDir, "repo0_commits.ndjson").toString());
+
+        assertThrows(IllegalArgumentException.class, () -> batchFilter.filterFields(listPathFiles, Arrays.asList("sha"), pathOutputDir, "_filtered.json"));
+        assertEquals(0, new File(pathOutputDir).listFiles().length);
+    }
+
+    @Test
+    public void testFilterFieldsOverInputFiles() throws IOException {
+        BatchFilter batchFilter = new BatchFilter(new RawDataFilter());
+        List<String> listPathFiles = BatchFilter.listFiles(pathTmpDir, "*_commits.json");
+        byte[] bytesInput = Files.readAllBytes(Paths.get(listPathFiles.get(0)));
+
+        //"repo0_commits.json" is filtered in "repo0_commits.json" of the same directory
+        assertThrows(IllegalArgumentException.class, () -> batchFilter.filterFields(listPathFiles, Arrays.asList("sha"), pathTmpDir + "/filtered/..", ".json"));
+        assertArrayEquals(bytesInput, Files.readAllBytes(Paths.get(listPathFiles.get(0))));
+    }
+
+    @Test
+    public void testInterruptedFilterReportsAllFiles() throws IOException {
+        BatchFilter batchFilter = new BatchFilter(new RawDataFilter());
+        List<String> listPathFiles = BatchFilter.listFiles(pathTmpDir, "*_commits.json");
+
+        Thread.currentThread().interrupt();
+        List<FilterResult> listFilterResults = batchFilter.filterFields(listPathFiles, Arrays.asList("sha"), pathOutputDir, "_filtered.json");
+        //the interrupt flag is restored, Thread.interrupted clears it for the next tests
+        assertTrue(Thread.interrupted());
+
+        assertEquals(6, listFilterResults.size());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(listPathFiles.get(i), listFilterResults.get(i).getPathInputFile());
+        }
+        assertFalse(listFilterResults.get(5).isSuccess());
+        assertTrue(listFilterResults.get(5).getError() instanceof InterruptedException);
+    }
+
+    @Test
+    public void testGetOutputFilename() {
+        assertEquals("repo_raw_filtered.json", BatchFilter.getOutputFilename("/data/repo_raw.json", "_filtered.json"));
+        assertEquals("repo_commits_filtered.ndjson", BatchFilter.getOutputFilename("/data/repo_commits.ndjson.gz", "_filtered.ndjson"));
+        assertEquals("README_filtered.json", BatchFilter.getOutputFilename("README", "_filtered.json"));
+    }
+}
@@ -0,0 +1,69 @@
+package fr.imt.ales.msr.RawDataFilters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DuplicateFilterTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    public void testMurmurHash3KnownValues() {
+        long[] hash = new long[2];
+
+        DuplicateFilter.murmurHash3("hello".getBytes(StandardCharsets.UTF_8), hash);
+        assertEquals(0xcbd8a7b341bd9b02L, hash[0]);
+        assertEquals(0x5b1e906a48ae1d19L, hash[1]);
+
+        DuplicateFilter.murmurHash3(new byte[0], hash);
+        assertEquals(0L, hash[0]);
+        assertEquals(0L, hash[1]);
+    }
+
+    @Test
+    public void testContentKeyIgnoresFieldOrder() throws IOException {
+        DuplicateFilter duplicateFilter = new DuplicateFilter(DuplicateFilter.KeyStrategy.CONTENT);
+
+        assertTrue(duplicateFilter.add(OBJECT_MAPPER.readTree("{\"id\":1,\"owner\":{\"login\":\"a\",\"type\":\"User\"}}")));
+        assertFalse(duplicateFilter.add(OBJECT_MAPPER.readTree("{\"owner\":{\"type\":\"User\",\"login\":\"a\"},\"id\":1}")));
+        assertTrue(duplicateFilter.add(OBJECT_MAPPER.readTree("{\"id\":1,\"owner\":{\"login\":\"b\",\"type\":\"User\"}}")));
+        assertTrue(duplicateFilter.add(OBJECT_MAPPER.readTree("[1,2]")));
+        assertTrue(duplicateFilter.add(OBJECT_MAPPER.readTree("[2,1]")));
+        assertTrue(duplicateFilter.add(OBJECT_MAPPER.readTree("\"1\"")));
+        assertTrue(duplicateFilter.add(OBJECT_MAPPER.readTree("1")));
+        assertFalse(duplicateFilter.add(OBJECT_MAPPER.readTree("1")));
+        assertEquals(6, duplicateFilter.size());
+    }
+
+    @Test
+    public void testIdentifierKey() throws IOException {
+        DuplicateFilter duplicateFilter = new DuplicateFilter(DuplicateFilter.KeyStrategy.IDENTIFIER);
+
+        assertTrue(duplicateFilter.add(OBJECT_MAPPER.readTree("{\"id\":1,\"title\":\"first\"}")));
+        assertFalse(duplicateFilter.add(OBJECT_MAPPER.readTree("{\"id\":1,\"title\":\"updated\"}")));
+        assertTrue(duplicateFilter.add(OBJECT_MAPPER.readTree("{\"sha\":\"1\"}")));
+        //the items without identifier are compared on their content
+        assertTrue(duplicateFilter.add(OBJECT_MAPPER.readTree("{\"title\":\"no id\"}")));
+        assertFalse(duplicateFilter.add(OBJECT_MAPPER.readTree("{\"title\":\"no id\"}")));
+        assertTrue(duplicateFilter.add(OBJECT_MAPPER.readTree("{\"id\":null,\"title\":\"no id\"}")));
+    }
+
+    @Test
+    public void testManyDistinctItems() throws IOException {
+        DuplicateFilter duplicateFilter = new DuplicateFilter(DuplicateFilter.KeyStrategy.IDENTIFIER);
+
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(duplicateFilter.add(OBJECT_MAPPER.readTree("{\"id\":" + i + "}")));
+        }
+        for (int i = 0; i < 100000; i += 7) {
+            assertFalse(duplicateFilter.add(OBJECT_MAPPER.readTree("{\"id\":" + i + "}")));
+        }
+        assertEquals(100000, duplicateFilter.size());
+    }
+}
@@ -0,0 +1,102 @@
+package fr.imt.ales.msr.RawDataFilters;
+
+import fr.imt.ales.msr.FileWritersReaders.FileWriterJSON;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IssueFilterTest {
+    private Path pathTmpDir;
+    private Path pathIssuesFile;
+    private Path pathTitlesFile;
+
+    /**
+     * Creates an issue as returned by the Github API
+     */
+    private static JSONObject createIssue(String title, String state, String createdAt, String... labels){
+        JSONArray jsonArrayLabels = new JSONArray();
+        for (String label : labels) {
+            jsonArrayLabels.put(new JSONObject().put("id", label.hashCode()).put("name", label).put("color", "fc2929"));
+        }
+        return new JSONObject().put("title", title).put("labels", jsonArrayLabels).put("state", state)
+                .put("created_at", createdAt == null ? JSONObject.NULL : createdAt)
+                .put("user", new JSONObject().put("login", "octocat"));
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        pathTmpDir = Files.createTempDirectory("issues");
+        JSONArray page1 = new JSONArray()
+                .put(createIssue("Crash at startup", "open", "2019-01-10T08:00:00Z", "type-bug", "priority-high"))
+                .put(createIssue("Minor glitch", "closed", "2019-01-20T08:00:00Z", "type-bug-minor"))
+                .put(createIssue("Add a dark theme", "open", "2019-02-10T08:00:00Z", "enhancement"));
+        JSONArray page2 = new JSONArray()
+                .put(createIssue("Memory leak \u00e9", "closed", null, "type-bug"))
+                .put(new JSONObject().put("labels", new JSONArray().put("type-bug")).put("title", "Labels as names"));
+        new FileWriterJSON().writeJsonFile(new JSONObject().put("items", new JSONArray().put(page1).put(page2)),
+                pathTmpDir.toString(), "issues.json");
+        pathIssuesFile = pathTmpDir.resolve("issues.json");
+        pathTitlesFile = pathTmpDir.resolve("titles.txt");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(pathIssuesFile);
+        Files.deleteIfExists(pathTitlesFile);
+        Files.deleteIfExists(pathTmpDir);
+    }
+
+    /**
+     * Writes the titles selected by a filter and reads them back
+     */
+    private List<String> filterTitles(IssueFilter issueFilter) throws IOException {
+        long nbTitles = new RawDataFilter().filterIssuesTitleFromJSONFile(pathIssuesFile.toString(), issueFilter, pathTitlesFile.toString());
+        List<String> listTitles = Files.readAllLines(pathTitlesFile, StandardCharsets.UTF_8);
+        assertEquals(listTitles.size(), nbTitles);
+        return listTitles;
+    }
+
+    @Test
+    public void testLabelsMatchExactly() throws IOException {
+        assertEquals(Arrays.asList("Crash at startup", "Memory leak \u00e9", "Labels as names"), filterTitles(IssueFilter.bugs()));
+        assertEquals(Arrays.asList("Minor glitch", "Add a dark theme"),
+                filterTitles(new IssueFilter(Arrays.asList("type-bug-minor", "enhancement"))));
+        assertEquals(5, filterTitles(new IssueFilter(Collections.emptyList())).size());
+    }
+
+    @Test
+    public void testStateAndCreationWindow() throws IOException {
+        IssueFilter issueFilter = IssueFilter.bugs();
+        issueFilter.setState("closed");
+        assertEquals(Collections.singletonList("Memory leak \u00e9"), filterTitles(issueFilter));
+
+        issueFilter = new IssueFilter(Collections.emptyList());
+        issueFilter.setCreationWindow(Instant.parse("2019-01-10T08:00:00Z"), Instant.parse("2019-01-20T08:00:00Z"));
+        //the bounds are included, the issues without creation date are rejected
+        assertEquals(Arrays.asList("Crash at startup", "Minor glitch"), filterTitles(issueFilter));
+
+        issueFilter.setState("open");
+        assertEquals(Collections.singletonList("Crash at startup"), filterTitles(issueFilter));
+    }
+
+    @Test
+    public void testInvertedCreationWindow() {
+        IssueFilter issueFilter = IssueFilter.bugs();
+        assertThrows(IllegalArgumentException.class,
+                () -> issueFilter.setCreationWindow(Instant.parse("2019-02-01T00:00:00Z"), Instant.parse("2019-01-01T00:00:00Z")));
+    }
+}
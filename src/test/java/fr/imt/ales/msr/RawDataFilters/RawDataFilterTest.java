@@ -1,12 +1,22 @@
 package fr.imt.ales.msr.RawDataFilters;
 
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.Option;
+import com.jayway.jsonpath.spi.json.JacksonJsonNodeJsonProvider;
+import fr.imt.ales.msr.FileWritersReaders.FileReaderJSON;
 import fr.imt.ales.msr.RawDataFilters.RawDataFilter;
+import org.apache.commons.io.FileUtils;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.Charset;
@@ -17,13 +27,17 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class RawDataFilterTest {
     private String fileContentJsonObjectExpected;
     private String pathToJsonFileTestRawData;
+    private String pathTmpDir;
 
     @BeforeEach
     public void setUp() throws URISyntaxException, IOException {
+        pathTmpDir = Files.createTempDirectory("raw-data-filter").toString();
+
         URL urlJsonFileRaw = Thread.currentThread().getContextClassLoader().getResource("json-example.json");
         pathToJsonFileTestRawData = urlJsonFileRaw.getPath();
 
@@ -31,6 +45,11 @@ public class RawDataFilterTest {
         fileContentJsonObjectExpected = new String(Files.readAllBytes(Paths.get(urlJsonFileExpected.toURI())), Charset.forName("UTF-8"));
     }
 
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(new File(pathTmpDir));
+    }
+
     @Test
     public void testExtractSpecificFieldsFromJSONFileNominalCase() throws IOException, URISyntaxException {
         RawDataFilter rawDataFilter = new RawDataFilter();
@@ -82,6 +101,119 @@ public class RawDataFilterTest {
         assertEquals(new JSONObject(fileContentJsonObjectExpected).toString(2),jsonObjectActual.toString(2));
     }
 
+    @Test
+    public void testExtractSameResultAsStringRoundTrip() throws IOException, URISyntaxException {
+        RawDataFilter rawDataFilter = new RawDataFilter();
+        JSONObject jsonObjectRaw = new FileReaderJSON().readJSONFile(pathToJsonFileTestRawData);
+        jsonObjectRaw.getJSONArray("items").getJSONObject(0)
+                .put("score", 2.0).put("ratio", 1.5).put("big", 12345678901234L).put("huge", new BigDecimal("1.50"))
+                .put("flag", true).put("nothing", JSONObject.NULL);
+        Configuration confJsonPath = Configuration.builder().jsonProvider(new JacksonJsonNodeJsonProvider())
+                .options(Option.ALWAYS_RETURN_LIST, Option.SUPPRESS_EXCEPTIONS).build();
+
+        for (String jsonPathExpr : new String[]{"$..['score','ratio','big','huge','flag','nothing','owner']", "$.items[*].owner", "$.total_count"}) {
+            //result of the previous implementation, through the text of the documents
+            ArrayNode arrayNodeExpected = JsonPath.using(confJsonPath).parse(jsonObjectRaw.toString()).read(jsonPathExpr);
+            JSONArray jsonArrayExpected = new JSONArray(arrayNodeExpected.toString());
+
+            for (int i = 0; i < 2; i++) {
+                JSONObject jsonObjectActual = rawDataFilter.extract(jsonPathExpr, jsonObjectRaw);
+                assertEquals(jsonArrayExpected.length(), jsonObjectActual.getInt("total_count"));
+                assertEquals(jsonArrayExpected.toString(), jsonObjectActual.getJSONArray("items").toString());
+            }
+        }
+    }
+
+    @Test
+    public void testProjectFieldsFromJSONFileNestedPaths() throws IOException, URISyntaxException {
+        RawDataFilter rawDataFilter = new RawDataFilter();
+        String commits = "{\"total_count\":3,\"items\":[["
+                + "{\"sha\":\"a1\",\"commit\":{\"author\":{\"name\":\"x\"},\"committer\":{\"name\":\"y\",\"date\":\"2019-01-02T00:00:00Z\"}},"
+                + "\"labels\":[{\"id\":1,\"name\":\"bug\"},{\"id\":2},[{\"name\":\"nested\"}],\"scalar\"]},"
+                + "{\"sha\":\"b2\",\"commit\":{\"author\":{\"name\":\"z\"}},\"labels\":[]}],"
+                + "[{\"url\":\"no field selected\"}]]}";
+        Files.write(Paths.get(pathTmpDir, "commits-to-project.json"), commits.getBytes(Charset.forName("UTF-8")));
+
+        List<String> fieldPaths = new ArrayList<>();
+        fieldPaths.add("sha");
+        fieldPaths.add("commit.committer.date");
+        fieldPaths.add("labels.name");
+
+        assertEquals(2, rawDataFilter.projectFieldsFromJSONFile(pathTmpDir + "/commits-to-project.json", fieldPaths, pathTmpDir, "commits-projected.json"));
+        JSONObject jsonObjectActual = new FileReaderJSON().readJSONFile(pathTmpDir + "/commits-projected.json");
+        assertEquals(2, jsonObjectActual.getInt("total_count"));
+        assertEquals(new JSONArray("[{\"sha\":\"a1\",\"commit\":{\"committer\":{\"date\":\"2019-01-02T00:00:00Z\"}},"
+                        + "\"labels\":[{\"name\":\"bug\"},[{\"name\":\"nested\"}]]},{\"sha\":\"b2\"}]").toString(),
+                jsonObjectActual.getJSONArray("items").toString());
+
+        //NDJSON to NDJSON, one projected item per line
+        Files.write(Paths.get(pathTmpDir, "commits-to-project.ndjson"),
+                ("{\"sha\":\"c3\",\"commit\":{\"committer\":{\"date\":\"2019-03-04T00:00:00Z\",\"email\":\"e\"}}}\n"
+                        + "{\"url\":\"u\"}\n{\"sha\":\"d4\"}\n").getBytes(Charset.forName("UTF-8")));
+        assertEquals(2, rawDataFilter.projectFieldsFromJSONFile(pathTmpDir + "/commits-to-project.ndjson", fieldPaths, pathTmpDir, "commits-projected.ndjson"));
+        assertEquals("{\"sha\":\"c3\",\"commit\":{\"committer\":{\"date\":\"2019-03-04T00:00:00Z\"}}}\n{\"sha\":\"d4\"}\n",
+                new String(Files.readAllBytes(Paths.get(pathTmpDir, "commits-projected.ndjson")), Charset.forName("UTF-8")));
+    }
+
+    @Test
+    public void testProjectFieldsFromJSONFileSelectsWholeValue() throws IOException, URISyntaxException {
+        RawDataFilter rawDataFilter = new RawDataFilter();
+
+        List<String> fieldPaths = new ArrayList<>();
+        fieldPaths.add("owner");
+        fieldPaths.add("owner.login");
+        fieldPaths.add("git_url");
+
+        JSONObject jsonObjectRaw = new FileReaderJSON().readJSONFile(pathToJsonFileTestRawData);
+        long nbItems = rawDataFilter.projectFieldsFromJSONFile(pathToJsonFileTestRawData, fieldPaths, pathTmpDir, "repositories-projected.json.gz");
+        assertEquals(jsonObjectRaw.getJSONArray("items").length(), nbItems);
+
+        JSONObject jsonObjectActual = new FileReaderJSON().readJSONFile(pathTmpDir + "/repositories-projected.json.gz");
+        for (int i = 0; i < nbItems; i++) {
+            JSONObject itemRaw = jsonObjectRaw.getJSONArray("items").getJSONObject(i);
+            JSONObject itemActual = jsonObjectActual.getJSONArray("items").getJSONObject(i);
+            assertEquals(2, itemActual.length());
+            assertEquals(itemRaw.getString("git_url"), itemActual.getString("git_url"));
+            assertEquals(itemRaw.getJSONObject("owner").toString(), itemActual.getJSONObject("owner").toString());
+        }
+    }
+
+    @Test
+    public void testProjectFieldsFromJSONFileOverItsInput() throws IOException {
+        RawDataFilter rawDataFilter = new RawDataFilter();
+        String commits = "{\"total_count\":1,\"items\":[{\"sha\":\"a1\",\"url\":\"u\"}]}";
+        Files.write(Paths.get(pathTmpDir, "commits.json"), commits.getBytes(Charset.forName("UTF-8")));
+        List<String> fieldPaths = new ArrayList<>();
+        fieldPaths.add("sha");
+
+        assertThrows(IllegalArgumentException.class, () -> rawDataFilter.projectFieldsFromJSONFile(pathTmpDir + "/commits.json", fieldPaths, pathTmpDir + "/", "./commits.json"));
+        assertEquals(commits, new String(Files.readAllBytes(Paths.get(pathTmpDir, "commits.json")), Charset.forName("UTF-8")));
+    }
+
+    @Test
+    public void testProjectFieldsFromJSONFileFailureKeepsPreviousFile() throws IOException {
+        RawDataFilter rawDataFilter = new RawDataFilter();
+        Files.write(Paths.get(pathTmpDir, "commits-projected.json"), "{\"items\":[],\"total_count\":0}".getBytes(Charset.forName("UTF-8")));
+        Files.write(Paths.get(pathTmpDir, "commits-malformed.json"), "{\"items\":[{\"sha\":\"a1\"},{\"sha\":".getBytes(Charset.forName("UTF-8")));
+        List<String> fieldPaths = new ArrayList<>();
+        fieldPaths.add("sha");
+
+        assertThrows(IOException.class, () -> rawDataFilter.projectFieldsFromJSONFile(pathTmpDir + "/commits-malformed.json", fieldPaths, pathTmpDir, "commits-projected.json"));
+        assertEquals("{\"items\":[],\"total_count\":0}", new String(Files.readAllBytes(Paths.get(pathTmpDir, "commits-projected.json")), Charset.forName("UTF-8")));
+        //the temporary file has been deleted
+        assertEquals(2, new File(pathTmpDir).listFiles().length);
+    }
+
+    @Test
+    public void testProjectFieldsFromJSONFileMalformedPath() {
+        RawDataFilter rawDataFilter = new RawDataFilter();
+        List<String> fieldPaths = new ArrayList<>();
+        fieldPaths.add("commit..date");
+
+        assertThrows(IllegalArgumentException.class, () -> rawDataFilter.projectFieldsFromJSONFile(pathToJsonFileTestRawData, fieldPaths, pathTmpDir, "projected.json"));
+        assertThrows(IllegalArgumentException.class, () -> rawDataFilter.projectFieldsFromJSONFile(pathToJsonFileTestRawData, new ArrayList<>(), pathTmpDir, "projected.json"));
+    }
+
     @Test
     public void testDeleteDuplicateEntriesJSONObject(){
         RawDataFilter rawDataFilter = new RawDataFilter();
@@ -111,6 +243,26 @@ public class RawDataFilterTest {
         assertEquals(jsonObjectExpected.toString(2),jsonObjectToClean.toString(2));
     }
 
+    @Test
+    public void testDeleteDuplicateEntriesFromJSONFile() throws IOException, URISyntaxException {
+        RawDataFilter rawDataFilter = new RawDataFilter();
+        Files.write(Paths.get(pathTmpDir, "issues-with-duplicates.ndjson"),
+                ("{\"id\":1,\"title\":\"a\",\"score\":1.50}\n{\"title\":\"a\",\"id\":1,\"score\":1.50}\n"
+                        + "{\"id\":1,\"title\":\"a (edited)\",\"score\":1.50}\n{\"id\":2,\"title\":\"b\"}\n").getBytes(Charset.forName("UTF-8")));
+
+        assertEquals(3, rawDataFilter.deleteDuplicateEntriesFromJSONFile(pathTmpDir + "/issues-with-duplicates.ndjson",
+                DuplicateFilter.KeyStrategy.CONTENT, pathTmpDir, "issues-distinct-content.ndjson"));
+        assertEquals("{\"id\":1,\"title\":\"a\",\"score\":1.50}\n{\"id\":1,\"title\":\"a (edited)\",\"score\":1.50}\n{\"id\":2,\"title\":\"b\"}\n",
+                new String(Files.readAllBytes(Paths.get(pathTmpDir, "issues-distinct-content.ndjson")), Charset.forName("UTF-8")));
+
+        assertEquals(2, rawDataFilter.deleteDuplicateEntriesFromJSONFile(pathTmpDir + "/issues-with-duplicates.ndjson",
+                DuplicateFilter.KeyStrategy.IDENTIFIER, pathTmpDir, "issues-distinct-id.json"));
+        JSONObject jsonObjectActual = new FileReaderJSON().readJSONFile(pathTmpDir + "/issues-distinct-id.json");
+        assertEquals(2, jsonObjectActual.getInt("total_count"));
+        assertEquals("a", jsonObjectActual.getJSONArray("items").getJSONObject(0).getString("title"));
+        assertEquals("b", jsonObjectActual.getJSONArray("items").getJSONObject(1).getString("title"));
+    }
+
     @Test
     public void testDeleteDuplicateEntriesJSONObjectWithoutItems(){
         RawDataFilter rawDataFilter = new RawDataFilter();